@@ -6,6 +6,7 @@ import com.bumptech.glide.benchmark.GlideBenchmarkRule.BeforeStep;
 import com.bumptech.glide.benchmark.GlideBenchmarkRule.LoadStep;
 import com.bumptech.glide.benchmark.data.DataOpener;
 import com.bumptech.glide.benchmark.data.DataOpener.ByteArrayBufferOpener;
+import com.bumptech.glide.benchmark.data.DataOpener.MemoryMappedByteBufferOpener;
 import com.bumptech.glide.benchmark.data.DataOpener.ParcelFileDescriptorOpener;
 import com.bumptech.glide.benchmark.data.DataOpener.StreamOpener;
 import com.bumptech.glide.testutil.MockModelLoader;
@@ -40,6 +41,16 @@ public class BenchmarkData {
     benchmarkData(new ByteArrayBufferOpener(), hugeHeaderResourceId);
   }
 
+  @Test
+  public void smallAsMemoryMappedBuffer() throws Exception {
+    benchmarkData(new MemoryMappedByteBufferOpener(), smallResourceId);
+  }
+
+  @Test
+  public void hugeHeaderAsMemoryMappedBuffer() throws Exception {
+    benchmarkData(new MemoryMappedByteBufferOpener(), hugeHeaderResourceId);
+  }
+
   @Test
   public void smallAsFileDescriptor() throws Exception {
     benchmarkData(new ParcelFileDescriptorOpener(), smallResourceId);
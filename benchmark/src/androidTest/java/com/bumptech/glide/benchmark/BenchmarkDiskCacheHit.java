@@ -0,0 +1,168 @@
+package com.bumptech.glide.benchmark;
+
+import android.app.Application;
+import android.graphics.Bitmap;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RawRes;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.load.engine.cache.DiskLruCacheFactory;
+import com.bumptech.glide.load.engine.cache.DiskLruCacheFactory.CacheDirectoryGetter;
+import com.bumptech.glide.load.engine.cache.PackedDiskCache;
+import com.bumptech.glide.load.engine.cache.PackedDiskCacheFactory;
+import com.bumptech.glide.request.FutureTarget;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+import com.bumptech.glide.testutil.ConcurrencyHelper;
+import com.bumptech.glide.testutil.TearDownGlide;
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Compares decoding the original data from the disk cache when it's kept in a file per entry with
+ * decoding it from a memory mapping of the segment it's packed in by {@link PackedDiskCache}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BenchmarkDiskCacheHit {
+  private final ConcurrencyHelper concurrencyHelper = new ConcurrencyHelper();
+  @Rule public final TearDownGlide tearDownGlide = new TearDownGlide();
+  @Rule public final BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+  private final Application app = ApplicationProvider.getApplicationContext();
+
+  @Test
+  public void small_fromFile() throws Exception {
+    runBenchmark(
+        new DiskLruCacheFactory(
+            getCacheDirectory("benchmark_file_cache").getPath(),
+            DiskCache.Factory.DEFAULT_DISK_CACHE_SIZE),
+        R.raw.small);
+  }
+
+  @Test
+  public void small_fromPackedBuffer() throws Exception {
+    runBenchmark(
+        new PackedDiskCacheFactory(
+            new CacheDirectoryGetter() {
+              @Override
+              public File getCacheDirectory() {
+                return BenchmarkDiskCacheHit.this.getCacheDirectory("benchmark_packed_cache");
+              }
+            },
+            DiskCache.Factory.DEFAULT_DISK_CACHE_SIZE,
+            PackedDiskCache.DEFAULT_MAX_PACKED_ENTRY_SIZE),
+        R.raw.small);
+  }
+
+  private File getCacheDirectory(String name) {
+    return new File(app.getCacheDir(), name);
+  }
+
+  private void runBenchmark(DiskCache.Factory diskCacheFactory, @RawRes int resourceId)
+      throws Exception {
+    Glide.init(app, new GlideBuilder().setDiskCache(diskCacheFactory));
+    BenchmarkState state = benchmarkRule.getState();
+    state.pauseTiming();
+    clearDiskCache();
+    // Writes to the disk cache happen asynchronously after a request completes, so wait until
+    // loads come from the disk cache before timing them.
+    try {
+      while (true) {
+        loadImageWithExpectedDataSource(
+            state, resourceId, DataSource.LOCAL, /* isAlreadyPaused= */ true);
+      }
+    } catch (IllegalStateException e) {
+      // Now that we're no longer getting LOCAL as our data source, it's safe to proceed.
+    }
+    state.resumeTiming();
+
+    while (state.keepRunning()) {
+      state.pauseTiming();
+      clearMemoryCache();
+      state.resumeTiming();
+
+      loadImageWithExpectedDataSource(
+          state, resourceId, DataSource.DATA_DISK_CACHE, /* isAlreadyPaused= */ false);
+    }
+  }
+
+  private void loadImageWithExpectedDataSource(
+      BenchmarkState state,
+      @RawRes int resourceId,
+      DataSource expectedDataSource,
+      boolean isAlreadyPaused)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    final AtomicReference<DataSource> dataSourceRef = new AtomicReference<>();
+    FutureTarget<Bitmap> target =
+        Glide.with(app)
+            .asBitmap()
+            .diskCacheStrategy(DiskCacheStrategy.DATA)
+            .skipMemoryCache(true)
+            .load(resourceId)
+            .listener(
+                new RequestListener<Bitmap>() {
+                  @Override
+                  public boolean onLoadFailed(
+                      @Nullable GlideException e,
+                      Object model,
+                      @NonNull Target<Bitmap> target,
+                      boolean isFirstResource) {
+                    return false;
+                  }
+
+                  @Override
+                  public boolean onResourceReady(
+                      @NonNull Bitmap resource,
+                      @NonNull Object model,
+                      Target<Bitmap> target,
+                      @NonNull DataSource dataSource,
+                      boolean isFirstResource) {
+                    dataSourceRef.set(dataSource);
+                    return false;
+                  }
+                })
+            .submit();
+    target.get(15, TimeUnit.SECONDS);
+
+    if (!isAlreadyPaused) {
+      state.pauseTiming();
+    }
+
+    Preconditions.checkState(dataSourceRef.get() == expectedDataSource, dataSourceRef.get());
+    Glide.with(app).clear(target);
+
+    if (!isAlreadyPaused) {
+      state.resumeTiming();
+    }
+  }
+
+  private void clearDiskCache() {
+    Glide.get(app).clearDiskCache();
+  }
+
+  private void clearMemoryCache() {
+    concurrencyHelper.runOnMainThread(
+        new Runnable() {
+          @Override
+          public void run() {
+            Glide.get(app).clearMemory();
+          }
+        });
+  }
+}
@@ -0,0 +1,187 @@
+package com.bumptech.glide.load.engine;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.Transformation;
+import com.bumptech.glide.load.engine.cache.DiskCacheAdapter;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.executor.GlideExecutor;
+import com.bumptech.glide.load.resource.SimpleResource;
+import com.bumptech.glide.request.ResourceCallback;
+import com.bumptech.glide.signature.EmptySignature;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Measures the throughput of memory cache hits in {@link Engine#load} as the number of threads
+ * calling the {@link Engine} increases.
+ *
+ * <p>Each thread performs the same number of loads per iteration, so if loads from different
+ * threads don't contend, the time per iteration should stay roughly constant as the thread count
+ * grows.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BenchmarkEngineContention {
+  private static final int KEY_COUNT = 256;
+  private static final int LOADS_PER_THREAD = 1000;
+  private static final int SIZE = 100;
+
+  @Rule public final BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+  private final Map<Class<?>, Transformation<?>> transformations = Collections.emptyMap();
+  private final Options options = new Options();
+  private final Object[] models = new Object[KEY_COUNT];
+  private final ResourceCallback cb = new NoOpResourceCallback();
+  private Engine engine;
+
+  @Before
+  public void setUp() {
+    LruResourceCache memoryCache = new LruResourceCache(KEY_COUNT);
+    engine =
+        new Engine(
+            memoryCache,
+            new DiskCacheAdapter.Factory(),
+            GlideExecutor.newDiskCacheExecutor(),
+            GlideExecutor.newSourceExecutor(),
+            GlideExecutor.newUnlimitedSourceExecutor(),
+            GlideExecutor.newAnimationExecutor(),
+            /* isActiveResourceRetentionAllowed= */ false);
+
+    EngineKeyFactory keyFactory = new EngineKeyFactory();
+    for (int i = 0; i < KEY_COUNT; i++) {
+      models[i] = "model" + i;
+      EngineKey key =
+          keyFactory.buildKey(
+              models[i],
+              EmptySignature.obtain(),
+              SIZE,
+              SIZE,
+              transformations,
+              Object.class,
+              Object.class,
+              options);
+      memoryCache.put(
+          key,
+          new EngineResource<>(
+              new SimpleResource<>(new Object()),
+              /* isMemoryCacheable= */ true,
+              /* isRecyclable= */ false,
+              key,
+              engine));
+    }
+    // Move every resource into active resources, which is where repeated hits are served from.
+    for (Object model : models) {
+      load(model);
+    }
+  }
+
+  @After
+  public void tearDown() {
+    engine.shutdown();
+  }
+
+  @Test
+  public void memoryHit_1Thread() throws Exception {
+    runBenchmark(1);
+  }
+
+  @Test
+  public void memoryHit_2Threads() throws Exception {
+    runBenchmark(2);
+  }
+
+  @Test
+  public void memoryHit_4Threads() throws Exception {
+    runBenchmark(4);
+  }
+
+  @Test
+  public void memoryHit_8Threads() throws Exception {
+    runBenchmark(8);
+  }
+
+  private void runBenchmark(int threadCount) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      List<Callable<Void>> tasks = new ArrayList<>(threadCount);
+      for (int i = 0; i < threadCount; i++) {
+        final int offset = i * (KEY_COUNT / threadCount);
+        tasks.add(
+            new Callable<Void>() {
+              @Override
+              public Void call() {
+                for (int j = 0; j < LOADS_PER_THREAD; j++) {
+                  load(models[(offset + j) % KEY_COUNT]);
+                }
+                return null;
+              }
+            });
+      }
+
+      BenchmarkState state = benchmarkRule.getState();
+      while (state.keepRunning()) {
+        for (Future<Void> future : executor.invokeAll(tasks)) {
+          future.get();
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private void load(Object model) {
+    Engine.LoadStatus status =
+        engine.load(
+            /* glideContext= */ null,
+            model,
+            EmptySignature.obtain(),
+            SIZE,
+            SIZE,
+            Object.class,
+            Object.class,
+            Priority.NORMAL,
+            DiskCacheStrategy.NONE,
+            transformations,
+            /* isTransformationRequired= */ false,
+            /* isScaleOnlyOrNoTransform= */ true,
+            options,
+            /* isMemoryCacheable= */ true,
+            /* useUnlimitedSourceExecutorPool= */ false,
+            /* useAnimationPool= */ false,
+            /* onlyRetrieveFromCache= */ true,
+            cb,
+            com.bumptech.glide.util.Executors.directExecutor());
+    if (status != null) {
+      throw new IllegalStateException("Expected a memory cache hit for: " + model);
+    }
+  }
+
+  private static final class NoOpResourceCallback implements ResourceCallback {
+    @Override
+    public void onResourceReady(
+        Resource<?> resource, DataSource dataSource, boolean isLoadedFromAlternateCacheKey) {}
+
+    @Override
+    public void onLoadFailed(GlideException e) {}
+
+    @Override
+    public Object getLock() {
+      return this;
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package com.bumptech.glide.load.engine.bitmap_recycle;
+
+import android.graphics.Bitmap;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Compares {@link LruBitmapPool} and {@link StripedBitmapPool} under the access pattern of
+ * concurrent decodes, each thread repeatedly getting a {@link Bitmap} of one of a handful of sizes
+ * and putting it back, from increasing numbers of threads.
+ *
+ * <p>Each thread performs the same number of operations per iteration, so if threads don't contend,
+ * the time per iteration should stay roughly constant as the thread count grows.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BenchmarkBitmapPoolContention {
+  private static final int[] SIZES = new int[] {64, 96, 128, 192, 256, 384};
+  private static final int OPERATIONS_PER_THREAD = 1000;
+  private static final long POOL_SIZE = 16 * 1024 * 1024;
+
+  @Rule public final BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+  @Test
+  public void lruBitmapPool_1Thread() throws Exception {
+    runBenchmark(new LruBitmapPool(POOL_SIZE), 1);
+  }
+
+  @Test
+  public void lruBitmapPool_4Threads() throws Exception {
+    runBenchmark(new LruBitmapPool(POOL_SIZE), 4);
+  }
+
+  @Test
+  public void lruBitmapPool_8Threads() throws Exception {
+    runBenchmark(new LruBitmapPool(POOL_SIZE), 8);
+  }
+
+  @Test
+  public void stripedBitmapPool_1Thread() throws Exception {
+    runBenchmark(new StripedBitmapPool(POOL_SIZE), 1);
+  }
+
+  @Test
+  public void stripedBitmapPool_4Threads() throws Exception {
+    runBenchmark(new StripedBitmapPool(POOL_SIZE), 4);
+  }
+
+  @Test
+  public void stripedBitmapPool_8Threads() throws Exception {
+    runBenchmark(new StripedBitmapPool(POOL_SIZE), 8);
+  }
+
+  private void runBenchmark(final BitmapPool pool, int threadCount) throws Exception {
+    // Pre-fill the pool so that the benchmark measures reuse rather than allocations.
+    for (int i = 0; i < threadCount; i++) {
+      for (int size : SIZES) {
+        pool.put(Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888));
+      }
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      List<Callable<Void>> tasks = new ArrayList<>(threadCount);
+      for (int i = 0; i < threadCount; i++) {
+        final int offset = i;
+        tasks.add(
+            new Callable<Void>() {
+              @Override
+              public Void call() {
+                for (int j = 0; j < OPERATIONS_PER_THREAD; j++) {
+                  int size = SIZES[(offset + j) % SIZES.length];
+                  pool.put(pool.getDirty(size, size, Bitmap.Config.ARGB_8888));
+                }
+                return null;
+              }
+            });
+      }
+
+      BenchmarkState state = benchmarkRule.getState();
+      while (state.keepRunning()) {
+        for (Future<Void> future : executor.invokeAll(tasks)) {
+          future.get();
+        }
+      }
+    } finally {
+      executor.shutdown();
+      pool.clearMemory();
+    }
+  }
+}
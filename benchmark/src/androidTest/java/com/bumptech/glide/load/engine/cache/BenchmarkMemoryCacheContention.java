@@ -0,0 +1,112 @@
+package com.bumptech.glide.load.engine.cache;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.load.resource.SimpleResource;
+import com.bumptech.glide.signature.ObjectKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Compares {@link LruResourceCache} and {@link ConcurrentLruResourceCache} under the access pattern
+ * {@link com.bumptech.glide.load.engine.Engine} uses, mostly misses with some hits that are removed
+ * and later put back, from increasing numbers of threads.
+ *
+ * <p>Each thread performs the same number of operations per iteration, so if threads don't contend,
+ * the time per iteration should stay roughly constant as the thread count grows.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BenchmarkMemoryCacheContention {
+  private static final int KEY_COUNT = 256;
+  private static final int OPERATIONS_PER_THREAD = 1000;
+  // One in this many operations is a hit, the rest are misses.
+  private static final int HIT_INTERVAL = 4;
+
+  @Rule public final BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+  private final Key[] cachedKeys = new Key[KEY_COUNT];
+  private final Key[] missingKeys = new Key[KEY_COUNT];
+
+  @Test
+  public void lruResourceCache_1Thread() throws Exception {
+    runBenchmark(new LruResourceCache(KEY_COUNT * 2), 1);
+  }
+
+  @Test
+  public void lruResourceCache_4Threads() throws Exception {
+    runBenchmark(new LruResourceCache(KEY_COUNT * 2), 4);
+  }
+
+  @Test
+  public void lruResourceCache_8Threads() throws Exception {
+    runBenchmark(new LruResourceCache(KEY_COUNT * 2), 8);
+  }
+
+  @Test
+  public void concurrentLruResourceCache_1Thread() throws Exception {
+    runBenchmark(new ConcurrentLruResourceCache(KEY_COUNT * 2), 1);
+  }
+
+  @Test
+  public void concurrentLruResourceCache_4Threads() throws Exception {
+    runBenchmark(new ConcurrentLruResourceCache(KEY_COUNT * 2), 4);
+  }
+
+  @Test
+  public void concurrentLruResourceCache_8Threads() throws Exception {
+    runBenchmark(new ConcurrentLruResourceCache(KEY_COUNT * 2), 8);
+  }
+
+  private void runBenchmark(final MemoryCache cache, int threadCount) throws Exception {
+    for (int i = 0; i < KEY_COUNT; i++) {
+      cachedKeys[i] = new ObjectKey("cached" + i);
+      missingKeys[i] = new ObjectKey("missing" + i);
+      cache.put(cachedKeys[i], new SimpleResource<>(new Object()));
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      List<Callable<Void>> tasks = new ArrayList<>(threadCount);
+      for (int i = 0; i < threadCount; i++) {
+        final int offset = i * (KEY_COUNT / threadCount);
+        tasks.add(
+            new Callable<Void>() {
+              @Override
+              public Void call() {
+                for (int j = 0; j < OPERATIONS_PER_THREAD; j++) {
+                  int index = (offset + j) % KEY_COUNT;
+                  if (j % HIT_INTERVAL == 0) {
+                    Resource<?> resource = cache.remove(cachedKeys[index]);
+                    if (resource != null) {
+                      cache.put(cachedKeys[index], resource);
+                    }
+                  } else {
+                    cache.remove(missingKeys[index]);
+                  }
+                }
+                return null;
+              }
+            });
+      }
+
+      BenchmarkState state = benchmarkRule.getState();
+      while (state.keepRunning()) {
+        for (Future<Void> future : executor.invokeAll(tasks)) {
+          future.get();
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package com.bumptech.glide.load.engine.cache;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.signature.ObjectKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Compares the cost of generating SHA-256 and fast MurmurHash3 safe keys with {@link
+ * SafeKeyGenerator}.
+ *
+ * <p>Hits look up a small set of keys that are always remembered by the generator, from one and
+ * from several threads. Misses cycle through more keys than either generator remembers, so every
+ * key has to be hashed.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BenchmarkSafeKeyGenerator {
+  private static final int HIT_KEY_COUNT = 256;
+  private static final int MISS_KEY_COUNT = 10000;
+  private static final int OPERATIONS_PER_THREAD = 1000;
+
+  @Rule public final BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+  @Test
+  public void sha256_hits_1Thread() throws Exception {
+    runBenchmark(new SafeKeyGenerator(/* useFastKeys= */ false), HIT_KEY_COUNT, 1);
+  }
+
+  @Test
+  public void sha256_hits_4Threads() throws Exception {
+    runBenchmark(new SafeKeyGenerator(/* useFastKeys= */ false), HIT_KEY_COUNT, 4);
+  }
+
+  @Test
+  public void sha256_misses_1Thread() throws Exception {
+    runBenchmark(new SafeKeyGenerator(/* useFastKeys= */ false), MISS_KEY_COUNT, 1);
+  }
+
+  @Test
+  public void murmur3_hits_1Thread() throws Exception {
+    runBenchmark(new SafeKeyGenerator(/* useFastKeys= */ true), HIT_KEY_COUNT, 1);
+  }
+
+  @Test
+  public void murmur3_hits_4Threads() throws Exception {
+    runBenchmark(new SafeKeyGenerator(/* useFastKeys= */ true), HIT_KEY_COUNT, 4);
+  }
+
+  @Test
+  public void murmur3_misses_1Thread() throws Exception {
+    runBenchmark(new SafeKeyGenerator(/* useFastKeys= */ true), MISS_KEY_COUNT, 1);
+  }
+
+  private void runBenchmark(final SafeKeyGenerator generator, final int keyCount, int threadCount)
+      throws Exception {
+    final Key[] keys = new Key[keyCount];
+    for (int i = 0; i < keyCount; i++) {
+      keys[i] = new ObjectKey("https://www.example.com/images/" + i + ".jpg?w=1024&h=768");
+      generator.getSafeKey(keys[i]);
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      List<Callable<Void>> tasks = new ArrayList<>(threadCount);
+      for (int i = 0; i < threadCount; i++) {
+        final int offset = i * (keyCount / threadCount);
+        tasks.add(
+            new Callable<Void>() {
+              private int next = offset;
+
+              @Override
+              public Void call() {
+                for (int j = 0; j < OPERATIONS_PER_THREAD; j++) {
+                  generator.getSafeKey(keys[next]);
+                  next = (next + 1) % keyCount;
+                }
+                return null;
+              }
+            });
+      }
+
+      BenchmarkState state = benchmarkRule.getState();
+      while (state.keepRunning()) {
+        for (Future<Void> future : executor.invokeAll(tasks)) {
+          future.get();
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -12,6 +12,7 @@ import com.bumptech.glide.util.ByteBufferUtil;
 import com.bumptech.glide.util.Preconditions;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.List;
 import javax.annotation.Nullable;
 
@@ -36,7 +37,13 @@ public final class AvifStreamBitmapDecoder implements ResourceDecoder<InputStrea
   @Nullable
   public Resource<Bitmap> decode(InputStream source, int width, int height, Options options)
       throws IOException {
-    return avifByteBufferDecoder.decode(ByteBufferUtil.fromStream(source), width, height, options);
+    ByteBuffer buffer = ByteBufferUtil.fromStream(source, arrayPool);
+    try {
+      // The buffer is only read while decoding, so it can be reused once the Bitmap is decoded.
+      return avifByteBufferDecoder.decode(buffer, width, height, options);
+    } finally {
+      arrayPool.put(buffer);
+    }
   }
 
   @Override
@@ -1,5 +1,7 @@
 package com.bumptech.glide.integration.cronet;
 
+import androidx.annotation.Nullable;
+import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
 import java.nio.ByteBuffer;
 import java.util.ArrayDeque;
 import java.util.List;
@@ -16,10 +18,19 @@ final class BufferQueue {
   public static final String CONTENT_LENGTH = "content-length";
   public static final String CONTENT_ENCODING = "content-encoding";
   private final Queue<ByteBuffer> buffers;
+  @Nullable private final ArrayPool arrayPool;
   private final AtomicBoolean isCoalesced = new AtomicBoolean(false);
 
   public static Builder builder() {
-    return new Builder();
+    return new Builder(/* arrayPool= */ null);
+  }
+
+  /**
+   * Returns a {@link Builder} that obtains the buffers after the first from the given pool and
+   * returns them once they've been coalesced.
+   */
+  public static Builder builder(@Nullable ArrayPool arrayPool) {
+    return new Builder(arrayPool);
   }
 
   /**
@@ -32,10 +43,13 @@ final class BufferQueue {
    * request.read(builder.getNextBuffer(buffer)); } }
    */
   public static final class Builder {
+    @Nullable private final ArrayPool arrayPool;
     private ArrayDeque<ByteBuffer> buffers = new ArrayDeque<>();
     private RuntimeException whenClosed;
 
-    private Builder() {}
+    private Builder(@Nullable ArrayPool arrayPool) {
+      this.arrayPool = arrayPool;
+    }
 
     /** Returns the next buffer to write data into. */
     public ByteBuffer getNextBuffer(ByteBuffer lastBuffer) {
@@ -47,6 +61,8 @@ final class BufferQueue {
       }
       if (lastBuffer.hasRemaining()) {
         return lastBuffer;
+      } else if (arrayPool != null) {
+        return arrayPool.get(8096, ByteBuffer.class);
       } else {
         return ByteBuffer.allocateDirect(8096);
       }
@@ -94,12 +110,13 @@ final class BufferQueue {
       whenClosed = new RuntimeException();
       final ArrayDeque<ByteBuffer> buffers = this.buffers;
       this.buffers = null;
-      return new BufferQueue(buffers);
+      return new BufferQueue(buffers, arrayPool);
     }
   }
 
-  private BufferQueue(Queue<ByteBuffer> buffers) {
+  private BufferQueue(Queue<ByteBuffer> buffers, @Nullable ArrayPool arrayPool) {
     this.buffers = buffers;
+    this.arrayPool = arrayPool;
     for (ByteBuffer buffer : this.buffers) {
       buffer.flip();
     }
@@ -119,7 +136,12 @@ final class BufferQueue {
       }
       ByteBuffer result = ByteBuffer.allocateDirect(size);
       while (!buffers.isEmpty()) {
-        result.put(buffers.remove());
+        ByteBuffer buffer = buffers.remove();
+        result.put(buffer);
+        // Only the coalesced buffer is handed out, so the others can be reused.
+        if (arrayPool != null) {
+          arrayPool.put(buffer);
+        }
       }
       result.flip();
       return result;
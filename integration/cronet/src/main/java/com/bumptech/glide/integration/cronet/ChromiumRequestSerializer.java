@@ -4,6 +4,7 @@ import android.util.Log;
 import androidx.annotation.Nullable;
 import com.bumptech.glide.Priority;
 import com.bumptech.glide.load.HttpException;
+import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
 import com.bumptech.glide.load.engine.executor.GlideExecutor;
 import com.bumptech.glide.load.engine.executor.GlideExecutor.UncaughtThrowableStrategy;
 import com.bumptech.glide.load.model.GlideUrl;
@@ -95,13 +96,23 @@ final class ChromiumRequestSerializer {
   private final Map<GlideUrl, Job> jobs = new HashMap<>();
   private final CronetRequestFactory requestFactory;
   @Nullable private final DataLogger dataLogger;
+  @Nullable private final ArrayPool arrayPool;
 
   ChromiumRequestSerializer(
       CronetRequestFactory requestFactory,
       @Nullable DataLogger dataLogger,
       @Nullable final GlideExecutor executor) {
+    this(requestFactory, dataLogger, executor, /* arrayPool= */ null);
+  }
+
+  ChromiumRequestSerializer(
+      CronetRequestFactory requestFactory,
+      @Nullable DataLogger dataLogger,
+      @Nullable final GlideExecutor executor,
+      @Nullable ArrayPool arrayPool) {
     this.requestFactory = requestFactory;
     this.dataLogger = dataLogger;
+    this.arrayPool = arrayPool;
     if (executor == null) {
       this.jobPool = new JobPool(GLIDE_EXECUTOR_SUPPLIER);
     } else {
@@ -240,7 +251,7 @@ final class ChromiumRequestSerializer {
     @Override
     public void onResponseStarted(UrlRequest request, UrlResponseInfo info) {
       responseStartTimeMs = System.currentTimeMillis();
-      builder = BufferQueue.builder();
+      builder = BufferQueue.builder(arrayPool);
       request.read(builder.getFirstBuffer(info));
     }
 
@@ -3,6 +3,7 @@ package com.bumptech.glide.integration.cronet;
 import androidx.annotation.Nullable;
 import com.bumptech.glide.load.Options;
 import com.bumptech.glide.load.data.DataFetcher;
+import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
 import com.bumptech.glide.load.engine.executor.GlideExecutor;
 import com.bumptech.glide.load.model.GlideUrl;
 import com.bumptech.glide.load.model.ModelLoader;
@@ -42,8 +43,18 @@ public final class ChromiumUrlLoader<T> implements ModelLoader<GlideUrl, T> {
       CronetRequestFactory requestFactory,
       @Nullable DataLogger dataLogger,
       @Nullable GlideExecutor executor) {
+    this(parser, requestFactory, dataLogger, executor, /* arrayPool= */ null);
+  }
+
+  ChromiumUrlLoader(
+      ByteBufferParser<T> parser,
+      CronetRequestFactory requestFactory,
+      @Nullable DataLogger dataLogger,
+      @Nullable GlideExecutor executor,
+      @Nullable ArrayPool arrayPool) {
     this.parser = parser;
-    requestSerializer = new ChromiumRequestSerializer(requestFactory, dataLogger, executor);
+    requestSerializer =
+        new ChromiumRequestSerializer(requestFactory, dataLogger, executor, arrayPool);
   }
 
   @Override
@@ -64,11 +75,10 @@ public final class ChromiumUrlLoader<T> implements ModelLoader<GlideUrl, T> {
     private CronetRequestFactory requestFactory;
     @Nullable private final DataLogger dataLogger;
     @Nullable private final GlideExecutor executor;
+    @Nullable private final ArrayPool arrayPool;
 
     public StreamFactory(CronetRequestFactory requestFactory, @Nullable DataLogger dataLogger) {
-      this.requestFactory = requestFactory;
-      this.dataLogger = dataLogger;
-      this.executor = null;
+      this(requestFactory, dataLogger, /* executor= */ null);
     }
 
     /**
@@ -78,14 +88,28 @@ public final class ChromiumUrlLoader<T> implements ModelLoader<GlideUrl, T> {
         CronetRequestFactory requestFactory,
         @Nullable DataLogger dataLogger,
         @Nullable GlideExecutor executor) {
+      this(requestFactory, dataLogger, executor, /* arrayPool= */ null);
+    }
+
+    /**
+     * @param executor See {@link ChromiumUrlLoader} for details.
+     * @param arrayPool If non-null, the pool to obtain direct buffers for response bodies from.
+     */
+    public StreamFactory(
+        CronetRequestFactory requestFactory,
+        @Nullable DataLogger dataLogger,
+        @Nullable GlideExecutor executor,
+        @Nullable ArrayPool arrayPool) {
       this.requestFactory = requestFactory;
       this.dataLogger = dataLogger;
       this.executor = executor;
+      this.arrayPool = arrayPool;
     }
 
     @Override
     public ModelLoader<GlideUrl, InputStream> build(MultiModelLoaderFactory multiFactory) {
-      return new ChromiumUrlLoader<>(/* parser= */ this, requestFactory, dataLogger, executor);
+      return new ChromiumUrlLoader<>(
+          /* parser= */ this, requestFactory, dataLogger, executor, arrayPool);
     }
 
     @Override
@@ -109,11 +133,10 @@ public final class ChromiumUrlLoader<T> implements ModelLoader<GlideUrl, T> {
     private CronetRequestFactory requestFactory;
     @Nullable private final DataLogger dataLogger;
     @Nullable private final GlideExecutor executor;
+    @Nullable private final ArrayPool arrayPool;
 
     public ByteBufferFactory(CronetRequestFactory requestFactory, @Nullable DataLogger dataLogger) {
-      this.requestFactory = requestFactory;
-      this.dataLogger = dataLogger;
-      this.executor = null;
+      this(requestFactory, dataLogger, /* executor= */ null);
     }
 
     /**
@@ -123,14 +146,28 @@ public final class ChromiumUrlLoader<T> implements ModelLoader<GlideUrl, T> {
         CronetRequestFactory requestFactory,
         @Nullable DataLogger dataLogger,
         @Nullable GlideExecutor executor) {
+      this(requestFactory, dataLogger, executor, /* arrayPool= */ null);
+    }
+
+    /**
+     * @param executor See {@link ChromiumUrlLoader} for details.
+     * @param arrayPool If non-null, the pool to obtain direct buffers for response bodies from.
+     */
+    public ByteBufferFactory(
+        CronetRequestFactory requestFactory,
+        @Nullable DataLogger dataLogger,
+        @Nullable GlideExecutor executor,
+        @Nullable ArrayPool arrayPool) {
       this.requestFactory = requestFactory;
       this.dataLogger = dataLogger;
       this.executor = executor;
+      this.arrayPool = arrayPool;
     }
 
     @Override
     public ModelLoader<GlideUrl, ByteBuffer> build(MultiModelLoaderFactory multiFactory) {
-      return new ChromiumUrlLoader<>(/* parser= */ this, requestFactory, dataLogger, executor);
+      return new ChromiumUrlLoader<>(
+          /* parser= */ this, requestFactory, dataLogger, executor, arrayPool);
     }
 
     @Override
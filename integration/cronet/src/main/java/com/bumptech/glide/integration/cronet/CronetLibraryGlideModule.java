@@ -7,6 +7,7 @@ import com.bumptech.glide.Registry;
 import com.bumptech.glide.annotation.GlideModule;
 import com.bumptech.glide.integration.cronet.ChromiumUrlLoader.ByteBufferFactory;
 import com.bumptech.glide.integration.cronet.ChromiumUrlLoader.StreamFactory;
+import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
 import com.bumptech.glide.load.model.GlideUrl;
 import com.bumptech.glide.module.LibraryGlideModule;
 import com.google.common.base.Supplier;
@@ -32,9 +33,14 @@ public final class CronetLibraryGlideModule extends LibraryGlideModule {
                 return CronetEngineSingleton.getSingleton(context);
               }
             });
+    ArrayPool arrayPool = glide.getArrayPool();
     registry.replace(
-        GlideUrl.class, InputStream.class, new StreamFactory(factory, null /* dataLogger */));
+        GlideUrl.class,
+        InputStream.class,
+        new StreamFactory(factory, null /* dataLogger */, /* executor= */ null, arrayPool));
     registry.prepend(
-        GlideUrl.class, ByteBuffer.class, new ByteBufferFactory(factory, null /* dataLogger */));
+        GlideUrl.class,
+        ByteBuffer.class,
+        new ByteBufferFactory(factory, null /* dataLogger */, /* executor= */ null, arrayPool));
   }
 }
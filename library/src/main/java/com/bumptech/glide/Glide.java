@@ -18,8 +18,11 @@ import com.bumptech.glide.load.DecodeFormat;
 import com.bumptech.glide.load.engine.Engine;
 import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
 import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.load.engine.cache.AdaptiveMemoryBudget;
+import com.bumptech.glide.load.engine.cache.EncodedMemoryCache;
 import com.bumptech.glide.load.engine.cache.MemoryCache;
 import com.bumptech.glide.load.engine.prefill.BitmapPreFiller;
+import com.bumptech.glide.load.engine.prefill.LearnedBitmapPreFill;
 import com.bumptech.glide.load.engine.prefill.PreFillType;
 import com.bumptech.glide.load.engine.prefill.PreFillType.Builder;
 import com.bumptech.glide.load.resource.bitmap.Downsampler;
@@ -35,6 +38,7 @@ import com.bumptech.glide.request.target.ImageViewTargetFactory;
 import com.bumptech.glide.request.target.Target;
 import com.bumptech.glide.util.GlideSuppliers.GlideSupplier;
 import com.bumptech.glide.util.Preconditions;
+import com.bumptech.glide.util.Synthetic;
 import com.bumptech.glide.util.Util;
 import java.io.File;
 import java.lang.reflect.InvocationTargetException;
@@ -66,8 +70,13 @@ public class Glide implements ComponentCallbacks2 {
   private final Engine engine;
   private final BitmapPool bitmapPool;
   private final MemoryCache memoryCache;
+  @Nullable private final EncodedMemoryCache encodedMemoryCache;
+  @Nullable private final File warmStartManifest;
+  private final long warmStartSize;
   private final GlideContext glideContext;
   private final ArrayPool arrayPool;
+  @Nullable private final AdaptiveMemoryBudget memoryBudget;
+  @Nullable private final LearnedBitmapPreFill learnedPreFill;
   private final RequestManagerRetriever requestManagerRetriever;
   private final ConnectivityMonitorFactory connectivityMonitorFactory;
 
@@ -208,6 +217,9 @@ public class Glide implements ComponentCallbacks2 {
       if (glide != null) {
         glide.getContext().getApplicationContext().unregisterComponentCallbacks(glide);
         glide.engine.shutdown();
+        if (glide.memoryBudget != null) {
+          glide.memoryBudget.stop();
+        }
       }
       glide = null;
     }
@@ -315,8 +327,13 @@ public class Glide implements ComponentCallbacks2 {
       @NonNull Context context,
       @NonNull Engine engine,
       @NonNull MemoryCache memoryCache,
+      @Nullable EncodedMemoryCache encodedMemoryCache,
+      @Nullable File warmStartManifest,
+      long warmStartSize,
       @NonNull BitmapPool bitmapPool,
       @NonNull ArrayPool arrayPool,
+      @Nullable AdaptiveMemoryBudget memoryBudget,
+      @Nullable LearnedBitmapPreFill learnedPreFill,
       @NonNull RequestManagerRetriever requestManagerRetriever,
       @NonNull ConnectivityMonitorFactory connectivityMonitorFactory,
       int logLevel,
@@ -329,7 +346,12 @@ public class Glide implements ComponentCallbacks2 {
     this.engine = engine;
     this.bitmapPool = bitmapPool;
     this.arrayPool = arrayPool;
+    this.memoryBudget = memoryBudget;
+    this.learnedPreFill = learnedPreFill;
     this.memoryCache = memoryCache;
+    this.encodedMemoryCache = encodedMemoryCache;
+    this.warmStartManifest = warmStartManifest;
+    this.warmStartSize = warmStartSize;
     this.requestManagerRetriever = requestManagerRetriever;
     this.connectivityMonitorFactory = connectivityMonitorFactory;
     this.defaultRequestOptionsFactory = defaultRequestOptionsFactory;
@@ -354,6 +376,22 @@ public class Glide implements ComponentCallbacks2 {
             engine,
             experiments,
             logLevel);
+
+    if (warmStartManifest != null) {
+      engine.startWarmStart(warmStartManifest, warmStartSize);
+    }
+    if (memoryBudget != null) {
+      memoryBudget.start();
+    }
+    if (learnedPreFill != null) {
+      learnedPreFill.start(
+          new LearnedBitmapPreFill.Callback() {
+            @Override
+            public void onPreFill(@NonNull PreFillType.Builder... builders) {
+              preFillLearnedShapes(builders);
+            }
+          });
+    }
   }
 
   /**
@@ -427,12 +465,26 @@ public class Glide implements ComponentCallbacks2 {
     if (bitmapPreFiller == null) {
       DecodeFormat decodeFormat =
           defaultRequestOptionsFactory.build().getOptions().get(Downsampler.DECODE_FORMAT);
-      bitmapPreFiller = new BitmapPreFiller(memoryCache, bitmapPool, decodeFormat);
+      // Pre-filling shouldn't be mistaken for requests made by the application.
+      BitmapPool preFillPool =
+          learnedPreFill != null ? learnedPreFill.getBitmapPool() : bitmapPool;
+      bitmapPreFiller = new BitmapPreFiller(memoryCache, preFillPool, decodeFormat);
     }
 
     bitmapPreFiller.preFill(bitmapAttributeBuilders);
   }
 
+  /**
+   * Pre-fills the {@link BitmapPool} with the shapes learned in previous processes, unless the
+   * application has already started its own pre-fill.
+   */
+  @Synthetic
+  synchronized void preFillLearnedShapes(@NonNull PreFillType.Builder... builders) {
+    if (bitmapPreFiller == null) {
+      preFillBitmapPool(builders);
+    }
+  }
+
   /**
    * Clears as much memory as possible.
    *
@@ -446,6 +498,9 @@ public class Glide implements ComponentCallbacks2 {
     memoryCache.clearMemory();
     bitmapPool.clearMemory();
     arrayPool.clearMemory();
+    if (encodedMemoryCache != null) {
+      encodedMemoryCache.clearMemory();
+    }
   }
 
   /**
@@ -467,6 +522,16 @@ public class Glide implements ComponentCallbacks2 {
     memoryCache.trimMemory(level);
     bitmapPool.trimMemory(level);
     arrayPool.trimMemory(level);
+    if (learnedPreFill != null && level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+      learnedPreFill.persist();
+    }
+    if (encodedMemoryCache != null) {
+      // The app may be killed any time after it's hidden, so record what's hot before trimming.
+      if (warmStartManifest != null && level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+        engine.persistWarmStartManifest(warmStartManifest, warmStartSize);
+      }
+      encodedMemoryCache.trimMemory(level);
+    }
   }
 
   /**
@@ -504,9 +569,18 @@ public class Glide implements ComponentCallbacks2 {
   public MemoryCategory setMemoryCategory(@NonNull MemoryCategory memoryCategory) {
     // Engine asserts this anyway when removing resources, fail faster and consistently
     Util.assertMainThread();
-    // memory cache needs to be trimmed before bitmap pool to trim re-pooled Bitmaps too. See #687.
-    memoryCache.setSizeMultiplier(memoryCategory.getMultiplier());
-    bitmapPool.setSizeMultiplier(memoryCategory.getMultiplier());
+    if (memoryBudget != null) {
+      // The budget scales its current sizes, which may differ from the initial sizes.
+      memoryBudget.setSizeMultiplier(memoryCategory.getMultiplier());
+    } else {
+      // memory cache needs to be trimmed before bitmap pool to trim re-pooled Bitmaps too.
+      // See #687.
+      memoryCache.setSizeMultiplier(memoryCategory.getMultiplier());
+      bitmapPool.setSizeMultiplier(memoryCategory.getMultiplier());
+    }
+    if (encodedMemoryCache != null) {
+      encodedMemoryCache.setSizeMultiplier(memoryCategory.getMultiplier());
+    }
     MemoryCategory oldCategory = this.memoryCategory;
     this.memoryCategory = memoryCategory;
     return oldCategory;
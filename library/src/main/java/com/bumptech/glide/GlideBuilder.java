@@ -15,14 +15,26 @@ import com.bumptech.glide.load.engine.GlideException;
 import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
 import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
 import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPoolAdapter;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPoolStats;
+import com.bumptech.glide.load.engine.bitmap_recycle.DebugBitmapPool;
 import com.bumptech.glide.load.engine.bitmap_recycle.LruArrayPool;
 import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.MagazineArrayPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.StripedBitmapPool;
+import com.bumptech.glide.load.engine.cache.AdaptiveMemoryBudget;
+import com.bumptech.glide.load.engine.cache.ConcurrentLruResourceCache;
 import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.load.engine.cache.EncodedMemoryCache;
 import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
 import com.bumptech.glide.load.engine.cache.LruResourceCache;
 import com.bumptech.glide.load.engine.cache.MemoryCache;
+import com.bumptech.glide.load.engine.cache.MemoryCacheStats;
 import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.load.engine.cache.WriteBehindDiskCacheFactory;
 import com.bumptech.glide.load.engine.executor.GlideExecutor;
+import com.bumptech.glide.load.engine.prefill.LearnedBitmapPreFill;
+import com.bumptech.glide.metrics.Gauge;
+import com.bumptech.glide.metrics.GlideMetrics;
 import com.bumptech.glide.manager.ConnectivityMonitorFactory;
 import com.bumptech.glide.manager.DefaultConnectivityMonitorFactory;
 import com.bumptech.glide.manager.RequestManagerRetriever;
@@ -33,7 +45,9 @@ import com.bumptech.glide.request.BaseRequestOptions;
 import com.bumptech.glide.request.RequestListener;
 import com.bumptech.glide.request.RequestOptions;
 import com.bumptech.glide.request.target.Target;
+import com.bumptech.glide.util.EvictionPolicy;
 import com.bumptech.glide.util.Preconditions;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -42,12 +56,16 @@ import java.util.Map;
 /** A builder class for setting default structural classes for Glide to use. */
 @SuppressWarnings("PMD.ImmutableField")
 public final class GlideBuilder {
+  private static final String WARM_START_MANIFEST_NAME = "glide_warm_start_manifest";
+  private static final String PRE_FILL_MANIFEST_NAME = "glide_pre_fill_manifest";
   private final Map<Class<?>, TransitionOptions<?, ?>> defaultTransitionOptions = new ArrayMap<>();
   private final GlideExperiments.Builder glideExperimentsBuilder = new GlideExperiments.Builder();
   private Engine engine;
   private BitmapPool bitmapPool;
   private ArrayPool arrayPool;
   private MemoryCache memoryCache;
+  private EncodedMemoryCache encodedMemoryCache;
+  private long warmStartSize;
   private GlideExecutor sourceExecutor;
   private GlideExecutor diskCacheExecutor;
   private DiskCache.Factory diskCacheFactory;
@@ -65,6 +83,18 @@ public final class GlideBuilder {
   @Nullable private RequestManagerFactory requestManagerFactory;
   private GlideExecutor animationExecutor;
   private boolean isActiveResourceRetentionAllowed;
+  private boolean isConcurrentMemoryCacheEnabled;
+  private boolean isStripedBitmapPoolEnabled;
+  private boolean isAdaptiveMemoryBudgetEnabled;
+  private boolean isArrayPoolMagazinesEnabled;
+  private boolean isLearnedBitmapPreFillEnabled;
+  private boolean isDebugBitmapPoolEnabled;
+  private boolean isBinaryDiskCacheJournalEnabled;
+  private boolean isDiskCacheJournalGroupCommitEnabled;
+  private long diskCacheWriteBehindSize;
+  private boolean isSizeTolerantMemoryCacheEnabled;
+  @Nullable private GlideMetrics metrics;
+  private EvictionPolicy memoryCacheEvictionPolicy = EvictionPolicy.LRU;
   @Nullable private List<RequestListener<Object>> defaultRequestListeners;
 
   /**
@@ -108,6 +138,349 @@ public final class GlideBuilder {
     return this;
   }
 
+  /**
+   * Sets an {@link EncodedMemoryCache} that keeps the encoded bytes of recently read {@link
+   * DiskCache} entries in memory so that they can be decoded again without reading from disk.
+   *
+   * <p>Encoded images are much smaller than decoded {@link Bitmap}s, so this cache can hold many
+   * more images per byte than the {@link MemoryCache}. The cache is empty by default, in which case
+   * entries are always read from the {@link DiskCache}.
+   *
+   * <p>This is an experimental API that may be removed in the future.
+   *
+   * @param encodedMemoryCache The cache to use, or {@code null} to disable.
+   * @return This builder.
+   */
+  // Public API.
+  @SuppressWarnings("unused")
+  @NonNull
+  public GlideBuilder setEncodedMemoryCache(@Nullable EncodedMemoryCache encodedMemoryCache) {
+    this.encodedMemoryCache = encodedMemoryCache;
+    return this;
+  }
+
+  /**
+   * Sets the maximum number of bytes of encoded images to read into the {@link
+   * EncodedMemoryCache} from the {@link DiskCache} when Glide is initialized, or {@code 0} to
+   * disable warm starts (the default).
+   *
+   * <p>When enabled, the keys of the most recently used entries in the {@link EncodedMemoryCache}
+   * are written to a small manifest in the application's cache directory when the application's UI
+   * is hidden. The next time Glide is initialized, the listed entries are read back from the {@link
+   * DiskCache} in the background so that the first images the application shows are likely to be
+   * decoded from memory. Has no effect unless {@link #setEncodedMemoryCache(EncodedMemoryCache)} is
+   * also used.
+   *
+   * <p>This is an experimental API that may be removed in the future.
+   *
+   * @param warmStartSize The maximum number of bytes to read, or {@code 0} to disable.
+   * @return This builder.
+   */
+  // Public API.
+  @SuppressWarnings("unused")
+  @NonNull
+  public GlideBuilder setEncodedMemoryCacheWarmStartSize(long warmStartSize) {
+    this.warmStartSize = warmStartSize;
+    return this;
+  }
+
+  /**
+   * Set to {@code true} to use a {@link ConcurrentLruResourceCache} instead of a {@link
+   * LruResourceCache} as the default {@link MemoryCache}.
+   *
+   * <p>{@link ConcurrentLruResourceCache} allows concurrent reads and cache misses at the cost of
+   * only approximating LRU eviction order. This has no effect if a {@link MemoryCache} is provided
+   * via {@link #setMemoryCache(MemoryCache)}.
+   *
+   * <p>This is an experimental API that may be removed in the future.
+   *
+   * @return This builder.
+   */
+  // Public API.
+  @SuppressWarnings("unused")
+  @NonNull
+  public GlideBuilder setConcurrentMemoryCacheEnabled(boolean isEnabled) {
+    this.isConcurrentMemoryCacheEnabled = isEnabled;
+    return this;
+  }
+
+  /**
+   * Sets the {@link EvictionPolicy} used by the default {@link MemoryCache}.
+   *
+   * <p>Policies other than {@link EvictionPolicy#LRU} are only supported by {@link
+   * ConcurrentLruResourceCache}, so setting one implies {@link
+   * #setConcurrentMemoryCacheEnabled(boolean)}. This has no effect if a {@link MemoryCache} is
+   * provided via {@link #setMemoryCache(MemoryCache)}.
+   *
+   * <p>{@link EvictionPolicy#WINDOW_TINY_LFU} can substantially improve the memory cache hit rate
+   * when a small set of images, like avatars or icons, is shown repeatedly alongside a large
+   * number of images that are only shown once.
+   *
+   * <p>This is an experimental API that may be removed in the future.
+   *
+   * @return This builder.
+   */
+  // Public API.
+  @SuppressWarnings("unused")
+  @NonNull
+  public GlideBuilder setMemoryCacheEvictionPolicy(@NonNull EvictionPolicy policy) {
+    this.memoryCacheEvictionPolicy = Preconditions.checkNotNull(policy);
+    return this;
+  }
+
+  /**
+   * Set to {@code true} to allow loads that miss in memory to be satisfied by a resource in
+   * memory that was loaded for the same model, signature, options and transformations at a larger
+   * size with the same aspect ratio.
+   *
+   * <p>For example, a 100x100 avatar can be shown using a resident 200x200 copy of the same image
+   * rather than decoding it again from disk. The larger resource is returned as is and scaled
+   * when it's drawn, so this trades some extra work at draw time for avoiding a disk read and
+   * decode. Requests satisfied this way report {@code isAlternateCacheKey} as {@code true} to
+   * {@link com.bumptech.glide.request.ExperimentalRequestListener}s.
+   *
+   * <p>This is an experimental API that may be removed in the future.
+   *
+   * @return This builder.
+   */
+  // Public API.
+  @SuppressWarnings("unused")
+  @NonNull
+  public GlideBuilder setSizeTolerantMemoryCacheEnabled(boolean isEnabled) {
+    this.isSizeTolerantMemoryCacheEnabled = isEnabled;
+    return this;
+  }
+
+  /**
+   * Sets a {@link GlideMetrics} registry in which to record memory, disk and pool hit rates,
+   * executor queue depths and fetch and decode latencies.
+   *
+   * <p>Callers keep a reference to the registry and read it with {@link GlideMetrics#snapshot()}.
+   * Nothing is recorded by default, in which case Glide's components aren't instrumented at all.
+   * Bitmap pool metrics are only available for pools that implement {@link BitmapPoolStats} and
+   * array pool metrics only for {@link LruArrayPool}, optionally behind a {@link
+   * MagazineArrayPool}.
+   *
+   * <p>This is an experimental API that may be removed in the future.
+   *
+   * @param metrics The registry to record into, or {@code null} to disable metrics.
+   * @return This builder.
+   */
+  // Public API.
+  @SuppressWarnings("unused")
+  @NonNull
+  public GlideBuilder setMetrics(@Nullable GlideMetrics metrics) {
+    this.metrics = metrics;
+    return this;
+  }
+
+  /**
+   * Set to {@code true} to use a {@link StripedBitmapPool} instead of a {@link LruBitmapPool} as
+   * the default {@link BitmapPool} on KitKat and above.
+   *
+   * <p>{@link StripedBitmapPool} lets threads that decode images of different sizes get and put
+   * {@link Bitmap}s concurrently at the cost of only approximating LRU eviction order. This has no
+   * effect if a {@link BitmapPool} is provided via {@link #setBitmapPool(BitmapPool)}.
+   *
+   * <p>This is an experimental API that may be removed in the future.
+   *
+   * @return This builder.
+   */
+  // Public API.
+  @SuppressWarnings("unused")
+  @NonNull
+  public GlideBuilder setStripedBitmapPoolEnabled(boolean isEnabled) {
+    this.isStripedBitmapPoolEnabled = isEnabled;
+    return this;
+  }
+
+  /**
+   * Set to {@code true} to periodically move bytes between the {@link BitmapPool} and the {@link
+   * MemoryCache} based on their observed hits, misses and evictions, keeping their combined size
+   * fixed.
+   *
+   * <p>The initial sizes come from the {@link MemorySizeCalculator} as usual, the budget then
+   * grows whichever of the two is under pressure at the expense of the other, never shrinking
+   * either below half its initial size. See {@link AdaptiveMemoryBudget} for details. If a {@link
+   * GlideMetrics} registry is set, the current sizes and the number of adjustments made in each
+   * direction are reported as gauges.
+   *
+   * <p>This has no effect unless the {@link BitmapPool} implements {@link BitmapPoolStats} and the
+   * {@link MemoryCache} implements {@link MemoryCacheStats}, which the defaults do.
+   *
+   * <p>This is an experimental API that may be removed in the future.
+   *
+   * @return This builder.
+   */
+  // Public API.
+  @SuppressWarnings("unused")
+  @NonNull
+  public GlideBuilder setAdaptiveMemoryBudgetEnabled(boolean isEnabled) {
+    this.isAdaptiveMemoryBudgetEnabled = isEnabled;
+    return this;
+  }
+
+  /**
+   * Set to {@code true} to put a {@link MagazineArrayPool} in front of the default {@link
+   * LruArrayPool} so that threads can borrow and return commonly used arrays, like the 64KB buffers
+   * used while decoding, without taking the shared pool's lock.
+   *
+   * <p>Each thread that uses the pool may hold up to 256KB of arrays in addition to the size of
+   * the shared pool. This has no effect if an {@link ArrayPool} is provided via {@link
+   * #setArrayPool(ArrayPool)}.
+   *
+   * <p>This is an experimental API that may be removed in the future.
+   *
+   * @return This builder.
+   */
+  // Public API.
+  @SuppressWarnings("unused")
+  @NonNull
+  public GlideBuilder setArrayPoolMagazinesEnabled(boolean isEnabled) {
+    this.isArrayPoolMagazinesEnabled = isEnabled;
+    return this;
+  }
+
+  /**
+   * Set to {@code true} to record the sizes and configurations of the {@link
+   * android.graphics.Bitmap}s requested from the {@link BitmapPool} and, the next time Glide is
+   * initialized, pre-fill the pool with the most common of them once the main thread is idle.
+   *
+   * <p>The most frequently requested shapes are written to a small manifest in the application's
+   * cache directory when the application's UI is hidden. Pre-filling works like {@link
+   * Glide#preFillBitmapPool(com.bumptech.glide.load.engine.prefill.PreFillType.Builder...)} and is
+   * skipped if the application starts its own pre-fill first. See {@link LearnedBitmapPreFill} for
+   * details.
+   *
+   * <p>When enabled, {@link Glide#getBitmapPool()} returns a pool that wraps the configured {@link
+   * BitmapPool}.
+   *
+   * <p>This is an experimental API that may be removed in the future.
+   *
+   * @return This builder.
+   */
+  // Public API.
+  @SuppressWarnings("unused")
+  @NonNull
+  public GlideBuilder setLearnedBitmapPreFillEnabled(boolean isEnabled) {
+    this.isLearnedBitmapPreFillEnabled = isEnabled;
+    return this;
+  }
+
+  /**
+   * Set to {@code true} to wrap the {@link BitmapPool} in a {@link DebugBitmapPool} that records
+   * where each {@link android.graphics.Bitmap} was returned to the pool, fills returned {@link
+   * android.graphics.Bitmap}s with a poison color and logs double puts, puts of recycled {@link
+   * android.graphics.Bitmap}s and writes to {@link android.graphics.Bitmap}s after they were
+   * returned.
+   *
+   * <p>This is expensive and should only be enabled in debug builds. When enabled, {@link
+   * Glide#getBitmapPool()} returns a pool that wraps the configured {@link BitmapPool}.
+   *
+   * <p>This is an experimental API that may be removed in the future.
+   *
+   * @return This builder.
+   */
+  // Public API.
+  @SuppressWarnings("unused")
+  @NonNull
+  public GlideBuilder setDebugBitmapPoolEnabled(boolean isEnabled) {
+    this.isDebugBitmapPoolEnabled = isEnabled;
+    return this;
+  }
+
+  /**
+   * Set to {@code true} to have the default disk cache keep its journal in a compact, memory
+   * mapped binary format that's much faster to open and to write to than the text format.
+   *
+   * <p>An existing journal in the other format is converted the next time the cache is opened, so
+   * this can be turned on or off between releases without losing cached data. This has no effect
+   * if a {@link com.bumptech.glide.load.engine.cache.DiskCache.Factory} is set with {@link
+   * #setDiskCache(DiskCache.Factory)}, use {@link
+   * InternalCacheDiskCacheFactory#InternalCacheDiskCacheFactory(Context, String, long, boolean)}
+   * instead.
+   *
+   * <p>This is an experimental API that may be removed in the future.
+   *
+   * @return This builder.
+   */
+  // Public API.
+  @SuppressWarnings("unused")
+  @NonNull
+  public GlideBuilder setBinaryDiskCacheJournalEnabled(boolean isEnabled) {
+    this.isBinaryDiskCacheJournalEnabled = isEnabled;
+    return this;
+  }
+
+  /**
+   * Set to {@code true} to have the default disk cache flush the records of concurrent writes to
+   * its text journal together, shortly after they're written, instead of flushing after every
+   * write. Repeated reads of the same entry are also written to the journal once per flush.
+   *
+   * <p>Entries written just before the process dies may be missing the next time the cache is
+   * opened, but the cache is never left inconsistent. This has no effect if a {@link
+   * com.bumptech.glide.load.engine.cache.DiskCache.Factory} is set with {@link
+   * #setDiskCache(DiskCache.Factory)} or if {@link #setBinaryDiskCacheJournalEnabled(boolean)} is
+   * enabled, since the binary journal is never flushed.
+   *
+   * <p>This is an experimental API that may be removed in the future.
+   *
+   * @return This builder.
+   */
+  // Public API.
+  @SuppressWarnings("unused")
+  @NonNull
+  public GlideBuilder setDiskCacheJournalGroupCommitEnabled(boolean isEnabled) {
+    this.isDiskCacheJournalGroupCommitEnabled = isEnabled;
+    return this;
+  }
+
+  /**
+   * Sets the maximum total size in bytes of entries that may wait to be written to the disk cache
+   * in the background, or {@code 0} to write every entry before the load that produced it moves
+   * on, which is the default.
+   *
+   * <p>When enabled, source data and transformed resources are handed to a single low priority
+   * writer thread so that the threads that load them can start the next load immediately. Entries
+   * can be read back while they're waiting to be written. If the limit is reached, loads write
+   * their entries themselves until the writer catches up. Transformed resources aren't returned
+   * to the {@link com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool} until they're written.
+   * Applies to any disk cache, including one set with {@link #setDiskCache(DiskCache.Factory)}.
+   *
+   * <p>This is an experimental API that may be removed in the future.
+   *
+   * @return This builder.
+   */
+  // Public API.
+  @SuppressWarnings("unused")
+  @NonNull
+  public GlideBuilder setDiskCacheWriteBehindSize(long maxPendingSize) {
+    this.diskCacheWriteBehindSize = maxPendingSize;
+    return this;
+  }
+
+  /**
+   * Set to {@code true} to decode fetched {@link java.io.InputStream}s directly while copying them
+   * into the disk cache, rather than writing them to the disk cache first and then reading them
+   * back to decode them.
+   *
+   * <p>Only applies to loads whose {@link com.bumptech.glide.load.engine.DiskCacheStrategy} caches
+   * source data. The copy is held in memory and is only written to the disk cache once the decode
+   * succeeds and the rest of the stream has been read. Loads that fail or are cancelled, and
+   * streams larger than a few megabytes, aren't cached.
+   *
+   * <p>This is an experimental API that may be removed in the future.
+   *
+   * @return This builder.
+   */
+  // Public API.
+  @SuppressWarnings("unused")
+  @NonNull
+  public GlideBuilder setDiskCacheTeeEnabled(boolean isEnabled) {
+    glideExperimentsBuilder.update(new TeeSourceDataToDiskCache(), isEnabled);
+    return this;
+  }
+
   /**
    * Sets the {@link com.bumptech.glide.load.engine.cache.DiskCache.Factory} implementation to use
    * to construct the {@link com.bumptech.glide.load.engine.cache.DiskCache} to use to store {@link
@@ -454,6 +827,23 @@ public final class GlideBuilder {
     return this;
   }
 
+  /**
+   * Set to {@code true} to record a {@link com.bumptech.glide.request.RequestTimeline} of the
+   * stages each request goes through, for example waiting on an executor, reading from the disk
+   * cache, fetching, decoding and transforming, and deliver it to {@link
+   * com.bumptech.glide.request.ExperimentalRequestListener#onRequestTimeline(Object,
+   * com.bumptech.glide.request.RequestTimeline)}.
+   *
+   * <p>Timelines are only recorded for requests that have at least one {@link
+   * com.bumptech.glide.request.ExperimentalRequestListener}.
+   *
+   * <p>This is an experimental API that may be removed in the future.
+   */
+  public GlideBuilder setRequestTimelinesEnabled(boolean isEnabled) {
+    glideExperimentsBuilder.update(new RecordRequestTimelines(), isEnabled);
+    return this;
+  }
+
   /**
    * Set to {@code true} to make Glide use {@link android.graphics.ImageDecoder} when decoding
    * {@link Bitmap}s on Android P and higher.
@@ -542,26 +932,62 @@ public final class GlideBuilder {
       //在 Android 8.0（API 级别 26）及更高版本中，Bitmap 像素数据存储在 Native 堆中。
       int size = memorySizeCalculator.getBitmapPoolSize();
       Log.e("bxj","size "+size);
-      if (size > 0) {
-        bitmapPool = new LruBitmapPool(size);
-      } else {
+      if (size <= 0) {
         bitmapPool = new BitmapPoolAdapter();
+      } else if (isStripedBitmapPoolEnabled
+          && Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+        bitmapPool = new StripedBitmapPool(size);
+      } else {
+        bitmapPool = new LruBitmapPool(size);
       }
     }
 
     if (arrayPool == null) {
       //用来存储 int 数组和 byte 数组的缓存，它的大小是 4MB；如果是低内存设备内存大小是 2MB。
       arrayPool = new LruArrayPool(memorySizeCalculator.getArrayPoolSizeInBytes());
+      if (isArrayPoolMagazinesEnabled) {
+        arrayPool = new MagazineArrayPool(arrayPool);
+      }
     }
 
     if (memoryCache == null) {
       //Resource 对象的缓存，在 Glide 中有很多的对象都是 Resource，它的缓存大小是 2 倍屏幕大小图片所需要的内存。
-      memoryCache = new LruResourceCache(memorySizeCalculator.getMemoryCacheSize());
+      int size = memorySizeCalculator.getMemoryCacheSize();
+      memoryCache =
+          isConcurrentMemoryCacheEnabled || memoryCacheEvictionPolicy != EvictionPolicy.LRU
+              ? new ConcurrentLruResourceCache(size, memoryCacheEvictionPolicy)
+              : new LruResourceCache(size);
     }
 
     if (diskCacheFactory == null) {
       //本地磁盘缓存处理。
-      diskCacheFactory = new InternalCacheDiskCacheFactory(context);
+      diskCacheFactory =
+          new InternalCacheDiskCacheFactory(
+              context,
+              DiskCache.Factory.DEFAULT_DISK_CACHE_DIR,
+              DiskCache.Factory.DEFAULT_DISK_CACHE_SIZE,
+              isBinaryDiskCacheJournalEnabled,
+              isDiskCacheJournalGroupCommitEnabled);
+    }
+    DiskCache.Factory engineDiskCacheFactory = diskCacheFactory;
+    GlideExecutor diskCacheWriteExecutor = null;
+    if (diskCacheWriteBehindSize > 0) {
+      diskCacheWriteExecutor = GlideExecutor.newDiskCacheWriteExecutor();
+      engineDiskCacheFactory =
+          new WriteBehindDiskCacheFactory(
+              diskCacheFactory, diskCacheWriteExecutor, diskCacheWriteBehindSize);
+    }
+
+    AdaptiveMemoryBudget memoryBudget = null;
+    if (isAdaptiveMemoryBudgetEnabled && AdaptiveMemoryBudget.canAdapt(bitmapPool, memoryCache)) {
+      memoryBudget = new AdaptiveMemoryBudget(bitmapPool, memoryCache);
+    }
+
+    if (metrics != null) {
+      registerPoolMetrics(metrics, bitmapPool, arrayPool);
+      if (memoryBudget != null) {
+        registerMemoryBudgetMetrics(metrics, memoryBudget);
+      }
     }
 
     if (engine == null) {
@@ -569,12 +995,16 @@ public final class GlideBuilder {
       engine =
           new Engine(
               memoryCache,
-              diskCacheFactory,
+              engineDiskCacheFactory,
               diskCacheExecutor,
               sourceExecutor,
               GlideExecutor.newUnlimitedSourceExecutor(),
               animationExecutor,
-              isActiveResourceRetentionAllowed);
+              diskCacheWriteExecutor,
+              isActiveResourceRetentionAllowed,
+              isSizeTolerantMemoryCacheEnabled,
+              encodedMemoryCache,
+              metrics);
     }
 
     if (defaultRequestListeners == null) {
@@ -589,12 +1019,37 @@ public final class GlideBuilder {
     RequestManagerRetriever requestManagerRetriever =
         new RequestManagerRetriever(requestManagerFactory);
 
+    File warmStartManifest = null;
+    if (encodedMemoryCache != null && warmStartSize > 0 && context.getCacheDir() != null) {
+      warmStartManifest = new File(context.getCacheDir(), WARM_START_MANIFEST_NAME);
+    }
+
+    // Wrap the pool last so that the memory budget and metrics see the pool's own type.
+    BitmapPool glideBitmapPool = bitmapPool;
+    if (isDebugBitmapPoolEnabled) {
+      glideBitmapPool = new DebugBitmapPool(glideBitmapPool);
+    }
+    LearnedBitmapPreFill learnedPreFill = null;
+    if (isLearnedBitmapPreFillEnabled && context.getCacheDir() != null) {
+      learnedPreFill =
+          new LearnedBitmapPreFill(
+              glideBitmapPool,
+              new File(context.getCacheDir(), PRE_FILL_MANIFEST_NAME),
+              diskCacheExecutor);
+      glideBitmapPool = learnedPreFill.getRecordingPool();
+    }
+
     return new Glide(
         context,
         engine,
         memoryCache,
-        bitmapPool,
+        encodedMemoryCache,
+        warmStartManifest,
+        warmStartSize,
+        glideBitmapPool,
         arrayPool,
+        memoryBudget,
+        learnedPreFill,
         requestManagerRetriever,
         connectivityMonitorFactory,
         logLevel,
@@ -606,6 +1061,128 @@ public final class GlideBuilder {
         experiments);
   }
 
+  private static void registerPoolMetrics(
+      GlideMetrics metrics, BitmapPool bitmapPool, ArrayPool arrayPool) {
+    if (bitmapPool instanceof BitmapPoolStats) {
+      final BitmapPoolStats bitmapPoolStats = (BitmapPoolStats) bitmapPool;
+      metrics.registerGauge(
+          GlideMetrics.BITMAP_POOL_HITS,
+          new Gauge() {
+            @Override
+            public long getValue() {
+              return bitmapPoolStats.hitCount();
+            }
+          });
+      metrics.registerGauge(
+          GlideMetrics.BITMAP_POOL_MISSES,
+          new Gauge() {
+            @Override
+            public long getValue() {
+              return bitmapPoolStats.missCount();
+            }
+          });
+      metrics.registerGauge(
+          GlideMetrics.BITMAP_POOL_EVICTIONS,
+          new Gauge() {
+            @Override
+            public long getValue() {
+              return bitmapPoolStats.evictionCount();
+            }
+          });
+      metrics.registerGauge(
+          GlideMetrics.BITMAP_POOL_SIZE,
+          new Gauge() {
+            @Override
+            public long getValue() {
+              return bitmapPoolStats.getCurrentSize();
+            }
+          });
+    }
+    if (arrayPool instanceof MagazineArrayPool) {
+      final MagazineArrayPool magazineArrayPool = (MagazineArrayPool) arrayPool;
+      metrics.registerGauge(
+          GlideMetrics.ARRAY_POOL_MAGAZINE_HITS,
+          new Gauge() {
+            @Override
+            public long getValue() {
+              return magazineArrayPool.magazineHitCount();
+            }
+          });
+      metrics.registerGauge(
+          GlideMetrics.ARRAY_POOL_MAGAZINE_SIZE,
+          new Gauge() {
+            @Override
+            public long getValue() {
+              return magazineArrayPool.getMagazineSize();
+            }
+          });
+      arrayPool = magazineArrayPool.getSharedPool();
+    }
+    if (arrayPool instanceof LruArrayPool) {
+      final LruArrayPool lruArrayPool = (LruArrayPool) arrayPool;
+      metrics.registerGauge(
+          GlideMetrics.ARRAY_POOL_HITS,
+          new Gauge() {
+            @Override
+            public long getValue() {
+              return lruArrayPool.hitCount();
+            }
+          });
+      metrics.registerGauge(
+          GlideMetrics.ARRAY_POOL_MISSES,
+          new Gauge() {
+            @Override
+            public long getValue() {
+              return lruArrayPool.missCount();
+            }
+          });
+      metrics.registerGauge(
+          GlideMetrics.ARRAY_POOL_SIZE,
+          new Gauge() {
+            @Override
+            public long getValue() {
+              return lruArrayPool.getCurrentSize();
+            }
+          });
+    }
+  }
+
+  private static void registerMemoryBudgetMetrics(
+      GlideMetrics metrics, final AdaptiveMemoryBudget memoryBudget) {
+    metrics.registerGauge(
+        GlideMetrics.MEMORY_BUDGET_BITMAP_POOL_SIZE,
+        new Gauge() {
+          @Override
+          public long getValue() {
+            return memoryBudget.getBitmapPoolTargetSize();
+          }
+        });
+    metrics.registerGauge(
+        GlideMetrics.MEMORY_BUDGET_MEMORY_CACHE_SIZE,
+        new Gauge() {
+          @Override
+          public long getValue() {
+            return memoryBudget.getMemoryCacheTargetSize();
+          }
+        });
+    metrics.registerGauge(
+        GlideMetrics.MEMORY_BUDGET_MOVES_TO_BITMAP_POOL,
+        new Gauge() {
+          @Override
+          public long getValue() {
+            return memoryBudget.getMovesToBitmapPool();
+          }
+        });
+    metrics.registerGauge(
+        GlideMetrics.MEMORY_BUDGET_MOVES_TO_MEMORY_CACHE,
+        new Gauge() {
+          @Override
+          public long getValue() {
+            return memoryBudget.getMovesToMemoryCache();
+          }
+        });
+  }
+
   static final class ManualOverrideHardwareBitmapMaxFdCount implements Experiment {
 
     final int fdCount;
@@ -619,4 +1196,10 @@ public final class GlideBuilder {
 
   /** See {@link #setLogRequestOrigins(boolean)}. */
   public static final class LogRequestOrigins implements Experiment {}
+
+  /** See {@link #setRequestTimelinesEnabled(boolean)}. */
+  public static final class RecordRequestTimelines implements Experiment {}
+
+  /** See {@link #setDiskCacheTeeEnabled(boolean)}. */
+  public static final class TeeSourceDataToDiskCache implements Experiment {}
 }
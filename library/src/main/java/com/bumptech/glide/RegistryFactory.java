@@ -162,7 +162,7 @@ final class RegistryFactory {
     ResourceDecoder<InputStream, Bitmap> streamBitmapDecoder;
     if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P
         && experiments.isEnabled(EnableImageDecoderForBitmaps.class)) {
-      streamBitmapDecoder = new InputStreamBitmapImageDecoderResourceDecoder();
+      streamBitmapDecoder = new InputStreamBitmapImageDecoderResourceDecoder(arrayPool);
       byteBufferBitmapDecoder = new ByteBufferBitmapImageDecoderResourceDecoder();
     } else {
       byteBufferBitmapDecoder = new ByteBufferBitmapDecoder(downsampler);
@@ -1,77 +1,50 @@
 package com.bumptech.glide.load.engine;
 
-import android.os.Process;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import com.bumptech.glide.load.Key;
 import com.bumptech.glide.load.engine.EngineResource.ResourceListener;
-import com.bumptech.glide.util.Executors;
 import com.bumptech.glide.util.Preconditions;
 import com.bumptech.glide.util.Synthetic;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.Executor;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.ThreadFactory;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Holds weak references to resources that are currently in use by at least one request.
+ *
+ * <p>Lookups are lock free. Rather than blocking a dedicated thread on the {@link ReferenceQueue},
+ * references that have been cleared by the garbage collector are drained opportunistically by
+ * callers of {@link #activate(Key, EngineResource)} and {@link #deactivate(Key)}. At most one
+ * caller drains the queue at a time, other callers skip draining rather than waiting.
+ */
 final class ActiveResources {
+  // Bounds the amount of work any single caller does on behalf of the garbage collector.
+  private static final int MAX_REFERENCES_TO_CLEAN = 16;
+
   private final boolean isActiveResourceRetentionAllowed;
-  private final Executor monitorClearedResourcesExecutor;
-  @VisibleForTesting final Map<Key, ResourceWeakReference> activeEngineResources = new HashMap<>();
-  private final ReferenceQueue<EngineResource<?>> resourceReferenceQueue = new ReferenceQueue<>();
 
-  private ResourceListener listener;
+  @VisibleForTesting
+  final ConcurrentMap<Key, ResourceWeakReference> activeEngineResources =
+      new ConcurrentHashMap<>();
 
-  private volatile boolean isShutdown;
-  @Nullable private volatile DequeuedResourceCallback cb;
+  private final ReferenceQueue<EngineResource<?>> resourceReferenceQueue = new ReferenceQueue<>();
+  private final AtomicBoolean isCleaningReferenceQueue = new AtomicBoolean();
 
-  ActiveResources(boolean isActiveResourceRetentionAllowed) {
-    this(
-        isActiveResourceRetentionAllowed,
-        java.util.concurrent.Executors.newSingleThreadExecutor(
-            new ThreadFactory() {
-              @Override
-              public Thread newThread(@NonNull final Runnable r) {
-                return new Thread(
-                    new Runnable() {
-                      @Override
-                      public void run() {
-                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
-                        r.run();
-                      }
-                    },
-                    "glide-active-resources");
-              }
-            }));
-  }
+  private volatile ResourceListener listener;
 
-  @VisibleForTesting
-  ActiveResources(
-      boolean isActiveResourceRetentionAllowed, Executor monitorClearedResourcesExecutor) {
+  ActiveResources(boolean isActiveResourceRetentionAllowed) {
     this.isActiveResourceRetentionAllowed = isActiveResourceRetentionAllowed;
-    this.monitorClearedResourcesExecutor = monitorClearedResourcesExecutor;
-
-    monitorClearedResourcesExecutor.execute(
-        new Runnable() {
-          @Override
-          public void run() {
-            cleanReferenceQueue();
-          }
-        });
   }
 
   void setListener(ResourceListener listener) {
-    synchronized (listener) {
-      synchronized (this) {
-        this.listener = listener;
-      }
-    }
+    this.listener = listener;
   }
 
-  synchronized void activate(Key key, EngineResource<?> resource) {
+  void activate(Key key, EngineResource<?> resource) {
     ResourceWeakReference toPut =
         new ResourceWeakReference(
             key, resource, resourceReferenceQueue, isActiveResourceRetentionAllowed);
@@ -80,17 +53,19 @@ final class ActiveResources {
     if (removed != null) {
       removed.reset();
     }
+    cleanReferenceQueue();
   }
 
-  synchronized void deactivate(Key key) {
+  void deactivate(Key key) {
     ResourceWeakReference removed = activeEngineResources.remove(key);
     if (removed != null) {
       removed.reset();
     }
+    cleanReferenceQueue();
   }
 
   @Nullable
-  synchronized EngineResource<?> get(Key key) {
+  EngineResource<?> get(Key key) {
     ResourceWeakReference activeRef = activeEngineResources.get(key);
     if (activeRef == null) {
       return null;
@@ -103,20 +78,22 @@ final class ActiveResources {
     return active;
   }
 
-  @SuppressWarnings({"WeakerAccess", "SynchronizeOnNonFinalField"})
+  @SuppressWarnings("WeakerAccess")
   @Synthetic
   void cleanupActiveReference(@NonNull ResourceWeakReference ref) {
-    synchronized (this) {
-      activeEngineResources.remove(ref.key);
-
-      if (!ref.isCacheable || ref.resource == null) {
-        return;
-      }
+    // Only the caller that actually removes the reference may notify the listener. If the
+    // reference was already deactivated or replaced, it has been reset and there's nothing to do.
+    if (!activeEngineResources.remove(ref.key, ref)) {
+      return;
+    }
+    Resource<?> resource = ref.resource;
+    if (!ref.isCacheable || resource == null) {
+      return;
     }
 
     EngineResource<?> newResource =
         new EngineResource<>(
-            ref.resource,
+            resource,
             /* isMemoryCacheable= */ true,
             /* isRecyclable= */ false,
             ref.key,
@@ -124,42 +101,27 @@ final class ActiveResources {
     listener.onResourceReleased(ref.key, newResource);
   }
 
-  @SuppressWarnings("WeakerAccess")
-  @Synthetic
+  /**
+   * Removes references that have been cleared by the garbage collector without blocking.
+   *
+   * <p>Cleaning up a reference may notify the listener, which in turn may call back into this
+   * class, so re-entrant calls and calls made while another thread is cleaning return immediately.
+   */
+  @VisibleForTesting
   void cleanReferenceQueue() {
-    while (!isShutdown) {
-      try {
-        ResourceWeakReference ref = (ResourceWeakReference) resourceReferenceQueue.remove();
+    if (!isCleaningReferenceQueue.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      ResourceWeakReference ref;
+      int cleaned = 0;
+      while (cleaned < MAX_REFERENCES_TO_CLEAN
+          && (ref = (ResourceWeakReference) resourceReferenceQueue.poll()) != null) {
         cleanupActiveReference(ref);
-
-        // This section for testing only.
-        DequeuedResourceCallback current = cb;
-        if (current != null) {
-          current.onResourceDequeued();
-        }
-        // End for testing only.
-      } catch (InterruptedException e) {
-        Thread.currentThread().interrupt();
+        cleaned++;
       }
-    }
-  }
-
-  @VisibleForTesting
-  void setDequeuedResourceCallback(DequeuedResourceCallback cb) {
-    this.cb = cb;
-  }
-
-  @VisibleForTesting
-  interface DequeuedResourceCallback {
-    void onResourceDequeued();
-  }
-
-  @VisibleForTesting
-  void shutdown() {
-    isShutdown = true;
-    if (monitorClearedResourcesExecutor instanceof ExecutorService) {
-      ExecutorService service = (ExecutorService) monitorClearedResourcesExecutor;
-      Executors.shutdownAndAwaitTermination(service);
+    } finally {
+      isCleaningReferenceQueue.set(false);
     }
   }
 
@@ -176,7 +138,7 @@ final class ActiveResources {
     @Nullable
     @SuppressWarnings("WeakerAccess")
     @Synthetic
-    Resource<?> resource;
+    volatile Resource<?> resource;
 
     @Synthetic
     @SuppressWarnings("WeakerAccess")
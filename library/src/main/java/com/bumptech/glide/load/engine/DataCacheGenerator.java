@@ -7,7 +7,6 @@ import com.bumptech.glide.load.data.DataFetcher;
 import com.bumptech.glide.load.model.ModelLoader;
 import com.bumptech.glide.load.model.ModelLoader.LoadData;
 import com.bumptech.glide.util.pool.GlideTrace;
-import java.io.File;
 import java.util.List;
 
 /**
@@ -22,13 +21,13 @@ class DataCacheGenerator implements DataFetcherGenerator, DataFetcher.DataCallba
 
   private int sourceIdIndex = -1;
   private Key sourceKey;
-  private List<ModelLoader<File, ?>> modelLoaders;
+  private List<ModelLoader<Object, ?>> modelLoaders;
   private int modelLoaderIndex;
   private volatile LoadData<?> loadData;
-  // PMD is wrong here, this File must be an instance variable because it may be used across
-  // multiple calls to startNext.
+  // PMD is wrong here, this must be an instance variable because it may be used across multiple
+  // calls to startNext. Either a File in the disk cache or the encoded bytes held in memory.
   @SuppressWarnings("PMD.SingularField")
-  private File cacheFile;
+  private Object cacheData;
 
   DataCacheGenerator(DecodeHelper<?> helper, FetcherReadyCallback cb) {
     this(helper.getCacheKeys(), helper, cb);
@@ -57,10 +56,10 @@ class DataCacheGenerator implements DataFetcherGenerator, DataFetcher.DataCallba
         // and the actions it performs are much more expensive than a single allocation.
         @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
         Key originalKey = new DataCacheKey(sourceId, helper.getSignature());
-        cacheFile = helper.getDiskCache().get(originalKey);
-        if (cacheFile != null) {
+        cacheData = helper.getCachedData(originalKey);
+        if (cacheData != null) {
           this.sourceKey = sourceId;
-          modelLoaders = helper.getModelLoaders(cacheFile);
+          modelLoaders = helper.getCachedDataModelLoaders(cacheData);
           modelLoaderIndex = 0;
         }
       }
@@ -68,10 +67,10 @@ class DataCacheGenerator implements DataFetcherGenerator, DataFetcher.DataCallba
       loadData = null;
       boolean started = false;
       while (!started && hasNextModelLoader()) {
-        ModelLoader<File, ?> modelLoader = modelLoaders.get(modelLoaderIndex++);
+        ModelLoader<Object, ?> modelLoader = modelLoaders.get(modelLoaderIndex++);
         loadData =
             modelLoader.buildLoadData(
-                cacheFile, helper.getWidth(), helper.getHeight(), helper.getOptions());
+                cacheData, helper.getWidth(), helper.getHeight(), helper.getOptions());
         if (loadData != null && helper.hasLoadPath(loadData.fetcher.getDataClass())) {
           started = true;
           loadData.fetcher.loadData(helper.getPriority(), this);
@@ -1,5 +1,7 @@
 package com.bumptech.glide.load.engine;
 
+import androidx.annotation.Nullable;
+import com.bumptech.glide.GlideBuilder.TeeSourceDataToDiskCache;
 import com.bumptech.glide.GlideContext;
 import com.bumptech.glide.Priority;
 import com.bumptech.glide.Registry;
@@ -11,17 +13,28 @@ import com.bumptech.glide.load.Transformation;
 import com.bumptech.glide.load.data.DataRewinder;
 import com.bumptech.glide.load.engine.DecodeJob.DiskCacheProvider;
 import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
+import com.bumptech.glide.load.engine.cache.DirectReadDiskCache;
 import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.load.engine.cache.EncodedMemoryCache;
+import com.bumptech.glide.load.engine.cache.PackedDiskCache;
 import com.bumptech.glide.load.model.ModelLoader;
 import com.bumptech.glide.load.model.ModelLoader.LoadData;
+import com.bumptech.glide.load.model.UnitModelLoader;
 import com.bumptech.glide.load.resource.UnitTransformation;
 import java.io.File;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
 final class DecodeHelper<Transcode> {
+  private static final byte[] EMPTY_BYTES = new byte[0];
+  // Not registered, so that applications can't load ByteBuffer models, whose ObjectKeys don't
+  // identify their contents in the disk cache.
+  private static final List<ModelLoader<Object, ?>> CACHED_BUFFER_LOADERS =
+      Collections.<ModelLoader<Object, ?>>singletonList(UnitModelLoader.getInstance());
 
   private final List<LoadData<?>> loadData = new ArrayList<>();
   private final List<Key> cacheKeys = new ArrayList<>();
@@ -32,6 +45,9 @@ final class DecodeHelper<Transcode> {
   private int height;
   private Class<?> resourceClass;
   private DecodeJob.DiskCacheProvider diskCacheProvider;
+  @Nullable private EncodedMemoryCache encodedMemoryCache;
+  private Boolean canDecodeFromBytes;
+  private Boolean canDecodeFromBuffer;
   private Options options;
   private Map<Class<?>, Transformation<?>> transformations;
   private Class<Transcode> transcodeClass;
@@ -58,7 +74,8 @@ final class DecodeHelper<Transcode> {
       Map<Class<?>, Transformation<?>> transformations,
       boolean isTransformationRequired,
       boolean isScaleOnlyOrNoTransform,
-      DiskCacheProvider diskCacheProvider) {
+      DiskCacheProvider diskCacheProvider,
+      @Nullable EncodedMemoryCache encodedMemoryCache) {
     this.glideContext = glideContext;
     this.model = model;
     this.signature = signature;
@@ -67,6 +84,7 @@ final class DecodeHelper<Transcode> {
     this.diskCacheStrategy = diskCacheStrategy;
     this.resourceClass = resourceClass;
     this.diskCacheProvider = diskCacheProvider;
+    this.encodedMemoryCache = encodedMemoryCache;
     this.transcodeClass = (Class<Transcode>) transcodeClass;
     this.priority = priority;
     this.options = options;
@@ -85,6 +103,9 @@ final class DecodeHelper<Transcode> {
     priority = null;
     transformations = null;
     diskCacheStrategy = null;
+    encodedMemoryCache = null;
+    canDecodeFromBytes = null;
+    canDecodeFromBuffer = null;
 
     loadData.clear();
     isLoadDataSet = false;
@@ -96,6 +117,78 @@ final class DecodeHelper<Transcode> {
     return diskCacheProvider.getDiskCache();
   }
 
+  /**
+   * Returns the cached data for the given disk cache key, either as encoded bytes held in memory
+   * or read from a {@link DirectReadDiskCache}, as a {@link ByteBuffer} from a {@link
+   * DirectReadDiskCache}, for example a mapping of an entry packed in a {@link PackedDiskCache}, or
+   * as the {@link File} in the {@link DiskCache}, or {@code null} if the key isn't cached.
+   *
+   * <p>Encoded bytes and buffers are only returned, and cache files are only read into memory, if
+   * the bytes can be decoded into the requested resource.
+   */
+  @Nullable
+  Object getCachedData(Key key) {
+    DiskCache diskCache = getDiskCache();
+    boolean isDirect = diskCache instanceof DirectReadDiskCache;
+    if (isDirect && encodedMemoryCache == null && canDecodeFromBuffer()) {
+      // Packed entries are decoded straight from the mapped cache file, without copying them.
+      ByteBuffer buffer = ((DirectReadDiskCache) diskCache).getBuffer(key);
+      return buffer != null ? buffer : diskCache.get(key);
+    }
+    if ((encodedMemoryCache == null && !isDirect) || !canDecodeFromBytes()) {
+      return diskCache.get(key);
+    }
+    byte[] bytes = encodedMemoryCache != null ? encodedMemoryCache.get(key) : null;
+    if (bytes != null) {
+      return bytes;
+    }
+    if (isDirect) {
+      bytes = ((DirectReadDiskCache) diskCache).getBytes(key);
+      if (bytes != null) {
+        if (encodedMemoryCache != null) {
+          encodedMemoryCache.putBytes(key, bytes);
+        }
+        return bytes;
+      }
+    }
+    File file = diskCache.get(key);
+    if (file != null && encodedMemoryCache != null) {
+      bytes = encodedMemoryCache.putFile(key, file);
+    }
+    return bytes != null ? bytes : file;
+  }
+
+  private boolean canDecodeFromBytes() {
+    if (canDecodeFromBytes == null) {
+      canDecodeFromBytes = canDecodeFrom(EMPTY_BYTES);
+    }
+    return canDecodeFromBytes;
+  }
+
+  private boolean canDecodeFromBuffer() {
+    if (canDecodeFromBuffer == null) {
+      canDecodeFromBuffer = hasLoadPath(ByteBuffer.class);
+    }
+    return canDecodeFromBuffer;
+  }
+
+  private <Model> boolean canDecodeFrom(Model model) {
+    List<ModelLoader<Model, ?>> modelLoaders;
+    try {
+      modelLoaders = getModelLoaders(model);
+    } catch (Registry.NoModelLoaderAvailableException e) {
+      return false;
+    }
+    //noinspection ForLoopReplaceableByForEach to improve perf
+    for (int i = 0, size = modelLoaders.size(); i < size; i++) {
+      LoadData<?> current = modelLoaders.get(i).buildLoadData(model, width, height, options);
+      if (current != null && hasLoadPath(current.fetcher.getDataClass())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   DiskCacheStrategy getDiskCacheStrategy() {
     return diskCacheStrategy;
   }
@@ -128,6 +221,10 @@ final class DecodeHelper<Transcode> {
     return glideContext.getArrayPool();
   }
 
+  boolean isDiskCacheTeeEnabled() {
+    return glideContext.getExperiments().isEnabled(TeeSourceDataToDiskCache.class);
+  }
+
   Class<?> getTranscodeClass() {
     return transcodeClass;
   }
@@ -188,9 +285,23 @@ final class DecodeHelper<Transcode> {
     return glideContext.getRegistry().getResultEncoder(resource);
   }
 
-  List<ModelLoader<File, ?>> getModelLoaders(File file)
+  <Model> List<ModelLoader<Model, ?>> getModelLoaders(Model model)
       throws Registry.NoModelLoaderAvailableException {
-    return glideContext.getRegistry().getModelLoaders(file);
+    return glideContext.getRegistry().getModelLoaders(model);
+  }
+
+  /**
+   * Returns the {@link ModelLoader}s for data returned by {@link #getCachedData(Key)}.
+   *
+   * <p>{@link ByteBuffer}s are passed straight to the decoders, rather than through a registered
+   * {@link ModelLoader}.
+   */
+  List<ModelLoader<Object, ?>> getCachedDataModelLoaders(Object cachedData)
+      throws Registry.NoModelLoaderAvailableException {
+    if (cachedData instanceof ByteBuffer) {
+      return CACHED_BUFFER_LOADERS;
+    }
+    return getModelLoaders(cachedData);
   }
 
   boolean isSourceKey(Key key) {
@@ -3,6 +3,7 @@ package com.bumptech.glide.load.engine;
 import android.os.Build;
 import android.util.Log;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.core.util.Pools;
 import com.bumptech.glide.GlideContext;
 import com.bumptech.glide.Priority;
@@ -15,8 +16,11 @@ import com.bumptech.glide.load.ResourceEncoder;
 import com.bumptech.glide.load.Transformation;
 import com.bumptech.glide.load.data.DataFetcher;
 import com.bumptech.glide.load.data.DataRewinder;
+import com.bumptech.glide.load.engine.cache.AsyncWriteDiskCache;
 import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.load.engine.cache.EncodedMemoryCache;
 import com.bumptech.glide.load.resource.bitmap.Downsampler;
+import com.bumptech.glide.request.RequestTimeline;
 import com.bumptech.glide.util.LogTime;
 import com.bumptech.glide.util.Synthetic;
 import com.bumptech.glide.util.pool.FactoryPools.Poolable;
@@ -25,6 +29,7 @@ import com.bumptech.glide.util.pool.StateVerifier;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * A class responsible for decoding resources either from cached data or from the original source
@@ -41,11 +46,15 @@ class DecodeJob<R>
         Comparable<DecodeJob<?>>,
         Poolable {
   private static final String TAG = "DecodeJob";
+  private static final String QUEUE_TRACE_TAG = "DecodeJob.queue";
+  private static final String FETCH_TRACE_TAG = "DecodeJob.fetch";
 
   private final DecodeHelper<R> decodeHelper = new DecodeHelper<>();
   private final List<Throwable> throwables = new ArrayList<>();
   private final StateVerifier stateVerifier = StateVerifier.newInstance();
   private final DiskCacheProvider diskCacheProvider;
+  @Nullable private final EncodedMemoryCache encodedMemoryCache;
+  @Nullable private final EngineMetrics metrics;
   private final Pools.Pool<DecodeJob<?>> pool;
   private final DeferredEncodeManager<?> deferredEncodeManager = new DeferredEncodeManager<>();
   private final ReleaseManager releaseManager = new ReleaseManager();
@@ -78,8 +87,22 @@ class DecodeJob<R>
   private volatile boolean isCancelled;
   private boolean isLoadingFromAlternateCacheKey;
 
-  DecodeJob(DiskCacheProvider diskCacheProvider, Pools.Pool<DecodeJob<?>> pool) {
+  // Written while holding the Engine's lock for the key, null unless timelines are recorded.
+  @Nullable private volatile List<RequestTimeline> timelines;
+  private long queuedNanos;
+  private int queueCookie;
+  private boolean isFetching;
+  private long fetchStartNanos;
+  private int fetchCookie;
+
+  DecodeJob(
+      DiskCacheProvider diskCacheProvider,
+      @Nullable EncodedMemoryCache encodedMemoryCache,
+      @Nullable EngineMetrics metrics,
+      Pools.Pool<DecodeJob<?>> pool) {
     this.diskCacheProvider = diskCacheProvider;
+    this.encodedMemoryCache = encodedMemoryCache;
+    this.metrics = metrics;
     this.pool = pool;
   }
 
@@ -115,7 +138,8 @@ class DecodeJob<R>
         transformations,
         isTransformationRequired,
         isScaleOnlyOrNoTransform,
-        diskCacheProvider);
+        diskCacheProvider,
+        encodedMemoryCache);
     this.glideContext = glideContext;
     this.signature = signature;
     this.priority = priority;
@@ -189,6 +213,10 @@ class DecodeJob<R>
     currentDataSource = null;
     currentFetcher = null;
     startFetchTime = 0L;
+    timelines = null;
+    queuedNanos = 0L;
+    isFetching = false;
+    fetchStartNanos = 0L;
     isCancelled = false;
     model = null;
     throwables.clear();
@@ -204,6 +232,28 @@ class DecodeJob<R>
     return result;
   }
 
+  /**
+   * Records the stages of this job that run from now on in the given timeline.
+   *
+   * <p>Must be called while holding the Engine's lock for this job's key.
+   */
+  void addTimeline(@NonNull RequestTimeline timeline) {
+    List<RequestTimeline> current = timelines;
+    if (current == null) {
+      current = new CopyOnWriteArrayList<>();
+      current.add(timeline);
+      timelines = current;
+    } else {
+      current.add(timeline);
+    }
+  }
+
+  /** Called before this job is submitted to an executor. */
+  void markQueued() {
+    queuedNanos = getTimelineNanos(timelines);
+    queueCookie = GlideTrace.beginSectionAsync(QUEUE_TRACE_TAG);
+  }
+
   private int getPriority() {
     return priority.ordinal();
   }
@@ -223,6 +273,8 @@ class DecodeJob<R>
     // This should be much more fine grained, but since Java's thread pool implementation silently
     // swallows all otherwise fatal exceptions, this will at least make it obvious to developers
     // that something is failing.
+    GlideTrace.endSectionAsync(QUEUE_TRACE_TAG, queueCookie);
+    recordStage(timelines, RequestTimeline.Stage.QUEUE_WAIT, queuedNanos);
     GlideTrace.beginSectionFormat("DecodeJob#run(reason=%s, model=%s)", runReason, model);
     // Methods in the try statement can invalidate currentFetcher, so set a local variable here to
     // ensure that the fetcher is cleaned up either way.
@@ -305,10 +357,9 @@ class DecodeJob<R>
   private void runGenerators() {
     currentThread = Thread.currentThread();
     startFetchTime = LogTime.getLogTime();
+    beginFetch();
     boolean isStarted = false;
-    while (!isCancelled
-        && currentGenerator != null
-        && !(isStarted = currentGenerator.startNext())) {
+    while (!isCancelled && currentGenerator != null && !(isStarted = startNextGenerator())) {
       stage = getNextStage(stage);
       currentGenerator = getNextGenerator();
 
@@ -317,6 +368,9 @@ class DecodeJob<R>
         return;
       }
     }
+    if (!isStarted) {
+      endFetch(/* isFinished= */ false);
+    }
     // We've run out of stages and generators, give up.
     if ((stage == Stage.FINISHED || isCancelled) && !isStarted) {
       notifyFailed();
@@ -326,8 +380,82 @@ class DecodeJob<R>
     // onDataFetcherReady.
   }
 
+  private boolean startNextGenerator() {
+    // The generator may complete the load synchronously, after which this job may be released and
+    // reused, so only the timelines of the current load are recorded.
+    List<RequestTimeline> timelines = this.timelines;
+    RequestTimeline.Stage timelineStage = getTimelineStage(stage);
+    long startNanos = getTimelineNanos(timelines);
+    GlideTrace.beginSectionFormat("DecodeJob.startNext(stage=%s)", stage);
+    try {
+      return currentGenerator.startNext();
+    } finally {
+      GlideTrace.endSection();
+      recordStage(timelines, timelineStage, startNanos);
+    }
+  }
+
+  private static RequestTimeline.Stage getTimelineStage(Stage stage) {
+    switch (stage) {
+      case RESOURCE_CACHE:
+        return RequestTimeline.Stage.RESOURCE_CACHE;
+      case DATA_CACHE:
+        return RequestTimeline.Stage.DATA_CACHE;
+      case SOURCE:
+        return RequestTimeline.Stage.SOURCE;
+      default:
+        throw new IllegalStateException("Unrecognized stage: " + stage);
+    }
+  }
+
+  private void beginFetch() {
+    // Fetches continue across reschedules, for example while switching to the source executor.
+    if (isFetching) {
+      return;
+    }
+    isFetching = true;
+    fetchStartNanos = getTimelineNanos(timelines);
+    fetchCookie = GlideTrace.beginSectionAsync(FETCH_TRACE_TAG);
+  }
+
+  private void endFetch(boolean isFinished) {
+    if (!isFetching) {
+      return;
+    }
+    isFetching = false;
+    GlideTrace.endSectionAsync(FETCH_TRACE_TAG, fetchCookie);
+    if (isFinished) {
+      recordStage(timelines, RequestTimeline.Stage.FETCH, fetchStartNanos);
+    }
+  }
+
+  private static long getTimelineNanos(@Nullable List<RequestTimeline> timelines) {
+    return timelines != null ? System.nanoTime() : 0L;
+  }
+
+  private static void recordStage(
+      @Nullable List<RequestTimeline> timelines, RequestTimeline.Stage stage, long startNanos) {
+    if (timelines == null || startNanos == 0L) {
+      return;
+    }
+    for (RequestTimeline timeline : timelines) {
+      timeline.record(stage, startNanos);
+    }
+  }
+
+  private void notifyTimelinesLoadComplete() {
+    List<RequestTimeline> timelines = this.timelines;
+    if (timelines == null) {
+      return;
+    }
+    for (RequestTimeline timeline : timelines) {
+      timeline.onLoadComplete();
+    }
+  }
+
   private void notifyFailed() {
     setNotifiedOrThrow();
+    notifyTimelinesLoadComplete();
     GlideException e = new GlideException("Failed to load resource", new ArrayList<>(throwables));
     callback.onLoadFailed(e);
     onLoadFailed();
@@ -336,6 +464,7 @@ class DecodeJob<R>
   private void notifyComplete(
       Resource<R> resource, DataSource dataSource, boolean isLoadedFromAlternateCacheKey) {
     setNotifiedOrThrow();
+    notifyTimelinesLoadComplete();
     callback.onResourceReady(resource, dataSource, isLoadedFromAlternateCacheKey);
   }
 
@@ -374,6 +503,7 @@ class DecodeJob<R>
 
   private void reschedule(RunReason runReason) {
     this.runReason = runReason;
+    markQueued();
     callback.reschedule(this);
   }
 
@@ -392,6 +522,7 @@ class DecodeJob<R>
     this.currentFetcher = fetcher;
     this.currentDataSource = dataSource;
     this.currentAttemptingKey = attemptedKey;
+    endFetch(/* isFinished= */ true);
     this.isLoadingFromAlternateCacheKey = sourceKey != decodeHelper.getCacheKeys().get(0);
     // 只有执行了网络加载才会切线程，缓存不用切线程
     if (Thread.currentThread() != currentThread) {
@@ -411,6 +542,7 @@ class DecodeJob<R>
   public void onDataFetcherFailed(
       Key attemptedKey, Exception e, DataFetcher<?> fetcher, DataSource dataSource) {
     fetcher.cleanup();
+    endFetch(/* isFinished= */ true);
     GlideException exception = new GlideException("Fetching data failed", e);
     exception.setLoggingDetails(attemptedKey, dataSource, fetcher.getDataClass());
     throwables.add(exception);
@@ -422,6 +554,9 @@ class DecodeJob<R>
   }
 
   private void decodeFromRetrievedData() {
+    if (metrics != null) {
+      metrics.fetchLatency.record(LogTime.getElapsedNanos(startFetchTime));
+    }
     if (Log.isLoggable(TAG, Log.VERBOSE)) {
       logWithTimeAndKey(
           "Retrieved data",
@@ -469,7 +604,9 @@ class DecodeJob<R>
       stage = Stage.ENCODE;
       try {
         if (deferredEncodeManager.hasResourceToEncode()) {
+          long encodeStartNanos = getTimelineNanos(timelines);
           deferredEncodeManager.encode(diskCacheProvider, options);
+          recordStage(timelines, RequestTimeline.Stage.ENCODE, encodeStartNanos);
         }
       } finally {
         if (lockedResource != null) {
@@ -487,17 +624,27 @@ class DecodeJob<R>
 
   private <Data> Resource<R> decodeFromData(
       DataFetcher<?> fetcher, Data data, DataSource dataSource) throws GlideException {
+    Resource<R> result = null;
     try {
       if (data == null) {
         return null;
       }
       long startTime = LogTime.getLogTime();
-      Resource<R> result = decodeFromFetcher(data, dataSource);
+      long decodeStartNanos = getTimelineNanos(timelines);
+      result = decodeFromFetcher(data, dataSource);
+      recordStage(timelines, RequestTimeline.Stage.DECODE, decodeStartNanos);
+      if (metrics != null) {
+        metrics.decodeLatency.record(LogTime.getElapsedNanos(startTime));
+      }
       if (Log.isLoggable(TAG, Log.VERBOSE)) {
         logWithTimeAndKey("Decoded result " + result, startTime);
       }
       return result;
     } finally {
+      if (data instanceof DiskCacheTeeInputStream) {
+        // Must happen before cleanup closes the source.
+        ((DiskCacheTeeInputStream) data).finish(/* isSuccessful= */ result != null && !isCancelled);
+      }
       fetcher.cleanup();
     }
   }
@@ -586,7 +733,14 @@ class DecodeJob<R>
     if (dataSource != DataSource.RESOURCE_DISK_CACHE) {
       // 通过 Transformation 对尺寸和 ScaleType 的处理。
       appliedTransformation = decodeHelper.getTransformation(resourceSubClass);
-      transformed = appliedTransformation.transform(glideContext, decoded, width, height);
+      long transformStartNanos = getTimelineNanos(timelines);
+      GlideTrace.beginSection("DecodeJob.transform");
+      try {
+        transformed = appliedTransformation.transform(glideContext, decoded, width, height);
+      } finally {
+        GlideTrace.endSection();
+      }
+      recordStage(timelines, RequestTimeline.Stage.TRANSFORM, transformStartNanos);
     }
     // TODO: Make this the responsibility of the Transformation.
     if (!decoded.equals(transformed)) {
@@ -719,12 +873,34 @@ class DecodeJob<R>
 
     void encode(DiskCacheProvider diskCacheProvider, Options options) {
       GlideTrace.beginSection("DecodeJob.encode");
+      // Cleared after this method returns, possibly before a queued write runs.
+      final LockedResource<Z> lockedResource = toEncode;
+      boolean isQueued = false;
       try {
-        diskCacheProvider
-            .getDiskCache()
-            .put(key, new DataCacheWriter<>(encoder, toEncode, options));
+        DiskCache diskCache = diskCacheProvider.getDiskCache();
+        DataCacheWriter<Resource<Z>> writer = new DataCacheWriter<>(encoder, toEncode, options);
+        if (diskCache instanceof AsyncWriteDiskCache) {
+          // The resource stays locked, and so isn't recycled, until it's been written.
+          isQueued =
+              ((AsyncWriteDiskCache) diskCache)
+                  .putAsync(
+                      key,
+                      writer,
+                      lockedResource.getSize(),
+                      new Runnable() {
+                        @Override
+                        public void run() {
+                          lockedResource.unlock();
+                        }
+                      });
+        }
+        if (!isQueued) {
+          diskCache.put(key, writer);
+        }
       } finally {
-        toEncode.unlock();
+        if (!isQueued) {
+          lockedResource.unlock();
+        }
         GlideTrace.endSection();
       }
     }
@@ -0,0 +1,160 @@
+package com.bumptech.glide.load.engine;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import com.bumptech.glide.load.Encoder;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.engine.cache.AsyncWriteDiskCache;
+import com.bumptech.glide.load.engine.cache.DiskCache;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Copies the bytes read from a source {@link InputStream} so that they can be written to the disk
+ * cache once the stream has been decoded, rather than writing the stream to the disk cache and
+ * then reading it back to decode it.
+ *
+ * <p>Nothing is written until {@link #finish(boolean)} is called after a successful decode, at
+ * which point the rest of the stream is read so that only complete entries are written. Streams
+ * that fail, that are cancelled, or that are larger than {@link #MAX_COPIED_SIZE} are never
+ * written.
+ *
+ * <p>Marks aren't supported, so the stream is expected to be wrapped by a {@link
+ * com.bumptech.glide.load.data.DataRewinder} that buffers it, which means each byte is only read
+ * from the source once.
+ */
+final class DiskCacheTeeInputStream extends FilterInputStream {
+  private static final String TAG = "DiskCacheTee";
+  // The copy is held in memory until the decode finishes, so it's limited to typical image sizes.
+  private static final int MAX_COPIED_SIZE = 4 * 1024 * 1024;
+
+  private final DiskCache diskCache;
+  private final Key key;
+  private final Encoder<InputStream> encoder;
+  private final Options options;
+  private final byte[] singleByte = new byte[1];
+  private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+  private boolean isFinished;
+
+  DiskCacheTeeInputStream(
+      @NonNull InputStream in,
+      @NonNull DiskCache diskCache,
+      @NonNull Key key,
+      @NonNull Encoder<InputStream> encoder,
+      @NonNull Options options) {
+    super(in);
+    this.diskCache = diskCache;
+    this.key = key;
+    this.encoder = encoder;
+    this.options = options;
+  }
+
+  @Override
+  public int read() throws IOException {
+    int result = read(singleByte, 0, 1);
+    return result != -1 ? singleByte[0] & 0xFF : -1;
+  }
+
+  @Override
+  public int read(@NonNull byte[] buffer, int offset, int length) throws IOException {
+    int read;
+    try {
+      read = super.read(buffer, offset, length);
+    } catch (IOException e) {
+      // Decoders may still succeed with part of a stream, but the entry would be truncated.
+      copy = null;
+      throw e;
+    }
+    if (read > 0) {
+      copy(buffer, offset, read);
+    }
+    return read;
+  }
+
+  @Override
+  public long skip(long byteCount) throws IOException {
+    // Skipped bytes still need to be copied, so they're read instead.
+    byte[] buffer = new byte[(int) Math.min(byteCount, 8 * 1024)];
+    long skipped = 0;
+    while (skipped < byteCount) {
+      int read = read(buffer, 0, (int) Math.min(buffer.length, byteCount - skipped));
+      if (read == -1) {
+        break;
+      }
+      skipped += read;
+    }
+    return skipped;
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  @Override
+  public synchronized void mark(int readLimit) {
+    // Not supported.
+  }
+
+  @Override
+  public synchronized void reset() throws IOException {
+    throw new IOException("Mark is not supported");
+  }
+
+  private void copy(byte[] buffer, int offset, int length) {
+    if (copy == null) {
+      return;
+    }
+    if (copy.size() + length > MAX_COPIED_SIZE) {
+      if (Log.isLoggable(TAG, Log.DEBUG)) {
+        Log.d(TAG, "Source is too large to copy, not caching: " + key);
+      }
+      copy = null;
+      return;
+    }
+    copy.write(buffer, offset, length);
+  }
+
+  /**
+   * Writes the copied bytes to the disk cache if {@code isSuccessful} is {@code true} and the rest
+   * of the stream can be read, or discards them otherwise.
+   *
+   * <p>Must be called before the source stream is closed. Calls after the first are ignored.
+   */
+  void finish(boolean isSuccessful) {
+    if (isFinished) {
+      return;
+    }
+    isFinished = true;
+    if (isSuccessful && copy != null) {
+      try {
+        byte[] buffer = new byte[8 * 1024];
+        // Stops early if the rest of the stream turns out to be too large to copy.
+        while (copy != null && read(buffer, 0, buffer.length) != -1) {
+          // Copied by read.
+        }
+      } catch (IOException e) {
+        if (Log.isLoggable(TAG, Log.DEBUG)) {
+          Log.d(TAG, "Failed to read the rest of the source, not caching: " + key, e);
+        }
+        copy = null;
+      }
+    }
+    ByteArrayOutputStream toWrite = isSuccessful ? copy : null;
+    copy = null;
+    if (toWrite == null) {
+      return;
+    }
+    byte[] bytes = toWrite.toByteArray();
+    if (diskCache instanceof AsyncWriteDiskCache
+        && ((AsyncWriteDiskCache) diskCache).putBytesAsync(key, bytes)) {
+      return;
+    }
+    diskCache.put(
+        key, new DataCacheWriter<InputStream>(encoder, new ByteArrayInputStream(bytes), options));
+  }
+}
@@ -14,16 +14,22 @@ import com.bumptech.glide.load.Transformation;
 import com.bumptech.glide.load.engine.EngineResource.ResourceListener;
 import com.bumptech.glide.load.engine.cache.DiskCache;
 import com.bumptech.glide.load.engine.cache.DiskCacheAdapter;
+import com.bumptech.glide.load.engine.cache.EncodedMemoryCache;
 import com.bumptech.glide.load.engine.cache.MemoryCache;
 import com.bumptech.glide.load.engine.executor.GlideExecutor;
+import com.bumptech.glide.metrics.GlideMetrics;
+import com.bumptech.glide.request.RequestTimeline;
 import com.bumptech.glide.request.ResourceCallback;
 import com.bumptech.glide.util.Executors;
 import com.bumptech.glide.util.LogTime;
 import com.bumptech.glide.util.Preconditions;
 import com.bumptech.glide.util.Synthetic;
 import com.bumptech.glide.util.pool.FactoryPools;
+import java.io.File;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /** Responsible for starting loads and managing active and cached resources. */
 public class Engine
@@ -32,6 +38,8 @@ public class Engine
         EngineResource.ResourceListener {
   private static final String TAG = "Engine";
   private static final int JOB_POOL_SIZE = 150;
+  // Must be a power of two so that a mask can be used to pick a stripe.
+  private static final int LOCK_STRIPE_COUNT = 32;
   private static final boolean VERBOSE_IS_LOGGABLE = Log.isLoggable(TAG, Log.VERBOSE);
   private final Jobs jobs;
   private final EngineKeyFactory keyFactory;
@@ -41,6 +49,13 @@ public class Engine
   private final LazyDiskCacheProvider diskCacheProvider;
   private final DecodeJobFactory decodeJobFactory;
   private final ActiveResources activeResources;
+  @Nullable private final SizeTolerantIndex sizeTolerantIndex;
+  @Nullable private WarmStartRunner warmStartRunner;
+  @Nullable private final EncodedMemoryCache encodedMemoryCache;
+  @Nullable private final EngineMetrics metrics;
+  private final Executor diskCacheExecutor;
+  @Nullable private final GlideExecutor diskCacheWriteExecutor;
+  private final Object[] locks = new Object[LOCK_STRIPE_COUNT];
 
   public Engine(
       MemoryCache memoryCache,
@@ -57,12 +72,87 @@ public class Engine
         sourceExecutor,
         sourceUnlimitedExecutor,
         animationExecutor,
+        isActiveResourceRetentionAllowed,
+        /* isSizeTolerantMemoryCacheEnabled= */ false,
+        /* encodedMemoryCache= */ null,
+        /* metrics= */ null);
+  }
+
+  /**
+   * Constructor for Engine.
+   *
+   * @param isSizeTolerantMemoryCacheEnabled {@code true} if loads that miss active resources and
+   *     the memory cache may be satisfied with a resident resource that differs only in being
+   *     larger than the requested size. See {@link
+   *     com.bumptech.glide.GlideBuilder#setSizeTolerantMemoryCacheEnabled(boolean)}.
+   * @param encodedMemoryCache An optional cache for the encoded bytes of disk cache entries that's
+   *     checked before reading from the disk cache.
+   * @param metrics An optional registry in which to record cache hit rates, executor queue depths
+   *     and fetch and decode latencies.
+   */
+  public Engine(
+      MemoryCache memoryCache,
+      DiskCache.Factory diskCacheFactory,
+      GlideExecutor diskCacheExecutor,
+      GlideExecutor sourceExecutor,
+      GlideExecutor sourceUnlimitedExecutor,
+      GlideExecutor animationExecutor,
+      boolean isActiveResourceRetentionAllowed,
+      boolean isSizeTolerantMemoryCacheEnabled,
+      @Nullable EncodedMemoryCache encodedMemoryCache,
+      @Nullable GlideMetrics metrics) {
+    this(
+        memoryCache,
+        diskCacheFactory,
+        diskCacheExecutor,
+        sourceExecutor,
+        sourceUnlimitedExecutor,
+        animationExecutor,
+        /* diskCacheWriteExecutor= */ null,
+        isActiveResourceRetentionAllowed,
+        isSizeTolerantMemoryCacheEnabled,
+        encodedMemoryCache,
+        metrics);
+  }
+
+  /**
+   * Constructor for Engine.
+   *
+   * @param diskCacheWriteExecutor An optional executor that the disk cache writes entries on in the
+   *     background, which is shut down along with the Engine's other executors. See {@link
+   *     com.bumptech.glide.load.engine.cache.WriteBehindDiskCache}.
+   * @see #Engine(MemoryCache, DiskCache.Factory, GlideExecutor, GlideExecutor, GlideExecutor,
+   *     GlideExecutor, boolean, boolean, EncodedMemoryCache, GlideMetrics)
+   */
+  public Engine(
+      MemoryCache memoryCache,
+      DiskCache.Factory diskCacheFactory,
+      GlideExecutor diskCacheExecutor,
+      GlideExecutor sourceExecutor,
+      GlideExecutor sourceUnlimitedExecutor,
+      GlideExecutor animationExecutor,
+      @Nullable GlideExecutor diskCacheWriteExecutor,
+      boolean isActiveResourceRetentionAllowed,
+      boolean isSizeTolerantMemoryCacheEnabled,
+      @Nullable EncodedMemoryCache encodedMemoryCache,
+      @Nullable GlideMetrics metrics) {
+    this(
+        memoryCache,
+        diskCacheFactory,
+        diskCacheExecutor,
+        sourceExecutor,
+        sourceUnlimitedExecutor,
+        animationExecutor,
+        diskCacheWriteExecutor,
         /* jobs= */ null,
         /* keyFactory= */ null,
         /* activeResources= */ null,
         /* engineJobFactory= */ null,
         /* decodeJobFactory= */ null,
         /* resourceRecycler= */ null,
+        isSizeTolerantMemoryCacheEnabled ? new SizeTolerantIndex() : null,
+        encodedMemoryCache,
+        metrics != null ? new EngineMetrics(metrics) : null,
         isActiveResourceRetentionAllowed);
   }
 
@@ -74,16 +164,40 @@ public class Engine
       GlideExecutor sourceExecutor,
       GlideExecutor sourceUnlimitedExecutor,
       GlideExecutor animationExecutor,
+      @Nullable GlideExecutor diskCacheWriteExecutor,
       Jobs jobs,
       EngineKeyFactory keyFactory,
       ActiveResources activeResources,
       EngineJobFactory engineJobFactory,
       DecodeJobFactory decodeJobFactory,
       ResourceRecycler resourceRecycler,
+      @Nullable SizeTolerantIndex sizeTolerantIndex,
+      @Nullable EncodedMemoryCache encodedMemoryCache,
+      @Nullable EngineMetrics metrics,
       boolean isActiveResourceRetentionAllowed) {
     this.cache = cache;
+    this.sizeTolerantIndex = sizeTolerantIndex;
+    this.encodedMemoryCache = encodedMemoryCache;
+    this.metrics = metrics;
+    this.diskCacheExecutor = diskCacheExecutor;
+    this.diskCacheWriteExecutor = diskCacheWriteExecutor;
+    if (metrics != null) {
+      diskCacheFactory = new MeteredDiskCache.Factory(diskCacheFactory, metrics);
+      metrics.registerGauges(
+          cache,
+          encodedMemoryCache,
+          sizeTolerantIndex,
+          diskCacheExecutor,
+          sourceExecutor,
+          sourceUnlimitedExecutor,
+          animationExecutor);
+    }
     this.diskCacheProvider = new LazyDiskCacheProvider(diskCacheFactory);
 
+    for (int i = 0; i < locks.length; i++) {
+      locks[i] = new Object();
+    }
+
     if (activeResources == null) {
       activeResources = new ActiveResources(isActiveResourceRetentionAllowed);
     }
@@ -113,7 +227,7 @@ public class Engine
     this.engineJobFactory = engineJobFactory;
 
     if (decodeJobFactory == null) {
-      decodeJobFactory = new DecodeJobFactory(diskCacheProvider);
+      decodeJobFactory = new DecodeJobFactory(diskCacheProvider, encodedMemoryCache, metrics);
     }
     this.decodeJobFactory = decodeJobFactory;
 
@@ -130,6 +244,18 @@ public class Engine
    *
    * <p>Must be called on the main thread.
    *
+   * <p>Loads are synchronized on a lock chosen by the hash of the {@link EngineKey} rather than on
+   * the Engine itself, so that loads for unrelated keys, including memory cache hits, don't
+   * contend with each other.
+   *
+   * <p>Active resources, the memory cache and in progress loads are checked using a reusable
+   * lookup key, so loads that are satisfied from memory or that join an existing load don't
+   * allocate a new {@link EngineKey}.
+   *
+   * <p>If size tolerant lookups are enabled and the exact key misses active resources and the
+   * memory cache, a resident resource that differs only in being larger than the requested size,
+   * with the same aspect ratio, is returned instead of starting a new load.
+   *
    * <p>The flow for any request is as follows:
    *
    * <ul>
@@ -172,10 +298,63 @@ public class Engine
       boolean onlyRetrieveFromCache,
       ResourceCallback cb,
       Executor callbackExecutor) {
+    return load(
+        glideContext,
+        model,
+        signature,
+        width,
+        height,
+        resourceClass,
+        transcodeClass,
+        priority,
+        diskCacheStrategy,
+        transformations,
+        isTransformationRequired,
+        isScaleOnlyOrNoTransform,
+        options,
+        isMemoryCacheable,
+        useUnlimitedSourceExecutorPool,
+        useAnimationPool,
+        onlyRetrieveFromCache,
+        cb,
+        callbackExecutor,
+        /* timeline= */ null);
+  }
+
+  /**
+   * Identical to {@link #load(GlideContext, Object, Key, int, int, Class, Class, Priority,
+   * DiskCacheStrategy, Map, boolean, boolean, Options, boolean, boolean, boolean, boolean,
+   * ResourceCallback, Executor)} except that the stages of the load are recorded in the given
+   * timeline.
+   *
+   * @param timeline The timeline to record stages in, or {@code null} to record nothing.
+   */
+  public <R> LoadStatus load(
+      GlideContext glideContext,
+      Object model,
+      Key signature,
+      int width,
+      int height,
+      Class<?> resourceClass,
+      Class<R> transcodeClass,
+      Priority priority,
+      DiskCacheStrategy diskCacheStrategy,
+      Map<Class<?>, Transformation<?>> transformations,
+      boolean isTransformationRequired,
+      boolean isScaleOnlyOrNoTransform,
+      Options options,
+      boolean isMemoryCacheable,
+      boolean useUnlimitedSourceExecutorPool,
+      boolean useAnimationPool,
+      boolean onlyRetrieveFromCache,
+      ResourceCallback cb,
+      Executor callbackExecutor,
+      @Nullable RequestTimeline timeline) {
     long startTime = VERBOSE_IS_LOGGABLE ? LogTime.getLogTime() : 0;
+    long memoryCacheStartNanos = timeline != null ? System.nanoTime() : 0;
 
-    EngineKey key =
-        keyFactory.buildKey(
+    EngineKey lookupKey =
+        keyFactory.buildLookupKey(
             model,
             signature,
             width,
@@ -186,40 +365,70 @@ public class Engine
             options);
 
     EngineResource<?> memoryResource;
-    synchronized (this) {
-      // 先尝试从内存缓存中加载
-      memoryResource = loadFromMemory(key, isMemoryCacheable, startTime);
-
-      if (memoryResource == null) {
-        return waitForExistingOrStartNewJob(
-            glideContext,
-            model,
-            signature,
-            width,
-            height,
-            resourceClass,
-            transcodeClass,
-            priority,
-            diskCacheStrategy,
-            transformations,
-            isTransformationRequired,
-            isScaleOnlyOrNoTransform,
-            options,
-            isMemoryCacheable,
-            useUnlimitedSourceExecutorPool,
-            useAnimationPool,
-            onlyRetrieveFromCache,
-            cb,
-            callbackExecutor,
-            key,
-            startTime);
+    boolean isLoadedFromLargerSize = false;
+    boolean hasCheckedLargerSizes = !isMemoryCacheable || sizeTolerantIndex == null;
+    Object lock = getLock(lookupKey);
+    // Only the first attempt is recorded so that rechecks don't count as extra misses.
+    EngineMetrics attemptMetrics = metrics;
+    while (true) {
+      synchronized (lock) {
+        // 先尝试从内存缓存中加载
+        memoryResource = loadFromMemory(lookupKey, isMemoryCacheable, startTime, attemptMetrics);
+        attemptMetrics = null;
+
+        if (memoryResource == null && hasCheckedLargerSizes) {
+          if (timeline != null) {
+            timeline.record(RequestTimeline.Stage.MEMORY_CACHE, memoryCacheStartNanos);
+          }
+          return waitForExistingOrStartNewJob(
+              glideContext,
+              model,
+              signature,
+              width,
+              height,
+              resourceClass,
+              transcodeClass,
+              priority,
+              diskCacheStrategy,
+              transformations,
+              isTransformationRequired,
+              isScaleOnlyOrNoTransform,
+              options,
+              isMemoryCacheable,
+              useUnlimitedSourceExecutorPool,
+              useAnimationPool,
+              onlyRetrieveFromCache,
+              cb,
+              callbackExecutor,
+              lookupKey,
+              lock,
+              startTime,
+              timeline);
+        }
+      }
+      if (memoryResource != null) {
+        break;
       }
+      // Candidates are loaded without holding this key's lock. Stripes are shared by unrelated
+      // keys, so holding two stripe locks at once could deadlock.
+      memoryResource = loadFromLargerResidentResource(lookupKey, startTime);
+      if (memoryResource != null) {
+        isLoadedFromLargerSize = true;
+        break;
+      }
+      hasCheckedLargerSizes = true;
+    }
+    lookupKey.clear();
+    if (timeline != null) {
+      timeline.record(RequestTimeline.Stage.MEMORY_CACHE, memoryCacheStartNanos);
     }
 
     // Avoid calling back while holding the engine lock, doing so makes it easier for callers to
     // deadlock.
     cb.onResourceReady(
-        memoryResource, DataSource.MEMORY_CACHE, /* isLoadedFromAlternateCacheKey= */ false);
+        memoryResource,
+        DataSource.MEMORY_CACHE,
+        /* isLoadedFromAlternateCacheKey= */ isLoadedFromLargerSize);
     return null;
   }
 
@@ -243,18 +452,38 @@ public class Engine
       boolean onlyRetrieveFromCache,
       ResourceCallback cb,
       Executor callbackExecutor,
-      EngineKey key,
-      long startTime) {
+      EngineKey lookupKey,
+      Object lock,
+      long startTime,
+      @Nullable RequestTimeline timeline) {
 
-    EngineJob<?> current = jobs.get(key, onlyRetrieveFromCache);
+    EngineJob<?> current = jobs.get(lookupKey, onlyRetrieveFromCache);
     if (current != null) {
-      //从 map 集合中获取 EngineJob，如果不为空表示当前有正在执行的 EngineJob，添加回调并返回加载状态。
-      current.addCallback(cb, callbackExecutor);
       if (VERBOSE_IS_LOGGABLE) {
-        logWithTimeAndKey("Added to existing load", startTime, key);
+        logWithTimeAndKey("Added to existing load", startTime, lookupKey);
       }
-      return new LoadStatus(cb, current);
+      // Adding a callback may synchronously start another load on this thread that reuses the
+      // lookup key, so we're done with it.
+      lookupKey.clear();
+      //从 map 集合中获取 EngineJob，如果不为空表示当前有正在执行的 EngineJob，添加回调并返回加载状态。
+      if (timeline != null) {
+        current.addTimeline(timeline);
+      }
+      current.addCallback(cb, callbackExecutor);
+      return new LoadStatus(cb, current, lock);
     }
+    lookupKey.clear();
+
+    EngineKey key =
+        keyFactory.buildKey(
+            model,
+            signature,
+            width,
+            height,
+            transformations,
+            resourceClass,
+            transcodeClass,
+            options);
 
     EngineJob<R> engineJob =
         engineJobFactory.build(
@@ -285,24 +514,54 @@ public class Engine
 
     jobs.put(key, engineJob);
 
+    if (timeline != null) {
+      decodeJob.addTimeline(timeline);
+    }
     engineJob.addCallback(cb, callbackExecutor);
     engineJob.start(decodeJob);
 
     if (VERBOSE_IS_LOGGABLE) {
       logWithTimeAndKey("Started new load", startTime, key);
     }
-    return new LoadStatus(cb, engineJob);
+    return new LoadStatus(cb, engineJob, lock);
+  }
+
+  @Nullable
+  private EngineResource<?> loadFromLargerResidentResource(EngineKey lookupKey, long startTime) {
+    EngineResource<?> result = null;
+    for (EngineKey candidate : sizeTolerantIndex.getLargerKeys(lookupKey)) {
+      synchronized (getLock(candidate)) {
+        result =
+            loadFromMemory(
+                candidate, /* isMemoryCacheable= */ true, startTime, /* metrics= */ null);
+      }
+      if (result != null) {
+        if (VERBOSE_IS_LOGGABLE) {
+          logWithTimeAndKey("Loaded resource of a larger size from memory", startTime, candidate);
+        }
+        break;
+      }
+      sizeTolerantIndex.remove(candidate);
+    }
+    sizeTolerantIndex.recordLookup(/* isHit= */ result != null);
+    return result;
   }
 
   @Nullable
   private EngineResource<?> loadFromMemory(
-      EngineKey key, boolean isMemoryCacheable, long startTime) {
+      EngineKey key,
+      boolean isMemoryCacheable,
+      long startTime,
+      @Nullable EngineMetrics metrics) {
     if (!isMemoryCacheable) {
       return null;
     }
     // 加载存活的资源 资源释放会放到Lru缓存
     EngineResource<?> active = loadFromActiveResources(key);
     if (active != null) {
+      if (metrics != null) {
+        metrics.activeResourcesHits.increment();
+      }
       if (VERBOSE_IS_LOGGABLE) {
         logWithTimeAndKey("Loaded resource from active resources", startTime, key);
       }
@@ -310,6 +569,14 @@ public class Engine
     }
     //从Lru拿到资源会移除会放到上面的活动缓存
     EngineResource<?> cached = loadFromCache(key);
+    if (metrics != null) {
+      metrics.activeResourcesMisses.increment();
+      if (cached != null) {
+        metrics.memoryCacheHits.increment();
+      } else {
+        metrics.memoryCacheMisses.increment();
+      }
+    }
     if (cached != null) {
       if (VERBOSE_IS_LOGGABLE) {
         logWithTimeAndKey("Loaded resource from cache", startTime, key);
@@ -320,6 +587,13 @@ public class Engine
     return null;
   }
 
+  private Object getLock(Key key) {
+    int hash = key.hashCode();
+    // Spread the higher bits so that keys that differ only in their upper bits use different locks.
+    hash ^= hash >>> 16;
+    return locks[hash & (LOCK_STRIPE_COUNT - 1)];
+  }
+
   private static void logWithTimeAndKey(String log, long startTime, Key key) {
     Log.v(TAG, log + " in " + LogTime.getElapsedMillis(startTime) + "ms, key: " + key);
   }
@@ -334,34 +608,26 @@ public class Engine
     return active;
   }
 
-  private EngineResource<?> loadFromCache(Key key) {
-    EngineResource<?> cached = getEngineResourceFromCache(key);
-    if (cached != null) {
-      cached.acquire();
-      activeResources.activate(key, cached);
+  private EngineResource<?> loadFromCache(EngineKey lookupKey) {
+    Resource<?> cached = cache.remove(lookupKey);
+    if (cached == null) {
+      return null;
     }
-    return cached;
+    // The resource is about to be retained by active resources, so it needs a retainable key.
+    EngineKey key = lookupKey.toImmutableKey();
+    EngineResource<?> result = getEngineResourceFromCache(key, cached);
+    result.acquire();
+    activeResources.activate(key, result);
+    return result;
   }
 
-  private EngineResource<?> getEngineResourceFromCache(Key key) {
-    Resource<?> cached = cache.remove(key);
-
-    final EngineResource<?> result;
-    if (cached == null) {
-      result = null;
-    } else if (cached instanceof EngineResource) {
+  private EngineResource<?> getEngineResourceFromCache(Key key, Resource<?> cached) {
+    if (cached instanceof EngineResource) {
       // Save an object allocation if we've cached an EngineResource (the typical case).
-      result = (EngineResource<?>) cached;
-    } else {
-      result =
-          new EngineResource<>(
-              cached,
-              /* isMemoryCacheable= */ true,
-              /* isRecyclable= */ true,
-              key,
-              /* listener= */ this);
+      return (EngineResource<?>) cached;
     }
-    return result;
+    return new EngineResource<>(
+        cached, /* isMemoryCacheable= */ true, /* isRecyclable= */ true, key, /* listener= */ this);
   }
 
   public void release(Resource<?> resource) {
@@ -374,23 +640,32 @@ public class Engine
 
   @SuppressWarnings("unchecked")
   @Override
-  public synchronized void onEngineJobComplete(
-      EngineJob<?> engineJob, Key key, EngineResource<?> resource) {
-    // A null resource indicates that the load failed, usually due to an exception.
-    if (resource != null && resource.isMemoryCacheable()) {
-      activeResources.activate(key, resource);
-    }
+  public void onEngineJobComplete(EngineJob<?> engineJob, Key key, EngineResource<?> resource) {
+    synchronized (getLock(key)) {
+      // A null resource indicates that the load failed, usually due to an exception.
+      if (resource != null && resource.isMemoryCacheable()) {
+        activeResources.activate(key, resource);
+        if (sizeTolerantIndex != null) {
+          sizeTolerantIndex.add(key);
+        }
+      }
 
-    jobs.removeIfCurrent(key, engineJob);
+      jobs.removeIfCurrent(key, engineJob);
+    }
   }
 
   @Override
-  public synchronized void onEngineJobCancelled(EngineJob<?> engineJob, Key key) {
-    jobs.removeIfCurrent(key, engineJob);
+  public void onEngineJobCancelled(EngineJob<?> engineJob, Key key) {
+    synchronized (getLock(key)) {
+      jobs.removeIfCurrent(key, engineJob);
+    }
   }
 
   @Override
   public void onResourceRemoved(@NonNull final Resource<?> resource) {
+    if (sizeTolerantIndex != null && resource instanceof EngineResource) {
+      sizeTolerantIndex.remove(((EngineResource<?>) resource).getKey());
+    }
     // Avoid deadlock with RequestManagers when recycling triggers recursive clear() calls.
     // See b/145519760.
     resourceRecycler.recycle(resource, /* forceNextFrame= */ true);
@@ -401,20 +676,80 @@ public class Engine
     activeResources.deactivate(cacheKey);
     if (resource.isMemoryCacheable()) {
       cache.put(cacheKey, resource);
+      if (sizeTolerantIndex != null) {
+        // Replacing an existing entry in the cache removes the key from the index.
+        sizeTolerantIndex.add(cacheKey);
+      }
     } else {
       resourceRecycler.recycle(resource, /* forceNextFrame= */ false);
     }
   }
 
+  @VisibleForTesting
+  DiskCache getDiskCache() {
+    return diskCacheProvider.getDiskCache();
+  }
+
   public void clearDiskCache() {
+    if (encodedMemoryCache != null) {
+      encodedMemoryCache.clearMemory();
+    }
     diskCacheProvider.getDiskCache().clear();
   }
 
+  /**
+   * Starts reading the disk cache entries listed in the given manifest into the encoded memory
+   * cache in the background, until at most {@code maxSize} bytes have been read.
+   *
+   * <p>Does nothing if this Engine has no encoded memory cache or a warm start has already been
+   * started.
+   *
+   * @see #persistWarmStartManifest(File, long)
+   */
+  public synchronized void startWarmStart(@NonNull File manifest, long maxSize) {
+    if (encodedMemoryCache == null || maxSize <= 0 || warmStartRunner != null) {
+      return;
+    }
+    warmStartRunner =
+        new WarmStartRunner(
+            encodedMemoryCache, diskCacheProvider, manifest, maxSize, diskCacheExecutor);
+    warmStartRunner.start();
+  }
+
+  /**
+   * Writes the keys of the most recently used entries in the encoded memory cache, up to {@code
+   * maxSize} bytes of entries, to the given manifest so that a later process can warm its cache
+   * with {@link #startWarmStart(File, long)}.
+   *
+   * <p>The keys are captured synchronously, the manifest is written in the background. Does nothing
+   * if this Engine has no encoded memory cache.
+   */
+  public void persistWarmStartManifest(@NonNull final File manifest, long maxSize) {
+    if (encodedMemoryCache == null || maxSize <= 0) {
+      return;
+    }
+    final List<byte[]> entries = encodedMemoryCache.getRecentKeyBytes(maxSize);
+    diskCacheExecutor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            WarmStartManifest.write(manifest, entries);
+          }
+        });
+  }
+
   @VisibleForTesting
   public void shutdown() {
+    synchronized (this) {
+      if (warmStartRunner != null) {
+        warmStartRunner.cancel();
+      }
+    }
     engineJobFactory.shutdown();
+    if (diskCacheWriteExecutor != null) {
+      Executors.shutdownAndAwaitTermination(diskCacheWriteExecutor);
+    }
     diskCacheProvider.clearDiskCacheIfCreated();
-    activeResources.shutdown();
   }
 
   /**
@@ -425,18 +760,20 @@ public class Engine
   public class LoadStatus {
     private final EngineJob<?> engineJob;
     private final ResourceCallback cb;
+    private final Object lock;
 
-    LoadStatus(ResourceCallback cb, EngineJob<?> engineJob) {
+    LoadStatus(ResourceCallback cb, EngineJob<?> engineJob, Object lock) {
       this.cb = cb;
       this.engineJob = engineJob;
+      this.lock = lock;
     }
 
     public void cancel() {
-      // Acquire the Engine lock so that a new request can't get access to a particular EngineJob
-      // just after the EngineJob has been cancelled. Without this lock, we'd allow new requests
-      // to find the cancelling EngineJob in our Jobs data structure. With this lock, the EngineJob
-      // is both cancelled and removed from Jobs atomically.
-      synchronized (Engine.this) {
+      // Acquire the Engine lock for the job's key so that a new request can't get access to a
+      // particular EngineJob just after the EngineJob has been cancelled. Without this lock, we'd
+      // allow new requests to find the cancelling EngineJob in our Jobs data structure. With this
+      // lock, the EngineJob is both cancelled and removed from Jobs atomically.
+      synchronized (lock) {
         engineJob.removeCallback(cb);
       }
     }
@@ -478,6 +815,8 @@ public class Engine
   @VisibleForTesting
   static class DecodeJobFactory {
     @Synthetic final DecodeJob.DiskCacheProvider diskCacheProvider;
+    @Synthetic @Nullable final EncodedMemoryCache encodedMemoryCache;
+    @Synthetic @Nullable final EngineMetrics metrics;
 
     @Synthetic
     final Pools.Pool<DecodeJob<?>> pool =
@@ -486,14 +825,20 @@ public class Engine
             new FactoryPools.Factory<DecodeJob<?>>() {
               @Override
               public DecodeJob<?> create() {
-                return new DecodeJob<>(diskCacheProvider, pool);
+                return new DecodeJob<>(diskCacheProvider, encodedMemoryCache, metrics, pool);
               }
             });
 
-    private int creationOrder;
+    // Loads for different keys build jobs concurrently under different stripe locks.
+    private final AtomicInteger creationOrder = new AtomicInteger();
 
-    DecodeJobFactory(DecodeJob.DiskCacheProvider diskCacheProvider) {
+    DecodeJobFactory(
+        DecodeJob.DiskCacheProvider diskCacheProvider,
+        @Nullable EncodedMemoryCache encodedMemoryCache,
+        @Nullable EngineMetrics metrics) {
       this.diskCacheProvider = diskCacheProvider;
+      this.encodedMemoryCache = encodedMemoryCache;
+      this.metrics = metrics;
     }
 
     @SuppressWarnings("unchecked")
@@ -532,7 +877,7 @@ public class Engine
           onlyRetrieveFromCache,
           options,
           callback,
-          creationOrder++);
+          creationOrder.getAndIncrement());
     }
   }
 
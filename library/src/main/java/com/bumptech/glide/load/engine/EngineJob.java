@@ -8,6 +8,7 @@ import com.bumptech.glide.load.DataSource;
 import com.bumptech.glide.load.Key;
 import com.bumptech.glide.load.engine.EngineResource.ResourceListener;
 import com.bumptech.glide.load.engine.executor.GlideExecutor;
+import com.bumptech.glide.request.RequestTimeline;
 import com.bumptech.glide.request.ResourceCallback;
 import com.bumptech.glide.util.Executors;
 import com.bumptech.glide.util.Preconditions;
@@ -129,9 +130,17 @@ class EngineJob<R> implements DecodeJob.Callback<R>, Poolable {
     this.decodeJob = decodeJob;
     GlideExecutor executor =
         decodeJob.willDecodeFromCache() ? diskCacheExecutor : getActiveSourceExecutor();
+    decodeJob.markQueued();
     executor.execute(decodeJob);
   }
 
+  /** Records the stages of this job that haven't run yet in the given timeline. */
+  synchronized void addTimeline(RequestTimeline timeline) {
+    if (decodeJob != null && !hasResource && !hasLoadFailed) {
+      decodeJob.addTimeline(timeline);
+    }
+  }
+
   synchronized void addCallback(final ResourceCallback cb, Executor callbackExecutor) {
     stateVerifier.throwIfRecycled();
     cbs.add(cb, callbackExecutor);
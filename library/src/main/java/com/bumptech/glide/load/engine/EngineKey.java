@@ -8,16 +8,23 @@ import com.bumptech.glide.util.Preconditions;
 import java.security.MessageDigest;
 import java.util.Map;
 
-/** An in memory only cache key used to multiplex loads. */
+/**
+ * An in memory only cache key used to multiplex loads.
+ *
+ * <p>Keys are immutable unless they're created by {@link #newLookupKey()}. Lookup keys can be
+ * reused to check for existing resources and jobs without allocating, but must never be retained
+ * by a cache or map. Use {@link #toImmutableKey()} to obtain a key that can be retained.
+ */
 class EngineKey implements Key {
-  private final Object model;
-  private final int width;
-  private final int height;
-  private final Class<?> resourceClass;
-  private final Class<?> transcodeClass;
-  private final Key signature;
-  private final Map<Class<?>, Transformation<?>> transformations;
-  private final Options options;
+  private final boolean isLookupKey;
+  private Object model;
+  private int width;
+  private int height;
+  private Class<?> resourceClass;
+  private Class<?> transcodeClass;
+  private Key signature;
+  private Map<Class<?>, Transformation<?>> transformations;
+  private Options options;
   private int hashCode;
 
   EngineKey(
@@ -29,6 +36,86 @@ class EngineKey implements Key {
       Class<?> resourceClass,
       Class<?> transcodeClass,
       Options options) {
+    this.isLookupKey = false;
+    setFields(
+        model, signature, width, height, transformations, resourceClass, transcodeClass, options);
+  }
+
+  private EngineKey() {
+    this.isLookupKey = true;
+  }
+
+  /** Returns a new mutable key that can be populated with {@link #set}. */
+  static EngineKey newLookupKey() {
+    return new EngineKey();
+  }
+
+  /**
+   * Populates this lookup key with the given arguments and eagerly computes its hash code so that
+   * repeated lookups with this key don't need to re-hash its contents.
+   */
+  EngineKey set(
+      Object model,
+      Key signature,
+      int width,
+      int height,
+      Map<Class<?>, Transformation<?>> transformations,
+      Class<?> resourceClass,
+      Class<?> transcodeClass,
+      Options options) {
+    Preconditions.checkArgument(isLookupKey, "Only lookup keys can be modified");
+    setFields(
+        model, signature, width, height, transformations, resourceClass, transcodeClass, options);
+    hashCode = 0;
+    hashCode();
+    return this;
+  }
+
+  /** Releases the references held by this key if it's a lookup key, or does nothing otherwise. */
+  void clear() {
+    if (!isLookupKey) {
+      return;
+    }
+    model = null;
+    signature = null;
+    transformations = null;
+    resourceClass = null;
+    transcodeClass = null;
+    options = null;
+    hashCode = 0;
+  }
+
+  /**
+   * Returns this key if it's immutable, or a new immutable copy with the same contents and hash
+   * code if this is a lookup key.
+   */
+  EngineKey toImmutableKey() {
+    if (!isLookupKey) {
+      return this;
+    }
+    EngineKey result =
+        new EngineKey(
+            model,
+            signature,
+            width,
+            height,
+            transformations,
+            resourceClass,
+            transcodeClass,
+            options);
+    result.hashCode = hashCode;
+    return result;
+  }
+
+  private void setFields(
+      Object model,
+      Key signature,
+      int width,
+      int height,
+      Map<Class<?>, Transformation<?>> transformations,
+      Class<?> resourceClass,
+      Class<?> transcodeClass,
+      Options options) {
     this.model = Preconditions.checkNotNull(model);
     this.signature = Preconditions.checkNotNull(signature, "Signature must not be null");
     this.width = width;
@@ -41,6 +128,35 @@ class EngineKey implements Key {
     this.options = Preconditions.checkNotNull(options);
   }
 
+  int getWidth() {
+    return width;
+  }
+
+  int getHeight() {
+    return height;
+  }
+
+  /** Returns {@code true} if the given key differs from this key at most in width and height. */
+  boolean equalsIgnoringSize(EngineKey other) {
+    return model.equals(other.model)
+        && signature.equals(other.signature)
+        && transformations.equals(other.transformations)
+        && resourceClass.equals(other.resourceClass)
+        && transcodeClass.equals(other.transcodeClass)
+        && options.equals(other.options);
+  }
+
+  /** Returns a hash code that's consistent with {@link #equalsIgnoringSize(EngineKey)}. */
+  int hashCodeIgnoringSize() {
+    int result = model.hashCode();
+    result = 31 * result + signature.hashCode();
+    result = 31 * result + transformations.hashCode();
+    result = 31 * result + resourceClass.hashCode();
+    result = 31 * result + transcodeClass.hashCode();
+    result = 31 * result + options.hashCode();
+    return result;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (o instanceof EngineKey) {
@@ -6,6 +6,13 @@ import com.bumptech.glide.load.Transformation;
 import java.util.Map;
 
 class EngineKeyFactory {
+  private final ThreadLocal<EngineKey> lookupKeys =
+      new ThreadLocal<EngineKey>() {
+        @Override
+        protected EngineKey initialValue() {
+          return EngineKey.newLookupKey();
+        }
+      };
 
   @SuppressWarnings("rawtypes")
   EngineKey buildKey(
@@ -20,4 +27,33 @@ class EngineKeyFactory {
     return new EngineKey(
         model, signature, width, height, transformations, resourceClass, transcodeClass, options);
   }
+
+  /**
+   * Returns a reusable lookup key for the given arguments without allocating.
+   *
+   * <p>The returned key is shared by all calls on the current thread. It must not be retained and
+   * must be cleared with {@link EngineKey#clear()} when the caller is done with it.
+   */
+  @SuppressWarnings("rawtypes")
+  EngineKey buildLookupKey(
+      Object model,
+      Key signature,
+      int width,
+      int height,
+      Map<Class<?>, Transformation<?>> transformations,
+      Class<?> resourceClass,
+      Class<?> transcodeClass,
+      Options options) {
+    return lookupKeys
+        .get()
+        .set(
+            model,
+            signature,
+            width,
+            height,
+            transformations,
+            resourceClass,
+            transcodeClass,
+            options);
+  }
 }
@@ -0,0 +1,105 @@
+package com.bumptech.glide.load.engine;
+
+import androidx.annotation.Nullable;
+import com.bumptech.glide.load.engine.cache.EncodedMemoryCache;
+import com.bumptech.glide.load.engine.cache.MemoryCache;
+import com.bumptech.glide.load.engine.executor.GlideExecutor;
+import com.bumptech.glide.metrics.Counter;
+import com.bumptech.glide.metrics.Gauge;
+import com.bumptech.glide.metrics.GlideMetrics;
+import com.bumptech.glide.metrics.Histogram;
+
+/**
+ * The {@link GlideMetrics} recorded by the {@link Engine} and its jobs, looked up once so that
+ * recording a value doesn't require a lookup by name.
+ */
+final class EngineMetrics {
+  final GlideMetrics metrics;
+  final Counter activeResourcesHits;
+  final Counter activeResourcesMisses;
+  final Counter memoryCacheHits;
+  final Counter memoryCacheMisses;
+  final Counter diskCacheHits;
+  final Counter diskCacheMisses;
+  final Counter diskCacheWrites;
+  final Histogram fetchLatency;
+  final Histogram decodeLatency;
+
+  EngineMetrics(GlideMetrics metrics) {
+    this.metrics = metrics;
+    activeResourcesHits = metrics.counter(GlideMetrics.ACTIVE_RESOURCES_HITS);
+    activeResourcesMisses = metrics.counter(GlideMetrics.ACTIVE_RESOURCES_MISSES);
+    memoryCacheHits = metrics.counter(GlideMetrics.MEMORY_CACHE_HITS);
+    memoryCacheMisses = metrics.counter(GlideMetrics.MEMORY_CACHE_MISSES);
+    diskCacheHits = metrics.counter(GlideMetrics.DISK_CACHE_HITS);
+    diskCacheMisses = metrics.counter(GlideMetrics.DISK_CACHE_MISSES);
+    diskCacheWrites = metrics.counter(GlideMetrics.DISK_CACHE_WRITES);
+    fetchLatency = metrics.histogram(GlideMetrics.FETCH_LATENCY);
+    decodeLatency = metrics.histogram(GlideMetrics.DECODE_LATENCY);
+  }
+
+  void registerGauges(
+      final MemoryCache memoryCache,
+      @Nullable final EncodedMemoryCache encodedMemoryCache,
+      @Nullable final SizeTolerantIndex sizeTolerantIndex,
+      GlideExecutor diskCacheExecutor,
+      GlideExecutor sourceExecutor,
+      GlideExecutor sourceUnlimitedExecutor,
+      GlideExecutor animationExecutor) {
+    metrics.registerGauge(
+        GlideMetrics.MEMORY_CACHE_SIZE,
+        new Gauge() {
+          @Override
+          public long getValue() {
+            return memoryCache.getCurrentSize();
+          }
+        });
+    if (encodedMemoryCache != null) {
+      metrics.registerGauge(
+          GlideMetrics.ENCODED_MEMORY_CACHE_SIZE,
+          new Gauge() {
+            @Override
+            public long getValue() {
+              return encodedMemoryCache.getCurrentSize();
+            }
+          });
+    }
+    if (sizeTolerantIndex != null) {
+      metrics.registerGauge(
+          GlideMetrics.SIZE_TOLERANT_LOOKUPS,
+          new Gauge() {
+            @Override
+            public long getValue() {
+              return sizeTolerantIndex.getLookupCount();
+            }
+          });
+      metrics.registerGauge(
+          GlideMetrics.SIZE_TOLERANT_HITS,
+          new Gauge() {
+            @Override
+            public long getValue() {
+              return sizeTolerantIndex.getHitCount();
+            }
+          });
+    }
+    registerQueueDepth(GlideMetrics.DISK_CACHE_EXECUTOR_QUEUE_DEPTH, diskCacheExecutor);
+    registerQueueDepth(GlideMetrics.SOURCE_EXECUTOR_QUEUE_DEPTH, sourceExecutor);
+    registerQueueDepth(
+        GlideMetrics.SOURCE_UNLIMITED_EXECUTOR_QUEUE_DEPTH, sourceUnlimitedExecutor);
+    registerQueueDepth(GlideMetrics.ANIMATION_EXECUTOR_QUEUE_DEPTH, animationExecutor);
+  }
+
+  private void registerQueueDepth(String name, @Nullable final GlideExecutor executor) {
+    if (executor == null) {
+      return;
+    }
+    metrics.registerGauge(
+        name,
+        new Gauge() {
+          @Override
+          public long getValue() {
+            return executor.getQueueSize();
+          }
+        });
+  }
+}
@@ -41,6 +41,10 @@ class EngineResource<Z> implements Resource<Z> {
     return resource;
   }
 
+  Key getKey() {
+    return key;
+  }
+
   boolean isMemoryCacheable() {
     return isMemoryCacheable;
   }
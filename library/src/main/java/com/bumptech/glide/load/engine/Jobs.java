@@ -3,12 +3,19 @@ package com.bumptech.glide.load.engine;
 import androidx.annotation.VisibleForTesting;
 import com.bumptech.glide.load.Key;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Tracks in progress {@link EngineJob}s by key.
+ *
+ * <p>The {@link Engine} synchronizes on a lock chosen by key, so operations for different keys may
+ * happen concurrently. Operations for any single key are still serialized by the {@link Engine}.
+ */
 final class Jobs {
-  private final Map<Key, EngineJob<?>> jobs = new HashMap<>();
-  private final Map<Key, EngineJob<?>> onlyCacheJobs = new HashMap<>();
+  private final ConcurrentMap<Key, EngineJob<?>> jobs = new ConcurrentHashMap<>();
+  private final ConcurrentMap<Key, EngineJob<?>> onlyCacheJobs = new ConcurrentHashMap<>();
 
   @VisibleForTesting
   Map<Key, EngineJob<?>> getAll() {
@@ -24,13 +31,10 @@ final class Jobs {
   }
 
   void removeIfCurrent(Key key, EngineJob<?> expected) {
-    Map<Key, EngineJob<?>> jobMap = getJobMap(expected.onlyRetrieveFromCache());
-    if (expected.equals(jobMap.get(key))) {
-      jobMap.remove(key);
-    }
+    getJobMap(expected.onlyRetrieveFromCache()).remove(key, expected);
   }
 
-  private Map<Key, EngineJob<?>> getJobMap(boolean onlyRetrieveFromCache) {
+  private ConcurrentMap<Key, EngineJob<?>> getJobMap(boolean onlyRetrieveFromCache) {
     return onlyRetrieveFromCache ? onlyCacheJobs : jobs;
   }
 }
@@ -0,0 +1,129 @@
+package com.bumptech.glide.load.engine;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.engine.cache.AsyncWriteDiskCache;
+import com.bumptech.glide.load.engine.cache.DirectReadDiskCache;
+import com.bumptech.glide.load.engine.cache.DiskCache;
+import java.io.File;
+import java.nio.ByteBuffer;
+
+/**
+ * Wraps a {@link DiskCache} to count hits, misses and writes in {@link EngineMetrics}.
+ *
+ * <p>Forwards the optional {@link DirectReadDiskCache} and {@link AsyncWriteDiskCache} methods to
+ * the wrapped cache if it implements them. Entries returned by them are counted as hits, but {@code
+ * null} results aren't counted as misses because callers fall back to {@link #get(Key)}, which
+ * counts the lookup instead. Queued entries are counted as writes.
+ */
+final class MeteredDiskCache implements DirectReadDiskCache, AsyncWriteDiskCache {
+  private final DiskCache wrapped;
+  private final EngineMetrics metrics;
+
+  MeteredDiskCache(DiskCache wrapped, EngineMetrics metrics) {
+    this.wrapped = wrapped;
+    this.metrics = metrics;
+  }
+
+  @Nullable
+  @Override
+  public File get(Key key) {
+    File result = wrapped.get(key);
+    if (result != null) {
+      metrics.diskCacheHits.increment();
+    } else {
+      metrics.diskCacheMisses.increment();
+    }
+    return result;
+  }
+
+  @Nullable
+  @Override
+  public byte[] getBytes(@NonNull Key key) {
+    if (!(wrapped instanceof DirectReadDiskCache)) {
+      return null;
+    }
+    byte[] result = ((DirectReadDiskCache) wrapped).getBytes(key);
+    if (result != null) {
+      metrics.diskCacheHits.increment();
+    }
+    return result;
+  }
+
+  @Nullable
+  @Override
+  public ByteBuffer getBuffer(@NonNull Key key) {
+    if (!(wrapped instanceof DirectReadDiskCache)) {
+      return null;
+    }
+    ByteBuffer result = ((DirectReadDiskCache) wrapped).getBuffer(key);
+    if (result != null) {
+      metrics.diskCacheHits.increment();
+    }
+    return result;
+  }
+
+  @Override
+  public void put(Key key, Writer writer) {
+    wrapped.put(key, writer);
+    metrics.diskCacheWrites.increment();
+  }
+
+  @Override
+  public long getMaxPendingSize() {
+    return wrapped instanceof AsyncWriteDiskCache
+        ? ((AsyncWriteDiskCache) wrapped).getMaxPendingSize()
+        : 0;
+  }
+
+  @Override
+  public boolean putAsync(
+      @NonNull Key key, @NonNull Writer writer, long size, @Nullable Runnable onWritten) {
+    boolean isQueued =
+        wrapped instanceof AsyncWriteDiskCache
+            && ((AsyncWriteDiskCache) wrapped).putAsync(key, writer, size, onWritten);
+    if (isQueued) {
+      metrics.diskCacheWrites.increment();
+    }
+    return isQueued;
+  }
+
+  @Override
+  public boolean putBytesAsync(@NonNull Key key, @NonNull byte[] bytes) {
+    boolean isQueued =
+        wrapped instanceof AsyncWriteDiskCache
+            && ((AsyncWriteDiskCache) wrapped).putBytesAsync(key, bytes);
+    if (isQueued) {
+      metrics.diskCacheWrites.increment();
+    }
+    return isQueued;
+  }
+
+  @Override
+  public void delete(Key key) {
+    wrapped.delete(key);
+  }
+
+  @Override
+  public void clear() {
+    wrapped.clear();
+  }
+
+  static final class Factory implements DiskCache.Factory {
+    private final DiskCache.Factory wrapped;
+    private final EngineMetrics metrics;
+
+    Factory(DiskCache.Factory wrapped, EngineMetrics metrics) {
+      this.wrapped = wrapped;
+      this.metrics = metrics;
+    }
+
+    @Nullable
+    @Override
+    public DiskCache build() {
+      DiskCache diskCache = wrapped.build();
+      return diskCache != null ? new MeteredDiskCache(diskCache, metrics) : null;
+    }
+  }
+}
@@ -23,13 +23,13 @@ class ResourceCacheGenerator implements DataFetcherGenerator, DataFetcher.DataCa
   private int sourceIdIndex;
   private int resourceClassIndex = -1;
   private Key sourceKey;
-  private List<ModelLoader<File, ?>> modelLoaders;
+  private List<ModelLoader<Object, ?>> modelLoaders;
   private int modelLoaderIndex;
   private volatile LoadData<?> loadData;
-  // PMD is wrong here, this File must be an instance variable because it may be used across
-  // multiple calls to startNext.
+  // PMD is wrong here, this must be an instance variable because it may be used across multiple
+  // calls to startNext. Either a File in the disk cache or the encoded bytes held in memory.
   @SuppressWarnings("PMD.SingularField")
-  private File cacheFile;
+  private Object cacheData;
 
   private ResourceCacheKey currentKey;
 
@@ -93,11 +93,11 @@ class ResourceCacheGenerator implements DataFetcherGenerator, DataFetcher.DataCa
                 resourceClass,
                 helper.getOptions());
         // 通过生成的 Key 从 DiskLruCache 中去查找缓存文件.
-        cacheFile = helper.getDiskCache().get(currentKey);
-        if (cacheFile != null) {
+        cacheData = helper.getCachedData(currentKey);
+        if (cacheData != null) {
           // 缓存文件不为空，去查找能够处理 File 类型的 ModelLoaders。
           sourceKey = sourceId;
-          modelLoaders = helper.getModelLoaders(cacheFile);
+          modelLoaders = helper.getCachedDataModelLoaders(cacheData);
           modelLoaderIndex = 0;
         }
       }
@@ -106,10 +106,10 @@ class ResourceCacheGenerator implements DataFetcherGenerator, DataFetcher.DataCa
       boolean started = false;
       // 遍历找到的所有的 ModelLoader，找到一个可用的去加载 File 缓存文件。
       while (!started && hasNextModelLoader()) {
-        ModelLoader<File, ?> modelLoader = modelLoaders.get(modelLoaderIndex++);
+        ModelLoader<Object, ?> modelLoader = modelLoaders.get(modelLoaderIndex++);
         loadData =
             modelLoader.buildLoadData(
-                cacheFile, helper.getWidth(), helper.getHeight(), helper.getOptions());
+                cacheData, helper.getWidth(), helper.getHeight(), helper.getOptions());
         if (loadData != null && helper.hasLoadPath(loadData.fetcher.getDataClass())) {
           started = true;
           //通过 ModelLoader 中 loadData 中的 fetcher 去加载缓存的 File
@@ -0,0 +1,186 @@
+package com.bumptech.glide.load.engine;
+
+import androidx.annotation.NonNull;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.util.Synthetic;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A secondary index of the {@link EngineKey}s of resources held in active resources or the memory
+ * cache, grouped by everything in the key except for the requested width and height.
+ *
+ * <p>The index is a set of hints. Keys are added when a resource becomes resident and removed
+ * when it's evicted, but racing updates may leave keys whose resources are no longer resident, or
+ * miss keys whose resources are. Callers must verify each key returned by {@link
+ * #getLargerKeys(EngineKey)} and remove keys that turn out to be stale.
+ */
+final class SizeTolerantIndex {
+  private static final Comparator<EngineKey> BY_WIDTH =
+      new Comparator<EngineKey>() {
+        @Override
+        public int compare(EngineKey lhs, EngineKey rhs) {
+          return compareInts(lhs.getWidth(), rhs.getWidth());
+        }
+      };
+
+  private final ConcurrentMap<SizeIndependentKey, Group> groups = new ConcurrentHashMap<>();
+  private final AtomicLong lookupCount = new AtomicLong();
+  private final AtomicLong hitCount = new AtomicLong();
+
+  void add(Key key) {
+    if (!(key instanceof EngineKey) || !hasSize((EngineKey) key)) {
+      return;
+    }
+    EngineKey engineKey = (EngineKey) key;
+    SizeIndependentKey groupKey = new SizeIndependentKey(engineKey);
+    while (true) {
+      Group group = groups.get(groupKey);
+      if (group == null) {
+        group = new Group();
+        Group existing = groups.putIfAbsent(groupKey, group);
+        if (existing != null) {
+          group = existing;
+        }
+      }
+      if (group.add(engineKey)) {
+        return;
+      }
+      // The group was emptied and is being removed concurrently, help remove it and retry.
+      groups.remove(groupKey, group);
+    }
+  }
+
+  void remove(Key key) {
+    if (!(key instanceof EngineKey)) {
+      return;
+    }
+    SizeIndependentKey groupKey = new SizeIndependentKey((EngineKey) key);
+    Group group = groups.get(groupKey);
+    if (group != null && group.remove((EngineKey) key)) {
+      groups.remove(groupKey, group);
+    }
+  }
+
+  /**
+   * Returns the keys that may have resident resources that differ from the given key only in their
+   * size, that are at least as large as the given key in both dimensions and that have the same
+   * aspect ratio, sorted from smallest to largest.
+   *
+   * <p>The given key is not retained, so it may be a lookup key.
+   */
+  @NonNull
+  List<EngineKey> getLargerKeys(@NonNull EngineKey key) {
+    if (!hasSize(key)) {
+      return Collections.emptyList();
+    }
+    Group group = groups.get(new SizeIndependentKey(key));
+    if (group == null) {
+      return Collections.emptyList();
+    }
+    return group.getLargerKeys(key.getWidth(), key.getHeight());
+  }
+
+  void recordLookup(boolean isHit) {
+    lookupCount.incrementAndGet();
+    if (isHit) {
+      hitCount.incrementAndGet();
+    }
+  }
+
+  /** Returns the number of exact size misses that looked for a larger resident resource. */
+  long getLookupCount() {
+    return lookupCount.get();
+  }
+
+  /** Returns the number of lookups that were satisfied by a resident resource of another size. */
+  long getHitCount() {
+    return hitCount.get();
+  }
+
+  private static boolean hasSize(EngineKey key) {
+    // Excludes Target.SIZE_ORIGINAL, which doesn't describe the size of the resource.
+    return key.getWidth() > 0 && key.getHeight() > 0;
+  }
+
+  @Synthetic
+  static int compareInts(int lhs, int rhs) {
+    return lhs < rhs ? -1 : (lhs == rhs ? 0 : 1);
+  }
+
+  private static final class Group {
+    private final List<EngineKey> keys = new ArrayList<>(2);
+    private boolean isRemoved;
+
+    @Synthetic
+    Group() {}
+
+    /** Returns {@code false} if this group has been removed and can no longer be added to. */
+    synchronized boolean add(EngineKey key) {
+      if (isRemoved) {
+        return false;
+      }
+      if (!keys.contains(key)) {
+        keys.add(key);
+      }
+      return true;
+    }
+
+    /** Returns {@code true} if removing the given key emptied this group. */
+    synchronized boolean remove(EngineKey key) {
+      keys.remove(key);
+      if (keys.isEmpty()) {
+        isRemoved = true;
+      }
+      return isRemoved;
+    }
+
+    synchronized List<EngineKey> getLargerKeys(int width, int height) {
+      List<EngineKey> result = null;
+      for (int i = 0, size = keys.size(); i < size; i++) {
+        EngineKey key = keys.get(i);
+        int candidateWidth = key.getWidth();
+        int candidateHeight = key.getHeight();
+        if (candidateWidth >= width
+            && candidateHeight >= height
+            && (long) candidateWidth * height == (long) candidateHeight * width) {
+          if (result == null) {
+            result = new ArrayList<>(size);
+          }
+          result.add(key);
+        }
+      }
+      if (result == null) {
+        return Collections.emptyList();
+      }
+      Collections.sort(result, BY_WIDTH);
+      return result;
+    }
+  }
+
+  /** Wraps an {@link EngineKey} so that keys that differ only by size are equal. */
+  private static final class SizeIndependentKey {
+    private final EngineKey key;
+
+    @Synthetic
+    SizeIndependentKey(EngineKey key) {
+      this.key = key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof SizeIndependentKey
+          && key.equalsIgnoringSize(((SizeIndependentKey) o).key);
+    }
+
+    @Override
+    public int hashCode() {
+      return key.hashCodeIgnoringSize();
+    }
+  }
+}
@@ -9,12 +9,17 @@ import com.bumptech.glide.load.Key;
 import com.bumptech.glide.load.data.DataFetcher;
 import com.bumptech.glide.load.data.DataFetcher.DataCallback;
 import com.bumptech.glide.load.data.DataRewinder;
+import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
+import com.bumptech.glide.load.engine.cache.AsyncWriteDiskCache;
 import com.bumptech.glide.load.engine.cache.DiskCache;
 import com.bumptech.glide.load.model.ModelLoader;
 import com.bumptech.glide.load.model.ModelLoader.LoadData;
+import com.bumptech.glide.load.model.StreamEncoder;
 import com.bumptech.glide.util.LogTime;
 import com.bumptech.glide.util.Synthetic;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collections;
 
 /**
@@ -30,6 +35,9 @@ import java.util.Collections;
  */
 class SourceGenerator implements DataFetcherGenerator, DataFetcherGenerator.FetcherReadyCallback {
   private static final String TAG = "SourceGenerator";
+  // Below InputStreamRewinder's mark limit, so that streams that are too large to queue can still
+  // be rewound and written directly.
+  private static final int MAX_QUEUED_SOURCE_SIZE = 4 * 1024 * 1024;
 
   private final DecodeHelper<?> helper;
   private final FetcherReadyCallback cb;
@@ -131,11 +139,56 @@ class SourceGenerator implements DataFetcherGenerator, DataFetcherGenerator.Fetc
       Object data = rewinder.rewindAndGet();
       // 查找对应的 Encoder
       Encoder<Object> encoder = helper.getSourceEncoder(data);
-      // 构建用于写入文件缓存的 DataCacheWriter 对象。
-      DataCacheWriter<Object> writer = new DataCacheWriter<>(encoder, data, helper.getOptions());
       // 构建用于缓存的 DataCacheKey
       DataCacheKey newOriginalKey = new DataCacheKey(loadData.sourceKey, helper.getSignature());
       DiskCache diskCache = helper.getDiskCache();
+      boolean isStream =
+          ((Encoder<?>) encoder) instanceof StreamEncoder && data instanceof InputStream;
+      if (isStream && helper.isDiskCacheTeeEnabled()) {
+        if (Log.isLoggable(TAG, Log.VERBOSE)) {
+          Log.v(TAG, "Decoding source while copying it to cache, key: " + newOriginalKey);
+        }
+        isLoadingFromSourceData = true;
+        // The copy is written by DecodeJob if, and only if, the decode succeeds.
+        cb.onDataFetcherReady(
+            loadData.sourceKey,
+            new DiskCacheTeeInputStream(
+                (InputStream) data,
+                diskCache,
+                newOriginalKey,
+                (StreamEncoder) (Encoder<?>) encoder,
+                helper.getOptions()),
+            loadData.fetcher,
+            loadData.fetcher.getDataSource(),
+            loadData.sourceKey);
+        return false;
+      }
+      if (isStream
+          && diskCache instanceof AsyncWriteDiskCache
+          && ((AsyncWriteDiskCache) diskCache).getMaxPendingSize() > 0) {
+        AsyncWriteDiskCache asyncCache = (AsyncWriteDiskCache) diskCache;
+        if (queueSourceBytes(asyncCache, newOriginalKey, (InputStream) data)) {
+          if (Log.isLoggable(TAG, Log.VERBOSE)) {
+            Log.v(
+                TAG,
+                "Queued source to be written to cache"
+                    + ", key: "
+                    + newOriginalKey
+                    + ", data: "
+                    + dataToCache
+                    + ", duration: "
+                    + LogTime.getElapsedMillis(startTime));
+          }
+          originalKey = newOriginalKey;
+          // The queued bytes are read back by the DataCacheGenerator until they're written.
+          sourceCacheGenerator =
+              new DataCacheGenerator(Collections.singletonList(loadData.sourceKey), helper, this);
+          return true;
+        }
+        data = rewinder.rewindAndGet();
+      }
+      // 构建用于写入文件缓存的 DataCacheWriter 对象。
+      DataCacheWriter<Object> writer = new DataCacheWriter<>(encoder, data, helper.getOptions());
       // 写入缓存
       diskCache.put(newOriginalKey, writer);
 
@@ -191,6 +244,31 @@ class SourceGenerator implements DataFetcherGenerator, DataFetcherGenerator.Fetc
     }
   }
 
+  /**
+   * Reads the given stream and queues its contents to be written to the given cache, or returns
+   * {@code false} if the stream is too large or the queue is full, in which case the stream needs
+   * to be rewound before it's read again.
+   */
+  private boolean queueSourceBytes(AsyncWriteDiskCache diskCache, Key key, InputStream is)
+      throws IOException {
+    long maxSize = Math.min(diskCache.getMaxPendingSize(), MAX_QUEUED_SOURCE_SIZE);
+    ArrayPool arrayPool = helper.getArrayPool();
+    byte[] buffer = arrayPool.get(ArrayPool.STANDARD_BUFFER_SIZE_BYTES, byte[].class);
+    try {
+      ByteArrayOutputStream os = new ByteArrayOutputStream();
+      int read;
+      while ((read = is.read(buffer)) != -1) {
+        if (os.size() + read > maxSize) {
+          return false;
+        }
+        os.write(buffer, 0, read);
+      }
+      return diskCache.putBytesAsync(key, os.toByteArray());
+    } finally {
+      arrayPool.put(buffer);
+    }
+  }
+
   @Override
   public void cancel() {
     LoadData<?> local = loadData;
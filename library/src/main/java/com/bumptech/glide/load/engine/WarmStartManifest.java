@@ -0,0 +1,75 @@
+package com.bumptech.glide.load.engine;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.bumptech.glide.util.VersionedFile;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads and writes the list of disk cache key bytes used to warm the {@link
+ * com.bumptech.glide.load.engine.cache.EncodedMemoryCache} when the process starts.
+ *
+ * <p>The manifest is a {@link VersionedFile} holding the number of entries, followed by each entry
+ * as a length prefixed array of bytes.
+ */
+final class WarmStartManifest {
+  private static final int VERSION = 1;
+  // Guards against allocating huge arrays when reading a corrupt manifest.
+  private static final int MAX_KEY_LENGTH = 64 * 1024;
+
+  private static final VersionedFile.Reader<List<byte[]>> READER =
+      new VersionedFile.Reader<List<byte[]>>() {
+        @Nullable
+        @Override
+        public List<byte[]> read(@NonNull DataInputStream is) throws IOException {
+          int count = is.readInt();
+          if (count < 0) {
+            return null;
+          }
+          List<byte[]> result = new ArrayList<>(Math.min(count, 1024));
+          for (int i = 0; i < count; i++) {
+            int length = is.readInt();
+            if (length < 0 || length > MAX_KEY_LENGTH) {
+              return null;
+            }
+            byte[] keyBytes = new byte[length];
+            is.readFully(keyBytes);
+            result.add(keyBytes);
+          }
+          return result;
+        }
+      };
+
+  private WarmStartManifest() {
+    // Utility class.
+  }
+
+  @NonNull
+  static List<byte[]> read(@NonNull File file) {
+    List<byte[]> result = VersionedFile.read(file, VERSION, READER);
+    return result != null ? result : Collections.<byte[]>emptyList();
+  }
+
+  /** Replaces the manifest with the given entries. */
+  static void write(@NonNull File file, @NonNull final List<byte[]> entries) {
+    VersionedFile.write(
+        file,
+        VERSION,
+        new VersionedFile.Writer() {
+          @Override
+          public void write(@NonNull DataOutputStream os) throws IOException {
+            os.writeInt(entries.size());
+            for (byte[] keyBytes : entries) {
+              os.writeInt(keyBytes.length);
+              os.write(keyBytes);
+            }
+          }
+        });
+  }
+}
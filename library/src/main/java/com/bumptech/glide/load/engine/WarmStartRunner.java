@@ -0,0 +1,148 @@
+package com.bumptech.glide.load.engine;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.annotation.VisibleForTesting;
+import com.bumptech.glide.load.engine.DecodeJob.DiskCacheProvider;
+import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.load.engine.cache.EncodedMemoryCache;
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the {@link DiskCache} entries listed in a {@link WarmStartManifest} into an {@link
+ * EncodedMemoryCache} so that the images used most recently by the previous process can be
+ * decoded without disk reads.
+ *
+ * <p>Like {@link com.bumptech.glide.load.engine.prefill.BitmapPreFillRunner}, work is done in short
+ * slices with increasing delays between them so that warming the cache competes as little as
+ * possible with the loads the application starts while it's launching. Slices run on the disk
+ * cache executor and the delays are posted to the main thread.
+ */
+final class WarmStartRunner implements Runnable {
+  private static final String TAG = "WarmStartRunner";
+  private static final Clock DEFAULT_CLOCK = new Clock();
+
+  /** The maximum number of millis a single slice can run before yielding the executor. */
+  static final long MAX_DURATION_MS = 32;
+
+  /** The amount of time in ms we wait after the first slice before running the next one. */
+  static final long INITIAL_BACKOFF_MS = 40;
+
+  /** The amount by which the delay between slices is multiplied after each slice. */
+  static final int BACKOFF_RATIO = 4;
+
+  /** The maximum amount of time in ms we wait between slices. */
+  static final long MAX_BACKOFF_MS = TimeUnit.SECONDS.toMillis(1);
+
+  private final EncodedMemoryCache encodedMemoryCache;
+  private final DiskCacheProvider diskCacheProvider;
+  private final File manifest;
+  private final Executor executor;
+  private final Handler handler;
+  private final Clock clock;
+  private final Runnable postToExecutor =
+      new Runnable() {
+        @Override
+        public void run() {
+          executor.execute(WarmStartRunner.this);
+        }
+      };
+
+  // Only accessed on the executor, one slice at a time.
+  private List<byte[]> toWarm;
+  private int index;
+  private long remainingBytes;
+  private long currentDelay = INITIAL_BACKOFF_MS;
+  private volatile boolean isCancelled;
+
+  WarmStartRunner(
+      EncodedMemoryCache encodedMemoryCache,
+      DiskCacheProvider diskCacheProvider,
+      File manifest,
+      long maxSize,
+      Executor executor) {
+    this(
+        encodedMemoryCache,
+        diskCacheProvider,
+        manifest,
+        maxSize,
+        executor,
+        DEFAULT_CLOCK,
+        new Handler(Looper.getMainLooper()));
+  }
+
+  @VisibleForTesting
+  WarmStartRunner(
+      EncodedMemoryCache encodedMemoryCache,
+      DiskCacheProvider diskCacheProvider,
+      File manifest,
+      long maxSize,
+      Executor executor,
+      Clock clock,
+      Handler handler) {
+    this.encodedMemoryCache = encodedMemoryCache;
+    this.diskCacheProvider = diskCacheProvider;
+    this.manifest = manifest;
+    this.remainingBytes = maxSize;
+    this.executor = executor;
+    this.clock = clock;
+    this.handler = handler;
+  }
+
+  void start() {
+    executor.execute(this);
+  }
+
+  void cancel() {
+    isCancelled = true;
+    handler.removeCallbacks(postToExecutor);
+  }
+
+  /**
+   * Reads entries until the slice's time limit is reached and returns {@code true} if there are
+   * more entries to read and {@code false} otherwise.
+   */
+  @VisibleForTesting
+  boolean warm() {
+    if (toWarm == null) {
+      toWarm = WarmStartManifest.read(manifest);
+    }
+    long start = clock.now();
+    DiskCache diskCache = diskCacheProvider.getDiskCache();
+    while (!isCancelled
+        && index < toWarm.size()
+        && remainingBytes > 0
+        && clock.now() - start < MAX_DURATION_MS) {
+      remainingBytes -= encodedMemoryCache.warm(diskCache, toWarm.get(index++));
+    }
+    if (Log.isLoggable(TAG, Log.VERBOSE)) {
+      Log.v(TAG, "Warmed " + index + " of " + toWarm.size() + " manifest entries");
+    }
+    return !isCancelled && index < toWarm.size() && remainingBytes > 0;
+  }
+
+  @Override
+  public void run() {
+    if (warm()) {
+      handler.postDelayed(postToExecutor, getNextDelay());
+    }
+  }
+
+  private long getNextDelay() {
+    long result = currentDelay;
+    currentDelay = Math.min(currentDelay * BACKOFF_RATIO, MAX_BACKOFF_MS);
+    return result;
+  }
+
+  @VisibleForTesting
+  static class Clock {
+    long now() {
+      return SystemClock.uptimeMillis();
+    }
+  }
+}
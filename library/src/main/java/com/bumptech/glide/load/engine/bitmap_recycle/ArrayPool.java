@@ -1,6 +1,11 @@
 package com.bumptech.glide.load.engine.bitmap_recycle;
 
-/** Interface for an array pool that pools arrays of different types. */
+/**
+ * Interface for an array pool that pools arrays of different types.
+ *
+ * <p>Glide requests {@code byte[]}, {@code int[]} and direct {@link java.nio.ByteBuffer}s, the
+ * latter with {@code ByteBuffer.class}, in which case the length of a buffer is its capacity.
+ */
 public interface ArrayPool {
   /**
    * A standard size to use to increase hit rates when the required size isn't defined. Currently
@@ -0,0 +1,20 @@
+package com.bumptech.glide.load.engine.bitmap_recycle;
+
+/**
+ * Exposes the hit, miss and eviction counts of a {@link BitmapPool} so that they can be reported
+ * as metrics or used to tune the size of the pool.
+ */
+public interface BitmapPoolStats {
+
+  /** Returns the number of cache hits for bitmaps in the pool. */
+  long hitCount();
+
+  /** Returns the number of cache misses for bitmaps in the pool. */
+  long missCount();
+
+  /** Returns the number of bitmaps that have been evicted from the pool. */
+  long evictionCount();
+
+  /** Returns the current size of the pool in bytes. */
+  long getCurrentSize();
+}
@@ -0,0 +1,301 @@
+package com.bumptech.glide.load.engine.bitmap_recycle;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import com.bumptech.glide.util.Util;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A {@link BitmapPool} for debug builds that wraps another {@link BitmapPool} and detects common
+ * misuses of pooled {@link Bitmap}s.
+ *
+ * <p>The stack trace of every {@link #put(Bitmap)} is recorded, and every mutable {@link Bitmap}
+ * that's put is filled with {@link #POISON_COLOR} so that code still drawing it after returning it
+ * to the pool, for example a view it's still attached to, shows an obviously wrong color. When a
+ * {@link Bitmap} is later handed out again, a handful of its pixels are checked to make sure
+ * nothing wrote to it while it was in the pool.
+ *
+ * <p>Putting a {@link Bitmap} that's already in the pool, putting a recycled {@link Bitmap} and
+ * writing to a {@link Bitmap} after putting it are reported with the stack trace of the original
+ * put attached. By default they're logged, and the offending put is dropped so that it can't
+ * corrupt the pool. Pass {@code true} for {@code throwOnMisuse} to throw an {@link
+ * IllegalStateException} instead.
+ *
+ * <p>{@link #getOccupancy()} and {@link #dump()} summarize the {@link Bitmap}s currently in the
+ * pool by size and {@link Bitmap.Config}, which helps choose pool sizes and pre-fill shapes.
+ *
+ * <p>Recording stacks, poisoning and checking pixels are all expensive, so this class should not
+ * be used in release builds.
+ */
+public final class DebugBitmapPool implements BitmapPool {
+  private static final String TAG = "DebugBitmapPool";
+  @VisibleForTesting static final int POISON_COLOR = Color.MAGENTA;
+
+  private final BitmapPool pool;
+  private final boolean throwOnMisuse;
+  // Weak so that Bitmaps the wrapped pool evicts and the application drops aren't retained.
+  private final Map<Bitmap, PutRecord> pooled = new WeakHashMap<>();
+
+  private long doublePuts;
+  private long recycledPuts;
+  private long writesAfterPut;
+
+  /**
+   * Constructor for DebugBitmapPool that logs misuses.
+   *
+   * @param pool The pool to wrap.
+   */
+  public DebugBitmapPool(@NonNull BitmapPool pool) {
+    this(pool, /* throwOnMisuse= */ false);
+  }
+
+  /**
+   * Constructor for DebugBitmapPool.
+   *
+   * @param pool The pool to wrap.
+   * @param throwOnMisuse {@code true} to throw an {@link IllegalStateException} when a misuse is
+   *     detected, {@code false} to log it.
+   */
+  public DebugBitmapPool(@NonNull BitmapPool pool, boolean throwOnMisuse) {
+    this.pool = pool;
+    this.throwOnMisuse = throwOnMisuse;
+  }
+
+  @Override
+  public long getMaxSize() {
+    return pool.getMaxSize();
+  }
+
+  @Override
+  public void setSizeMultiplier(float sizeMultiplier) {
+    pool.setSizeMultiplier(sizeMultiplier);
+  }
+
+  @Override
+  public void put(Bitmap bitmap) {
+    if (bitmap == null) {
+      throw new NullPointerException("Bitmap must not be null");
+    }
+    PutRecord record;
+    synchronized (this) {
+      if (bitmap.isRecycled()) {
+        recycledPuts++;
+        PutRecord previous = pooled.remove(bitmap);
+        onMisuse(
+            "Cannot put recycled bitmap: " + describe(bitmap),
+            previous != null ? previous.stack : null);
+        return;
+      }
+      PutRecord previous = pooled.get(bitmap);
+      if (previous != null) {
+        doublePuts++;
+        onMisuse("Cannot put bitmap already in the pool: " + describe(bitmap), previous.stack);
+        return;
+      }
+      record = new PutRecord(new Throwable("Bitmap was put here"));
+      pooled.put(bitmap, record);
+    }
+    record.poison(bitmap);
+    pool.put(bitmap);
+  }
+
+  @NonNull
+  @Override
+  public Bitmap get(int width, int height, Bitmap.Config config) {
+    // Get the dirty Bitmap so that the poison can be checked before the Bitmap is cleared.
+    Bitmap result = getDirty(width, height, config);
+    if (result.isMutable()) {
+      result.eraseColor(Color.TRANSPARENT);
+    }
+    return result;
+  }
+
+  @NonNull
+  @Override
+  public Bitmap getDirty(int width, int height, Bitmap.Config config) {
+    Bitmap result = pool.getDirty(width, height, config);
+    PutRecord record;
+    synchronized (this) {
+      record = pooled.remove(result);
+    }
+    if (record != null && !record.isPoisonIntact(result)) {
+      synchronized (this) {
+        writesAfterPut++;
+      }
+      onMisuse("Bitmap was written to after it was put: " + describe(result), record.stack);
+    }
+    return result;
+  }
+
+  @Override
+  public void clearMemory() {
+    pool.clearMemory();
+    synchronized (this) {
+      pooled.clear();
+    }
+  }
+
+  @Override
+  public void trimMemory(int level) {
+    pool.trimMemory(level);
+    synchronized (this) {
+      removeRecycled();
+    }
+  }
+
+  /** Returns the number of times a {@link Bitmap} already in the pool was put again. */
+  public synchronized long doublePutCount() {
+    return doublePuts;
+  }
+
+  /** Returns the number of times a recycled {@link Bitmap} was put. */
+  public synchronized long recycledPutCount() {
+    return recycledPuts;
+  }
+
+  /**
+   * Returns the number of {@link Bitmap}s that were found to have been written to while they were
+   * in the pool.
+   */
+  public synchronized long writeAfterPutCount() {
+    return writesAfterPut;
+  }
+
+  /**
+   * Returns one line per size and {@link Bitmap.Config} of {@link Bitmap} currently in the pool,
+   * with the number of {@link Bitmap}s and the bytes they use, largest first.
+   */
+  @NonNull
+  public synchronized List<String> getOccupancy() {
+    removeRecycled();
+    Map<String, long[]> countAndBytesByShape = new HashMap<>();
+    for (Bitmap bitmap : pooled.keySet()) {
+      String shape = bitmap.getWidth() + "x" + bitmap.getHeight() + " " + bitmap.getConfig();
+      long[] countAndBytes = countAndBytesByShape.get(shape);
+      if (countAndBytes == null) {
+        countAndBytes = new long[2];
+        countAndBytesByShape.put(shape, countAndBytes);
+      }
+      countAndBytes[0]++;
+      countAndBytes[1] += Util.getBitmapByteSize(bitmap);
+    }
+
+    List<Map.Entry<String, long[]>> entries = new ArrayList<>(countAndBytesByShape.entrySet());
+    Collections.sort(
+        entries,
+        new Comparator<Map.Entry<String, long[]>>() {
+          @Override
+          public int compare(Map.Entry<String, long[]> first, Map.Entry<String, long[]> second) {
+            long difference = second.getValue()[1] - first.getValue()[1];
+            return difference < 0 ? -1 : (difference == 0 ? 0 : 1);
+          }
+        });
+    List<String> result = new ArrayList<>(entries.size());
+    for (Map.Entry<String, long[]> entry : entries) {
+      long[] countAndBytes = entry.getValue();
+      result.add(entry.getKey() + ": count=" + countAndBytes[0] + ", bytes=" + countAndBytes[1]);
+    }
+    return result;
+  }
+
+  /** Logs the output of {@link #getOccupancy()} along with the number of misuses detected. */
+  public void dump() {
+    if (Log.isLoggable(TAG, Log.DEBUG)) {
+      StringBuilder builder = new StringBuilder();
+      synchronized (this) {
+        builder
+            .append("Double puts=")
+            .append(doublePuts)
+            .append(", recycled puts=")
+            .append(recycledPuts)
+            .append(", writes after put=")
+            .append(writesAfterPut);
+        for (String line : getOccupancy()) {
+          builder.append('\n').append(line);
+        }
+      }
+      Log.d(TAG, builder.toString());
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "DebugBitmapPool{" + pool + "}";
+  }
+
+  private void removeRecycled() {
+    Iterator<Bitmap> iterator = pooled.keySet().iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next().isRecycled()) {
+        iterator.remove();
+      }
+    }
+  }
+
+  private void onMisuse(@NonNull String message, @Nullable Throwable putStack) {
+    IllegalStateException exception = new IllegalStateException(message, putStack);
+    if (throwOnMisuse) {
+      throw exception;
+    }
+    if (Log.isLoggable(TAG, Log.ERROR)) {
+      Log.e(TAG, message, exception);
+    }
+  }
+
+  private static String describe(Bitmap bitmap) {
+    return bitmap + " [" + bitmap.getWidth() + "x" + bitmap.getHeight() + "]";
+  }
+
+  /** The stack of a single put and the pixels sampled right after poisoning the {@link Bitmap}. */
+  private static final class PutRecord {
+    private static final int SAMPLE_COUNT = 5;
+
+    final Throwable stack;
+    // Null if the Bitmap couldn't be poisoned.
+    @Nullable private int[] samples;
+
+    PutRecord(Throwable stack) {
+      this.stack = stack;
+    }
+
+    void poison(Bitmap bitmap) {
+      if (!bitmap.isMutable()) {
+        return;
+      }
+      bitmap.eraseColor(POISON_COLOR);
+      // The poison color is read back rather than compared directly because configs like
+      // ALPHA_8 and RGB_565 don't store it exactly.
+      samples = sample(bitmap);
+    }
+
+    boolean isPoisonIntact(Bitmap bitmap) {
+      return samples == null
+          || bitmap.isRecycled()
+          || Arrays.equals(samples, sample(bitmap));
+    }
+
+    private static int[] sample(Bitmap bitmap) {
+      int right = bitmap.getWidth() - 1;
+      int bottom = bitmap.getHeight() - 1;
+      int[] result = new int[SAMPLE_COUNT];
+      result[0] = bitmap.getPixel(0, 0);
+      result[1] = bitmap.getPixel(right, 0);
+      result[2] = bitmap.getPixel(0, bottom);
+      result[3] = bitmap.getPixel(right, bottom);
+      result[4] = bitmap.getPixel(right / 2, bottom / 2);
+      return result;
+    }
+  }
+}
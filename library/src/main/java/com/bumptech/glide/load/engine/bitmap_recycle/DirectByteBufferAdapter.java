@@ -0,0 +1,32 @@
+package com.bumptech.glide.load.engine.bitmap_recycle;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Adapter for handling direct {@link ByteBuffer}s, which keep their contents off of the Java heap.
+ *
+ * <p>The length of a buffer is its capacity.
+ */
+public final class DirectByteBufferAdapter implements ArrayAdapterInterface<ByteBuffer> {
+  private static final String TAG = "DirectByteBufferPool";
+
+  @Override
+  public String getTag() {
+    return TAG;
+  }
+
+  @Override
+  public int getArrayLength(ByteBuffer array) {
+    return array.capacity();
+  }
+
+  @Override
+  public ByteBuffer newArray(int length) {
+    return ByteBuffer.allocateDirect(length);
+  }
+
+  @Override
+  public int getElementSizeInBytes() {
+    return 1;
+  }
+}
@@ -5,6 +5,7 @@ import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import com.bumptech.glide.util.Preconditions;
 import com.bumptech.glide.util.Synthetic;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.NavigableMap;
@@ -13,6 +14,10 @@ import java.util.TreeMap;
 /**
  * A fixed size Array Pool that evicts arrays using an LRU strategy to keep the pool under the
  * maximum byte size.
+ *
+ * <p>In addition to {@code byte[]} and {@code int[]}, the pool accepts direct {@link ByteBuffer}s,
+ * which are requested with {@code ByteBuffer.class} and whose length is their capacity. Buffers are
+ * cleared when they're put in the pool. Heap and read only buffers are ignored.
  */
 public final class LruArrayPool implements ArrayPool {
   // 4MB.
@@ -32,6 +37,8 @@ public final class LruArrayPool implements ArrayPool {
   private final Map<Class<?>, ArrayAdapterInterface<?>> adapters = new HashMap<>();
   private final int maxSize;
   private int currentSize;
+  private int hits;
+  private int misses;
 
   @VisibleForTesting
   public LruArrayPool() {
@@ -55,8 +62,14 @@ public final class LruArrayPool implements ArrayPool {
 
   @Override
   public synchronized <T> void put(T array) {
-    @SuppressWarnings("unchecked")
-    Class<T> arrayClass = (Class<T>) array.getClass();
+    if (array instanceof ByteBuffer) {
+      ByteBuffer buffer = (ByteBuffer) array;
+      if (!buffer.isDirect() || buffer.isReadOnly()) {
+        return;
+      }
+      buffer.clear();
+    }
+    Class<T> arrayClass = getArrayClass(array);
 
     // 获取数组的 Adapter 对象。
     ArrayAdapterInterface<T> arrayAdapter = getAdapterFromType(arrayClass);
@@ -105,11 +118,13 @@ public final class LruArrayPool implements ArrayPool {
     ArrayAdapterInterface<T> arrayAdapter = getAdapterFromType(arrayClass);
     T result = getArrayForKey(key);
     if (result != null) {
+      hits++;
       currentSize -= arrayAdapter.getArrayLength(result) * arrayAdapter.getElementSizeInBytes();
       decrementArrayOfSize(arrayAdapter.getArrayLength(result), arrayClass);
     }
 
     if (result == null) {
+      misses++;
       if (Log.isLoggable(arrayAdapter.getTag(), Log.VERBOSE)) {
         Log.v(arrayAdapter.getTag(), "Allocated " + key.size + " bytes");
       }
@@ -165,7 +180,7 @@ public final class LruArrayPool implements ArrayPool {
       //获取IntegerArrayAdapter 还是 ByteArrayAdapter
       ArrayAdapterInterface<Object> arrayAdapter = getAdapterFromObject(evicted);
       currentSize -= arrayAdapter.getArrayLength(evicted) * arrayAdapter.getElementSizeInBytes();
-      decrementArrayOfSize(arrayAdapter.getArrayLength(evicted), evicted.getClass());
+      decrementArrayOfSize(arrayAdapter.getArrayLength(evicted), getArrayClass(evicted));
       if (Log.isLoggable(arrayAdapter.getTag(), Log.VERBOSE)) {
         Log.v(arrayAdapter.getTag(), "evicted: " + arrayAdapter.getArrayLength(evicted));
       }
@@ -195,9 +210,14 @@ public final class LruArrayPool implements ArrayPool {
     return sizes;
   }
 
-  @SuppressWarnings("unchecked")
   private <T> ArrayAdapterInterface<T> getAdapterFromObject(T object) {
-    return (ArrayAdapterInterface<T>) getAdapterFromType(object.getClass());
+    return getAdapterFromType(getArrayClass(object));
+  }
+
+  // Direct buffers are instances of a private subclass of ByteBuffer.
+  @SuppressWarnings("unchecked")
+  private static <T> Class<T> getArrayClass(T array) {
+    return (Class<T>) (array instanceof ByteBuffer ? ByteBuffer.class : array.getClass());
   }
 
   @SuppressWarnings("unchecked")
@@ -208,6 +228,8 @@ public final class LruArrayPool implements ArrayPool {
         adapter = new IntegerArrayAdapter();
       } else if (arrayPoolClass.equals(byte[].class)) {
         adapter = new ByteArrayAdapter();
+      } else if (arrayPoolClass.equals(ByteBuffer.class)) {
+        adapter = new DirectByteBufferAdapter();
       } else {
         throw new IllegalArgumentException(
             "No array pool found for: " + arrayPoolClass.getSimpleName());
@@ -217,8 +239,18 @@ public final class LruArrayPool implements ArrayPool {
     return (ArrayAdapterInterface<T>) adapter;
   }
 
-  // VisibleForTesting
-  int getCurrentSize() {
+  /** Returns the number of requests for arrays that were satisfied by the pool. */
+  public synchronized long hitCount() {
+    return hits;
+  }
+
+  /** Returns the number of requests for arrays that required a new allocation. */
+  public synchronized long missCount() {
+    return misses;
+  }
+
+  /** Returns the current size of the pool in bytes. */
+  public synchronized int getCurrentSize() {
     int currentSize = 0;
     for (Class<?> type : sortedSizes.keySet()) {
       for (Integer size : sortedSizes.get(type).keySet()) {
@@ -21,7 +21,7 @@ import java.util.Set;
  * and then uses an LRU eviction policy to evict {@link android.graphics.Bitmap}s from the least
  * recently used bucket in order to keep the pool below a given maximum size limit.
  */
-public class LruBitmapPool implements BitmapPool {
+public class LruBitmapPool implements BitmapPool, BitmapPoolStats {
   private static final String TAG = "LruBitmapPool";
   private static final Bitmap.Config DEFAULT_CONFIG = Bitmap.Config.ARGB_8888;
 
@@ -69,21 +69,25 @@ public class LruBitmapPool implements BitmapPool {
   }
 
   /** Returns the number of cache hits for bitmaps in the pool. */
+  @Override
   public long hitCount() {
     return hits;
   }
 
   /** Returns the number of cache misses for bitmaps in the pool. */
+  @Override
   public long missCount() {
     return misses;
   }
 
   /** Returns the number of bitmaps that have been evicted from the pool. */
+  @Override
   public long evictionCount() {
     return evictions;
   }
 
   /** Returns the current size of the pool in bytes. */
+  @Override
   public long getCurrentSize() {
     return currentSize;
   }
@@ -180,7 +184,7 @@ public class LruBitmapPool implements BitmapPool {
   }
 
   @TargetApi(Build.VERSION_CODES.O)
-  private static void assertNotHardwareConfig(Bitmap.Config config) {
+  static void assertNotHardwareConfig(Bitmap.Config config) {
     // Avoid short circuiting on sdk int since it breaks on some versions of Android.
     if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
       return;
@@ -228,7 +232,7 @@ public class LruBitmapPool implements BitmapPool {
 
   // Setting these two values provides Bitmaps that are essentially equivalent to those returned
   // from Bitmap.createBitmap.
-  private static void normalize(Bitmap bitmap) {
+  static void normalize(Bitmap bitmap) {
     bitmap.setHasAlpha(true);
     maybeSetPreMultiplied(bitmap);
   }
@@ -340,7 +344,7 @@ public class LruBitmapPool implements BitmapPool {
   }
 
   @TargetApi(Build.VERSION_CODES.O)
-  private static Set<Bitmap.Config> getDefaultAllowedConfigs() {
+  static Set<Bitmap.Config> getDefaultAllowedConfigs() {
     Set<Bitmap.Config> configs = new HashSet<>(Arrays.asList(Bitmap.Config.values()));
     if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
       // GIFs, among other types, end up with a native Bitmap config that doesn't map to a java
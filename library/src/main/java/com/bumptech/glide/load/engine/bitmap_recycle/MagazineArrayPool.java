@@ -0,0 +1,227 @@
+package com.bumptech.glide.load.engine.bitmap_recycle;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import com.bumptech.glide.util.Synthetic;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * An {@link ArrayPool} that keeps a small per thread cache, or magazine, of recently returned
+ * arrays in front of another shared {@link ArrayPool}.
+ *
+ * <p>Most arrays Glide borrows are returned by the same thread shortly afterwards, for example the
+ * {@link ArrayPool#STANDARD_BUFFER_SIZE_BYTES} buffers used while decoding. Those gets and puts are
+ * served from the calling thread's magazine without taking the lock of the shared pool. Arrays that
+ * don't fit in the magazine spill over to the shared pool, and gets that the magazine can't satisfy
+ * fall through to it.
+ *
+ * <p>Each magazine holds at most {@link #MAGAZINE_CAPACITY} arrays of at most {@link
+ * #MAX_MAGAZINE_ARRAY_BYTES} bytes each. That memory is in addition to the maximum size of the
+ * shared pool. {@link #clearMemory()} and {@link #trimMemory(int)} empty the magazines of all
+ * threads.
+ */
+public final class MagazineArrayPool implements ArrayPool {
+  @VisibleForTesting static final int MAGAZINE_CAPACITY = 4;
+  @VisibleForTesting static final int MAX_MAGAZINE_ARRAY_BYTES = STANDARD_BUFFER_SIZE_BYTES;
+
+  private final ArrayPool pool;
+  // Only accessed when a thread first uses the pool and when clearing memory.
+  private final Set<Magazine> magazines =
+      Collections.newSetFromMap(new WeakHashMap<Magazine, Boolean>());
+  private final ThreadLocal<Magazine> localMagazine =
+      new ThreadLocal<Magazine>() {
+        @Override
+        protected Magazine initialValue() {
+          return newMagazine();
+        }
+      };
+
+  /**
+   * Constructor for MagazineArrayPool.
+   *
+   * @param pool The shared pool arrays spill over to.
+   */
+  public MagazineArrayPool(@NonNull ArrayPool pool) {
+    this.pool = pool;
+  }
+
+  /** Returns the shared pool behind the per thread magazines. */
+  @NonNull
+  public ArrayPool getSharedPool() {
+    return pool;
+  }
+
+  @Deprecated
+  @Override
+  public <T> void put(T array, Class<T> arrayClass) {
+    put(array);
+  }
+
+  @Override
+  public <T> void put(T array) {
+    if (getByteSize(array) > MAX_MAGAZINE_ARRAY_BYTES || !localMagazine.get().offer(array)) {
+      pool.put(array);
+    }
+  }
+
+  @Override
+  public <T> T get(int size, Class<T> arrayClass) {
+    T result = localMagazine.get().poll(size, arrayClass, /* isExact= */ false);
+    return result != null ? result : pool.get(size, arrayClass);
+  }
+
+  @Override
+  public <T> T getExact(int size, Class<T> arrayClass) {
+    T result = localMagazine.get().poll(size, arrayClass, /* isExact= */ true);
+    return result != null ? result : pool.getExact(size, arrayClass);
+  }
+
+  @Override
+  public void clearMemory() {
+    for (Magazine magazine : getMagazines()) {
+      magazine.clear();
+    }
+    pool.clearMemory();
+  }
+
+  @Override
+  public void trimMemory(int level) {
+    if (level >= android.content.ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN
+        || level == android.content.ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+      for (Magazine magazine : getMagazines()) {
+        magazine.clear();
+      }
+    }
+    pool.trimMemory(level);
+  }
+
+  /**
+   * Returns the number of requests for arrays that were satisfied by a magazine without accessing
+   * the shared pool.
+   */
+  public long magazineHitCount() {
+    long result = 0;
+    for (Magazine magazine : getMagazines()) {
+      result += magazine.hits;
+    }
+    return result;
+  }
+
+  /** Returns the number of bytes currently held in magazines of all threads. */
+  public long getMagazineSize() {
+    long result = 0;
+    for (Magazine magazine : getMagazines()) {
+      result += magazine.getCurrentSize();
+    }
+    return result;
+  }
+
+  @Synthetic
+  Magazine newMagazine() {
+    Magazine magazine = new Magazine();
+    synchronized (magazines) {
+      magazines.add(magazine);
+    }
+    return magazine;
+  }
+
+  private List<Magazine> getMagazines() {
+    synchronized (magazines) {
+      return new ArrayList<>(magazines);
+    }
+  }
+
+  @Synthetic
+  static int getByteSize(Object array) {
+    if (array instanceof byte[]) {
+      return ((byte[]) array).length;
+    } else if (array instanceof int[]) {
+      return ((int[]) array).length * 4;
+    }
+    return Integer.MAX_VALUE;
+  }
+
+  /**
+   * A fixed number of slots that only the owning thread adds to and removes from.
+   *
+   * <p>Slots are still updated atomically so that {@link #clear()} can empty them from another
+   * thread, but the owning thread never contends with any other thread except while clearing.
+   */
+  private static final class Magazine {
+    private final AtomicReferenceArray<Object> slots =
+        new AtomicReferenceArray<>(MAGAZINE_CAPACITY);
+    // Only written by the owning thread.
+    @Synthetic volatile long hits;
+
+    @Synthetic
+    Magazine() {}
+
+    boolean offer(Object array) {
+      for (int i = 0; i < MAGAZINE_CAPACITY; i++) {
+        if (slots.get(i) == null && slots.compareAndSet(i, null, array)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    <T> T poll(int size, Class<T> arrayClass, boolean isExact) {
+      int bestIndex = -1;
+      int bestLength = Integer.MAX_VALUE;
+      for (int i = 0; i < MAGAZINE_CAPACITY; i++) {
+        Object candidate = slots.get(i);
+        if (candidate == null || candidate.getClass() != arrayClass) {
+          continue;
+        }
+        int length = getLength(candidate);
+        if (length == size) {
+          bestIndex = i;
+          break;
+        } else if (!isExact
+            && length > size
+            && length <= LruArrayPool.MAX_OVER_SIZE_MULTIPLE * size
+            && length < bestLength) {
+          bestIndex = i;
+          bestLength = length;
+        }
+      }
+      if (bestIndex == -1) {
+        return null;
+      }
+      Object result = slots.getAndSet(bestIndex, null);
+      if (result != null) {
+        hits++;
+      }
+      return (T) result;
+    }
+
+    long getCurrentSize() {
+      long result = 0;
+      for (int i = 0; i < MAGAZINE_CAPACITY; i++) {
+        Object array = slots.get(i);
+        if (array != null) {
+          result += getByteSize(array);
+        }
+      }
+      return result;
+    }
+
+    void clear() {
+      for (int i = 0; i < MAGAZINE_CAPACITY; i++) {
+        slots.set(i, null);
+      }
+    }
+
+    private static int getLength(Object array) {
+      return array instanceof byte[] ? ((byte[]) array).length : ((int[]) array).length;
+    }
+  }
+}
@@ -266,7 +266,8 @@ public class SizeConfigStrategy implements LruPoolStrategy {
     return "[" + size + "](" + config + ")";
   }
 
-  private static Bitmap.Config[] getInConfigs(Bitmap.Config requested) {
+  /** Returns the configs of {@link Bitmap}s that can be reused for the given config, in order. */
+  static Bitmap.Config[] getInConfigs(Bitmap.Config requested) {
     if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
       if (Bitmap.Config.RGBA_F16.equals(requested)) { // NOPMD - Avoid short circuiting sdk checks.
         return RGBA_F16_IN_CONFIGS;
@@ -0,0 +1,513 @@
+package com.bumptech.glide.load.engine.bitmap_recycle;
+
+import android.annotation.SuppressLint;
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.os.Build;
+import android.util.Log;
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import androidx.annotation.VisibleForTesting;
+import com.bumptech.glide.util.Preconditions;
+import com.bumptech.glide.util.Synthetic;
+import com.bumptech.glide.util.Util;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A {@link BitmapPool} that groups {@link Bitmap}s into size classes by config and spreads the
+ * groups over independently locked stripes so that threads decoding different sizes of images
+ * rarely contend.
+ *
+ * <p>Each size class covers a range of allocation sizes, with four classes per power of two, so
+ * finding a {@link Bitmap} to reuse checks a small, fixed number of classes rather than searching a
+ * sorted set of sizes. Reused {@link Bitmap}s are at most a few times larger than requested.
+ *
+ * <p>Each stripe keeps its groups in least recently used order. When the pool is larger than its
+ * maximum size, {@link Bitmap}s are evicted from the stripe whose least recently used group was
+ * used longest ago, which approximates LRU eviction across the whole pool.
+ */
+@RequiresApi(Build.VERSION_CODES.KITKAT)
+public final class StripedBitmapPool implements BitmapPool, BitmapPoolStats {
+  private static final String TAG = "StripedBitmapPool";
+  private static final Bitmap.Config DEFAULT_CONFIG = Bitmap.Config.ARGB_8888;
+  private static final int DEFAULT_STRIPE_COUNT = 8;
+  private static final int CLASSES_PER_DOUBLING_BITS = 2;
+  private static final int CLASSES_PER_DOUBLING = 1 << CLASSES_PER_DOUBLING_BITS;
+  @VisibleForTesting static final int SIZE_CLASS_COUNT = getSizeClass(Integer.MAX_VALUE) + 1;
+  // Larger classes that are checked, limits reuse to about five times the requested size.
+  private static final int MAX_LARGER_CLASSES = 2 * CLASSES_PER_DOUBLING;
+  private static final int CONFIG_COUNT = Bitmap.Config.values().length + 1;
+
+  private final Stripe[] stripes;
+  private final AtomicReferenceArray<Group> groups =
+      new AtomicReferenceArray<>(CONFIG_COUNT * SIZE_CLASS_COUNT);
+  private final Set<Bitmap.Config> allowedConfigs;
+  private final long initialMaxSize;
+  private final AtomicLong misses = new AtomicLong();
+  private final Object evictionLock = new Object();
+
+  private volatile long maxSize;
+
+  /**
+   * Constructor for StripedBitmapPool.
+   *
+   * @param maxSize The initial maximum size of the pool in bytes.
+   */
+  public StripedBitmapPool(long maxSize) {
+    this(maxSize, DEFAULT_STRIPE_COUNT, LruBitmapPool.getDefaultAllowedConfigs());
+  }
+
+  /**
+   * Constructor for StripedBitmapPool.
+   *
+   * @param maxSize The initial maximum size of the pool in bytes.
+   * @param allowedConfigs The {@link android.graphics.Bitmap.Config}s that are allowed to be put
+   *     into the pool. Configs not in the set will be rejected.
+   */
+  // Public API.
+  @SuppressWarnings("unused")
+  public StripedBitmapPool(long maxSize, Set<Bitmap.Config> allowedConfigs) {
+    this(maxSize, DEFAULT_STRIPE_COUNT, allowedConfigs);
+  }
+
+  @VisibleForTesting
+  StripedBitmapPool(long maxSize, int stripeCount, Set<Bitmap.Config> allowedConfigs) {
+    Preconditions.checkArgument(
+        stripeCount > 0 && (stripeCount & (stripeCount - 1)) == 0,
+        "Stripe count must be a power of two");
+    this.initialMaxSize = maxSize;
+    this.maxSize = maxSize;
+    this.allowedConfigs = allowedConfigs;
+    stripes = new Stripe[stripeCount];
+    for (int i = 0; i < stripeCount; i++) {
+      stripes[i] = new Stripe();
+    }
+  }
+
+  /** Returns the number of cache hits for bitmaps in the pool. */
+  @Override
+  public long hitCount() {
+    long result = 0;
+    for (Stripe stripe : stripes) {
+      result += stripe.getHits();
+    }
+    return result;
+  }
+
+  /** Returns the number of cache misses for bitmaps in the pool. */
+  @Override
+  public long missCount() {
+    return misses.get();
+  }
+
+  /** Returns the number of bitmaps that have been evicted from the pool. */
+  @Override
+  public long evictionCount() {
+    long result = 0;
+    for (Stripe stripe : stripes) {
+      result += stripe.getEvictions();
+    }
+    return result;
+  }
+
+  /** Returns the current size of the pool in bytes. */
+  @Override
+  public long getCurrentSize() {
+    long result = 0;
+    for (Stripe stripe : stripes) {
+      result += stripe.size;
+    }
+    return result;
+  }
+
+  @Override
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  @Override
+  public void setSizeMultiplier(float sizeMultiplier) {
+    maxSize = Math.round(initialMaxSize * sizeMultiplier);
+    trimToSize(maxSize);
+  }
+
+  @Override
+  public void put(Bitmap bitmap) {
+    if (bitmap == null) {
+      throw new NullPointerException("Bitmap must not be null");
+    }
+    if (bitmap.isRecycled()) {
+      throw new IllegalStateException("Cannot pool recycled bitmap");
+    }
+    int size = Util.getBitmapByteSize(bitmap);
+    if (!bitmap.isMutable() || size > maxSize || !allowedConfigs.contains(bitmap.getConfig())) {
+      if (Log.isLoggable(TAG, Log.VERBOSE)) {
+        Log.v(
+            TAG,
+            "Reject bitmap from pool"
+                + ", bitmap: "
+                + getBitmapString(size, bitmap.getConfig())
+                + ", is mutable: "
+                + bitmap.isMutable()
+                + ", is allowed config: "
+                + allowedConfigs.contains(bitmap.getConfig()));
+      }
+      bitmap.recycle();
+      return;
+    }
+
+    Group group = getOrCreateGroup(getGroupIndex(bitmap.getConfig(), getSizeClass(size)));
+    group.stripe.put(group, bitmap, size);
+    if (getCurrentSize() > maxSize) {
+      trimToSize(maxSize);
+    }
+  }
+
+  @NonNull
+  @Override
+  public Bitmap get(int width, int height, Bitmap.Config config) {
+    Bitmap result = getDirtyOrNull(width, height, config);
+    if (result != null) {
+      // Bitmaps in the pool contain random data that in some cases must be cleared for an image
+      // to be rendered correctly.
+      result.eraseColor(Color.TRANSPARENT);
+    } else {
+      result = createBitmap(width, height, config);
+    }
+    return result;
+  }
+
+  @NonNull
+  @Override
+  public Bitmap getDirty(int width, int height, Bitmap.Config config) {
+    Bitmap result = getDirtyOrNull(width, height, config);
+    if (result == null) {
+      result = createBitmap(width, height, config);
+    }
+    return result;
+  }
+
+  @NonNull
+  private static Bitmap createBitmap(int width, int height, @Nullable Bitmap.Config config) {
+    return Bitmap.createBitmap(width, height, config != null ? config : DEFAULT_CONFIG);
+  }
+
+  @Nullable
+  private Bitmap getDirtyOrNull(int width, int height, @Nullable Bitmap.Config config) {
+    LruBitmapPool.assertNotHardwareConfig(config);
+    // Config will be null for non public config types, see issue #194.
+    Bitmap.Config requestedConfig = config != null ? config : DEFAULT_CONFIG;
+    int size = Util.getBitmapByteSize(width, height, requestedConfig);
+    // The smallest class may contain Bitmaps that are too small, the groups check each Bitmap.
+    int firstClass = getSizeClass(size);
+    int lastClass = Math.min(firstClass + MAX_LARGER_CLASSES, SIZE_CLASS_COUNT - 1);
+    for (Bitmap.Config inConfig : SizeConfigStrategy.getInConfigs(requestedConfig)) {
+      for (int sizeClass = firstClass; sizeClass <= lastClass; sizeClass++) {
+        Group group = groups.get(getGroupIndex(inConfig, sizeClass));
+        // Checked without the lock so that empty groups don't cause contention.
+        if (group == null || group.count == 0) {
+          continue;
+        }
+        Bitmap result = group.stripe.get(group, size);
+        if (result != null) {
+          result.reconfigure(width, height, requestedConfig);
+          LruBitmapPool.normalize(result);
+          return result;
+        }
+      }
+    }
+    misses.incrementAndGet();
+    if (Log.isLoggable(TAG, Log.DEBUG)) {
+      Log.d(TAG, "Missing bitmap=" + getBitmapString(size, requestedConfig));
+    }
+    return null;
+  }
+
+  @Override
+  public void clearMemory() {
+    if (Log.isLoggable(TAG, Log.DEBUG)) {
+      Log.d(TAG, "clearMemory");
+    }
+    trimToSize(0);
+  }
+
+  @SuppressLint("InlinedApi")
+  @Override
+  public void trimMemory(int level) {
+    if (Log.isLoggable(TAG, Log.DEBUG)) {
+      Log.d(TAG, "trimMemory, level=" + level);
+    }
+    if ((level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND)
+        || ((Build.VERSION.SDK_INT >= Build.VERSION_CODES.M)
+            && (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN))) {
+      clearMemory();
+    } else if ((level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN)
+        || (level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL)) {
+      trimToSize(getMaxSize() / 2);
+    }
+  }
+
+  private void trimToSize(long size) {
+    // Evictions are serialized so that concurrent puts don't evict more than necessary.
+    synchronized (evictionLock) {
+      while (getCurrentSize() > size) {
+        Stripe oldest = null;
+        long oldestAccessNanos = Long.MAX_VALUE;
+        for (Stripe stripe : stripes) {
+          long accessNanos = stripe.oldestAccessNanos;
+          if (accessNanos < oldestAccessNanos) {
+            oldest = stripe;
+            oldestAccessNanos = accessNanos;
+          }
+        }
+        if (oldest == null) {
+          return;
+        }
+        Bitmap removed = oldest.evictOldest();
+        if (removed != null) {
+          if (Log.isLoggable(TAG, Log.DEBUG)) {
+            Log.d(TAG, "Evicting bitmap=" + getBitmapString(removed));
+          }
+          removed.recycle();
+        }
+      }
+    }
+  }
+
+  private Group getOrCreateGroup(int index) {
+    Group group = groups.get(index);
+    if (group == null) {
+      group = new Group(stripes[index & (stripes.length - 1)]);
+      if (!groups.compareAndSet(index, null, group)) {
+        group = groups.get(index);
+      }
+    }
+    return group;
+  }
+
+  private static int getGroupIndex(@Nullable Bitmap.Config config, int sizeClass) {
+    int configIndex = config == null ? 0 : config.ordinal() + 1;
+    // Adjacent size classes are in adjacent groups, so they're spread across stripes.
+    return configIndex * SIZE_CLASS_COUNT + sizeClass;
+  }
+
+  /**
+   * Returns the size class of the given size, the largest class whose smallest size is at most the
+   * given size.
+   */
+  @VisibleForTesting
+  static int getSizeClass(int size) {
+    if (size < CLASSES_PER_DOUBLING) {
+      return size;
+    }
+    int log2 = 31 - Integer.numberOfLeadingZeros(size);
+    int shift = log2 - CLASSES_PER_DOUBLING_BITS;
+    return CLASSES_PER_DOUBLING * (shift + 1) + (size >>> shift) - CLASSES_PER_DOUBLING;
+  }
+
+  /** Returns the smallest size in the given size class. */
+  @VisibleForTesting
+  static int getSizeClassMinSize(int sizeClass) {
+    if (sizeClass < CLASSES_PER_DOUBLING) {
+      return sizeClass;
+    }
+    int shift = sizeClass / CLASSES_PER_DOUBLING - 1;
+    return (CLASSES_PER_DOUBLING + sizeClass % CLASSES_PER_DOUBLING) << shift;
+  }
+
+  @Synthetic
+  static String getBitmapString(Bitmap bitmap) {
+    return getBitmapString(Util.getBitmapByteSize(bitmap), bitmap.getConfig());
+  }
+
+  private static String getBitmapString(int size, Bitmap.Config config) {
+    return "[" + size + "](" + config + ")";
+  }
+
+  /**
+   * A set of pooled {@link Bitmap}s that share a stripe and so are evicted together in least
+   * recently used order.
+   */
+  private static final class Stripe {
+    // The sentinel of a circular list of non-empty groups, least recently used first.
+    @GuardedBy("this")
+    private final Group lruHead = new Group(null);
+
+    @GuardedBy("this")
+    private long hits;
+
+    @GuardedBy("this")
+    private long evictions;
+
+    // Written while holding this, read without it.
+    @Synthetic volatile long size;
+    @Synthetic volatile long oldestAccessNanos = Long.MAX_VALUE;
+
+    @Synthetic
+    Stripe() {
+      lruHead.next = lruHead;
+      lruHead.prev = lruHead;
+    }
+
+    synchronized void put(Group group, Bitmap bitmap, int bitmapSize) {
+      group.add(bitmap, bitmapSize);
+      size += bitmapSize;
+      makeMostRecentlyUsed(group);
+    }
+
+    /** Returns a {@link Bitmap} from the given group that's at least the given size, if any. */
+    @Nullable
+    synchronized Bitmap get(Group group, int minSize) {
+      Bitmap result = group.removeAtLeast(minSize);
+      if (result == null) {
+        return null;
+      }
+      hits++;
+      size -= group.removedSize;
+      if (group.count == 0) {
+        unlink(group);
+      } else {
+        makeMostRecentlyUsed(group);
+      }
+      updateOldestAccess();
+      return result;
+    }
+
+    @Nullable
+    synchronized Bitmap evictOldest() {
+      Group group = lruHead.next;
+      if (group == lruHead) {
+        return null;
+      }
+      Bitmap result = group.removeOldest();
+      evictions++;
+      size -= group.removedSize;
+      if (group.count == 0) {
+        unlink(group);
+        updateOldestAccess();
+      }
+      return result;
+    }
+
+    synchronized long getHits() {
+      return hits;
+    }
+
+    synchronized long getEvictions() {
+      return evictions;
+    }
+
+    @GuardedBy("this")
+    private void makeMostRecentlyUsed(Group group) {
+      if (group.next != null) {
+        unlink(group);
+      }
+      group.accessNanos = System.nanoTime();
+      group.prev = lruHead.prev;
+      group.next = lruHead;
+      lruHead.prev.next = group;
+      lruHead.prev = group;
+      updateOldestAccess();
+    }
+
+    @GuardedBy("this")
+    private void unlink(Group group) {
+      group.prev.next = group.next;
+      group.next.prev = group.prev;
+      group.prev = null;
+      group.next = null;
+    }
+
+    @GuardedBy("this")
+    private void updateOldestAccess() {
+      Group oldest = lruHead.next;
+      oldestAccessNanos = oldest == lruHead ? Long.MAX_VALUE : oldest.accessNanos;
+    }
+  }
+
+  /**
+   * The pooled {@link Bitmap}s of a single config and size class, oldest first, guarded by the
+   * group's {@link Stripe}.
+   */
+  private static final class Group {
+    private static final int INITIAL_CAPACITY = 4;
+    // The number of most recently added Bitmaps checked for one that's large enough.
+    private static final int MAX_CHECKED = 4;
+
+    @Synthetic final Stripe stripe;
+    // Written while holding the stripe's lock, read without it.
+    @Synthetic volatile int count;
+    @Synthetic long accessNanos;
+    @Synthetic Group prev;
+    @Synthetic Group next;
+    // The size of the most recently removed Bitmap.
+    @Synthetic int removedSize;
+
+    private Bitmap[] bitmaps = new Bitmap[INITIAL_CAPACITY];
+    private int[] sizes = new int[INITIAL_CAPACITY];
+    private int head;
+
+    @Synthetic
+    Group(Stripe stripe) {
+      this.stripe = stripe;
+    }
+
+    void add(Bitmap bitmap, int size) {
+      if (count == bitmaps.length) {
+        grow();
+      }
+      int index = (head + count) & (bitmaps.length - 1);
+      bitmaps[index] = bitmap;
+      sizes[index] = size;
+      count++;
+    }
+
+    @Nullable
+    Bitmap removeAtLeast(int minSize) {
+      int mask = bitmaps.length - 1;
+      int newest = (head + count - 1) & mask;
+      for (int i = 0, checked = Math.min(count, MAX_CHECKED); i < checked; i++) {
+        int index = (newest - i) & mask;
+        if (sizes[index] >= minSize) {
+          Bitmap result = bitmaps[index];
+          removedSize = sizes[index];
+          // Fill the gap with the newest Bitmap, which slightly reorders the group.
+          bitmaps[index] = bitmaps[newest];
+          sizes[index] = sizes[newest];
+          bitmaps[newest] = null;
+          count--;
+          return result;
+        }
+      }
+      return null;
+    }
+
+    Bitmap removeOldest() {
+      Bitmap result = bitmaps[head];
+      removedSize = sizes[head];
+      bitmaps[head] = null;
+      head = (head + 1) & (bitmaps.length - 1);
+      count--;
+      return result;
+    }
+
+    private void grow() {
+      int length = bitmaps.length;
+      Bitmap[] newBitmaps = new Bitmap[length * 2];
+      int[] newSizes = new int[length * 2];
+      for (int i = 0; i < count; i++) {
+        int index = (head + i) & (length - 1);
+        newBitmaps[i] = bitmaps[index];
+        newSizes[i] = sizes[index];
+      }
+      bitmaps = newBitmaps;
+      sizes = newSizes;
+      head = 0;
+    }
+  }
+}
@@ -0,0 +1,253 @@
+package com.bumptech.glide.load.engine.cache;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPoolStats;
+
+/**
+ * Periodically moves bytes between a {@link BitmapPool} and a {@link MemoryCache} based on the
+ * hits, misses and evictions each observed in the most recent window, while keeping their combined
+ * maximum size fixed.
+ *
+ * <p>The bitmap pool is considered starved if it's nearly full, evicted {@link
+ * android.graphics.Bitmap}s during the window and still failed to provide a large fraction of the
+ * {@link android.graphics.Bitmap}s requested from it. The memory cache is considered starved if
+ * it's nearly full and evicted resources during the window. If exactly one of the two is starved,
+ * a small fraction of the combined budget is moved from the other to it. Neither is ever shrunk
+ * below half its initial size.
+ *
+ * <p>Windows start out short and double in length each time a window passes with no activity, so
+ * an idle app doesn't wake up the main thread frequently.
+ *
+ * <p>Sizes are tracked relative to {@link com.bumptech.glide.MemoryCategory#NORMAL}, so {@link
+ * #setSizeMultiplier(float)} scales both targets in the same way {@link
+ * com.bumptech.glide.Glide#setMemoryCategory(com.bumptech.glide.MemoryCategory)} would.
+ *
+ * <p>All methods other than the getters must be called on the main thread.
+ */
+public final class AdaptiveMemoryBudget implements Runnable {
+  private static final String TAG = "AdaptiveMemoryBudget";
+  @VisibleForTesting static final long INITIAL_WINDOW_MS = 5000;
+  @VisibleForTesting static final long MAX_WINDOW_MS = 60000;
+  // The fraction of the combined budget moved after a single window.
+  @VisibleForTesting static final float STEP_FRACTION = 0.05f;
+  // The fraction of requests the pool has to miss before it's considered starved.
+  @VisibleForTesting static final float STARVED_MISS_RATE = 0.2f;
+  // How full the pool or the cache has to be before it's considered starved.
+  private static final float NEARLY_FULL_FRACTION = 0.9f;
+
+  private final BitmapPool bitmapPool;
+  private final BitmapPoolStats bitmapPoolStats;
+  private final MemoryCache memoryCache;
+  private final MemoryCacheStats memoryCacheStats;
+  private final Handler handler;
+  private final long initialBitmapPoolSize;
+  private final long initialMemoryCacheSize;
+  private final long stepSize;
+
+  private volatile long bitmapPoolTargetSize;
+  private volatile long memoryCacheTargetSize;
+  private volatile long movesToBitmapPool;
+  private volatile long movesToMemoryCache;
+  private float sizeMultiplier = 1f;
+  private long windowMs = INITIAL_WINDOW_MS;
+  private long lastPoolHits;
+  private long lastPoolMisses;
+  private long lastPoolEvictions;
+  private long lastCacheEvictions;
+  private boolean isRunning;
+
+  /**
+   * Returns {@code true} if the given {@link BitmapPool} and {@link MemoryCache} expose the
+   * statistics this class needs and have non-zero sizes.
+   */
+  public static boolean canAdapt(@NonNull BitmapPool bitmapPool, @NonNull MemoryCache memoryCache) {
+    return bitmapPool instanceof BitmapPoolStats
+        && memoryCache instanceof MemoryCacheStats
+        && bitmapPool.getMaxSize() > 0
+        && memoryCache.getMaxSize() > 0;
+  }
+
+  /**
+   * Constructor for AdaptiveMemoryBudget.
+   *
+   * @param bitmapPool A {@link BitmapPool} that implements {@link BitmapPoolStats}.
+   * @param memoryCache A {@link MemoryCache} that implements {@link MemoryCacheStats}.
+   * @see #canAdapt(BitmapPool, MemoryCache)
+   */
+  public AdaptiveMemoryBudget(@NonNull BitmapPool bitmapPool, @NonNull MemoryCache memoryCache) {
+    this(bitmapPool, memoryCache, new Handler(Looper.getMainLooper()));
+  }
+
+  @VisibleForTesting
+  AdaptiveMemoryBudget(
+      @NonNull BitmapPool bitmapPool, @NonNull MemoryCache memoryCache, @NonNull Handler handler) {
+    if (!canAdapt(bitmapPool, memoryCache)) {
+      throw new IllegalArgumentException(
+          "Cannot adapt "
+              + bitmapPool
+              + " and "
+              + memoryCache
+              + ", both must expose stats and have non-zero sizes");
+    }
+    this.bitmapPool = bitmapPool;
+    this.bitmapPoolStats = (BitmapPoolStats) bitmapPool;
+    this.memoryCache = memoryCache;
+    this.memoryCacheStats = (MemoryCacheStats) memoryCache;
+    this.handler = handler;
+    initialBitmapPoolSize = bitmapPool.getMaxSize();
+    initialMemoryCacheSize = memoryCache.getMaxSize();
+    bitmapPoolTargetSize = initialBitmapPoolSize;
+    memoryCacheTargetSize = initialMemoryCacheSize;
+    stepSize = (long) ((initialBitmapPoolSize + initialMemoryCacheSize) * STEP_FRACTION);
+  }
+
+  /** Starts observing the bitmap pool and memory cache. */
+  public void start() {
+    if (isRunning) {
+      return;
+    }
+    isRunning = true;
+    windowMs = INITIAL_WINDOW_MS;
+    startWindow();
+    handler.postDelayed(this, windowMs);
+  }
+
+  /** Stops observing the bitmap pool and memory cache, leaving their current sizes in place. */
+  public void stop() {
+    isRunning = false;
+    handler.removeCallbacks(this);
+  }
+
+  /**
+   * Scales the current targets of both the bitmap pool and the memory cache by the given
+   * multiplier.
+   *
+   * <p>Use this method instead of calling {@link BitmapPool#setSizeMultiplier(float)} and {@link
+   * MemoryCache#setSizeMultiplier(float)} directly, otherwise the next adjustment will undo the
+   * change.
+   */
+  public void setSizeMultiplier(float multiplier) {
+    sizeMultiplier = multiplier;
+    applyTargetSizes();
+    startWindow();
+  }
+
+  /**
+   * Returns the current maximum size of the bitmap pool in bytes for {@link
+   * com.bumptech.glide.MemoryCategory#NORMAL}.
+   */
+  public long getBitmapPoolTargetSize() {
+    return bitmapPoolTargetSize;
+  }
+
+  /**
+   * Returns the current maximum size of the memory cache in bytes for {@link
+   * com.bumptech.glide.MemoryCategory#NORMAL}.
+   */
+  public long getMemoryCacheTargetSize() {
+    return memoryCacheTargetSize;
+  }
+
+  /** Returns the number of times bytes have been moved from the memory cache to the bitmap pool. */
+  public long getMovesToBitmapPool() {
+    return movesToBitmapPool;
+  }
+
+  /** Returns the number of times bytes have been moved from the bitmap pool to the memory cache. */
+  public long getMovesToMemoryCache() {
+    return movesToMemoryCache;
+  }
+
+  @VisibleForTesting
+  long getWindowMs() {
+    return windowMs;
+  }
+
+  @Override
+  public void run() {
+    if (!isRunning) {
+      return;
+    }
+    onWindowEnd();
+    handler.postDelayed(this, windowMs);
+  }
+
+  @VisibleForTesting
+  void onWindowEnd() {
+    long poolHits = bitmapPoolStats.hitCount() - lastPoolHits;
+    long poolMisses = bitmapPoolStats.missCount() - lastPoolMisses;
+    long poolEvictions = bitmapPoolStats.evictionCount() - lastPoolEvictions;
+    long cacheEvictions = memoryCacheStats.evictionCount() - lastCacheEvictions;
+
+    long poolRequests = poolHits + poolMisses;
+    if (poolRequests == 0 && cacheEvictions == 0) {
+      windowMs = Math.min(windowMs * 2, MAX_WINDOW_MS);
+      startWindow();
+      return;
+    }
+    windowMs = INITIAL_WINDOW_MS;
+
+    boolean isPoolStarved =
+        poolEvictions > 0
+            && poolMisses >= STARVED_MISS_RATE * poolRequests
+            && isNearlyFull(bitmapPoolStats.getCurrentSize(), bitmapPool.getMaxSize());
+    boolean isCacheStarved =
+        cacheEvictions > 0
+            && isNearlyFull(memoryCache.getCurrentSize(), memoryCache.getMaxSize());
+
+    if (isPoolStarved && !isCacheStarved) {
+      long amount = Math.min(stepSize, memoryCacheTargetSize - initialMemoryCacheSize / 2);
+      if (amount > 0) {
+        memoryCacheTargetSize -= amount;
+        bitmapPoolTargetSize += amount;
+        movesToBitmapPool++;
+        applyTargetSizes();
+      }
+    } else if (isCacheStarved && !isPoolStarved) {
+      long amount = Math.min(stepSize, bitmapPoolTargetSize - initialBitmapPoolSize / 2);
+      if (amount > 0) {
+        bitmapPoolTargetSize -= amount;
+        memoryCacheTargetSize += amount;
+        movesToMemoryCache++;
+        applyTargetSizes();
+      }
+    }
+    // Start the next window after applying any changes so that evictions caused by shrinking the
+    // pool or the cache aren't mistaken for pressure in the next window.
+    startWindow();
+  }
+
+  private void applyTargetSizes() {
+    if (Log.isLoggable(TAG, Log.VERBOSE)) {
+      Log.v(
+          TAG,
+          "Applying sizes, pool: "
+              + bitmapPoolTargetSize
+              + ", cache: "
+              + memoryCacheTargetSize
+              + ", multiplier: "
+              + sizeMultiplier);
+    }
+    // memory cache needs to be trimmed before bitmap pool to trim re-pooled Bitmaps too. See #687.
+    memoryCache.setSizeMultiplier(
+        sizeMultiplier * memoryCacheTargetSize / (float) initialMemoryCacheSize);
+    bitmapPool.setSizeMultiplier(
+        sizeMultiplier * bitmapPoolTargetSize / (float) initialBitmapPoolSize);
+  }
+
+  private void startWindow() {
+    lastPoolHits = bitmapPoolStats.hitCount();
+    lastPoolMisses = bitmapPoolStats.missCount();
+    lastPoolEvictions = bitmapPoolStats.evictionCount();
+    lastCacheEvictions = memoryCacheStats.evictionCount();
+  }
+
+  private static boolean isNearlyFull(long currentSize, long maxSize) {
+    return currentSize >= NEARLY_FULL_FRACTION * maxSize;
+  }
+}
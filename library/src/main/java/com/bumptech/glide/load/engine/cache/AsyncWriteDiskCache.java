@@ -0,0 +1,45 @@
+package com.bumptech.glide.load.engine.cache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.bumptech.glide.load.Key;
+
+/**
+ * A {@link DiskCache} that can write entries in the background, see {@link WriteBehindDiskCache}.
+ *
+ * <p>Caches that wrap another cache should implement this interface and forward to the wrapped
+ * cache if it implements it too, or reject every entry otherwise.
+ *
+ * <p>This is an experimental API that may be removed in the future.
+ */
+public interface AsyncWriteDiskCache extends DiskCache {
+
+  /**
+   * Returns the maximum total size in bytes of entries waiting to be written, or {@code 0} if
+   * entries are never queued.
+   */
+  long getMaxPendingSize();
+
+  /**
+   * Queues the given entry to be written in the background.
+   *
+   * @param size The approximate number of bytes the entry holds onto until it's written.
+   * @param onWritten Called on an arbitrary thread once the entry has been written, or has been
+   *     discarded because the key was already queued or was deleted, but not if this method
+   *     returns {@code false}.
+   * @return {@code true} if the entry was queued or the key was already queued, or {@code false} if
+   *     the entry can't be queued and the caller should write it with {@link #put(Key, Writer)}.
+   */
+  boolean putAsync(
+      @NonNull Key key, @NonNull Writer writer, long size, @Nullable Runnable onWritten);
+
+  /**
+   * Queues the given contents of an entry to be written in the background.
+   *
+   * <p>The contents must not be modified afterwards.
+   *
+   * @return {@code true} if the entry was queued or the key was already queued, or {@code false} if
+   *     the entry can't be queued and the caller should write it with {@link #put(Key, Writer)}.
+   */
+  boolean putBytesAsync(@NonNull Key key, @NonNull byte[] bytes);
+}
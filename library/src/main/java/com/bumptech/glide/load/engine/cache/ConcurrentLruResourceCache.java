@@ -0,0 +1,81 @@
+package com.bumptech.glide.load.engine.cache;
+
+import android.annotation.SuppressLint;
+import androidx.annotation.NonNull;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.util.ConcurrentLruCache;
+import com.bumptech.glide.util.EvictionPolicy;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An approximately LRU in memory cache for {@link com.bumptech.glide.load.engine.Resource}s that
+ * doesn't serialize reads and cache misses on a single lock.
+ *
+ * <p>Size accounting and {@link #trimMemory(int)} behave identically to {@link LruResourceCache}.
+ * See {@link ConcurrentLruCache} for details on how eviction order is maintained.
+ */
+public class ConcurrentLruResourceCache extends ConcurrentLruCache<Key, Resource<?>>
+    implements MemoryCache, MemoryCacheStats {
+  private final AtomicLong evictions = new AtomicLong();
+  private volatile ResourceRemovedListener listener;
+
+  /**
+   * Constructor for ConcurrentLruResourceCache.
+   *
+   * @param size The maximum size in bytes the in memory cache can use.
+   */
+  public ConcurrentLruResourceCache(long size) {
+    super(size);
+  }
+
+  /**
+   * Constructor for ConcurrentLruResourceCache.
+   *
+   * @param size The maximum size in bytes the in memory cache can use.
+   * @param evictionPolicy The policy used to choose which resources to evict.
+   */
+  public ConcurrentLruResourceCache(long size, @NonNull EvictionPolicy evictionPolicy) {
+    super(size, evictionPolicy);
+  }
+
+  @Override
+  public void setResourceRemovedListener(@NonNull ResourceRemovedListener listener) {
+    this.listener = listener;
+  }
+
+  @Override
+  public long evictionCount() {
+    return evictions.get();
+  }
+
+  @Override
+  protected void onItemEvicted(@NonNull Key key, @NonNull Resource<?> item) {
+    evictions.incrementAndGet();
+    ResourceRemovedListener listener = this.listener;
+    if (listener != null) {
+      listener.onResourceRemoved(item);
+    }
+  }
+
+  @Override
+  protected int getSize(@NonNull Resource<?> item) {
+    return item.getSize();
+  }
+
+  @SuppressLint("InlinedApi")
+  @Override
+  public void trimMemory(int level) {
+    if (level >= android.content.ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+      // Entering list of cached background apps
+      // Evict our entire bitmap cache
+      clearMemory();
+    } else if (level >= android.content.ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN
+        || level == android.content.ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+      // The app's UI is no longer visible, or app is in the foreground but system is running
+      // critically low on memory
+      // Evict oldest half of our bitmap cache
+      trimToSize(getMaxSize() / 2);
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package com.bumptech.glide.load.engine.cache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.bumptech.glide.load.Key;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link DiskCache} that can return the contents of some entries without a {@link java.io.File}
+ * of their own, for example because they're packed together in a larger file.
+ *
+ * <p>Glide reads entries with these methods when they can be decoded directly from memory, and
+ * falls back to {@link #get(Key)} if they return {@code null}. Caches that wrap another cache
+ * should implement this interface and forward to the wrapped cache if it implements it too.
+ *
+ * <p>This is an experimental API that may be removed in the future.
+ */
+public interface DirectReadDiskCache extends DiskCache {
+
+  /**
+   * Returns the contents of the entry for the given key, or {@code null} if the entry is missing or
+   * can only be read from the {@link java.io.File} returned by {@link #get(Key)}.
+   *
+   * <p>The returned array must not be modified. Must not be called on the main thread.
+   */
+  @Nullable
+  byte[] getBytes(@NonNull Key key);
+
+  /**
+   * Returns a buffer over the contents of the entry for the given key, or {@code null} if the entry
+   * is missing or can only be read from the {@link java.io.File} returned by {@link #get(Key)}.
+   *
+   * <p>Unlike {@link #getBytes(Key)}, the contents may not have been read into memory yet, for
+   * example if the buffer is a memory mapping of a cache file. The returned buffer must not be
+   * modified. Must not be called on the main thread.
+   */
+  @Nullable
+  ByteBuffer getBuffer(@NonNull Key key);
+}
@@ -0,0 +1,49 @@
+package com.bumptech.glide.load.engine.cache;
+
+import android.util.Log;
+import java.io.File;
+import java.util.List;
+
+/** Utilities for disk caches that keep their entries in sub directories of a cache directory. */
+final class DiskCacheDirectories {
+  private static final String TAG = "DiskCacheDirectories";
+
+  private DiskCacheDirectories() {
+    // Utility class.
+  }
+
+  /**
+   * Deletes everything in the given directory other than the given sub directories, for example
+   * the entries of a different kind of disk cache that previously used the directory, and creates
+   * the given sub directories if they don't exist.
+   */
+  static void prepare(File directory, List<File> subDirectories) {
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        if (!subDirectories.contains(file) && !deleteRecursively(file)) {
+          if (Log.isLoggable(TAG, Log.WARN)) {
+            Log.w(TAG, "Failed to delete unused disk cache file: " + file);
+          }
+        }
+      }
+    }
+    for (File subDirectory : subDirectories) {
+      if (!subDirectory.isDirectory() && !subDirectory.mkdirs()) {
+        if (Log.isLoggable(TAG, Log.WARN)) {
+          Log.w(TAG, "Failed to create disk cache directory: " + subDirectory);
+        }
+      }
+    }
+  }
+
+  private static boolean deleteRecursively(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        deleteRecursively(child);
+      }
+    }
+    return file.delete();
+  }
+}
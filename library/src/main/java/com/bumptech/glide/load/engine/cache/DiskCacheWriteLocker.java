@@ -16,29 +16,58 @@ import java.util.concurrent.locks.ReentrantLock;
  * <p>This class will be accessed by multiple threads in a thread pool and ensures that the number
  * of threads interested in each lock is updated atomically so that when the count reaches 0, the
  * lock can safely be removed from the map.
+ *
+ * <p>Keys are split across a fixed number of stripes by their hash, each with its own map, pool
+ * and monitor, so threads acquiring and releasing locks for different keys rarely wait on the same
+ * monitor. Monitors are only held to update the map, never while a lock is waited for or held.
  */
 final class DiskCacheWriteLocker {
-  private final Map<String, WriteLock> locks = new HashMap<>();
-  private final WriteLockPool writeLockPool = new WriteLockPool();
+  // A power of two so that a stripe can be chosen with a mask.
+  private static final int STRIPE_COUNT = 16;
+
+  private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+
+  DiskCacheWriteLocker() {
+    for (int i = 0; i < STRIPE_COUNT; i++) {
+      stripes[i] = new Stripe();
+    }
+  }
 
   void acquire(String safeKey) {
-    WriteLock writeLock;
-    synchronized (this) {
-      writeLock = locks.get(safeKey);
+    WriteLock writeLock = getStripe(safeKey).obtain(safeKey);
+    writeLock.lock.lock();
+  }
+
+  void release(String safeKey) {
+    WriteLock writeLock = getStripe(safeKey).release(safeKey);
+    writeLock.lock.unlock();
+  }
+
+  private Stripe getStripe(String safeKey) {
+    int hash = safeKey.hashCode();
+    // Mixes the high bits into the low bits used by the mask.
+    return stripes[(hash ^ (hash >>> 16)) & (STRIPE_COUNT - 1)];
+  }
+
+  private static final class Stripe {
+    private final Map<String, WriteLock> locks = new HashMap<>();
+    private final WriteLockPool writeLockPool = new WriteLockPool();
+
+    @Synthetic
+    Stripe() {}
+
+    synchronized WriteLock obtain(String safeKey) {
+      WriteLock writeLock = locks.get(safeKey);
       if (writeLock == null) {
         writeLock = writeLockPool.obtain();
         locks.put(safeKey, writeLock);
       }
       writeLock.interestedThreads++;
+      return writeLock;
     }
 
-    writeLock.lock.lock();
-  }
-
-  void release(String safeKey) {
-    WriteLock writeLock;
-    synchronized (this) {
-      writeLock = Preconditions.checkNotNull(locks.get(safeKey));
+    synchronized WriteLock release(String safeKey) {
+      WriteLock writeLock = Preconditions.checkNotNull(locks.get(safeKey));
       if (writeLock.interestedThreads < 1) {
         throw new IllegalStateException(
             "Cannot release a lock that is not held"
@@ -63,9 +92,8 @@ final class DiskCacheWriteLocker {
         }
         writeLockPool.offer(removed);
       }
+      return writeLock;
     }
-
-    writeLock.lock.unlock();
   }
 
   private static class WriteLock {
@@ -76,18 +104,16 @@ final class DiskCacheWriteLocker {
     WriteLock() {}
   }
 
+  /** A pool of unused locks for a single stripe, only accessed while the stripe is locked. */
   private static class WriteLockPool {
-    private static final int MAX_POOL_SIZE = 10;
-    private final Queue<WriteLock> pool = new ArrayDeque<>();
+    private static final int MAX_POOL_SIZE = 4;
+    private final Queue<WriteLock> pool = new ArrayDeque<>(MAX_POOL_SIZE);
 
     @Synthetic
     WriteLockPool() {}
 
     WriteLock obtain() {
-      WriteLock result;
-      synchronized (pool) {
-        result = pool.poll();
-      }
+      WriteLock result = pool.poll();
       if (result == null) {
         result = new WriteLock();
       }
@@ -95,10 +121,8 @@ final class DiskCacheWriteLocker {
     }
 
     void offer(WriteLock writeLock) {
-      synchronized (pool) {
-        if (pool.size() < MAX_POOL_SIZE) {
-          pool.offer(writeLock);
-        }
+      if (pool.size() < MAX_POOL_SIZE) {
+        pool.offer(writeLock);
       }
     }
   }
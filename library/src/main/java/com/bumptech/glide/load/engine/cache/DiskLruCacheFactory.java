@@ -14,6 +14,9 @@ import java.io.File;
 public class DiskLruCacheFactory implements DiskCache.Factory {
   private final long diskCacheSize;
   private final CacheDirectoryGetter cacheDirectoryGetter;
+  private final boolean useBinaryJournal;
+  private final boolean delayJournalFlushes;
+  private final boolean useFastSafeKeys;
 
   /** Interface called out of UI thread to get the cache folder. */
   public interface CacheDirectoryGetter {
@@ -53,8 +56,86 @@ public class DiskLruCacheFactory implements DiskCache.Factory {
   // Public API.
   @SuppressWarnings("WeakerAccess")
   public DiskLruCacheFactory(CacheDirectoryGetter cacheDirectoryGetter, long diskCacheSize) {
+    this(cacheDirectoryGetter, diskCacheSize, /* useBinaryJournal= */ false);
+  }
+
+  /**
+   * When using this constructor {@link CacheDirectoryGetter#getCacheDirectory()} will be called out
+   * of UI thread, allowing to do I/O access without performance impacts.
+   *
+   * <p>This is an experimental API that may be removed in the future.
+   *
+   * @param cacheDirectoryGetter Interface called out of UI thread to get the cache folder.
+   * @param diskCacheSize Desired max bytes size for the LRU disk cache.
+   * @param useBinaryJournal {@code true} to keep the cache's journal in a memory mapped binary
+   *     format that's faster to open and write to. See {@link DiskLruCacheWrapper#create(File,
+   *     long, boolean)}.
+   */
+  // Public API.
+  @SuppressWarnings("WeakerAccess")
+  public DiskLruCacheFactory(
+      CacheDirectoryGetter cacheDirectoryGetter, long diskCacheSize, boolean useBinaryJournal) {
+    this(cacheDirectoryGetter, diskCacheSize, useBinaryJournal, /* delayJournalFlushes= */ false);
+  }
+
+  /**
+   * When using this constructor {@link CacheDirectoryGetter#getCacheDirectory()} will be called out
+   * of UI thread, allowing to do I/O access without performance impacts.
+   *
+   * <p>This is an experimental API that may be removed in the future.
+   *
+   * @param cacheDirectoryGetter Interface called out of UI thread to get the cache folder.
+   * @param diskCacheSize Desired max bytes size for the LRU disk cache.
+   * @param useBinaryJournal {@code true} to keep the cache's journal in a memory mapped binary
+   *     format that's faster to open and write to.
+   * @param delayJournalFlushes {@code true} to flush the records of concurrent writes to the text
+   *     journal together rather than after every write. See {@link
+   *     DiskLruCacheWrapper#create(File, long, boolean, boolean)}.
+   */
+  // Public API.
+  @SuppressWarnings("WeakerAccess")
+  public DiskLruCacheFactory(
+      CacheDirectoryGetter cacheDirectoryGetter,
+      long diskCacheSize,
+      boolean useBinaryJournal,
+      boolean delayJournalFlushes) {
+    this(
+        cacheDirectoryGetter,
+        diskCacheSize,
+        useBinaryJournal,
+        delayJournalFlushes,
+        /* useFastSafeKeys= */ false);
+  }
+
+  /**
+   * When using this constructor {@link CacheDirectoryGetter#getCacheDirectory()} will be called out
+   * of UI thread, allowing to do I/O access without performance impacts.
+   *
+   * <p>This is an experimental API that may be removed in the future.
+   *
+   * @param cacheDirectoryGetter Interface called out of UI thread to get the cache folder.
+   * @param diskCacheSize Desired max bytes size for the LRU disk cache.
+   * @param useBinaryJournal {@code true} to keep the cache's journal in a memory mapped binary
+   *     format that's faster to open and write to.
+   * @param delayJournalFlushes {@code true} to flush the records of concurrent writes to the text
+   *     journal together rather than after every write.
+   * @param useFastSafeKeys {@code true} to name entries with a fast non-cryptographic hash of their
+   *     keys rather than SHA-256. See {@link DiskLruCacheWrapper#create(File, long, boolean,
+   *     boolean, boolean)}.
+   */
+  // Public API.
+  @SuppressWarnings("WeakerAccess")
+  public DiskLruCacheFactory(
+      CacheDirectoryGetter cacheDirectoryGetter,
+      long diskCacheSize,
+      boolean useBinaryJournal,
+      boolean delayJournalFlushes,
+      boolean useFastSafeKeys) {
     this.diskCacheSize = diskCacheSize;
     this.cacheDirectoryGetter = cacheDirectoryGetter;
+    this.useBinaryJournal = useBinaryJournal;
+    this.delayJournalFlushes = delayJournalFlushes;
+    this.useFastSafeKeys = useFastSafeKeys;
   }
 
   @Override
@@ -66,7 +147,8 @@ public class DiskLruCacheFactory implements DiskCache.Factory {
     }
 
     if (cacheDir.isDirectory() || cacheDir.mkdirs()) {
-      return DiskLruCacheWrapper.create(cacheDir, diskCacheSize);
+      return DiskLruCacheWrapper.create(
+          cacheDir, diskCacheSize, useBinaryJournal, delayJournalFlushes, useFastSafeKeys);
     }
 
     return null;
@@ -10,6 +10,7 @@ import com.bumptech.glide.disklrucache.DiskLruCache.Value;
 import com.bumptech.glide.load.Key;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The default DiskCache implementation. There must be no more than one active instance for a given
@@ -20,13 +21,15 @@ import java.io.IOException;
 public class DiskLruCacheWrapper implements DiskCache {
   private static final String TAG = "DiskLruCacheWrapper";
 
-  private static final int APP_VERSION = 1;
   private static final int VALUE_COUNT = 1;
+  private static final long JOURNAL_FLUSH_DELAY_MS = 100;
   private static DiskLruCacheWrapper wrapper;
 
   private final SafeKeyGenerator safeKeyGenerator;
   private final File directory;
   private final long maxSize;
+  private final boolean useBinaryJournal;
+  private final boolean delayJournalFlushes;
   private final DiskCacheWriteLocker writeLocker = new DiskCacheWriteLocker();
   private DiskLruCache diskLruCache;
 
@@ -63,6 +66,73 @@ public class DiskLruCacheWrapper implements DiskCache {
     return new DiskLruCacheWrapper(directory, maxSize);
   }
 
+  /**
+   * Create a new DiskCache in the given directory with a specified max size.
+   *
+   * @param directory The directory for the disk cache
+   * @param maxSize The max size for the disk cache
+   * @param useBinaryJournal {@code true} to keep the cache's journal in the memory mapped binary
+   *     format, which is faster to open and to write to, {@code false} to use the text format. An
+   *     existing journal in the other format is converted when the cache is opened.
+   * @return The new disk cache with the given arguments
+   */
+  public static DiskCache create(File directory, long maxSize, boolean useBinaryJournal) {
+    return create(directory, maxSize, useBinaryJournal, /* delayJournalFlushes= */ false);
+  }
+
+  /**
+   * Create a new DiskCache in the given directory with a specified max size.
+   *
+   * @param directory The directory for the disk cache
+   * @param maxSize The max size for the disk cache
+   * @param useBinaryJournal {@code true} to keep the cache's journal in the memory mapped binary
+   *     format, see {@link #create(File, long, boolean)}.
+   * @param delayJournalFlushes {@code true} to flush the records of concurrent writes to the text
+   *     journal together, shortly after they're written, rather than after every write. Entries
+   *     written just before the process dies may be lost, see {@link
+   *     DiskLruCache#setJournalFlushDelay(long, TimeUnit)}.
+   * @return The new disk cache with the given arguments
+   */
+  public static DiskCache create(
+      File directory, long maxSize, boolean useBinaryJournal, boolean delayJournalFlushes) {
+    return create(
+        directory,
+        maxSize,
+        useBinaryJournal,
+        delayJournalFlushes,
+        /* useFastSafeKeys= */ false);
+  }
+
+  /**
+   * Create a new DiskCache in the given directory with a specified max size.
+   *
+   * <p>This is an experimental API that may be removed in the future.
+   *
+   * @param directory The directory for the disk cache
+   * @param maxSize The max size for the disk cache
+   * @param useBinaryJournal {@code true} to keep the cache's journal in the memory mapped binary
+   *     format, see {@link #create(File, long, boolean)}.
+   * @param delayJournalFlushes {@code true} to flush the records of concurrent writes to the text
+   *     journal together, see {@link #create(File, long, boolean, boolean)}.
+   * @param useFastSafeKeys {@code true} to name entries with a fast non-cryptographic hash of their
+   *     keys rather than SHA-256, see {@link SafeKeyGenerator}. Changing this clears any existing
+   *     cache in the directory when it's opened.
+   * @return The new disk cache with the given arguments
+   */
+  public static DiskCache create(
+      File directory,
+      long maxSize,
+      boolean useBinaryJournal,
+      boolean delayJournalFlushes,
+      boolean useFastSafeKeys) {
+    return new DiskLruCacheWrapper(
+        directory,
+        maxSize,
+        useBinaryJournal,
+        delayJournalFlushes,
+        new SafeKeyGenerator(useFastSafeKeys));
+  }
+
   /**
    * @deprecated Do not extend this class.
    */
@@ -70,14 +140,37 @@ public class DiskLruCacheWrapper implements DiskCache {
   // Deprecated public API.
   @SuppressWarnings({"WeakerAccess", "DeprecatedIsStillUsed"})
   protected DiskLruCacheWrapper(File directory, long maxSize) {
+    this(directory, maxSize, /* useBinaryJournal= */ false, /* delayJournalFlushes= */ false);
+  }
+
+  DiskLruCacheWrapper(
+      File directory, long maxSize, boolean useBinaryJournal, boolean delayJournalFlushes) {
+    this(directory, maxSize, useBinaryJournal, delayJournalFlushes, new SafeKeyGenerator());
+  }
+
+  DiskLruCacheWrapper(
+      File directory,
+      long maxSize,
+      boolean useBinaryJournal,
+      boolean delayJournalFlushes,
+      SafeKeyGenerator safeKeyGenerator) {
     this.directory = directory;
     this.maxSize = maxSize;
-    this.safeKeyGenerator = new SafeKeyGenerator();
+    this.useBinaryJournal = useBinaryJournal;
+    this.delayJournalFlushes = delayJournalFlushes;
+    this.safeKeyGenerator = safeKeyGenerator;
   }
 
   private synchronized DiskLruCache getDiskCache() throws IOException {
     if (diskLruCache == null) {
-      diskLruCache = DiskLruCache.open(directory, APP_VERSION, VALUE_COUNT, maxSize);
+      // Entries can only be found with the kind of safe keys they were written with, so a cache
+      // written with other safe keys is cleared on open rather than left to fill the directory.
+      int appVersion = safeKeyGenerator.getVersion();
+      diskLruCache =
+          DiskLruCache.open(directory, appVersion, VALUE_COUNT, maxSize, useBinaryJournal);
+      if (delayJournalFlushes) {
+        diskLruCache.setJournalFlushDelay(JOURNAL_FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+      }
     }
     return diskLruCache;
   }
@@ -88,6 +181,11 @@ public class DiskLruCacheWrapper implements DiskCache {
     if (Log.isLoggable(TAG, Log.VERBOSE)) {
       Log.v(TAG, "Get: Obtained: " + safeKey + " for for Key: " + key);
     }
+    return get(safeKey);
+  }
+
+  /** Returns the file for an already computed {@link SafeKeyGenerator safe key}, or null. */
+  File get(String safeKey) {
     File result = null;
     try {
       // It is possible that the there will be a put in between these two gets. If so that shouldn't
@@ -107,14 +205,19 @@ public class DiskLruCacheWrapper implements DiskCache {
 
   @Override
   public void put(Key key, Writer writer) {
+    String safeKey = safeKeyGenerator.getSafeKey(key);
+    if (Log.isLoggable(TAG, Log.VERBOSE)) {
+      Log.v(TAG, "Put: Obtained: " + safeKey + " for for Key: " + key);
+    }
+    put(safeKey, writer);
+  }
+
+  /** Writes the entry for an already computed {@link SafeKeyGenerator safe key}. */
+  void put(String safeKey, Writer writer) {
     // We want to make sure that puts block so that data is available when put completes. We may
     // actually not write any data if we find that data is written by the time we acquire the lock.
-    String safeKey = safeKeyGenerator.getSafeKey(key);
     writeLocker.acquire(safeKey);
     try {
-      if (Log.isLoggable(TAG, Log.VERBOSE)) {
-        Log.v(TAG, "Put: Obtained: " + safeKey + " for for Key: " + key);
-      }
       try {
         // We assume we only need to put once, so if data was written while we were trying to get
         // the lock, we can simply abort.
@@ -148,7 +251,11 @@ public class DiskLruCacheWrapper implements DiskCache {
 
   @Override
   public void delete(Key key) {
-    String safeKey = safeKeyGenerator.getSafeKey(key);
+    delete(safeKeyGenerator.getSafeKey(key));
+  }
+
+  /** Removes the entry for an already computed {@link SafeKeyGenerator safe key}. */
+  void delete(String safeKey) {
     try {
       getDiskCache().remove(safeKey);
     } catch (IOException e) {
@@ -158,6 +265,27 @@ public class DiskLruCacheWrapper implements DiskCache {
     }
   }
 
+  /** Returns the number of bytes currently used by this cache, opening it if necessary. */
+  long getSize() throws IOException {
+    return getDiskCache().size();
+  }
+
+  /** Returns the number of bytes this cache may use, opening it if necessary. */
+  long getMaxSize() throws IOException {
+    return getDiskCache().getMaxSize();
+  }
+
+  /**
+   * Changes the number of bytes this cache may use until it is cleared, evicting entries in the
+   * background if the cache is now too large.
+   */
+  void setMaxSize(long maxSize) throws IOException {
+    DiskLruCache diskCache = getDiskCache();
+    if (diskCache.getMaxSize() != maxSize) {
+      diskCache.setMaxSize(maxSize);
+    }
+  }
+
   @Override
   public synchronized void clear() {
     try {
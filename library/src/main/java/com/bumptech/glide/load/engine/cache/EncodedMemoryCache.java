@@ -0,0 +1,329 @@
+package com.bumptech.glide.load.engine.cache;
+
+import android.annotation.SuppressLint;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.util.LruCache;
+import com.bumptech.glide.util.Synthetic;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An LRU in memory cache for the encoded bytes of entries in the {@link DiskCache}, keyed by the
+ * same keys as the {@link DiskCache}.
+ *
+ * <p>Encoded images are typically an order of magnitude smaller than decoded {@link
+ * android.graphics.Bitmap}s, so a modest budget can keep many more images in memory than the
+ * {@link MemoryCache}. Resources and data that are found here are decoded from memory without
+ * reading from the {@link DiskCache}.
+ *
+ * <p>Entries are only added after they've been read from the {@link DiskCache}, so this cache never
+ * holds anything that the {@link DiskCache} didn't hold at some point. Entries larger than an
+ * eighth of the maximum size are not cached so that a single large image can't flush the cache.
+ *
+ * <p>The keys of the most recently used entries can be persisted with {@link
+ * #getRecentKeyBytes(long)} and used to warm the cache from the {@link DiskCache} on the next
+ * launch with {@link #warm(DiskCache, byte[])}.
+ */
+public class EncodedMemoryCache extends LruCache<Key, byte[]> {
+  private static final String TAG = "EncodedMemoryCache";
+  private static final int MAX_ENTRY_SIZE_DIVISOR = 8;
+  private static final int MAX_LOOKUP_KEY_BYTES_COUNT = 128;
+  private static final byte[] NO_KEY_BYTES = new byte[0];
+
+  // The bytes of keys that missed while warmed entries remain, so that keys that miss repeatedly,
+  // like those of entries that aren't in the disk cache, are only recorded once.
+  private final LruCache<Key, byte[]> lookupKeyBytes = new LruCache<>(MAX_LOOKUP_KEY_BYTES_COUNT);
+  // Guarded by this.
+  private int warmEntryCount;
+
+  /**
+   * Constructor for EncodedMemoryCache.
+   *
+   * @param size The maximum size in bytes the in memory cache can use.
+   */
+  public EncodedMemoryCache(long size) {
+    super(size);
+  }
+
+  /**
+   * Reads the given {@link DiskCache} file into memory and caches its contents for the given key.
+   *
+   * <p>Must not be called on the main thread.
+   *
+   * @return The contents of the file, or {@code null} if the file is too large to be cached or
+   *     couldn't be read.
+   */
+  @Nullable
+  public byte[] putFile(@NonNull Key key, @NonNull File file) {
+    byte[] bytes = readFile(file);
+    if (bytes != null) {
+      put(key, bytes);
+    }
+    return bytes;
+  }
+
+  /**
+   * Caches the given contents of a {@link DiskCache} entry for the given key, unless they're too
+   * large to be cached.
+   */
+  public void putBytes(@NonNull Key key, @NonNull byte[] bytes) {
+    if (isCacheable(bytes.length)) {
+      put(key, bytes);
+    }
+  }
+
+  @Nullable
+  @Override
+  public byte[] get(@NonNull Key key) {
+    byte[] result = super.get(key);
+    if (result != null || !hasWarmEntries() || key instanceof WarmStartKey) {
+      return result;
+    }
+    byte[] keyBytes = getLookupKeyBytes(key);
+    if (keyBytes == null) {
+      return null;
+    }
+    // Claim the warmed entry for the real key so that it's found directly from now on.
+    synchronized (this) {
+      result = super.remove(new WarmStartKey(keyBytes));
+      if (result != null) {
+        decrementWarmEntryCount();
+        super.put(key, result);
+      }
+    }
+    return result;
+  }
+
+  @Nullable
+  private byte[] getLookupKeyBytes(@NonNull Key key) {
+    byte[] keyBytes = lookupKeyBytes.get(key);
+    if (keyBytes == null) {
+      keyBytes = getKeyBytes(key);
+      lookupKeyBytes.put(key, keyBytes != null ? keyBytes : NO_KEY_BYTES);
+    }
+    return keyBytes != NO_KEY_BYTES ? keyBytes : null;
+  }
+
+  /**
+   * Returns the bytes that the keys of the most recently used entries write to {@link
+   * Key#updateDiskCacheKey(MessageDigest)}, most recently used first, limited to entries whose
+   * sizes sum to at most the given number of bytes.
+   *
+   * <p>The returned bytes identify the same {@link DiskCache} entries across process restarts and
+   * can be passed to {@link #warm(DiskCache, byte[])}.
+   */
+  @NonNull
+  public List<byte[]> getRecentKeyBytes(long maxTotalSize) {
+    List<Map.Entry<Key, byte[]>> entries = getEntriesInAccessOrder();
+    List<byte[]> result = new ArrayList<>();
+    long totalSize = 0;
+    for (int i = entries.size() - 1; i >= 0; i--) {
+      Map.Entry<Key, byte[]> entry = entries.get(i);
+      totalSize += getSize(entry.getValue());
+      if (totalSize > maxTotalSize) {
+        break;
+      }
+      byte[] keyBytes = getKeyBytes(entry.getKey());
+      if (keyBytes != null) {
+        result.add(keyBytes);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Reads the {@link DiskCache} entry identified by the given key bytes, obtained from {@link
+   * #getRecentKeyBytes(long)}, into memory.
+   *
+   * <p>The entry is held under a placeholder key until it's first requested with the original
+   * {@link Key}. Must not be called on the main thread.
+   *
+   * @return The number of bytes read, or {@code 0} if the entry is already in memory, is missing
+   *     from the {@link DiskCache} or is too large to be cached.
+   */
+  public int warm(@NonNull DiskCache diskCache, @NonNull byte[] keyBytes) {
+    WarmStartKey key = new WarmStartKey(keyBytes);
+    if (contains(key)) {
+      return 0;
+    }
+    byte[] bytes = null;
+    if (diskCache instanceof DirectReadDiskCache) {
+      bytes = ((DirectReadDiskCache) diskCache).getBytes(key);
+    }
+    if (bytes == null) {
+      File file = diskCache.get(key);
+      bytes = file != null ? readFile(file) : null;
+    } else if (!isCacheable(bytes.length)) {
+      bytes = null;
+    }
+    if (bytes == null) {
+      return 0;
+    }
+    synchronized (this) {
+      // Decremented again in onItemEvicted if the entry is evicted immediately.
+      warmEntryCount++;
+      put(key, bytes);
+    }
+    return bytes.length;
+  }
+
+  private synchronized boolean hasWarmEntries() {
+    return warmEntryCount > 0;
+  }
+
+  @Override
+  protected void onItemEvicted(@NonNull Key key, @Nullable byte[] item) {
+    if (key instanceof WarmStartKey) {
+      decrementWarmEntryCount();
+    }
+  }
+
+  // Guarded by this.
+  private void decrementWarmEntryCount() {
+    warmEntryCount--;
+    if (warmEntryCount == 0) {
+      lookupKeyBytes.clearMemory();
+    }
+  }
+
+  private boolean isCacheable(long length) {
+    return length > 0 && length <= getMaxSize() / MAX_ENTRY_SIZE_DIVISOR;
+  }
+
+  @Nullable
+  private byte[] readFile(@NonNull File file) {
+    long length = file.length();
+    if (!isCacheable(length)) {
+      return null;
+    }
+    byte[] bytes = new byte[(int) length];
+    RandomAccessFile raf = null;
+    try {
+      raf = new RandomAccessFile(file, "r");
+      raf.readFully(bytes);
+    } catch (IOException e) {
+      if (Log.isLoggable(TAG, Log.DEBUG)) {
+        Log.d(TAG, "Failed to read disk cache file into memory", e);
+      }
+      return null;
+    } finally {
+      if (raf != null) {
+        try {
+          raf.close();
+        } catch (IOException e) {
+          // Ignored.
+        }
+      }
+    }
+    return bytes;
+  }
+
+  @Nullable
+  private static byte[] getKeyBytes(@NonNull Key key) {
+    if (key instanceof WarmStartKey) {
+      return ((WarmStartKey) key).bytes;
+    }
+    RecordingMessageDigest recorder = new RecordingMessageDigest();
+    try {
+      key.updateDiskCacheKey(recorder);
+    } catch (UnsupportedOperationException e) {
+      // Keys that are never written to the DiskCache can't be persisted.
+      return null;
+    }
+    return recorder.digest();
+  }
+
+  @Override
+  protected int getSize(@Nullable byte[] item) {
+    if (item == null) {
+      return super.getSize(null);
+    } else {
+      return item.length;
+    }
+  }
+
+  /**
+   * Clears some memory with the exact amount depending on the given level.
+   *
+   * @see android.content.ComponentCallbacks2#onTrimMemory(int)
+   */
+  @SuppressLint("InlinedApi")
+  public void trimMemory(int level) {
+    if (level >= android.content.ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+      clearMemory();
+    } else if (level >= android.content.ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN
+        || level == android.content.ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+      trimToSize(getMaxSize() / 2);
+    }
+  }
+
+  /**
+   * A {@link Key} that writes previously recorded bytes to the {@link MessageDigest} so that it
+   * maps to the same {@link DiskCache} entry as the {@link Key} the bytes were recorded from.
+   */
+  private static final class WarmStartKey implements Key {
+    @Synthetic final byte[] bytes;
+
+    @Synthetic
+    WarmStartKey(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    @Override
+    public void updateDiskCacheKey(@NonNull MessageDigest messageDigest) {
+      messageDigest.update(bytes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof WarmStartKey && Arrays.equals(bytes, ((WarmStartKey) o).bytes);
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(bytes);
+    }
+  }
+
+  /** Records the bytes written to it and returns them, rather than a hash, from digest(). */
+  private static final class RecordingMessageDigest extends MessageDigest {
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    @Synthetic
+    RecordingMessageDigest() {
+      super("Recording");
+    }
+
+    @Override
+    protected void engineUpdate(byte input) {
+      bytes.write(input);
+    }
+
+    @Override
+    protected void engineUpdate(byte[] input, int offset, int len) {
+      bytes.write(input, offset, len);
+    }
+
+    @Override
+    protected byte[] engineDigest() {
+      byte[] result = bytes.toByteArray();
+      bytes.reset();
+      return result;
+    }
+
+    @Override
+    protected void engineReset() {
+      bytes.reset();
+    }
+  }
+}
@@ -24,6 +24,44 @@ public final class InternalCacheDiskCacheFactory extends DiskLruCacheFactory {
 
   public InternalCacheDiskCacheFactory(
       final Context context, final String diskCacheName, long diskCacheSize) {
+    this(context, diskCacheName, diskCacheSize, /* useBinaryJournal= */ false);
+  }
+
+  /**
+   * This is an experimental API that may be removed in the future.
+   *
+   * @param useBinaryJournal {@code true} to keep the cache's journal in a memory mapped binary
+   *     format that's faster to open and write to. See {@link DiskLruCacheWrapper#create(File,
+   *     long, boolean)}.
+   */
+  public InternalCacheDiskCacheFactory(
+      final Context context,
+      final String diskCacheName,
+      long diskCacheSize,
+      boolean useBinaryJournal) {
+    this(
+        context,
+        diskCacheName,
+        diskCacheSize,
+        useBinaryJournal,
+        /* delayJournalFlushes= */ false);
+  }
+
+  /**
+   * This is an experimental API that may be removed in the future.
+   *
+   * @param useBinaryJournal {@code true} to keep the cache's journal in a memory mapped binary
+   *     format that's faster to open and write to.
+   * @param delayJournalFlushes {@code true} to flush the records of concurrent writes to the text
+   *     journal together rather than after every write. See {@link
+   *     DiskLruCacheWrapper#create(File, long, boolean, boolean)}.
+   */
+  public InternalCacheDiskCacheFactory(
+      final Context context,
+      final String diskCacheName,
+      long diskCacheSize,
+      boolean useBinaryJournal,
+      boolean delayJournalFlushes) {
     super(
         new CacheDirectoryGetter() {
           @Override
@@ -38,6 +76,8 @@ public final class InternalCacheDiskCacheFactory extends DiskLruCacheFactory {
             return cacheDirectory;
           }
         },
-        diskCacheSize);
+        diskCacheSize,
+        useBinaryJournal,
+        delayJournalFlushes);
   }
 }
@@ -8,8 +8,10 @@ import com.bumptech.glide.load.engine.Resource;
 import com.bumptech.glide.util.LruCache;
 
 /** An LRU in memory cache for {@link com.bumptech.glide.load.engine.Resource}s. */
-public class LruResourceCache extends LruCache<Key, Resource<?>> implements MemoryCache {
+public class LruResourceCache extends LruCache<Key, Resource<?>>
+    implements MemoryCache, MemoryCacheStats {
   private ResourceRemovedListener listener;
+  private long evictions;
 
   /**
    * Constructor for LruResourceCache.
@@ -26,7 +28,13 @@ public class LruResourceCache extends LruCache<Key, Resource<?>> implements Memo
   }
 
   @Override
-  protected void onItemEvicted(@NonNull Key key, @Nullable Resource<?> item) {
+  public synchronized long evictionCount() {
+    return evictions;
+  }
+
+  @Override
+  protected synchronized void onItemEvicted(@NonNull Key key, @Nullable Resource<?> item) {
+    evictions++;
     if (listener != null && item != null) {
       listener.onResourceRemoved(item);
     }
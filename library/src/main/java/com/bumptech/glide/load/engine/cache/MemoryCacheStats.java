@@ -0,0 +1,11 @@
+package com.bumptech.glide.load.engine.cache;
+
+/**
+ * Exposes the eviction count of a {@link MemoryCache} so that it can be used to tune the size of
+ * the cache.
+ */
+public interface MemoryCacheStats {
+
+  /** Returns the number of resources that have been evicted from the cache. */
+  long evictionCount();
+}
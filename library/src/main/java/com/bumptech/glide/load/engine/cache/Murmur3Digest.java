@@ -0,0 +1,152 @@
+package com.bumptech.glide.load.engine.cache;
+
+import java.security.MessageDigest;
+
+/**
+ * A {@link MessageDigest} that computes the 128 bit, x64 variant of MurmurHash3 with a seed of
+ * zero, so that {@link com.bumptech.glide.load.Key}s can be hashed with it without any changes.
+ *
+ * <p>MurmurHash3 is not a cryptographic hash. It's much faster than SHA-256 and accidental
+ * collisions between 128 bit hashes are vanishingly unlikely, but collisions can be constructed
+ * deliberately.
+ */
+final class Murmur3Digest extends MessageDigest {
+  private static final int BLOCK_SIZE = 16;
+  private static final long C1 = 0x87c37b91114253d5L;
+  private static final long C2 = 0x4cf5ad432745937fL;
+
+  private final byte[] buffer = new byte[BLOCK_SIZE];
+  private int bufferLength;
+  private long length;
+  private long h1;
+  private long h2;
+
+  Murmur3Digest() {
+    super("MurmurHash3_x64_128");
+  }
+
+  @Override
+  protected int engineGetDigestLength() {
+    return BLOCK_SIZE;
+  }
+
+  @Override
+  protected void engineUpdate(byte input) {
+    buffer[bufferLength++] = input;
+    if (bufferLength == BLOCK_SIZE) {
+      processBlock(buffer, 0);
+      bufferLength = 0;
+    }
+  }
+
+  @Override
+  protected void engineUpdate(byte[] input, int offset, int len) {
+    int end = offset + len;
+    if (bufferLength > 0) {
+      int toCopy = Math.min(BLOCK_SIZE - bufferLength, len);
+      System.arraycopy(input, offset, buffer, bufferLength, toCopy);
+      bufferLength += toCopy;
+      offset += toCopy;
+      if (bufferLength < BLOCK_SIZE) {
+        return;
+      }
+      processBlock(buffer, 0);
+      bufferLength = 0;
+    }
+    for (; end - offset >= BLOCK_SIZE; offset += BLOCK_SIZE) {
+      processBlock(input, offset);
+    }
+    bufferLength = end - offset;
+    System.arraycopy(input, offset, buffer, 0, bufferLength);
+  }
+
+  @Override
+  protected byte[] engineDigest() {
+    processTail();
+    length += bufferLength;
+    long h1 = this.h1 ^ length;
+    long h2 = this.h2 ^ length;
+    h1 += h2;
+    h2 += h1;
+    h1 = fmix(h1);
+    h2 = fmix(h2);
+    h1 += h2;
+    h2 += h1;
+
+    byte[] result = new byte[BLOCK_SIZE];
+    for (int i = 0; i < 8; i++) {
+      result[i] = (byte) (h1 >>> (8 * i));
+      result[i + 8] = (byte) (h2 >>> (8 * i));
+    }
+    engineReset();
+    return result;
+  }
+
+  @Override
+  protected void engineReset() {
+    bufferLength = 0;
+    length = 0;
+    h1 = 0;
+    h2 = 0;
+  }
+
+  private void processBlock(byte[] bytes, int offset) {
+    long k1 = getLittleEndianLong(bytes, offset);
+    long k2 = getLittleEndianLong(bytes, offset + 8);
+    length += BLOCK_SIZE;
+
+    h1 ^= mixK1(k1);
+    h1 = Long.rotateLeft(h1, 27);
+    h1 += h2;
+    h1 = h1 * 5 + 0x52dce729;
+
+    h2 ^= mixK2(k2);
+    h2 = Long.rotateLeft(h2, 31);
+    h2 += h1;
+    h2 = h2 * 5 + 0x38495ab5;
+  }
+
+  private void processTail() {
+    long k1 = 0;
+    long k2 = 0;
+    for (int i = bufferLength - 1; i >= 8; i--) {
+      k2 |= (buffer[i] & 0xFFL) << (8 * (i - 8));
+    }
+    for (int i = Math.min(bufferLength, 8) - 1; i >= 0; i--) {
+      k1 |= (buffer[i] & 0xFFL) << (8 * i);
+    }
+    h1 ^= mixK1(k1);
+    h2 ^= mixK2(k2);
+  }
+
+  private static long getLittleEndianLong(byte[] bytes, int offset) {
+    long result = 0;
+    for (int i = 7; i >= 0; i--) {
+      result = (result << 8) | (bytes[offset + i] & 0xFFL);
+    }
+    return result;
+  }
+
+  private static long mixK1(long k1) {
+    k1 *= C1;
+    k1 = Long.rotateLeft(k1, 31);
+    k1 *= C2;
+    return k1;
+  }
+
+  private static long mixK2(long k2) {
+    k2 *= C2;
+    k2 = Long.rotateLeft(k2, 33);
+    k2 *= C1;
+    return k2;
+  }
+
+  private static long fmix(long k) {
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb9fe1a85ec53L;
+    k ^= k >>> 33;
+    return k;
+  }
+}
@@ -0,0 +1,285 @@
+package com.bumptech.glide.load.engine.cache;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import com.bumptech.glide.load.Key;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A DiskCache that packs small entries, like thumbnails, into a few large segment files rather than
+ * writing a file per entry, which avoids most of the per file open, close, inode and directory
+ * overhead of reading and writing them.
+ *
+ * <p>Entries up to the max packed entry size are appended to a {@link SegmentLog} and read back
+ * with positional reads using the offsets in its in memory index. Larger entries are kept in a
+ * {@link DiskLruCacheWrapper}. The max size of the cache is split evenly between the two.
+ *
+ * <p>Packed entries are read most efficiently with {@link #getBuffer(Key)} or {@link
+ * #getBytes(Key)}, which Glide uses when the entry can be decoded directly from memory. {@link
+ * #get(Key)} still returns a {@link File} for packed entries, but has to copy the entry into a file
+ * of its own to do so.
+ *
+ * <p>The directory must not be shared with anything else. Files in the directory that don't belong
+ * to this cache, for example a cache written by {@link DiskLruCacheWrapper}, are deleted when the
+ * cache is first used.
+ */
+public final class PackedDiskCache implements DirectReadDiskCache {
+  private static final String TAG = "PackedDiskCache";
+  private static final String PACKED_DIRECTORY = "packed";
+  private static final String FILES_DIRECTORY = "files";
+  private static final String TEMP_DIRECTORY = "tmp";
+  /** The size of the largest entry that's packed if one isn't specified. */
+  public static final int DEFAULT_MAX_PACKED_ENTRY_SIZE = 32 * 1024;
+
+  private final SafeKeyGenerator safeKeyGenerator = new SafeKeyGenerator();
+  private final DiskCacheWriteLocker writeLocker = new DiskCacheWriteLocker();
+  private final File directory;
+  private final File tempDirectory;
+  private final SegmentLog packed;
+  private final DiskLruCacheWrapper files;
+  private final int maxPackedEntrySize;
+  private volatile boolean isDirectoryPrepared;
+
+  /**
+   * Create a new packed DiskCache in the given directory with a specified max size.
+   *
+   * <p>This is an experimental API that may be removed in the future.
+   *
+   * @param directory The directory for the disk cache, which must not be used for anything else.
+   * @param maxSize The max size for the disk cache, shared by packed and unpacked entries.
+   * @param maxPackedEntrySize The size in bytes of the largest entry that will be packed.
+   * @return The new disk cache with the given arguments
+   */
+  public static DiskCache create(File directory, long maxSize, int maxPackedEntrySize) {
+    return new PackedDiskCache(directory, maxSize, maxPackedEntrySize);
+  }
+
+  @VisibleForTesting
+  PackedDiskCache(File directory, long maxSize, int maxPackedEntrySize) {
+    if (maxSize < 2) {
+      throw new IllegalArgumentException("maxSize must be at least 2, but was: " + maxSize);
+    }
+    this.directory = directory;
+    long packedMaxSize = maxSize / 2;
+    packed = new SegmentLog(new File(directory, PACKED_DIRECTORY), packedMaxSize);
+    files =
+        new DiskLruCacheWrapper(
+            new File(directory, FILES_DIRECTORY),
+            maxSize - packedMaxSize,
+            /* useBinaryJournal= */ false,
+            /* delayJournalFlushes= */ false);
+    tempDirectory = new File(directory, TEMP_DIRECTORY);
+    // Leaves room for the longest safe key.
+    this.maxPackedEntrySize = Math.min(maxPackedEntrySize, packed.getMaxValueSize(256));
+  }
+
+  /**
+   * Returns the contents of the entry for the given key if it's packed, or {@code null} if the
+   * entry is missing or is large enough that it's kept in its own file.
+   *
+   * <p>Must not be called on the main thread.
+   */
+  @Nullable
+  @Override
+  public byte[] getBytes(@NonNull Key key) {
+    String safeKey = safeKeyGenerator.getSafeKey(key);
+    prepareDirectory();
+    try {
+      return packed.get(safeKey);
+    } catch (IOException e) {
+      if (Log.isLoggable(TAG, Log.WARN)) {
+        Log.w(TAG, "Unable to get from packed disk cache", e);
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Returns a read only buffer over the contents of the entry for the given key if it's packed, or
+   * {@code null} if the entry is missing or is large enough that it's kept in its own file.
+   *
+   * <p>The buffer is a slice of a memory mapping of the file the entry is packed in, so the
+   * contents aren't copied onto the heap and are only read from disk as the buffer is read. The
+   * buffer remains valid if the entry is later evicted or deleted.
+   *
+   * <p>Must not be called on the main thread.
+   */
+  @Nullable
+  @Override
+  public ByteBuffer getBuffer(@NonNull Key key) {
+    String safeKey = safeKeyGenerator.getSafeKey(key);
+    prepareDirectory();
+    try {
+      return packed.getBuffer(safeKey);
+    } catch (IOException e) {
+      if (Log.isLoggable(TAG, Log.WARN)) {
+        Log.w(TAG, "Unable to map from packed disk cache", e);
+      }
+      return null;
+    }
+  }
+
+  @Override
+  public File get(Key key) {
+    String safeKey = safeKeyGenerator.getSafeKey(key);
+    if (Log.isLoggable(TAG, Log.VERBOSE)) {
+      Log.v(TAG, "Get: Obtained: " + safeKey + " for for Key: " + key);
+    }
+    prepareDirectory();
+    File result = files.get(safeKey);
+    if (result != null) {
+      return result;
+    }
+    final byte[] bytes;
+    try {
+      bytes = packed.get(safeKey);
+    } catch (IOException e) {
+      if (Log.isLoggable(TAG, Log.WARN)) {
+        Log.w(TAG, "Unable to get from packed disk cache", e);
+      }
+      return null;
+    }
+    if (bytes == null) {
+      return null;
+    }
+    // The caller needs a File, so copy the packed entry into a file of its own.
+    files.put(
+        safeKey,
+        new Writer() {
+          @Override
+          public boolean write(@NonNull File file) {
+            return writeFile(file, bytes);
+          }
+        });
+    return files.get(safeKey);
+  }
+
+  @Override
+  public void put(Key key, Writer writer) {
+    String safeKey = safeKeyGenerator.getSafeKey(key);
+    if (Log.isLoggable(TAG, Log.VERBOSE)) {
+      Log.v(TAG, "Put: Obtained: " + safeKey + " for for Key: " + key);
+    }
+    prepareDirectory();
+    writeLocker.acquire(safeKey);
+    final File temp = new File(tempDirectory, safeKey + ".tmp");
+    try {
+      // We assume we only need to put once, so if data was written while we were trying to get
+      // the lock, we can simply abort.
+      if (packed.contains(safeKey) || files.get(safeKey) != null) {
+        return;
+      }
+      if (!tempDirectory.isDirectory() && !tempDirectory.mkdirs()) {
+        throw new IOException("Failed to create temporary directory: " + tempDirectory);
+      }
+      if (!writer.write(temp)) {
+        return;
+      }
+      long length = temp.length();
+      if (length > 0 && length <= maxPackedEntrySize) {
+        packed.put(safeKey, readFile(temp, (int) length));
+      } else {
+        files.put(
+            safeKey,
+            new Writer() {
+              @Override
+              public boolean write(@NonNull File file) {
+                return temp.renameTo(file);
+              }
+            });
+      }
+    } catch (IOException e) {
+      if (Log.isLoggable(TAG, Log.WARN)) {
+        Log.w(TAG, "Unable to put to packed disk cache", e);
+      }
+    } finally {
+      if (temp.exists() && !temp.delete() && Log.isLoggable(TAG, Log.WARN)) {
+        Log.w(TAG, "Failed to delete temporary file: " + temp);
+      }
+      writeLocker.release(safeKey);
+    }
+  }
+
+  @Override
+  public void delete(Key key) {
+    String safeKey = safeKeyGenerator.getSafeKey(key);
+    prepareDirectory();
+    try {
+      packed.remove(safeKey);
+    } catch (IOException e) {
+      if (Log.isLoggable(TAG, Log.WARN)) {
+        Log.w(TAG, "Unable to delete from packed disk cache", e);
+      }
+    }
+    files.delete(safeKey);
+  }
+
+  @Override
+  public void clear() {
+    prepareDirectory();
+    packed.clear();
+    files.clear();
+  }
+
+  /** Returns the number of bytes used by packed entries. */
+  @VisibleForTesting
+  long getPackedSize() throws IOException {
+    return packed.getSize();
+  }
+
+  private void prepareDirectory() {
+    if (isDirectoryPrepared) {
+      return;
+    }
+    synchronized (this) {
+      if (isDirectoryPrepared) {
+        return;
+      }
+      // Temporary files are never valid across process restarts, so they're deleted here too.
+      DiskCacheDirectories.prepare(
+          directory,
+          Arrays.asList(
+              new File(directory, PACKED_DIRECTORY), new File(directory, FILES_DIRECTORY)));
+      isDirectoryPrepared = true;
+    }
+  }
+
+  private static byte[] readFile(File file, int length) throws IOException {
+    byte[] result = new byte[length];
+    RandomAccessFile raf = new RandomAccessFile(file, "r");
+    try {
+      raf.readFully(result);
+    } finally {
+      raf.close();
+    }
+    return result;
+  }
+
+  private static boolean writeFile(File file, byte[] bytes) {
+    RandomAccessFile raf = null;
+    try {
+      raf = new RandomAccessFile(file, "rw");
+      raf.write(bytes);
+      return true;
+    } catch (IOException e) {
+      if (Log.isLoggable(TAG, Log.WARN)) {
+        Log.w(TAG, "Unable to copy packed entry to a file", e);
+      }
+      return false;
+    } finally {
+      if (raf != null) {
+        try {
+          raf.close();
+        } catch (IOException e) {
+          // Ignored.
+        }
+      }
+    }
+  }
+}
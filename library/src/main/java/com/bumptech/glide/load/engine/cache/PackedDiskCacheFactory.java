@@ -0,0 +1,84 @@
+package com.bumptech.glide.load.engine.cache;
+
+import android.content.Context;
+import com.bumptech.glide.load.engine.cache.DiskLruCacheFactory.CacheDirectoryGetter;
+import java.io.File;
+
+/**
+ * Creates a disk cache that packs small entries into a few large files in the specified disk cache
+ * directory, which is faster to read and write than a file per entry for small images like
+ * thumbnails.
+ *
+ * <p>This is an experimental API that may be removed in the future.
+ *
+ * @see PackedDiskCache
+ */
+// Public API.
+@SuppressWarnings("unused")
+public final class PackedDiskCacheFactory implements DiskCache.Factory {
+  private final CacheDirectoryGetter cacheDirectoryGetter;
+  private final long diskCacheSize;
+  private final int maxPackedEntrySize;
+
+  /**
+   * Creates a factory for a cache with the default size and max packed entry size in the
+   * application's internal cache directory.
+   */
+  public PackedDiskCacheFactory(Context context) {
+    this(
+        context,
+        DiskCache.Factory.DEFAULT_DISK_CACHE_SIZE,
+        PackedDiskCache.DEFAULT_MAX_PACKED_ENTRY_SIZE);
+  }
+
+  /**
+   * Creates a factory for a cache in the application's internal cache directory.
+   *
+   * @param diskCacheSize Desired max bytes size for the disk cache, shared by packed and unpacked
+   *     entries.
+   * @param maxPackedEntrySize The size in bytes of the largest entry that will be packed.
+   */
+  public PackedDiskCacheFactory(final Context context, long diskCacheSize, int maxPackedEntrySize) {
+    this(
+        new CacheDirectoryGetter() {
+          @Override
+          public File getCacheDirectory() {
+            return new File(context.getCacheDir(), DiskCache.Factory.DEFAULT_DISK_CACHE_DIR);
+          }
+        },
+        diskCacheSize,
+        maxPackedEntrySize);
+  }
+
+  /**
+   * When using this constructor {@link CacheDirectoryGetter#getCacheDirectory()} will be called out
+   * of UI thread, allowing to do I/O access without performance impacts.
+   *
+   * @param cacheDirectoryGetter Interface called out of UI thread to get the cache folder, which
+   *     must not be used for anything else.
+   * @param diskCacheSize Desired max bytes size for the disk cache, shared by packed and unpacked
+   *     entries.
+   * @param maxPackedEntrySize The size in bytes of the largest entry that will be packed.
+   */
+  public PackedDiskCacheFactory(
+      CacheDirectoryGetter cacheDirectoryGetter, long diskCacheSize, int maxPackedEntrySize) {
+    this.cacheDirectoryGetter = cacheDirectoryGetter;
+    this.diskCacheSize = diskCacheSize;
+    this.maxPackedEntrySize = maxPackedEntrySize;
+  }
+
+  @Override
+  public DiskCache build() {
+    File cacheDir = cacheDirectoryGetter.getCacheDirectory();
+
+    if (cacheDir == null) {
+      return null;
+    }
+
+    if (cacheDir.isDirectory() || cacheDir.mkdirs()) {
+      return PackedDiskCache.create(cacheDir, diskCacheSize, maxPackedEntrySize);
+    }
+
+    return null;
+  }
+}
@@ -3,6 +3,7 @@ package com.bumptech.glide.load.engine.cache;
 import androidx.annotation.NonNull;
 import androidx.core.util.Pools;
 import com.bumptech.glide.load.Key;
+import com.bumptech.glide.util.ConcurrentLruCache;
 import com.bumptech.glide.util.LruCache;
 import com.bumptech.glide.util.Preconditions;
 import com.bumptech.glide.util.Synthetic;
@@ -15,26 +16,84 @@ import java.security.NoSuchAlgorithmException;
 /**
  * A class that generates and caches safe and unique string file names from {@link
  * com.bumptech.glide.load.Key}s.
+ *
+ * <p>By default keys are the hex encoded SHA-256 hashes of {@link
+ * Key#updateDiskCacheKey(MessageDigest)}. Fast keys instead use a 128 bit MurmurHash3, which is
+ * much cheaper to compute, and are remembered in a larger cache that doesn't block concurrent
+ * lookups. MurmurHash3 isn't a cryptographic hash, so fast keys should only be used if the models
+ * that are loaded can't be chosen to collide with each other on purpose.
+ *
+ * <p>The two kinds of keys are different for every {@link Key}, so a disk cache can't read entries
+ * that were written with the other kind. Disk caches should use {@link #getVersion()} as part of
+ * the version of their contents so that existing entries are discarded, rather than orphaned, when
+ * the kind of keys changes.
  */
 // Public API.
 @SuppressWarnings("WeakerAccess")
 public class SafeKeyGenerator {
-  private final LruCache<Key, String> loadIdToSafeHash = new LruCache<>(1000);
-  private final Pools.Pool<PoolableDigestContainer> digestPool =
-      FactoryPools.threadSafe(
-          10,
-          new FactoryPools.Factory<PoolableDigestContainer>() {
-            @Override
-            public PoolableDigestContainer create() {
-              try {
-                return new PoolableDigestContainer(MessageDigest.getInstance("SHA-256"));
-              } catch (NoSuchAlgorithmException e) {
-                throw new RuntimeException(e);
+  /** The version of SHA-256 keys, which matches caches written before keys were versioned. */
+  static final int SHA_256_VERSION = 1;
+  /** The version of fast MurmurHash3 keys. */
+  static final int MURMUR3_128_VERSION = 2;
+  private static final int MAX_CACHED_KEYS = 1000;
+  private static final int MAX_CACHED_FAST_KEYS = 4096;
+
+  private final boolean useFastKeys;
+  private final LruCache<Key, String> loadIdToSafeHash;
+  private final ConcurrentLruCache<Key, String> concurrentLoadIdToSafeHash;
+  private final Pools.Pool<PoolableDigestContainer> digestPool;
+
+  public SafeKeyGenerator() {
+    this(/* useFastKeys= */ false);
+  }
+
+  /**
+   * Creates a new generator.
+   *
+   * <p>This is an experimental API that may be removed in the future.
+   *
+   * @param useFastKeys {@code true} to generate keys with a fast non-cryptographic hash, {@code
+   *     false} to generate keys with SHA-256.
+   */
+  public SafeKeyGenerator(final boolean useFastKeys) {
+    this.useFastKeys = useFastKeys;
+    if (useFastKeys) {
+      loadIdToSafeHash = null;
+      concurrentLoadIdToSafeHash = new ConcurrentLruCache<>(MAX_CACHED_FAST_KEYS);
+    } else {
+      loadIdToSafeHash = new LruCache<>(MAX_CACHED_KEYS);
+      concurrentLoadIdToSafeHash = null;
+    }
+    digestPool =
+        FactoryPools.threadSafe(
+            10,
+            new FactoryPools.Factory<PoolableDigestContainer>() {
+              @Override
+              public PoolableDigestContainer create() {
+                if (useFastKeys) {
+                  return new PoolableDigestContainer(new Murmur3Digest());
+                }
+                try {
+                  return new PoolableDigestContainer(MessageDigest.getInstance("SHA-256"));
+                } catch (NoSuchAlgorithmException e) {
+                  throw new RuntimeException(e);
+                }
               }
-            }
-          });
+            });
+  }
+
+  /**
+   * Returns the version of the keys this generator produces, which changes whenever the keys
+   * produced for the same {@link Key} change.
+   */
+  public int getVersion() {
+    return useFastKeys ? MURMUR3_128_VERSION : SHA_256_VERSION;
+  }
 
   public String getSafeKey(Key key) {
+    if (useFastKeys) {
+      return getFastSafeKey(key);
+    }
     String safeKey;
     synchronized (loadIdToSafeHash) {
       safeKey = loadIdToSafeHash.get(key);
@@ -48,12 +107,22 @@ public class SafeKeyGenerator {
     return safeKey;
   }
 
+  private String getFastSafeKey(Key key) {
+    String safeKey = concurrentLoadIdToSafeHash.get(key);
+    if (safeKey == null) {
+      safeKey = calculateHexStringDigest(key);
+      concurrentLoadIdToSafeHash.put(key, safeKey);
+    }
+    return safeKey;
+  }
+
   private String calculateHexStringDigest(Key key) {
     PoolableDigestContainer container = Preconditions.checkNotNull(digestPool.acquire());
     try {
       key.updateDiskCacheKey(container.messageDigest);
       // calling digest() will automatically reset()
-      return Util.sha256BytesToHex(container.messageDigest.digest());
+      byte[] digest = container.messageDigest.digest();
+      return useFastKeys ? Util.bytesToHex(digest) : Util.sha256BytesToHex(digest);
     } finally {
       digestPool.release(container);
     }
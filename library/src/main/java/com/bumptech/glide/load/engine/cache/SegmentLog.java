@@ -0,0 +1,485 @@
+package com.bumptech.glide.load.engine.cache;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import com.bumptech.glide.util.Synthetic;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * An append only log of small values, split into segment files, with an in memory index from keys
+ * to the offsets of their values.
+ *
+ * <p>Each record is a header, the key and the value:
+ *
+ * <pre>
+ *   int magic, short key length, int value length (-1 for a removal), int CRC32 of key and value
+ * </pre>
+ *
+ * <p>The segments are the only record of what's in the log, so the index is rebuilt by scanning the
+ * record headers when the log is opened. A record that was only partially written when the process
+ * died is dropped from the end of the last segment. Corruption elsewhere is detected by the CRC
+ * when the value is read.
+ *
+ * <p>Space is reclaimed a whole segment at a time, oldest first, once the segments exceed the max
+ * size. Values in the reclaimed segment that were read since they were written, or since their
+ * segment was last reclaimed, are copied to the end of the log and the rest are evicted, which
+ * approximates least recently used eviction without tracking the order of every read.
+ *
+ * <p>Reads hold a shared lock and use positional reads, so they don't block each other. Writes,
+ * removals and reclaiming segments hold an exclusive lock.
+ */
+final class SegmentLog {
+  private static final String TAG = "SegmentLog";
+  @VisibleForTesting static final String SEGMENT_PREFIX = "segment.";
+  private static final Charset KEY_CHARSET = Charset.forName("UTF-8");
+  private static final int RECORD_MAGIC = 0x474c5042;
+  private static final int HEADER_SIZE = 4 + 2 + 4 + 4;
+  private static final int REMOVED = -1;
+  private static final int MIN_SEGMENT_SIZE = 64 * 1024;
+  private static final int MAX_SEGMENT_SIZE = 4 * 1024 * 1024;
+  /** Keeps several segments within the max size so that reclaiming one frees a small fraction. */
+  private static final int MIN_SEGMENTS = 8;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<String, Location> index = new HashMap<>();
+  private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+  private final File directory;
+  private final long maxSize;
+  private final int segmentSize;
+  // Written with the write lock held, read without it to avoid locking once the log is open.
+  private volatile boolean isOpen;
+  // Guarded by the write lock.
+  private Segment active;
+  private long size;
+
+  SegmentLog(File directory, long maxSize) {
+    this.directory = directory;
+    this.maxSize = maxSize;
+    segmentSize =
+        (int) Math.max(MIN_SEGMENT_SIZE, Math.min(MAX_SEGMENT_SIZE, maxSize / MIN_SEGMENTS));
+  }
+
+  /** Returns the largest value that can be written to this log. */
+  int getMaxValueSize(int keyLength) {
+    return segmentSize - HEADER_SIZE - keyLength;
+  }
+
+  /** Returns {@code true} if the log contains a value for the given key. */
+  boolean contains(@NonNull String key) throws IOException {
+    ensureOpen();
+    lock.readLock().lock();
+    try {
+      return index.containsKey(key);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Returns a copy of the value for the given key, or {@code null} if there isn't one. */
+  @Nullable
+  byte[] get(@NonNull String key) throws IOException {
+    ensureOpen();
+    Location location;
+    byte[] result;
+    lock.readLock().lock();
+    try {
+      location = index.get(key);
+      if (location == null) {
+        return null;
+      }
+      location.isReferenced = true;
+      result = readValue(location);
+      if (result != null && location.crc != crc(encodeKey(key), result)) {
+        result = null;
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    if (result == null) {
+      if (Log.isLoggable(TAG, Log.WARN)) {
+        Log.w(TAG, "Removing corrupt value for: " + key);
+      }
+      remove(key);
+    }
+    return result;
+  }
+
+  /**
+   * Returns a read only buffer over the value for the given key, mapped from the segment that
+   * contains it without copying, or {@code null} if there isn't one.
+   *
+   * <p>Each segment's mapping is shared by all of the values read from it and stays valid after the
+   * segment is reclaimed. Unlike {@link #get(String)}, the value isn't checked against its CRC
+   * because that would read all of it up front. Corrupt values fail to decode instead, as they do
+   * for the files of a {@link com.bumptech.glide.disklrucache.DiskLruCache}.
+   */
+  @Nullable
+  ByteBuffer getBuffer(@NonNull String key) throws IOException {
+    ensureOpen();
+    lock.readLock().lock();
+    try {
+      Location location = index.get(key);
+      if (location == null) {
+        return null;
+      }
+      location.isReferenced = true;
+      long end = location.offset + location.length;
+      ByteBuffer result = location.segment.getMapping(end).duplicate();
+      result.limit((int) end);
+      result.position((int) location.offset);
+      return result.slice();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Appends the given value for the given key, replacing any previous value. */
+  void put(@NonNull String key, @NonNull byte[] value) throws IOException {
+    byte[] keyBytes = encodeKey(key);
+    if (value.length > getMaxValueSize(keyBytes.length)) {
+      throw new IllegalArgumentException("Value is too large to be written: " + value.length);
+    }
+    lock.writeLock().lock();
+    try {
+      openIfNeeded();
+      append(key, keyBytes, value);
+      trimToSize();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Removes the value for the given key, if there is one. */
+  void remove(@NonNull String key) throws IOException {
+    lock.writeLock().lock();
+    try {
+      openIfNeeded();
+      if (index.remove(key) != null) {
+        // Records that the key was removed so that the value isn't found again on the next open.
+        append(key, encodeKey(key), /* value= */ null);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Removes all values and deletes all segments. */
+  void clear() {
+    lock.writeLock().lock();
+    try {
+      closeSegments();
+      File[] files = directory.listFiles();
+      if (files != null) {
+        for (File file : files) {
+          if (file.getName().startsWith(SEGMENT_PREFIX) && !file.delete()) {
+            if (Log.isLoggable(TAG, Log.WARN)) {
+              Log.w(TAG, "Failed to delete segment: " + file);
+            }
+          }
+        }
+      }
+      // Re-opened, and the directory re-created if necessary, the next time the log is used.
+      isOpen = false;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Returns the number of bytes used by all segments. */
+  long getSize() throws IOException {
+    ensureOpen();
+    lock.readLock().lock();
+    try {
+      return size;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void ensureOpen() throws IOException {
+    if (isOpen) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      openIfNeeded();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  // Must be called with the write lock held.
+  private void openIfNeeded() throws IOException {
+    if (isOpen) {
+      return;
+    }
+    try {
+      open();
+    } catch (IOException e) {
+      if (Log.isLoggable(TAG, Log.WARN)) {
+        Log.w(TAG, "Failed to read segments, clearing log", e);
+      }
+      clear();
+      open();
+    }
+    isOpen = true;
+  }
+
+  private void open() throws IOException {
+    closeSegments();
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Failed to create directory: " + directory);
+    }
+    List<Integer> ids = new ArrayList<>();
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        String name = file.getName();
+        if (name.startsWith(SEGMENT_PREFIX)) {
+          try {
+            ids.add(Integer.parseInt(name.substring(SEGMENT_PREFIX.length())));
+          } catch (NumberFormatException e) {
+            if (!file.delete() && Log.isLoggable(TAG, Log.WARN)) {
+              Log.w(TAG, "Failed to delete unknown file: " + file);
+            }
+          }
+        }
+      }
+    }
+    Collections.sort(ids);
+    for (int i = 0; i < ids.size(); i++) {
+      Segment segment = openSegment(ids.get(i));
+      scan(segment, /* isLast= */ i == ids.size() - 1);
+    }
+    Map.Entry<Integer, Segment> last = segments.lastEntry();
+    if (last != null && last.getValue().length < segmentSize) {
+      active = last.getValue();
+    } else {
+      active = openSegment(last == null ? 0 : last.getKey() + 1);
+    }
+  }
+
+  private Segment openSegment(int id) throws IOException {
+    Segment segment = new Segment(id, new File(directory, SEGMENT_PREFIX + id));
+    segments.put(id, segment);
+    size += segment.length;
+    return segment;
+  }
+
+  /** Adds the records in the given segment to the index. */
+  private void scan(Segment segment, boolean isLast) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    long position = 0;
+    while (position + HEADER_SIZE <= segment.length) {
+      header.clear();
+      if (!readFully(segment.channel, header, position)) {
+        break;
+      }
+      header.flip();
+      int magic = header.getInt();
+      int keyLength = header.getShort() & 0xFFFF;
+      int valueLength = header.getInt();
+      int crc = header.getInt();
+      long valueOffset = position + HEADER_SIZE + keyLength;
+      long end = valueOffset + Math.max(0, valueLength);
+      if (magic != RECORD_MAGIC || valueLength < REMOVED || end > segment.length) {
+        break;
+      }
+      ByteBuffer keyBuffer = ByteBuffer.allocate(keyLength);
+      if (!readFully(segment.channel, keyBuffer, position + HEADER_SIZE)) {
+        break;
+      }
+      String key = new String(keyBuffer.array(), KEY_CHARSET);
+      if (valueLength == REMOVED) {
+        index.remove(key);
+      } else {
+        index.put(key, new Location(segment, valueOffset, valueLength, crc));
+        segment.keys.add(key);
+      }
+      position = end;
+    }
+    if (position < segment.length) {
+      if (!isLast) {
+        // Only the last segment is written to, so anything else is corrupt. Values before the
+        // corruption are still valid and values after it are dropped.
+        if (Log.isLoggable(TAG, Log.WARN)) {
+          Log.w(TAG, "Ignoring corrupt records at: " + position + " in: " + segment.file);
+        }
+        return;
+      }
+      // The process died while writing a record, drop it.
+      segment.channel.truncate(position);
+      size -= segment.length - position;
+      segment.length = position;
+    }
+  }
+
+  private void append(String key, byte[] keyBytes, @Nullable byte[] value) throws IOException {
+    int valueLength = value == null ? REMOVED : value.length;
+    int recordSize = HEADER_SIZE + keyBytes.length + Math.max(0, valueLength);
+    if (active.length + recordSize > segmentSize) {
+      active = openSegment(active.id + 1);
+    }
+    int crc = value == null ? 0 : crc(keyBytes, value);
+    ByteBuffer record = ByteBuffer.allocate(recordSize);
+    record.putInt(RECORD_MAGIC);
+    record.putShort((short) keyBytes.length);
+    record.putInt(valueLength);
+    record.putInt(crc);
+    record.put(keyBytes);
+    if (value != null) {
+      record.put(value);
+    }
+    record.flip();
+    long position = active.length;
+    while (record.hasRemaining()) {
+      active.channel.write(record, position + record.position());
+    }
+    active.length += recordSize;
+    size += recordSize;
+    if (value != null) {
+      long valueOffset = position + HEADER_SIZE + keyBytes.length;
+      index.put(key, new Location(active, valueOffset, valueLength, crc));
+      active.keys.add(key);
+    }
+  }
+
+  private void trimToSize() throws IOException {
+    while (size > maxSize && segments.size() > 1) {
+      Segment oldest = segments.firstEntry().getValue();
+      for (String key : oldest.keys) {
+        Location location = index.get(key);
+        if (location == null || location.segment != oldest) {
+          continue;
+        }
+        byte[] value = location.isReferenced ? readValue(location) : null;
+        if (value != null) {
+          append(key, encodeKey(key), value);
+        } else {
+          index.remove(key);
+        }
+      }
+      segments.remove(oldest.id);
+      size -= oldest.length;
+      oldest.close();
+      if (!oldest.file.delete() && Log.isLoggable(TAG, Log.WARN)) {
+        Log.w(TAG, "Failed to delete segment: " + oldest.file);
+      }
+    }
+  }
+
+  @Nullable
+  private static byte[] readValue(Location location) throws IOException {
+    byte[] result = new byte[location.length];
+    if (readFully(location.segment.channel, ByteBuffer.wrap(result), location.offset)) {
+      return result;
+    }
+    return null;
+  }
+
+  private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    int start = buffer.position();
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position + buffer.position() - start);
+      if (read < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void closeSegments() {
+    for (Segment segment : segments.values()) {
+      segment.close();
+    }
+    segments.clear();
+    index.clear();
+    active = null;
+    size = 0;
+  }
+
+  private static byte[] encodeKey(String key) {
+    return key.getBytes(KEY_CHARSET);
+  }
+
+  private static int crc(byte[] key, byte[] value) {
+    CRC32 crc = new CRC32();
+    crc.update(key, 0, key.length);
+    crc.update(value, 0, value.length);
+    return (int) crc.getValue();
+  }
+
+  private static final class Segment {
+    @Synthetic final int id;
+    @Synthetic final File file;
+    @Synthetic final FileChannel channel;
+    /** The keys of values written to this segment, some of which may have been replaced since. */
+    @Synthetic final List<String> keys = new ArrayList<>();
+    @Synthetic long length;
+    // Guarded by this.
+    private ByteBuffer mapping;
+
+    @Synthetic
+    Segment(int id, File file) throws IOException {
+      this.id = id;
+      this.file = file;
+      channel = new RandomAccessFile(file, "rw").getChannel();
+      length = channel.size();
+    }
+
+    /**
+     * Returns a read only mapping of at least the given number of bytes from the start of this
+     * segment, re-mapping the segment if it has grown since it was last mapped.
+     */
+    @Synthetic
+    synchronized ByteBuffer getMapping(long minLength) throws IOException {
+      if (mapping == null || mapping.capacity() < minLength) {
+        mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+      }
+      return mapping;
+    }
+
+    @Synthetic
+    void close() {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        // Ignored.
+      }
+    }
+  }
+
+  private static final class Location {
+    @Synthetic final Segment segment;
+    @Synthetic final long offset;
+    @Synthetic final int length;
+    @Synthetic final int crc;
+    // Set by reads without the write lock, so it's only a hint.
+    @Synthetic volatile boolean isReferenced;
+
+    @Synthetic
+    Location(Segment segment, long offset, int length, int crc) {
+      this.segment = segment;
+      this.offset = offset;
+      this.length = length;
+      this.crc = crc;
+    }
+  }
+}
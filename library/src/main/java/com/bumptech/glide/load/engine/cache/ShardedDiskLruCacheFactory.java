@@ -0,0 +1,82 @@
+package com.bumptech.glide.load.engine.cache;
+
+import android.content.Context;
+import com.bumptech.glide.load.engine.cache.DiskLruCacheFactory.CacheDirectoryGetter;
+import java.io.File;
+
+/**
+ * Creates a disk cache that splits its entries across several {@link
+ * com.bumptech.glide.disklrucache.DiskLruCache}s in the specified disk cache directory, so that
+ * concurrent loads contend less on the cache's lock and journal.
+ *
+ * <p>This is an experimental API that may be removed in the future.
+ *
+ * @see ShardedDiskLruCacheWrapper
+ */
+// Public API.
+@SuppressWarnings("unused")
+public final class ShardedDiskLruCacheFactory implements DiskCache.Factory {
+  /** The number of shards used if one isn't specified. */
+  public static final int DEFAULT_SHARD_COUNT = 4;
+
+  private final CacheDirectoryGetter cacheDirectoryGetter;
+  private final long diskCacheSize;
+  private final int shardCount;
+
+  /**
+   * Creates a factory for a cache with the default size and number of shards in the application's
+   * internal cache directory.
+   */
+  public ShardedDiskLruCacheFactory(Context context) {
+    this(context, DiskCache.Factory.DEFAULT_DISK_CACHE_SIZE, DEFAULT_SHARD_COUNT);
+  }
+
+  /**
+   * Creates a factory for a cache in the application's internal cache directory.
+   *
+   * @param diskCacheSize Desired max bytes size for the disk cache, shared by all shards.
+   * @param shardCount The number of independent caches to split entries across.
+   */
+  public ShardedDiskLruCacheFactory(final Context context, long diskCacheSize, int shardCount) {
+    this(
+        new CacheDirectoryGetter() {
+          @Override
+          public File getCacheDirectory() {
+            return new File(context.getCacheDir(), DiskCache.Factory.DEFAULT_DISK_CACHE_DIR);
+          }
+        },
+        diskCacheSize,
+        shardCount);
+  }
+
+  /**
+   * When using this constructor {@link CacheDirectoryGetter#getCacheDirectory()} will be called out
+   * of UI thread, allowing to do I/O access without performance impacts.
+   *
+   * @param cacheDirectoryGetter Interface called out of UI thread to get the cache folder, which
+   *     must not be used for anything else.
+   * @param diskCacheSize Desired max bytes size for the disk cache, shared by all shards.
+   * @param shardCount The number of independent caches to split entries across.
+   */
+  public ShardedDiskLruCacheFactory(
+      CacheDirectoryGetter cacheDirectoryGetter, long diskCacheSize, int shardCount) {
+    this.cacheDirectoryGetter = cacheDirectoryGetter;
+    this.diskCacheSize = diskCacheSize;
+    this.shardCount = shardCount;
+  }
+
+  @Override
+  public DiskCache build() {
+    File cacheDir = cacheDirectoryGetter.getCacheDirectory();
+
+    if (cacheDir == null) {
+      return null;
+    }
+
+    if (cacheDir.isDirectory() || cacheDir.mkdirs()) {
+      return ShardedDiskLruCacheWrapper.create(cacheDir, diskCacheSize, shardCount);
+    }
+
+    return null;
+  }
+}
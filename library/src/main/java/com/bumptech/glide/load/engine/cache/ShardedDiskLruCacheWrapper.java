@@ -0,0 +1,200 @@
+package com.bumptech.glide.load.engine.cache;
+
+import android.util.Log;
+import androidx.annotation.VisibleForTesting;
+import com.bumptech.glide.load.Key;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A DiskCache that splits its entries across several independent {@link
+ * com.bumptech.glide.disklrucache.DiskLruCache}s so that concurrent reads and writes of different
+ * keys rarely contend on the same cache-wide lock or journal.
+ *
+ * <p>Each key is assigned to a shard by the hash of its safe key. Every shard lives in its own sub
+ * directory with its own journal, lock and share of the total size. The shares are periodically
+ * rebalanced so that shards that are written to more often get more of the space, while the sum
+ * of all of the shares never exceeds the size of the cache. Eviction is least recently used within
+ * each shard, which approximates least recently used across the cache because keys are spread
+ * evenly across shards.
+ *
+ * <p>The directory must not be shared with anything else. Files in the directory that don't belong
+ * to one of the current shards, for example a cache written by {@link DiskLruCacheWrapper} or by a
+ * sharded cache with a different number of shards, are deleted when the cache is first used.
+ */
+public final class ShardedDiskLruCacheWrapper implements DiskCache {
+  private static final String TAG = "ShardedDiskCache";
+  private static final String SHARD_DIRECTORY_PREFIX = "shard_";
+  /** The number of puts between two attempts to rebalance the sizes of the shards. */
+  @VisibleForTesting static final int REBALANCE_INTERVAL = 32;
+
+  private final SafeKeyGenerator safeKeyGenerator = new SafeKeyGenerator();
+  private final AtomicInteger putsSinceRebalance = new AtomicInteger();
+  private final AtomicBoolean isRebalancing = new AtomicBoolean();
+  private final File directory;
+  private final long maxSize;
+  private final DiskLruCacheWrapper[] shards;
+  private volatile boolean isDirectoryPrepared;
+
+  /**
+   * Create a new sharded DiskCache in the given directory with a specified max size.
+   *
+   * <p>This is an experimental API that may be removed in the future.
+   *
+   * @param directory The directory for the disk cache, which must not be used for anything else.
+   * @param maxSize The max size for the disk cache, shared by all shards.
+   * @param shardCount The number of independent caches to split entries across.
+   * @return The new disk cache with the given arguments
+   */
+  public static DiskCache create(File directory, long maxSize, int shardCount) {
+    return new ShardedDiskLruCacheWrapper(directory, maxSize, shardCount);
+  }
+
+  @VisibleForTesting
+  ShardedDiskLruCacheWrapper(File directory, long maxSize, int shardCount) {
+    if (shardCount <= 0) {
+      throw new IllegalArgumentException("shardCount must be positive, but was: " + shardCount);
+    }
+    if (maxSize < shardCount) {
+      throw new IllegalArgumentException(
+          "maxSize must allow at least one byte per shard, but was: " + maxSize);
+    }
+    this.directory = directory;
+    this.maxSize = maxSize;
+    shards = new DiskLruCacheWrapper[shardCount];
+    for (int i = 0; i < shardCount; i++) {
+      shards[i] =
+          new DiskLruCacheWrapper(
+              getShardDirectory(i),
+              maxSize / shardCount,
+              /* useBinaryJournal= */ false,
+              /* delayJournalFlushes= */ false);
+    }
+  }
+
+  @Override
+  public File get(Key key) {
+    String safeKey = safeKeyGenerator.getSafeKey(key);
+    if (Log.isLoggable(TAG, Log.VERBOSE)) {
+      Log.v(TAG, "Get: Obtained: " + safeKey + " for for Key: " + key);
+    }
+    return getShard(safeKey).get(safeKey);
+  }
+
+  @Override
+  public void put(Key key, Writer writer) {
+    String safeKey = safeKeyGenerator.getSafeKey(key);
+    if (Log.isLoggable(TAG, Log.VERBOSE)) {
+      Log.v(TAG, "Put: Obtained: " + safeKey + " for for Key: " + key);
+    }
+    getShard(safeKey).put(safeKey, writer);
+    if (putsSinceRebalance.incrementAndGet() >= REBALANCE_INTERVAL
+        && isRebalancing.compareAndSet(false, true)) {
+      try {
+        putsSinceRebalance.set(0);
+        rebalance();
+      } finally {
+        isRebalancing.set(false);
+      }
+    }
+  }
+
+  @Override
+  public void delete(Key key) {
+    String safeKey = safeKeyGenerator.getSafeKey(key);
+    getShard(safeKey).delete(safeKey);
+  }
+
+  @Override
+  public void clear() {
+    prepareDirectory();
+    for (DiskLruCacheWrapper shard : shards) {
+      shard.clear();
+    }
+  }
+
+  /**
+   * Splits the max size of the cache across the shards based on how much each is using.
+   *
+   * <p>Space that isn't used yet is split evenly, so every shard can grow until the next rebalance.
+   * If the shards are using more than the max size in total, the excess is taken from each shard in
+   * proportion to its size and the shards evict their least recently used entries in the
+   * background.
+   */
+  @VisibleForTesting
+  void rebalance() {
+    long[] sizes = new long[shards.length];
+    long totalSize = 0;
+    try {
+      for (int i = 0; i < shards.length; i++) {
+        sizes[i] = shards[i].getSize();
+        totalSize += sizes[i];
+      }
+      long available = maxSize - totalSize;
+      for (int i = 0; i < shards.length; i++) {
+        long shardMaxSize;
+        if (available >= 0) {
+          shardMaxSize = sizes[i] + available / shards.length;
+        } else {
+          shardMaxSize = sizes[i] - (long) ((double) -available * sizes[i] / totalSize);
+        }
+        shards[i].setMaxSize(Math.max(1, shardMaxSize));
+      }
+    } catch (IOException e) {
+      if (Log.isLoggable(TAG, Log.WARN)) {
+        Log.w(TAG, "Unable to rebalance disk cache shards", e);
+      }
+    }
+  }
+
+  /** Returns the number of bytes used by all of the shards. */
+  @VisibleForTesting
+  long getSize() throws IOException {
+    long size = 0;
+    for (DiskLruCacheWrapper shard : shards) {
+      size += shard.getSize();
+    }
+    return size;
+  }
+
+  /** Returns the sum of the number of bytes each of the shards may currently use. */
+  @VisibleForTesting
+  long getMaxSize() throws IOException {
+    long size = 0;
+    for (DiskLruCacheWrapper shard : shards) {
+      size += shard.getMaxSize();
+    }
+    return size;
+  }
+
+  @VisibleForTesting
+  File getShardDirectory(int index) {
+    return new File(directory, SHARD_DIRECTORY_PREFIX + index + "_of_" + shards.length);
+  }
+
+  private DiskLruCacheWrapper getShard(String safeKey) {
+    prepareDirectory();
+    return shards[(safeKey.hashCode() & Integer.MAX_VALUE) % shards.length];
+  }
+
+  private void prepareDirectory() {
+    if (isDirectoryPrepared) {
+      return;
+    }
+    synchronized (this) {
+      if (isDirectoryPrepared) {
+        return;
+      }
+      List<File> shardDirectories = new ArrayList<>(shards.length);
+      for (int i = 0; i < shards.length; i++) {
+        shardDirectories.add(getShardDirectory(i));
+      }
+      DiskCacheDirectories.prepare(directory, shardDirectories);
+      isDirectoryPrepared = true;
+    }
+  }
+}
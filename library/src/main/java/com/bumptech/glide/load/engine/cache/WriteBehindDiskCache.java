@@ -0,0 +1,387 @@
+package com.bumptech.glide.load.engine.cache;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.util.Synthetic;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A DiskCache that can write entries in the background, so that the threads that load them can
+ * move on to other loads rather than waiting for the disk.
+ *
+ * <p>Entries passed to {@link #putAsync(Key, Writer, long, Runnable)} or {@link #putBytesAsync(Key,
+ * byte[])} are queued and written to the wrapped cache one at a time, in order, on the given
+ * {@link Executor}. Queuing an entry for a key that's already queued does nothing. The queue is
+ * bounded by the total size of the queued entries. Entries that don't fit are rejected, and callers
+ * are expected to write them with {@link #put(Key, Writer)} instead, which slows them down to the
+ * speed of the disk until the queue drains.
+ *
+ * <p>Entries are visible to reads as soon as they're queued. {@link #getBytes(Key)}, {@link
+ * #getBuffer(Key)} and {@link #getPendingBytes(Key)} return the contents of entries queued as
+ * bytes. Otherwise reads, and {@link #flush(Key)}, write a queued entry immediately on the calling
+ * thread, or wait for the entry if it's being written, so that a read never misses an entry because
+ * its write hasn't happened yet.
+ */
+public final class WriteBehindDiskCache implements AsyncWriteDiskCache, DirectReadDiskCache {
+  private static final String TAG = "WriteBehindDiskCache";
+
+  private final DiskCache delegate;
+  private final Executor executor;
+  private final long maxPendingSize;
+  private final Runnable drainer =
+      new Runnable() {
+        @Override
+        public void run() {
+          drainQueue();
+        }
+      };
+
+  // Guarded by this, in the order the entries were queued.
+  private final Map<Key, PendingWrite> pendingWrites = new LinkedHashMap<>();
+  // Guarded by this.
+  private long pendingSize;
+  // Guarded by this.
+  private boolean isDrainScheduled;
+
+  /**
+   * Wraps the given cache.
+   *
+   * <p>This is an experimental API that may be removed in the future.
+   *
+   * @param delegate The cache to write entries to.
+   * @param executor The executor to write entries on. At most one write is run on it at a time.
+   * @param maxPendingSize The maximum total size in bytes of entries waiting to be written.
+   */
+  public WriteBehindDiskCache(
+      @NonNull DiskCache delegate, @NonNull Executor executor, long maxPendingSize) {
+    this.delegate = delegate;
+    this.executor = executor;
+    this.maxPendingSize = maxPendingSize;
+  }
+
+  /** Returns the cache that entries are written to. */
+  @NonNull
+  public DiskCache getDelegate() {
+    return delegate;
+  }
+
+  @Override
+  public long getMaxPendingSize() {
+    return maxPendingSize;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Returns {@code false} if the queue is full.
+   */
+  @Override
+  public boolean putAsync(
+      @NonNull Key key, @NonNull Writer writer, long size, @Nullable Runnable onWritten) {
+    return enqueue(new PendingWrite(key, writer, /* bytes= */ null, size, onWritten));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The contents are returned by reads until they're written. Returns {@code false} if the queue
+   * is full.
+   */
+  @Override
+  public boolean putBytesAsync(@NonNull Key key, @NonNull final byte[] bytes) {
+    Writer writer =
+        new Writer() {
+          @Override
+          public boolean write(@NonNull File file) {
+            return writeBytes(file, bytes);
+          }
+        };
+    return enqueue(new PendingWrite(key, writer, bytes, bytes.length, /* onWritten= */ null));
+  }
+
+  /**
+   * Returns the contents of the entry for the given key if it was queued with {@link
+   * #putBytesAsync(Key, byte[])} and hasn't been written yet, or {@code null} otherwise.
+   */
+  @Nullable
+  public synchronized byte[] getPendingBytes(@NonNull Key key) {
+    PendingWrite pendingWrite = pendingWrites.get(key);
+    return pendingWrite != null ? pendingWrite.bytes : null;
+  }
+
+  /**
+   * Writes the queued entry for the given key, if there is one, on the calling thread, or waits for
+   * it to be written if it's already being written.
+   *
+   * <p>Must not be called on the main thread.
+   */
+  public void flush(@NonNull Key key) {
+    PendingWrite toWrite;
+    synchronized (this) {
+      toWrite = pendingWrites.get(key);
+      if (toWrite == null) {
+        return;
+      }
+      if (toWrite.isWriting) {
+        awaitWrite(toWrite);
+        return;
+      }
+      toWrite.isWriting = true;
+    }
+    write(toWrite);
+  }
+
+  @Nullable
+  @Override
+  public byte[] getBytes(@NonNull Key key) {
+    byte[] pendingBytes = getPendingBytes(key);
+    if (pendingBytes != null) {
+      return pendingBytes;
+    }
+    flush(key);
+    return delegate instanceof DirectReadDiskCache
+        ? ((DirectReadDiskCache) delegate).getBytes(key)
+        : null;
+  }
+
+  @Nullable
+  @Override
+  public ByteBuffer getBuffer(@NonNull Key key) {
+    byte[] pendingBytes = getPendingBytes(key);
+    if (pendingBytes != null) {
+      return ByteBuffer.wrap(pendingBytes);
+    }
+    flush(key);
+    return delegate instanceof DirectReadDiskCache
+        ? ((DirectReadDiskCache) delegate).getBuffer(key)
+        : null;
+  }
+
+  @Override
+  public File get(Key key) {
+    flush(key);
+    return delegate.get(key);
+  }
+
+  @Override
+  public void put(Key key, Writer writer) {
+    synchronized (this) {
+      // The queued entry will be written soon, so there's no need to write it twice.
+      if (pendingWrites.containsKey(key)) {
+        return;
+      }
+    }
+    delegate.put(key, writer);
+  }
+
+  @Override
+  public void delete(Key key) {
+    PendingWrite removed = null;
+    synchronized (this) {
+      PendingWrite pendingWrite = pendingWrites.get(key);
+      if (pendingWrite != null) {
+        if (pendingWrite.isWriting) {
+          awaitWrite(pendingWrite);
+        } else {
+          removed = remove(pendingWrite);
+        }
+      }
+    }
+    if (removed != null) {
+      removed.onWritten();
+    }
+    delegate.delete(key);
+  }
+
+  @Override
+  public void clear() {
+    List<PendingWrite> removed = new ArrayList<>();
+    List<PendingWrite> writing = new ArrayList<>();
+    synchronized (this) {
+      for (Iterator<PendingWrite> iterator = pendingWrites.values().iterator();
+          iterator.hasNext(); ) {
+        PendingWrite pendingWrite = iterator.next();
+        if (pendingWrite.isWriting) {
+          writing.add(pendingWrite);
+        } else {
+          iterator.remove();
+          pendingSize -= pendingWrite.size;
+          removed.add(pendingWrite);
+        }
+      }
+      // Entries that are being written can't be stopped, so wait for them before clearing.
+      for (PendingWrite pendingWrite : writing) {
+        if (!awaitWrite(pendingWrite)) {
+          break;
+        }
+      }
+    }
+    for (PendingWrite pendingWrite : removed) {
+      pendingWrite.onWritten();
+    }
+    delegate.clear();
+  }
+
+  private boolean enqueue(PendingWrite pendingWrite) {
+    boolean isDuplicate;
+    boolean scheduleDrain = false;
+    synchronized (this) {
+      isDuplicate = pendingWrites.containsKey(pendingWrite.key);
+      if (!isDuplicate) {
+        if (pendingWrite.size > maxPendingSize - pendingSize) {
+          if (Log.isLoggable(TAG, Log.DEBUG)) {
+            Log.d(TAG, "Queue is full, rejecting: " + pendingWrite.key);
+          }
+          return false;
+        }
+        pendingWrites.put(pendingWrite.key, pendingWrite);
+        pendingSize += pendingWrite.size;
+        scheduleDrain = !isDrainScheduled;
+        isDrainScheduled = true;
+      }
+    }
+    if (isDuplicate) {
+      pendingWrite.onWritten();
+    } else if (scheduleDrain) {
+      try {
+        executor.execute(drainer);
+      } catch (RejectedExecutionException e) {
+        if (Log.isLoggable(TAG, Log.WARN)) {
+          Log.w(TAG, "Failed to schedule queued writes, writing them now", e);
+        }
+        // Otherwise no drain would ever be scheduled again. Writing the queue on this thread is no
+        // slower for the caller than having its entry rejected.
+        drainQueue();
+      }
+    }
+    return true;
+  }
+
+  @Synthetic
+  void drainQueue() {
+    while (true) {
+      PendingWrite next = null;
+      synchronized (this) {
+        for (PendingWrite pendingWrite : pendingWrites.values()) {
+          if (!pendingWrite.isWriting) {
+            next = pendingWrite;
+            break;
+          }
+        }
+        if (next == null) {
+          isDrainScheduled = false;
+          return;
+        }
+        next.isWriting = true;
+      }
+      try {
+        write(next);
+      } catch (RuntimeException e) {
+        // The entry has been removed, so keep draining rather than leaving the rest queued forever.
+        if (Log.isLoggable(TAG, Log.WARN)) {
+          Log.w(TAG, "Failed to write queued entry: " + next.key, e);
+        }
+      }
+    }
+  }
+
+  private void write(PendingWrite pendingWrite) {
+    try {
+      delegate.put(pendingWrite.key, pendingWrite.writer);
+    } finally {
+      synchronized (this) {
+        remove(pendingWrite);
+        notifyAll();
+      }
+      pendingWrite.onWritten();
+    }
+  }
+
+  // Guarded by this.
+  private PendingWrite remove(PendingWrite pendingWrite) {
+    pendingWrites.remove(pendingWrite.key);
+    pendingSize -= pendingWrite.size;
+    return pendingWrite;
+  }
+
+  /**
+   * Waits until the given entry, which is being written, is no longer queued, or returns {@code
+   * false} if the thread is interrupted.
+   */
+  // Guarded by this.
+  private boolean awaitWrite(PendingWrite pendingWrite) {
+    while (pendingWrites.get(pendingWrite.key) == pendingWrite) {
+      try {
+        wait();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Synthetic
+  static boolean writeBytes(File file, byte[] bytes) {
+    OutputStream os = null;
+    try {
+      os = new FileOutputStream(file);
+      os.write(bytes);
+      os.close();
+      return true;
+    } catch (IOException e) {
+      if (Log.isLoggable(TAG, Log.DEBUG)) {
+        Log.d(TAG, "Failed to write queued bytes", e);
+      }
+      return false;
+    } finally {
+      if (os != null) {
+        try {
+          os.close();
+        } catch (IOException e) {
+          // Ignored.
+        }
+      }
+    }
+  }
+
+  private static final class PendingWrite {
+    @Synthetic final Key key;
+    @Synthetic final Writer writer;
+    @Nullable @Synthetic final byte[] bytes;
+    @Synthetic final long size;
+    @Nullable private final Runnable onWritten;
+    // Guarded by the cache.
+    @Synthetic boolean isWriting;
+
+    @Synthetic
+    PendingWrite(
+        Key key, Writer writer, @Nullable byte[] bytes, long size, @Nullable Runnable onWritten) {
+      this.key = key;
+      this.writer = writer;
+      this.bytes = bytes;
+      this.size = size;
+      this.onWritten = onWritten;
+    }
+
+    @Synthetic
+    void onWritten() {
+      if (onWritten != null) {
+        onWritten.run();
+      }
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package com.bumptech.glide.load.engine.cache;
+
+import androidx.annotation.NonNull;
+import java.util.concurrent.Executor;
+
+/**
+ * Wraps the {@link DiskCache} built by another {@link DiskCache.Factory} in a {@link
+ * WriteBehindDiskCache}.
+ *
+ * <p>This is an experimental API that may be removed in the future.
+ */
+// Public API.
+@SuppressWarnings("unused")
+public final class WriteBehindDiskCacheFactory implements DiskCache.Factory {
+  private final DiskCache.Factory delegate;
+  private final Executor executor;
+  private final long maxPendingSize;
+
+  /**
+   * @param delegate Builds the cache to write entries to.
+   * @param executor The executor to write entries on in the background.
+   * @param maxPendingSize The maximum total size in bytes of entries waiting to be written.
+   */
+  public WriteBehindDiskCacheFactory(
+      @NonNull DiskCache.Factory delegate, @NonNull Executor executor, long maxPendingSize) {
+    this.delegate = delegate;
+    this.executor = executor;
+    this.maxPendingSize = maxPendingSize;
+  }
+
+  @Override
+  public DiskCache build() {
+    DiskCache diskCache = delegate.build();
+    return diskCache != null
+        ? new WriteBehindDiskCache(diskCache, executor, maxPendingSize)
+        : null;
+  }
+}
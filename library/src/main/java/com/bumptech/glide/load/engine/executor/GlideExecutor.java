@@ -52,6 +52,9 @@ public final class GlideExecutor implements ExecutorService {
 
   static final String DEFAULT_ANIMATION_EXECUTOR_NAME = "animation";
 
+  /** The thread name prefix for executors used to write to Glide's disk cache in the background. */
+  private static final String DISK_CACHE_WRITE_EXECUTOR_NAME = "disk-cache-write";
+
   /** The default keep alive time for threads in our cached thread pools in milliseconds. */
   private static final long KEEP_ALIVE_TIME_MS = TimeUnit.SECONDS.toMillis(10);
 
@@ -183,6 +186,21 @@ public final class GlideExecutor implements ExecutorService {
                 false)));
   }
 
+  /**
+   * Returns a new single threaded executor with the lowest background priority and a {@link
+   * #KEEP_ALIVE_TIME_MS} keep alive time for writing to the disk cache without delaying loads.
+   *
+   * <p>Disk cache write executors do not allow network operations on their threads.
+   */
+  public static GlideExecutor newDiskCacheWriteExecutor() {
+    return new GlideExecutor.Builder(/* preventNetworkOperations= */ true)
+        .setThreadCount(1)
+        .setThreadTimeoutMillis(KEEP_ALIVE_TIME_MS)
+        .setPriority(android.os.Process.THREAD_PRIORITY_BACKGROUND)
+        .setName(DISK_CACHE_WRITE_EXECUTOR_NAME)
+        .build();
+  }
+
   /**
    * Returns a new fixed thread pool that defaults to either one or two threads depending on the
    * number of available cores to use when loading frames of animations.
@@ -308,6 +326,16 @@ public final class GlideExecutor implements ExecutorService {
     return delegate.awaitTermination(timeout, unit);
   }
 
+  /**
+   * Returns the number of tasks waiting to start on this executor, or {@code 0} if the underlying
+   * executor doesn't expose its queue.
+   */
+  public int getQueueSize() {
+    return delegate instanceof ThreadPoolExecutor
+        ? ((ThreadPoolExecutor) delegate).getQueue().size()
+        : 0;
+  }
+
   @Override
   public String toString() {
     return delegate.toString();
@@ -373,13 +401,23 @@ public final class GlideExecutor implements ExecutorService {
         android.os.Process.THREAD_PRIORITY_BACKGROUND
             + android.os.Process.THREAD_PRIORITY_MORE_FAVORABLE;
 
+    @Synthetic final int priority;
+
+    DefaultPriorityThreadFactory() {
+      this(DEFAULT_PRIORITY);
+    }
+
+    DefaultPriorityThreadFactory(int priority) {
+      this.priority = priority;
+    }
+
     @Override
     public Thread newThread(@NonNull Runnable runnable) {
       return new Thread(runnable) {
         @Override
         public void run() {
           // why PMD suppression is needed: https://github.com/pmd/pmd/issues/808
-          android.os.Process.setThreadPriority(DEFAULT_PRIORITY); // NOPMD AccessorMethodGeneration
+          android.os.Process.setThreadPriority(priority); // NOPMD AccessorMethodGeneration
           super.run();
         }
       };
@@ -492,6 +530,15 @@ public final class GlideExecutor implements ExecutorService {
       return this;
     }
 
+    /**
+     * Sets the {@link android.os.Process} priority of the threads created by the default {@link
+     * ThreadFactory}.
+     */
+    Builder setPriority(int priority) {
+      threadFactory = new DefaultPriorityThreadFactory(priority);
+      return this;
+    }
+
     /**
      * Sets the {@link UncaughtThrowableStrategy} to use for unexpected exceptions thrown by tasks
      * on {@link GlideExecutor}s built by this {@code Builder}.
@@ -0,0 +1,388 @@
+package com.bumptech.glide.load.engine.prefill;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.util.Synthetic;
+import com.bumptech.glide.util.VersionedFile;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Learns which sizes and configurations of {@link Bitmap}s are requested from a {@link BitmapPool}
+ * and pre-fills the pool with the most common of them the next time the process starts.
+ *
+ * <p>Requests made through {@link #getRecordingPool()} are counted per width, height and {@link
+ * Bitmap.Config}. {@link #persist()} writes the most frequently requested shapes to a small
+ * manifest. {@link #start(Callback)} reads the manifest back in the background and, once the main
+ * thread is idle, asks the {@link Callback} to pre-fill the pool with those shapes, weighted by how
+ * often each was requested.
+ *
+ * <p>Counts read from the manifest are halved before they're added to the counts of the current
+ * process, so shapes the application stops using age out after a few starts.
+ *
+ * <p>The manifest is a {@link VersionedFile} holding the number of entries, followed by each
+ * entry's width, height, config name and count.
+ */
+public final class LearnedBitmapPreFill {
+  private static final int VERSION = 1;
+  // Bounds the memory used by applications that request many distinct sizes.
+  @VisibleForTesting static final int MAX_TRACKED_SHAPES = 256;
+  @VisibleForTesting static final int MAX_PERSISTED_SHAPES = 8;
+  // Shapes requested fewer times than this are unlikely to be requested again soon.
+  @VisibleForTesting static final int MIN_REQUESTS = 2;
+  // Weights are scaled to at most this value so that summing them can't overflow.
+  @VisibleForTesting static final int MAX_WEIGHT = 100;
+
+  private static final VersionedFile.Reader<List<PreFillType>> READER =
+      new VersionedFile.Reader<List<PreFillType>>() {
+        @Nullable
+        @Override
+        public List<PreFillType> read(@NonNull DataInputStream is) throws IOException {
+          int count = is.readInt();
+          if (count < 0 || count > MAX_PERSISTED_SHAPES) {
+            return null;
+          }
+          List<PreFillType> result = new ArrayList<>(count);
+          for (int i = 0; i < count; i++) {
+            int width = is.readInt();
+            int height = is.readInt();
+            String configName = is.readUTF();
+            int weight = is.readInt();
+            Bitmap.Config config = parseConfig(configName);
+            if (width > 0 && height > 0 && weight > 0 && config != null) {
+              result.add(new PreFillType(width, height, config, weight));
+            }
+          }
+          return result;
+        }
+      };
+
+  private final BitmapPool bitmapPool;
+  private final File manifest;
+  private final Executor executor;
+  private final ConcurrentHashMap<Shape, AtomicInteger> counts = new ConcurrentHashMap<>();
+  private final BitmapPool recordingPool = new RecordingBitmapPool();
+
+  /** Called on the main thread with the shapes to pre-fill. */
+  public interface Callback {
+    void onPreFill(@NonNull PreFillType.Builder... builders);
+  }
+
+  /**
+   * Constructor for LearnedBitmapPreFill.
+   *
+   * @param bitmapPool The pool whose requests are recorded.
+   * @param manifest The file the most frequently requested shapes are persisted to.
+   * @param executor A background executor used to read and write the manifest.
+   */
+  public LearnedBitmapPreFill(
+      @NonNull BitmapPool bitmapPool, @NonNull File manifest, @NonNull Executor executor) {
+    this.bitmapPool = bitmapPool;
+    this.manifest = manifest;
+    this.executor = executor;
+  }
+
+  /**
+   * Returns a {@link BitmapPool} that records each {@link BitmapPool#get(int, int, Bitmap.Config)}
+   * and {@link BitmapPool#getDirty(int, int, Bitmap.Config)} before delegating to the wrapped pool.
+   */
+  @NonNull
+  public BitmapPool getRecordingPool() {
+    return recordingPool;
+  }
+
+  /**
+   * Returns the wrapped {@link BitmapPool}.
+   *
+   * <p>Pre-filling should use this pool rather than {@link #getRecordingPool()} so that the
+   * allocations made while pre-filling aren't mistaken for requests made by the application.
+   */
+  @NonNull
+  public BitmapPool getBitmapPool() {
+    return bitmapPool;
+  }
+
+  /**
+   * Reads the shapes persisted by a previous process in the background and, if there are any,
+   * passes them to the given {@link Callback} the next time the main thread is idle.
+   */
+  public void start(@NonNull final Callback callback) {
+    executor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            List<PreFillType> shapes = read(manifest);
+            for (PreFillType shape : shapes) {
+              add(shape.getWidth(), shape.getHeight(), shape.getConfig(), shape.getWeight() / 2);
+            }
+            if (!shapes.isEmpty()) {
+              preFillWhenIdle(callback, toBuilders(shapes));
+            }
+          }
+        });
+  }
+
+  /**
+   * Writes the most frequently requested shapes to the manifest in the background.
+   *
+   * <p>The shapes are chosen when this method is called, so requests made afterwards aren't
+   * included.
+   */
+  public void persist() {
+    final List<PreFillType> shapes = getTopShapes();
+    executor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            write(manifest, shapes);
+          }
+        });
+  }
+
+  /** Records a single request for a {@link Bitmap} with the given shape. */
+  public void record(int width, int height, @Nullable Bitmap.Config config) {
+    add(width, height, config, 1);
+  }
+
+  /**
+   * Returns up to {@link #MAX_PERSISTED_SHAPES} of the most frequently requested shapes, most
+   * frequent first, each with a weight equal to its count.
+   */
+  @VisibleForTesting
+  @NonNull
+  List<PreFillType> getTopShapes() {
+    List<PreFillType> result = new ArrayList<>();
+    for (Map.Entry<Shape, AtomicInteger> entry : counts.entrySet()) {
+      int count = entry.getValue().get();
+      if (count >= MIN_REQUESTS) {
+        Shape shape = entry.getKey();
+        result.add(new PreFillType(shape.width, shape.height, shape.config, count));
+      }
+    }
+    Collections.sort(
+        result,
+        new Comparator<PreFillType>() {
+          @Override
+          public int compare(PreFillType first, PreFillType second) {
+            return compareInts(second.getWeight(), first.getWeight());
+          }
+        });
+    return result.size() > MAX_PERSISTED_SHAPES
+        ? new ArrayList<>(result.subList(0, MAX_PERSISTED_SHAPES))
+        : result;
+  }
+
+  /**
+   * Returns {@link PreFillType.Builder}s for the given shapes with their counts scaled to weights
+   * of at most {@link #MAX_WEIGHT}.
+   */
+  @VisibleForTesting
+  @NonNull
+  static PreFillType.Builder[] toBuilders(@NonNull List<PreFillType> shapes) {
+    int maxCount = 1;
+    for (PreFillType shape : shapes) {
+      maxCount = Math.max(maxCount, shape.getWeight());
+    }
+    PreFillType.Builder[] result = new PreFillType.Builder[shapes.size()];
+    for (int i = 0; i < shapes.size(); i++) {
+      PreFillType shape = shapes.get(i);
+      int weight = (int) Math.max(1, (long) shape.getWeight() * MAX_WEIGHT / maxCount);
+      result[i] =
+          new PreFillType.Builder(shape.getWidth(), shape.getHeight())
+              .setConfig(shape.getConfig())
+              .setWeight(weight);
+    }
+    return result;
+  }
+
+  @Synthetic
+  void add(int width, int height, @Nullable Bitmap.Config config, int amount) {
+    if (width <= 0 || height <= 0 || config == null || amount <= 0 || isHardware(config)) {
+      return;
+    }
+    Shape shape = new Shape(width, height, config);
+    AtomicInteger count = counts.get(shape);
+    if (count == null) {
+      if (counts.size() >= MAX_TRACKED_SHAPES) {
+        return;
+      }
+      count = new AtomicInteger();
+      AtomicInteger existing = counts.putIfAbsent(shape, count);
+      if (existing != null) {
+        count = existing;
+      }
+    }
+    int current;
+    do {
+      current = count.get();
+      if (current > Integer.MAX_VALUE - amount) {
+        return;
+      }
+    } while (!count.compareAndSet(current, current + amount));
+  }
+
+  @Synthetic
+  static void preFillWhenIdle(
+      @NonNull final Callback callback, @NonNull final PreFillType.Builder[] builders) {
+    new Handler(Looper.getMainLooper())
+        .post(
+            new Runnable() {
+              @Override
+              public void run() {
+                Looper.myQueue()
+                    .addIdleHandler(
+                        new MessageQueue.IdleHandler() {
+                          @Override
+                          public boolean queueIdle() {
+                            callback.onPreFill(builders);
+                            return false;
+                          }
+                        });
+              }
+            });
+  }
+
+  @NonNull
+  @VisibleForTesting
+  static List<PreFillType> read(@NonNull File file) {
+    List<PreFillType> result = VersionedFile.read(file, VERSION, READER);
+    return result != null ? result : Collections.<PreFillType>emptyList();
+  }
+
+  /** Replaces the manifest with the given shapes. */
+  @VisibleForTesting
+  static void write(@NonNull File file, @NonNull final List<PreFillType> shapes) {
+    VersionedFile.write(
+        file,
+        VERSION,
+        new VersionedFile.Writer() {
+          @Override
+          public void write(@NonNull DataOutputStream os) throws IOException {
+            os.writeInt(shapes.size());
+            for (PreFillType shape : shapes) {
+              os.writeInt(shape.getWidth());
+              os.writeInt(shape.getHeight());
+              os.writeUTF(shape.getConfig().name());
+              os.writeInt(shape.getWeight());
+            }
+          }
+        });
+  }
+
+  @Nullable
+  @Synthetic
+  static Bitmap.Config parseConfig(String name) {
+    try {
+      Bitmap.Config config = Bitmap.Config.valueOf(name);
+      return isHardware(config) ? null : config;
+    } catch (IllegalArgumentException e) {
+      // Written by a newer platform version.
+      return null;
+    }
+  }
+
+  private static boolean isHardware(@NonNull Bitmap.Config config) {
+    return Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && config == Bitmap.Config.HARDWARE;
+  }
+
+  @Synthetic
+  static int compareInts(int first, int second) {
+    return first < second ? -1 : (first == second ? 0 : 1);
+  }
+
+  private static final class Shape {
+    @Synthetic final int width;
+    @Synthetic final int height;
+    @Synthetic final Bitmap.Config config;
+
+    Shape(int width, int height, Bitmap.Config config) {
+      this.width = width;
+      this.height = height;
+      this.config = config;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (o instanceof Shape) {
+        Shape other = (Shape) o;
+        return width == other.width && height == other.height && config == other.config;
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = width;
+      result = 31 * result + height;
+      result = 31 * result + config.hashCode();
+      return result;
+    }
+  }
+
+  private final class RecordingBitmapPool implements BitmapPool {
+
+    @Synthetic
+    RecordingBitmapPool() {}
+
+    @Override
+    public long getMaxSize() {
+      return bitmapPool.getMaxSize();
+    }
+
+    @Override
+    public void setSizeMultiplier(float sizeMultiplier) {
+      bitmapPool.setSizeMultiplier(sizeMultiplier);
+    }
+
+    @Override
+    public void put(Bitmap bitmap) {
+      bitmapPool.put(bitmap);
+    }
+
+    @NonNull
+    @Override
+    public Bitmap get(int width, int height, Bitmap.Config config) {
+      record(width, height, config);
+      return bitmapPool.get(width, height, config);
+    }
+
+    @NonNull
+    @Override
+    public Bitmap getDirty(int width, int height, Bitmap.Config config) {
+      record(width, height, config);
+      return bitmapPool.getDirty(width, height, config);
+    }
+
+    @Override
+    public void clearMemory() {
+      bitmapPool.clearMemory();
+    }
+
+    @Override
+    public void trimMemory(int level) {
+      bitmapPool.trimMemory(level);
+    }
+
+    @Override
+    public String toString() {
+      return "RecordingBitmapPool{" + bitmapPool + "}";
+    }
+  }
+}
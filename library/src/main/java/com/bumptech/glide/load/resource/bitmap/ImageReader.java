@@ -153,6 +153,12 @@ interface ImageReader {
     @Nullable
     @Override
     public Bitmap decodeBitmap(Options options) {
+      if (!buffer.isReadOnly() && buffer.hasArray()) {
+        // Decodes the backing array in place rather than copying it through a stream.
+        return BitmapFactory.decodeByteArray(
+            buffer.array(), buffer.arrayOffset(), buffer.limit(), options);
+      }
+      // BitmapFactory can't read from direct or mapped buffers, so they're streamed instead.
       return BitmapFactory.decodeStream(stream(), /* outPadding= */ null, options);
     }
 
@@ -4,10 +4,12 @@ import android.graphics.Bitmap;
 import android.graphics.ImageDecoder;
 import android.graphics.ImageDecoder.Source;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 import com.bumptech.glide.load.Options;
 import com.bumptech.glide.load.ResourceDecoder;
 import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
 import com.bumptech.glide.util.ByteBufferUtil;
 import java.io.IOException;
 import java.io.InputStream;
@@ -18,6 +20,19 @@ import java.nio.ByteBuffer;
 public final class InputStreamBitmapImageDecoderResourceDecoder
     implements ResourceDecoder<InputStream, Bitmap> {
   private final BitmapImageDecoderResourceDecoder wrapped = new BitmapImageDecoderResourceDecoder();
+  @Nullable private final ArrayPool arrayPool;
+
+  public InputStreamBitmapImageDecoderResourceDecoder() {
+    this(/* arrayPool= */ null);
+  }
+
+  /**
+   * @param arrayPool If non-null, the pool the direct {@link ByteBuffer}s streams are read into are
+   *     obtained from and returned to once each decode finishes.
+   */
+  public InputStreamBitmapImageDecoderResourceDecoder(@Nullable ArrayPool arrayPool) {
+    this.arrayPool = arrayPool;
+  }
 
   @Override
   public boolean handles(@NonNull InputStream source, @NonNull Options options) throws IOException {
@@ -28,8 +43,16 @@ public final class InputStreamBitmapImageDecoderResourceDecoder
   public Resource<Bitmap> decode(
       @NonNull InputStream stream, int width, int height, @NonNull Options options)
       throws IOException {
-    ByteBuffer buffer = ByteBufferUtil.fromStream(stream);
-    Source source = ImageDecoder.createSource(buffer);
-    return wrapped.decode(source, width, height, options);
+    if (arrayPool == null) {
+      Source source = ImageDecoder.createSource(ByteBufferUtil.fromStream(stream));
+      return wrapped.decode(source, width, height, options);
+    }
+    ByteBuffer buffer = ByteBufferUtil.fromStream(stream, arrayPool);
+    try {
+      // ImageDecoder has finished reading the buffer once the Bitmap is decoded.
+      return wrapped.decode(ImageDecoder.createSource(buffer), width, height, options);
+    } finally {
+      arrayPool.put(buffer);
+    }
   }
 }
@@ -0,0 +1,41 @@
+package com.bumptech.glide.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A monotonically increasing count that's cheap to update from many threads at once.
+ *
+ * <p>Updates are spread across a fixed number of cells, picked by thread, so that threads rarely
+ * contend on the same cache line. Reads sum the cells, so they're more expensive than updates and
+ * may miss concurrent updates.
+ */
+public final class Counter {
+  // Must be a power of two so that a mask can be used to pick a cell.
+  private static final int CELL_COUNT = 16;
+  // Spaces cells 64 bytes apart so that each is on its own cache line.
+  private static final int CELL_STRIDE = 8;
+
+  private final AtomicLongArray cells = new AtomicLongArray(CELL_COUNT * CELL_STRIDE);
+
+  Counter() {}
+
+  /** Adds one to the count. */
+  public void increment() {
+    add(1);
+  }
+
+  /** Adds the given amount to the count. */
+  public void add(long amount) {
+    int cell = (int) (Thread.currentThread().getId() & (CELL_COUNT - 1));
+    cells.addAndGet(cell * CELL_STRIDE, amount);
+  }
+
+  /** Returns the sum of all updates to this counter. */
+  public long get() {
+    long result = 0;
+    for (int i = 0; i < CELL_COUNT; i++) {
+      result += cells.get(i * CELL_STRIDE);
+    }
+    return result;
+  }
+}
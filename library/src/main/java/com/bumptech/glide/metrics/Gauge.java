@@ -0,0 +1,13 @@
+package com.bumptech.glide.metrics;
+
+/**
+ * A value that's read from its source whenever a {@link GlideMetrics.Snapshot} is taken, rather
+ * than updated on every change.
+ *
+ * <p>Implementations are called on the thread that calls {@link GlideMetrics#snapshot()} and must
+ * be thread safe.
+ */
+public interface Gauge {
+  /** Returns the current value. */
+  long getValue();
+}
@@ -0,0 +1,208 @@
+package com.bumptech.glide.metrics;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A registry of {@link Counter}s, {@link Histogram}s and {@link Gauge}s describing the caches,
+ * pools and executors Glide uses.
+ *
+ * <p>Metrics are only recorded if an instance is passed to {@link
+ * com.bumptech.glide.GlideBuilder#setMetrics(GlideMetrics)}. Otherwise the components Glide uses
+ * aren't instrumented at all, so there's no overhead when metrics are disabled.
+ *
+ * <p>Use {@link #snapshot()} to read the current values, for example to periodically export them
+ * to telemetry. Metrics are identified by name, Glide's own metrics use the constants defined in
+ * this class.
+ */
+public final class GlideMetrics {
+  /** Counts loads that found their resource in active resources. */
+  public static final String ACTIVE_RESOURCES_HITS = "active_resources.hits";
+  /** Counts loads that didn't find their resource in active resources. */
+  public static final String ACTIVE_RESOURCES_MISSES = "active_resources.misses";
+  /** Counts loads that missed active resources and found their resource in the memory cache. */
+  public static final String MEMORY_CACHE_HITS = "memory_cache.hits";
+  /** Counts loads that missed both active resources and the memory cache. */
+  public static final String MEMORY_CACHE_MISSES = "memory_cache.misses";
+  /** The number of bytes currently used by the memory cache. */
+  public static final String MEMORY_CACHE_SIZE = "memory_cache.size";
+  /** The number of bytes currently used by the encoded memory cache, if one is set. */
+  public static final String ENCODED_MEMORY_CACHE_SIZE = "encoded_memory_cache.size";
+  /** Counts lookups that didn't match exactly and looked for a larger resource, if enabled. */
+  public static final String SIZE_TOLERANT_LOOKUPS = "memory_cache.size_tolerant_lookups";
+  /** Counts lookups that were satisfied by a larger resource, if enabled. */
+  public static final String SIZE_TOLERANT_HITS = "memory_cache.size_tolerant_hits";
+  /** Counts reads from the disk cache that found an entry. */
+  public static final String DISK_CACHE_HITS = "disk_cache.hits";
+  /** Counts reads from the disk cache that didn't find an entry. */
+  public static final String DISK_CACHE_MISSES = "disk_cache.misses";
+  /** Counts writes to the disk cache. */
+  public static final String DISK_CACHE_WRITES = "disk_cache.writes";
+  /** Counts {@link android.graphics.Bitmap}s obtained from the bitmap pool. */
+  public static final String BITMAP_POOL_HITS = "bitmap_pool.hits";
+  /** Counts {@link android.graphics.Bitmap}s the bitmap pool couldn't provide. */
+  public static final String BITMAP_POOL_MISSES = "bitmap_pool.misses";
+  /** Counts {@link android.graphics.Bitmap}s evicted from the bitmap pool. */
+  public static final String BITMAP_POOL_EVICTIONS = "bitmap_pool.evictions";
+  /** The number of bytes currently used by the bitmap pool. */
+  public static final String BITMAP_POOL_SIZE = "bitmap_pool.size";
+  /** The bitmap pool's maximum size chosen by the adaptive memory budget, if enabled. */
+  public static final String MEMORY_BUDGET_BITMAP_POOL_SIZE = "memory_budget.bitmap_pool_size";
+  /** The memory cache's maximum size chosen by the adaptive memory budget, if enabled. */
+  public static final String MEMORY_BUDGET_MEMORY_CACHE_SIZE = "memory_budget.memory_cache_size";
+  /** Counts moves of bytes from the memory cache to the bitmap pool, if enabled. */
+  public static final String MEMORY_BUDGET_MOVES_TO_BITMAP_POOL =
+      "memory_budget.moves_to_bitmap_pool";
+  /** Counts moves of bytes from the bitmap pool to the memory cache, if enabled. */
+  public static final String MEMORY_BUDGET_MOVES_TO_MEMORY_CACHE =
+      "memory_budget.moves_to_memory_cache";
+  /** Counts arrays obtained from the array pool. */
+  public static final String ARRAY_POOL_HITS = "array_pool.hits";
+  /** Counts arrays the array pool couldn't provide. */
+  public static final String ARRAY_POOL_MISSES = "array_pool.misses";
+  /** The number of bytes currently used by the array pool. */
+  public static final String ARRAY_POOL_SIZE = "array_pool.size";
+  /** Counts arrays obtained from per thread magazines without accessing the array pool. */
+  public static final String ARRAY_POOL_MAGAZINE_HITS = "array_pool.magazine_hits";
+  /** The number of bytes currently held in per thread magazines in front of the array pool. */
+  public static final String ARRAY_POOL_MAGAZINE_SIZE = "array_pool.magazine_size";
+  /** The number of tasks waiting to run on the disk cache executor. */
+  public static final String DISK_CACHE_EXECUTOR_QUEUE_DEPTH = "executor.disk_cache.queue_depth";
+  /** The number of tasks waiting to run on the source executor. */
+  public static final String SOURCE_EXECUTOR_QUEUE_DEPTH = "executor.source.queue_depth";
+  /** The number of tasks waiting to run on the unlimited source executor. */
+  public static final String SOURCE_UNLIMITED_EXECUTOR_QUEUE_DEPTH =
+      "executor.source_unlimited.queue_depth";
+  /** The number of tasks waiting to run on the animation executor. */
+  public static final String ANIMATION_EXECUTOR_QUEUE_DEPTH = "executor.animation.queue_depth";
+  /** The time from starting to look for data in a cache or source until the data is ready. */
+  public static final String FETCH_LATENCY = "fetch.latency";
+  /** The time taken to decode, transform and transcode data into a resource. */
+  public static final String DECODE_LATENCY = "decode.latency";
+
+  private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Gauge> gauges = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the {@link Counter} with the given name, creating it if necessary.
+   *
+   * <p>Callers should hold on to the returned {@link Counter} rather than calling this method for
+   * every update.
+   */
+  @NonNull
+  public Counter counter(@NonNull String name) {
+    Counter result = counters.get(name);
+    if (result == null) {
+      Counter counter = new Counter();
+      result = counters.putIfAbsent(name, counter);
+      if (result == null) {
+        result = counter;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the {@link Histogram} with the given name, creating it if necessary.
+   *
+   * <p>Callers should hold on to the returned {@link Histogram} rather than calling this method for
+   * every update.
+   */
+  @NonNull
+  public Histogram histogram(@NonNull String name) {
+    Histogram result = histograms.get(name);
+    if (result == null) {
+      Histogram histogram = new Histogram();
+      result = histograms.putIfAbsent(name, histogram);
+      if (result == null) {
+        result = histogram;
+      }
+    }
+    return result;
+  }
+
+  /** Registers a {@link Gauge} under the given name, replacing any existing {@link Gauge}. */
+  public void registerGauge(@NonNull String name, @NonNull Gauge gauge) {
+    gauges.put(name, gauge);
+  }
+
+  /** Returns a copy of the current values of all metrics. */
+  @NonNull
+  public Snapshot snapshot() {
+    Map<String, Long> counterValues = new TreeMap<>();
+    for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+      counterValues.put(entry.getKey(), entry.getValue().get());
+    }
+    Map<String, Long> gaugeValues = new TreeMap<>();
+    for (Map.Entry<String, Gauge> entry : gauges.entrySet()) {
+      gaugeValues.put(entry.getKey(), entry.getValue().getValue());
+    }
+    Map<String, Histogram.Snapshot> histogramValues = new TreeMap<>();
+    for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+      histogramValues.put(entry.getKey(), entry.getValue().snapshot());
+    }
+    return new Snapshot(counterValues, gaugeValues, histogramValues);
+  }
+
+  /** An immutable copy of the values of all metrics in a {@link GlideMetrics} registry. */
+  public static final class Snapshot {
+    private final Map<String, Long> counters;
+    private final Map<String, Long> gauges;
+    private final Map<String, Histogram.Snapshot> histograms;
+
+    Snapshot(
+        Map<String, Long> counters,
+        Map<String, Long> gauges,
+        Map<String, Histogram.Snapshot> histograms) {
+      this.counters = Collections.unmodifiableMap(counters);
+      this.gauges = Collections.unmodifiableMap(gauges);
+      this.histograms = Collections.unmodifiableMap(histograms);
+    }
+
+    /** Returns the values of all counters, sorted by name. */
+    @NonNull
+    public Map<String, Long> getCounters() {
+      return counters;
+    }
+
+    /** Returns the values of all gauges, sorted by name. */
+    @NonNull
+    public Map<String, Long> getGauges() {
+      return gauges;
+    }
+
+    /** Returns the contents of all histograms, sorted by name. */
+    @NonNull
+    public Map<String, Histogram.Snapshot> getHistograms() {
+      return histograms;
+    }
+
+    /**
+     * Returns the value of the counter or gauge with the given name, or {@code null} if there's
+     * no such metric.
+     */
+    @Nullable
+    public Long getValue(@NonNull String name) {
+      Long result = counters.get(name);
+      return result != null ? result : gauges.get(name);
+    }
+
+    @Override
+    public String toString() {
+      return "GlideMetrics.Snapshot{"
+          + "counters="
+          + counters
+          + ", gauges="
+          + gauges
+          + ", histograms="
+          + histograms
+          + '}';
+    }
+  }
+}
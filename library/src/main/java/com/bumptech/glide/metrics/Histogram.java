@@ -0,0 +1,113 @@
+package com.bumptech.glide.metrics;
+
+import androidx.annotation.NonNull;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A distribution of durations recorded into fixed, exponentially sized buckets.
+ *
+ * <p>Bucket {@code 0} counts durations shorter than one microsecond and bucket {@code i} counts
+ * durations of at least {@code 2^(i - 1)} and less than {@code 2^i} microseconds. The last bucket
+ * also counts everything longer, so the histogram covers durations of up to about eight seconds
+ * with a relative error of at most a factor of two and a fixed amount of memory.
+ */
+public final class Histogram {
+  /** The number of buckets in every histogram. */
+  public static final int BUCKET_COUNT = 24;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+  private final AtomicLong totalMicros = new AtomicLong();
+
+  Histogram() {}
+
+  /** Records a single duration in nanoseconds. */
+  public void record(long durationNanos) {
+    long micros = TimeUnit.NANOSECONDS.toMicros(Math.max(0, durationNanos));
+    buckets.incrementAndGet(getBucket(micros));
+    totalMicros.addAndGet(micros);
+  }
+
+  /** Returns the upper bound of the given bucket in microseconds, exclusive. */
+  public static long getBucketUpperBoundMicros(int bucket) {
+    return bucket == BUCKET_COUNT - 1 ? Long.MAX_VALUE : 1L << bucket;
+  }
+
+  private static int getBucket(long micros) {
+    return Math.min(Long.SIZE - Long.numberOfLeadingZeros(micros), BUCKET_COUNT - 1);
+  }
+
+  @NonNull
+  Snapshot snapshot() {
+    long[] counts = new long[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      counts[i] = buckets.get(i);
+    }
+    return new Snapshot(counts, totalMicros.get());
+  }
+
+  /** An immutable copy of the contents of a {@link Histogram}. */
+  public static final class Snapshot {
+    private final long[] counts;
+    private final long count;
+    private final long totalMicros;
+
+    Snapshot(long[] counts, long totalMicros) {
+      this.counts = counts;
+      this.totalMicros = totalMicros;
+      long count = 0;
+      for (long bucketCount : counts) {
+        count += bucketCount;
+      }
+      this.count = count;
+    }
+
+    /** Returns the number of durations recorded in the given bucket. */
+    public long getBucketCount(int bucket) {
+      return counts[bucket];
+    }
+
+    /** Returns the number of durations recorded. */
+    public long getCount() {
+      return count;
+    }
+
+    /** Returns the sum of all durations recorded, in microseconds. */
+    public long getTotalMicros() {
+      return totalMicros;
+    }
+
+    /**
+     * Returns an upper bound in microseconds for the given percentile, from {@code 0} to {@code
+     * 100}, or {@code 0} if nothing has been recorded.
+     */
+    public long getPercentileUpperBoundMicros(double percentile) {
+      if (count == 0) {
+        return 0;
+      }
+      long rank = (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100);
+      long seen = 0;
+      for (int i = 0; i < BUCKET_COUNT; i++) {
+        seen += counts[i];
+        if (seen >= rank && seen > 0) {
+          return getBucketUpperBoundMicros(i);
+        }
+      }
+      return getBucketUpperBoundMicros(BUCKET_COUNT - 1);
+    }
+
+    @Override
+    public String toString() {
+      return "Histogram.Snapshot{"
+          + "count="
+          + count
+          + ", totalMicros="
+          + totalMicros
+          + ", counts="
+          + Arrays.toString(counts)
+          + '}';
+    }
+  }
+}
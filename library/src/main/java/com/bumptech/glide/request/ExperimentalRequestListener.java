@@ -1,5 +1,6 @@
 package com.bumptech.glide.request;
 
+import androidx.annotation.NonNull;
 import com.bumptech.glide.load.DataSource;
 import com.bumptech.glide.request.target.Target;
 
@@ -18,6 +19,14 @@ public abstract class ExperimentalRequestListener<ResourceT> implements RequestL
 
   public void onRequestStarted(Object model) {}
 
+  /**
+   * Called with the stages the request went through after the request completes or fails, if
+   * {@link com.bumptech.glide.GlideBuilder#setRequestTimelinesEnabled(boolean)} is enabled.
+   *
+   * <p>Called after {@link #onResourceReady} or {@link #onLoadFailed} on the same thread.
+   */
+  public void onRequestTimeline(Object model, @NonNull RequestTimeline timeline) {}
+
   /**
    * Identical to {@link #onResourceReady(Object, Object, Target, DataSource, boolean)} except that
    * {@code isAlternateCacheKey} is provided.
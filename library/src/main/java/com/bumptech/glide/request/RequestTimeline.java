@@ -0,0 +1,165 @@
+package com.bumptech.glide.request;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The stages a single request went through while loading and the time spent in each, used to
+ * attribute slow loads to a specific stage.
+ *
+ * <p>Timelines are only recorded when enabled with {@link
+ * com.bumptech.glide.GlideBuilder#setRequestTimelinesEnabled(boolean)}, and only for requests with
+ * at least one {@link ExperimentalRequestListener}. They're delivered to {@link
+ * ExperimentalRequestListener#onRequestTimeline(Object, RequestTimeline)} after the request
+ * completes or fails.
+ *
+ * <p>Stages may nest. For example, a {@link Stage#DATA_CACHE} attempt that finds cached data
+ * includes the {@link Stage#FETCH} and {@link Stage#DECODE} of that data. A request that joins a
+ * load started by an earlier identical request only sees the stages that run after it joined.
+ * Stages that finish after the resource is delivered, like {@link Stage#ENCODE} or a disk cache
+ * attempt that found the resource, may be added to a timeline after it's delivered.
+ *
+ * <p>This is an experimental API that may be removed in the future.
+ */
+public final class RequestTimeline {
+  /** The stages of a request that are recorded. */
+  public enum Stage {
+    /** Waiting for the size of the {@link com.bumptech.glide.request.target.Target}. */
+    WAITING_FOR_SIZE,
+    /** Looking for the resource in active resources and the memory cache. */
+    MEMORY_CACHE,
+    /** Waiting for a thread on one of Glide's executors. */
+    QUEUE_WAIT,
+    /** Attempting to load the transformed resource from the disk cache. */
+    RESOURCE_CACHE,
+    /** Attempting to load the original data from the disk cache. */
+    DATA_CACHE,
+    /** Attempting to load the original data from its source. */
+    SOURCE,
+    /** From starting to look for data until the data is ready to decode. */
+    FETCH,
+    /** Decoding, transforming and transcoding data into a resource. */
+    DECODE,
+    /** Applying the request's transformation to the decoded resource. */
+    TRANSFORM,
+    /** Writing the resource or data to the disk cache. */
+    ENCODE,
+    /** From the load finishing until the request is notified on its callback executor. */
+    CALLBACK_DISPATCH,
+  }
+
+  /** A single stage and the interval it ran in. */
+  public static final class Event {
+    private final Stage stage;
+    private final long startNanos;
+    private final long durationNanos;
+    private final String threadName;
+
+    Event(Stage stage, long startNanos, long durationNanos, String threadName) {
+      this.stage = stage;
+      this.startNanos = startNanos;
+      this.durationNanos = durationNanos;
+      this.threadName = threadName;
+    }
+
+    @NonNull
+    public Stage getStage() {
+      return stage;
+    }
+
+    /** Returns when the stage started, from {@link System#nanoTime()}. */
+    public long getStartNanos() {
+      return startNanos;
+    }
+
+    public long getDurationNanos() {
+      return durationNanos;
+    }
+
+    /** Returns the name of the thread the stage finished on. */
+    @NonNull
+    public String getThreadName() {
+      return threadName;
+    }
+
+    @Override
+    public String toString() {
+      return "Event{"
+          + "stage="
+          + stage
+          + ", startNanos="
+          + startNanos
+          + ", durationNanos="
+          + durationNanos
+          + ", threadName='"
+          + threadName
+          + '\''
+          + '}';
+    }
+  }
+
+  private final long startNanos;
+
+  @GuardedBy("this")
+  private final List<Event> events = new ArrayList<>();
+
+  private volatile long loadCompleteNanos;
+
+  public RequestTimeline() {
+    startNanos = System.nanoTime();
+  }
+
+  /** Returns when the request started, from {@link System#nanoTime()}. */
+  public long getStartNanos() {
+    return startNanos;
+  }
+
+  /** Returns a copy of the events recorded so far, in the order they finished. */
+  @NonNull
+  public synchronized List<Event> getEvents() {
+    return new ArrayList<>(events);
+  }
+
+  /**
+   * Records that the given stage ran from the given time, from {@link System#nanoTime()}, until
+   * now.
+   *
+   * <p>Called by Glide while the request runs.
+   */
+  public void record(@NonNull Stage stage, long startNanos) {
+    Event event =
+        new Event(
+            stage, startNanos, System.nanoTime() - startNanos, Thread.currentThread().getName());
+    synchronized (this) {
+      events.add(event);
+    }
+  }
+
+  /**
+   * Records that the load finished and that the request is about to be notified.
+   *
+   * <p>Called by Glide while the request runs.
+   */
+  public void onLoadComplete() {
+    loadCompleteNanos = System.nanoTime();
+  }
+
+  /**
+   * Records a {@link Stage#CALLBACK_DISPATCH} event if the load finished asynchronously.
+   *
+   * <p>Called by Glide while the request runs.
+   */
+  public void onRequestNotified() {
+    long loadCompleteNanos = this.loadCompleteNanos;
+    if (loadCompleteNanos != 0) {
+      record(Stage.CALLBACK_DISPATCH, loadCompleteNanos);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "RequestTimeline{" + "startNanos=" + startNanos + ", events=" + getEvents() + '}';
+  }
+}
@@ -9,6 +9,7 @@ import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.bumptech.glide.GlideBuilder.LogRequestOrigins;
+import com.bumptech.glide.GlideBuilder.RecordRequestTimelines;
 import com.bumptech.glide.GlideContext;
 import com.bumptech.glide.Priority;
 import com.bumptech.glide.load.DataSource;
@@ -131,6 +132,10 @@ public final class SingleRequest<R> implements Request, SizeReadyCallback, Resou
   @GuardedBy("requestLock")
   private boolean isCallingCallbacks;
 
+  @GuardedBy("requestLock")
+  @Nullable
+  private RequestTimeline timeline;
+
   @Nullable private RuntimeException requestOrigin;
 
   public static <R> SingleRequest<R> obtain(
@@ -249,6 +254,7 @@ public final class SingleRequest<R> implements Request, SizeReadyCallback, Resou
       // and can run again from the beginning.
 
       experimentalNotifyRequestStarted(model);
+      timeline = maybeCreateTimeline();
 
       cookie = GlideTrace.beginSectionAsync(TAG);
       status = Status.WAITING_FOR_SIZE;
@@ -270,6 +276,34 @@ public final class SingleRequest<R> implements Request, SizeReadyCallback, Resou
     }
   }
 
+  @Nullable
+  private RequestTimeline maybeCreateTimeline() {
+    if (requestListeners == null
+        || !glideContext.getExperiments().isEnabled(RecordRequestTimelines.class)) {
+      return null;
+    }
+    for (RequestListener<?> requestListener : requestListeners) {
+      if (requestListener instanceof ExperimentalRequestListener) {
+        return new RequestTimeline();
+      }
+    }
+    return null;
+  }
+
+  @GuardedBy("requestLock")
+  private void experimentalNotifyTimeline() {
+    RequestTimeline timeline = this.timeline;
+    if (timeline == null) {
+      return;
+    }
+    this.timeline = null;
+    for (RequestListener<?> requestListener : requestListeners) {
+      if (requestListener instanceof ExperimentalRequestListener) {
+        ((ExperimentalRequestListener<?>) requestListener).onRequestTimeline(model, timeline);
+      }
+    }
+  }
+
   private void experimentalNotifyRequestStarted(Object model) {
     if (requestListeners == null) {
       return;
@@ -466,6 +500,9 @@ public final class SingleRequest<R> implements Request, SizeReadyCallback, Resou
       if (IS_VERBOSE_LOGGABLE) {
         logV("finished setup for calling load in " + LogTime.getElapsedMillis(startTime));
       }
+      if (timeline != null) {
+        timeline.record(RequestTimeline.Stage.WAITING_FOR_SIZE, timeline.getStartNanos());
+      }
       loadStatus =
           engine.load(
               glideContext,
@@ -486,7 +523,8 @@ public final class SingleRequest<R> implements Request, SizeReadyCallback, Resou
               requestOptions.getUseAnimationPool(),
               requestOptions.getOnlyRetrieveFromCache(),
               this,
-              callbackExecutor);
+              callbackExecutor,
+              timeline);
 
       // This is a hack that's only useful for testing right now where loads complete synchronously
       // even though under any executor running on any thread but the main thread, the load would
@@ -548,6 +586,9 @@ public final class SingleRequest<R> implements Request, SizeReadyCallback, Resou
     try {
       synchronized (requestLock) {
         loadStatus = null;
+        if (timeline != null) {
+          timeline.onRequestNotified();
+        }
         if (resource == null) {
           GlideException exception =
               new GlideException(
@@ -672,6 +713,7 @@ public final class SingleRequest<R> implements Request, SizeReadyCallback, Resou
       isCallingCallbacks = false;
     }
 
+    experimentalNotifyTimeline();
     GlideTrace.endSectionAsync(TAG, cookie);
   }
 
@@ -704,6 +746,9 @@ public final class SingleRequest<R> implements Request, SizeReadyCallback, Resou
 
       loadStatus = null;
       status = Status.FAILED;
+      if (timeline != null) {
+        timeline.onRequestNotified();
+      }
 
       notifyRequestCoordinatorLoadFailed();
 
@@ -728,6 +773,7 @@ public final class SingleRequest<R> implements Request, SizeReadyCallback, Resou
         isCallingCallbacks = false;
       }
 
+      experimentalNotifyTimeline();
       GlideTrace.endSectionAsync(TAG, cookie);
     }
   }
@@ -2,6 +2,7 @@ package com.bumptech.glide.util;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
@@ -153,6 +154,54 @@ public final class ByteBufferUtil {
     return rewind(ByteBuffer.allocateDirect(bytes.length).put(bytes));
   }
 
+  /**
+   * Reads the given stream into a direct {@link ByteBuffer} obtained from the given {@link
+   * ArrayPool} without copying the stream's contents to the Java heap as a whole.
+   *
+   * <p>The returned buffer may have a larger capacity than the stream's contents, its position is
+   * zero and its limit is the number of bytes read. Callers should return the buffer to the pool
+   * with {@link ArrayPool#put(Object)} once they're done with it, after which it must no longer be
+   * used.
+   */
+  @NonNull
+  public static ByteBuffer fromStream(@NonNull InputStream stream, @NonNull ArrayPool arrayPool)
+      throws IOException {
+    byte[] buffer = arrayPool.get(ArrayPool.STANDARD_BUFFER_SIZE_BYTES, byte[].class);
+    ByteBuffer result = arrayPool.get(getPooledSize(stream.available()), ByteBuffer.class);
+    boolean isComplete = false;
+    try {
+      int n;
+      while ((n = stream.read(buffer)) >= 0) {
+        if (result.remaining() < n) {
+          ByteBuffer larger =
+              arrayPool.get(getPooledSize(result.position() + n), ByteBuffer.class);
+          result.flip();
+          larger.put(result);
+          arrayPool.put(result);
+          result = larger;
+        }
+        result.put(buffer, 0, n);
+      }
+      isComplete = true;
+    } finally {
+      arrayPool.put(buffer);
+      if (!isComplete) {
+        arrayPool.put(result);
+      }
+    }
+    result.flip();
+    return result;
+  }
+
+  // Rounds sizes up to a power of two so that buffers are likely to be reused for other streams.
+  private static int getPooledSize(int size) {
+    if (size <= ArrayPool.STANDARD_BUFFER_SIZE_BYTES) {
+      return ArrayPool.STANDARD_BUFFER_SIZE_BYTES;
+    }
+    int result = Integer.highestOneBit(size - 1) << 1;
+    return result > 0 ? result : Integer.MAX_VALUE;
+  }
+
   public static ByteBuffer rewind(ByteBuffer buffer) {
     return (ByteBuffer) buffer.position(0);
   }
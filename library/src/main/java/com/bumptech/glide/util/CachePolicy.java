@@ -0,0 +1,124 @@
+package com.bumptech.glide.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Decides the order in which items in a {@link ConcurrentLruCache} are evicted.
+ *
+ * <p>Except for {@link #recordAccess(Object)}, all methods are called with the cache's eviction
+ * lock held.
+ *
+ * @param <T> The type of the keys.
+ * @param <Y> The type of the values.
+ */
+abstract class CachePolicy<T, Y> {
+
+  @NonNull
+  static <T, Y> CachePolicy<T, Y> create(@NonNull EvictionPolicy policy) {
+    switch (policy) {
+      case LRU:
+        return new LruCachePolicy<>();
+      case WINDOW_TINY_LFU:
+        return new WindowTinyLfuCachePolicy<>();
+      default:
+        throw new IllegalArgumentException("Unrecognized policy: " + policy);
+    }
+  }
+
+  /**
+   * Called for every request for the given key, whether or not the key is present in the cache.
+   *
+   * <p>May be called concurrently from any thread without any locks held.
+   */
+  void recordAccess(@NonNull T key) {
+    // optional override
+  }
+
+  /** Called when the given node is added to the cache. */
+  abstract void onAdd(@NonNull Node<T, Y> node, long maxSize);
+
+  /** Called when a read of the given node is replayed. */
+  abstract void onRead(@NonNull Node<T, Y> node);
+
+  /** Called when the given node is removed from the cache for any reason. */
+  abstract void onRemove(@NonNull Node<T, Y> node);
+
+  /** Returns the next node to evict, or {@code null} if the cache is empty. */
+  @Nullable
+  abstract Node<T, Y> selectVictim();
+
+  static final class Node<T, Y> {
+    final T key;
+    final Y value;
+    final int size;
+    // Guarded by the eviction lock.
+    @Nullable AccessQueue<T, Y> queue;
+    @Nullable Node<T, Y> prev;
+    @Nullable Node<T, Y> next;
+
+    Node(T key, Y value, int size) {
+      this.key = key;
+      this.value = value;
+      this.size = size;
+    }
+
+    boolean isLinked() {
+      return queue != null;
+    }
+  }
+
+  /** An intrusive doubly linked list of {@link Node}s ordered from least to most recently used. */
+  static final class AccessQueue<T, Y> {
+    private final Node<T, Y> head = new Node<>(null, null, 0);
+    private long size;
+
+    AccessQueue() {
+      head.prev = head;
+      head.next = head;
+    }
+
+    /** Returns the sum of the sizes of the nodes in this queue. */
+    long getSize() {
+      return size;
+    }
+
+    /** Returns the least recently used node or {@code null} if the queue is empty. */
+    @Nullable
+    Node<T, Y> peekFirst() {
+      return head.next != head ? head.next : null;
+    }
+
+    /** Returns the most recently used node or {@code null} if the queue is empty. */
+    @Nullable
+    Node<T, Y> peekLast() {
+      return head.prev != head ? head.prev : null;
+    }
+
+    /** Adds the given node, which must not be in any queue, as the most recently used node. */
+    void addLast(@NonNull Node<T, Y> node) {
+      node.prev = head.prev;
+      node.next = head;
+      head.prev.next = node;
+      head.prev = node;
+      node.queue = this;
+      size += node.size;
+    }
+
+    /** Moves the given node, which must be in this queue, to the most recently used position. */
+    void moveToLast(@NonNull Node<T, Y> node) {
+      remove(node);
+      addLast(node);
+    }
+
+    /** Removes the given node, which must be in this queue. */
+    void remove(@NonNull Node<T, Y> node) {
+      node.prev.next = node.next;
+      node.next.prev = node.prev;
+      node.prev = null;
+      node.next = null;
+      node.queue = null;
+      size -= node.size;
+    }
+  }
+}
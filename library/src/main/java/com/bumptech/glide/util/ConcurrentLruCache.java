@@ -0,0 +1,301 @@
+package com.bumptech.glide.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.bumptech.glide.util.CachePolicy.Node;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A size limited cache that evicts items using an approximate LRU algorithm, or another {@link
+ * EvictionPolicy}, and can be read from multiple threads without contending on a single lock.
+ *
+ * <p>Unlike {@link LruCache}, {@link #get(Object)}, {@link #contains(Object)} and misses in {@link
+ * #remove(Object)} never block. Rather than moving an entry to the front of the LRU order on every
+ * read, reads are recorded into small per thread buffers that are replayed in batches while the
+ * eviction lock is held. If a buffer fills up before it's replayed, older reads are dropped, so
+ * the eviction order is an approximation of LRU order that favors recently read items. Writes and
+ * evictions are serialized on a single lock and keep exact size accounting.
+ *
+ * <p>Calls to {@link #get(Object)} and {@link #remove(Object)}, including misses, count as requests
+ * for the given key for policies like {@link EvictionPolicy#WINDOW_TINY_LFU} that consider how
+ * often keys are requested. Calls to {@link #put(Object, Object)} do not.
+ *
+ * <p>By default every item is assumed to have a size of one. Subclasses can override {@link
+ * #getSize(Object)} to change the size on a per item basis.
+ *
+ * @param <T> The type of the keys.
+ * @param <Y> The type of the values.
+ */
+public class ConcurrentLruCache<T, Y> {
+  // Must be powers of two so that masks can be used to pick buffers and slots.
+  private static final int READ_BUFFER_COUNT = 8;
+  private static final int READ_BUFFER_SIZE = 16;
+
+  private final ConcurrentMap<T, Node<T, Y>> cache = new ConcurrentHashMap<>(100, 0.75f);
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  private final CachePolicy<T, Y> policy;
+  private final ReadBuffer[] readBuffers = new ReadBuffer[READ_BUFFER_COUNT];
+  private final long initialMaxSize;
+  private volatile long maxSize;
+  private volatile long currentSize;
+
+  /**
+   * Constructor for ConcurrentLruCache.
+   *
+   * @param size The maximum size of the cache, the units must match the units used in {@link
+   *     #getSize(Object)}.
+   */
+  public ConcurrentLruCache(long size) {
+    this(size, EvictionPolicy.LRU);
+  }
+
+  /**
+   * Constructor for ConcurrentLruCache.
+   *
+   * @param size The maximum size of the cache, the units must match the units used in {@link
+   *     #getSize(Object)}.
+   * @param evictionPolicy The policy used to choose which items to evict.
+   */
+  public ConcurrentLruCache(long size, @NonNull EvictionPolicy evictionPolicy) {
+    this.initialMaxSize = size;
+    this.maxSize = size;
+    this.policy = CachePolicy.create(Preconditions.checkNotNull(evictionPolicy));
+    for (int i = 0; i < READ_BUFFER_COUNT; i++) {
+      readBuffers[i] = new ReadBuffer();
+    }
+  }
+
+  /**
+   * Sets a size multiplier that will be applied to the size provided in the constructor to put the
+   * new size of the cache. If the new size is less than the current size, entries will be evicted
+   * until the current size is less than or equal to the new size.
+   *
+   * @param multiplier The multiplier to apply.
+   */
+  public void setSizeMultiplier(float multiplier) {
+    if (multiplier < 0) {
+      throw new IllegalArgumentException("Multiplier must be >= 0");
+    }
+    evictionLock.lock();
+    try {
+      maxSize = Math.round(initialMaxSize * multiplier);
+      trimToSizeLocked(maxSize);
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Returns the size of a given item, defaulting to one. The units must match those used in the
+   * size passed in to the constructor. Subclasses can override this method to return sizes in
+   * various units, usually bytes.
+   *
+   * @param item The item to get the size of.
+   */
+  protected int getSize(@NonNull Y item) {
+    return 1;
+  }
+
+  /** Returns the number of entries stored in cache. */
+  protected int getCount() {
+    return cache.size();
+  }
+
+  /**
+   * A callback called whenever an item is evicted from the cache. Subclasses can override.
+   *
+   * <p>Called while the eviction lock is held.
+   *
+   * @param key The key of the evicted item.
+   * @param item The evicted item.
+   */
+  protected void onItemEvicted(@NonNull T key, @NonNull Y item) {
+    // optional override
+  }
+
+  /** Returns the current maximum size of the cache in bytes. */
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  /** Returns the sum of the sizes of all items in the cache. */
+  public long getCurrentSize() {
+    return currentSize;
+  }
+
+  /**
+   * Returns true if there is a value for the given key in the cache.
+   *
+   * @param key The key to check.
+   */
+  public boolean contains(@NonNull T key) {
+    return cache.containsKey(key);
+  }
+
+  /**
+   * Returns the item in the cache for the given key or null if no such item exists.
+   *
+   * @param key The key to check.
+   */
+  @Nullable
+  public Y get(@NonNull T key) {
+    policy.recordAccess(key);
+    Node<T, Y> node = cache.get(key);
+    if (node == null) {
+      return null;
+    }
+    recordRead(node);
+    return node.value;
+  }
+
+  /**
+   * Adds the given item to the cache with the given key and returns any previous entry for the
+   * given key that may have already been in the cache.
+   *
+   * <p>If the size of the item is larger than the total cache size, the item will not be added to
+   * the cache and instead {@link #onItemEvicted(Object, Object)} will be called synchronously with
+   * the given key and item.
+   *
+   * <p>The size of the item is determined by the {@link #getSize(Object)} method and is retained
+   * until the item is evicted, replaced or removed.
+   *
+   * <p>Unlike {@link LruCache#put(Object, Object)}, putting a {@code null} item is identical to
+   * calling {@link #remove(Object)}.
+   *
+   * @param key The key to add the item at.
+   * @param item The item to add.
+   */
+  @Nullable
+  public Y put(@NonNull T key, @Nullable Y item) {
+    if (item == null) {
+      return remove(key);
+    }
+    final int itemSize = getSize(item);
+    evictionLock.lock();
+    try {
+      if (itemSize >= maxSize) {
+        onItemEvicted(key, item);
+        return null;
+      }
+      drainReadBuffersLocked();
+
+      Node<T, Y> node = new Node<>(key, item, itemSize);
+      Node<T, Y> old = cache.put(key, node);
+      if (old != null) {
+        unlinkLocked(old);
+        if (!old.value.equals(item)) {
+          onItemEvicted(key, old.value);
+        }
+      }
+      policy.onAdd(node, maxSize);
+      currentSize += itemSize;
+      trimToSizeLocked(maxSize);
+      return old != null ? old.value : null;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Removes the item at the given key and returns the removed item if present, and null otherwise.
+   *
+   * @param key The key to remove the item at.
+   */
+  @Nullable
+  public Y remove(@NonNull T key) {
+    policy.recordAccess(key);
+    Node<T, Y> node = cache.remove(key);
+    if (node == null) {
+      return null;
+    }
+    evictionLock.lock();
+    try {
+      // The node may already have been unlinked by a concurrent eviction that lost the race to
+      // remove it from the map.
+      unlinkLocked(node);
+    } finally {
+      evictionLock.unlock();
+    }
+    return node.value;
+  }
+
+  /** Clears all items in the cache. */
+  public void clearMemory() {
+    trimToSize(0);
+  }
+
+  /**
+   * Removes the least recently used items from the cache until the current size is less than the
+   * given size.
+   *
+   * @param size The size the cache should be less than.
+   */
+  protected void trimToSize(long size) {
+    evictionLock.lock();
+    try {
+      trimToSizeLocked(size);
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private void trimToSizeLocked(long size) {
+    drainReadBuffersLocked();
+    Node<T, Y> victim;
+    while (currentSize > size && (victim = policy.selectVictim()) != null) {
+      unlinkLocked(victim);
+      // If the removal fails, a concurrent call to remove() owns the node and will return it.
+      if (cache.remove(victim.key, victim)) {
+        onItemEvicted(victim.key, victim.value);
+      }
+    }
+  }
+
+  private void recordRead(Node<T, Y> node) {
+    int bufferIndex = (int) Thread.currentThread().getId() & (READ_BUFFER_COUNT - 1);
+    ReadBuffer buffer = readBuffers[bufferIndex];
+    int index = buffer.writeIndex.getAndIncrement() & (READ_BUFFER_SIZE - 1);
+    buffer.reads.lazySet(index, node);
+    // Replay once per lap around the buffer, but never wait for a writer to do so.
+    if (index == READ_BUFFER_SIZE - 1 && evictionLock.tryLock()) {
+      try {
+        drainReadBuffersLocked();
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void drainReadBuffersLocked() {
+    for (ReadBuffer buffer : readBuffers) {
+      for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+        Node<T, Y> node = (Node<T, Y>) buffer.reads.getAndSet(i, null);
+        if (node != null && node.isLinked()) {
+          policy.onRead(node);
+        }
+      }
+    }
+  }
+
+  private void unlinkLocked(Node<T, Y> node) {
+    if (!node.isLinked()) {
+      return;
+    }
+    policy.onRemove(node);
+    currentSize -= node.size;
+  }
+
+  private static final class ReadBuffer {
+    @Synthetic final AtomicReferenceArray<Node<?, ?>> reads =
+        new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+    @Synthetic final AtomicInteger writeIndex = new AtomicInteger();
+
+    @Synthetic
+    ReadBuffer() {}
+  }
+}
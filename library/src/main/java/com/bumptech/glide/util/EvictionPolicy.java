@@ -0,0 +1,23 @@
+package com.bumptech.glide.util;
+
+/**
+ * Policies that {@link ConcurrentLruCache} can use to decide which items to keep and which items
+ * to evict.
+ *
+ * <p>This is an experimental API that may be removed in the future.
+ */
+public enum EvictionPolicy {
+  /** Evicts the least recently used item. */
+  LRU,
+  /**
+   * Admits new items into the main part of the cache only if they've been requested more often
+   * than the items they would replace, based on an approximate count of recent requests for each
+   * key.
+   *
+   * <p>New items first enter a small LRU window. When the window overflows, its least recently
+   * used items move to a segmented LRU where they compete with the least recently used item on
+   * frequency. This prevents large numbers of items that are only requested once from evicting a
+   * smaller set of items that are requested repeatedly.
+   */
+  WINDOW_TINY_LFU,
+}
@@ -0,0 +1,108 @@
+package com.bumptech.glide.util;
+
+import androidx.annotation.NonNull;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A count-min sketch that estimates how often each key has been seen recently, using four bit
+ * counters.
+ *
+ * <p>Once the number of recorded accesses reaches ten times the number of words in the table, every
+ * counter is halved so that the estimates favor recent accesses and the counters don't saturate.
+ *
+ * <p>Updates don't take a lock. Each counter is updated with a compare and set on its word, so that
+ * a saturated counter can never overflow into its neighbor. The number of recorded accesses isn't
+ * synchronized, so resets may happen a little early or late, which is an acceptable error for
+ * frequency estimates.
+ */
+final class FrequencySketch {
+  private static final int[] SEEDS = {0x97cb3127, 0xb3a5c9e1, 0x7a0d5c37, 0xc2b2ae35};
+  private static final int COUNTERS_PER_WORD = 8;
+  private static final int MAX_COUNT = 15;
+  private static final int RESET_MASK = 0x77777777;
+
+  private final AtomicIntegerArray table;
+  private final int tableMask;
+  private final int sampleSize;
+  private int additions;
+
+  /**
+   * @param tableLength The number of words in the table, each holding eight counters. Must be a
+   *     power of two.
+   */
+  FrequencySketch(int tableLength) {
+    Preconditions.checkArgument(
+        tableLength > 0 && Integer.bitCount(tableLength) == 1,
+        "Table length must be a power of two");
+    table = new AtomicIntegerArray(tableLength);
+    tableMask = tableLength - 1;
+    sampleSize = 10 * tableLength;
+  }
+
+  /** Returns the estimated number of recent accesses for the given key, up to 15. */
+  int frequency(@NonNull Object key) {
+    int hash = spread(key.hashCode());
+    int frequency = MAX_COUNT;
+    for (int seed : SEEDS) {
+      int h = rehash(hash + seed);
+      int shift = (h & (COUNTERS_PER_WORD - 1)) << 2;
+      int count = (table.get((h >>> 3) & tableMask) >>> shift) & MAX_COUNT;
+      frequency = Math.min(frequency, count);
+    }
+    return frequency;
+  }
+
+  /** Records an access to the given key. */
+  void increment(@NonNull Object key) {
+    int hash = spread(key.hashCode());
+    boolean added = false;
+    for (int seed : SEEDS) {
+      int h = rehash(hash + seed);
+      int shift = (h & (COUNTERS_PER_WORD - 1)) << 2;
+      added |= incrementAt((h >>> 3) & tableMask, shift);
+    }
+    if (added && ++additions >= sampleSize) {
+      reset();
+    }
+  }
+
+  /** Increments the counter at the given shift in the given word, unless it's saturated. */
+  private boolean incrementAt(int index, int shift) {
+    while (true) {
+      int word = table.get(index);
+      if (((word >>> shift) & MAX_COUNT) == MAX_COUNT) {
+        return false;
+      }
+      if (table.compareAndSet(index, word, word + (1 << shift))) {
+        return true;
+      }
+    }
+  }
+
+  private void reset() {
+    for (int i = 0; i < table.length(); i++) {
+      while (true) {
+        int word = table.get(i);
+        if (table.compareAndSet(i, word, (word >>> 1) & RESET_MASK)) {
+          break;
+        }
+      }
+    }
+    additions /= 2;
+  }
+
+  private static int spread(int hash) {
+    hash ^= hash >>> 17;
+    hash *= 0xed5ad4bb;
+    hash ^= hash >>> 11;
+    hash *= 0xac4c1b51;
+    hash ^= hash >>> 15;
+    return hash;
+  }
+
+  private static int rehash(int hash) {
+    hash *= 0x31848bab;
+    hash ^= hash >>> 14;
+    return hash;
+  }
+}
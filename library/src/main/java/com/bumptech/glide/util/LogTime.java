@@ -8,6 +8,7 @@ import android.os.SystemClock;
 public final class LogTime {
   private static final double MILLIS_MULTIPLIER =
       Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1 ? 1d / Math.pow(10, 6) : 1d;
+  private static final long NANOS_PER_MILLI = 1000000L;
 
   private LogTime() {
     // Utility class.
@@ -34,4 +35,18 @@ public final class LogTime {
   public static double getElapsedMillis(long logTime) {
     return (getLogTime() - logTime) * MILLIS_MULTIPLIER;
   }
+
+  /**
+   * Returns the time elapsed since the given logTime in nanos.
+   *
+   * <p>The elapsed time is only accurate to the millisecond below API 17.
+   *
+   * @param logTime The start time of the event.
+   */
+  public static long getElapsedNanos(long logTime) {
+    long elapsed = getLogTime() - logTime;
+    return Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1
+        ? elapsed
+        : elapsed * NANOS_PER_MILLI;
+  }
 }
@@ -2,8 +2,11 @@ package com.bumptech.glide.util;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -91,6 +94,18 @@ public class LruCache<T, Y> {
     return cache.containsKey(key);
   }
 
+  /**
+   * Returns a snapshot of the keys and items in the cache ordered from least to most recently used.
+   */
+  @NonNull
+  protected synchronized List<Map.Entry<T, Y>> getEntriesInAccessOrder() {
+    List<Map.Entry<T, Y>> result = new ArrayList<>(cache.size());
+    for (Map.Entry<T, Entry<Y>> entry : cache.entrySet()) {
+      result.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue().value));
+    }
+    return result;
+  }
+
   /**
    * Returns the item in the cache for the given key or null if no such item exists.
    *
@@ -0,0 +1,30 @@
+package com.bumptech.glide.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/** Evicts the least recently used item. */
+final class LruCachePolicy<T, Y> extends CachePolicy<T, Y> {
+  private final AccessQueue<T, Y> queue = new AccessQueue<>();
+
+  @Override
+  void onAdd(@NonNull Node<T, Y> node, long maxSize) {
+    queue.addLast(node);
+  }
+
+  @Override
+  void onRead(@NonNull Node<T, Y> node) {
+    queue.moveToLast(node);
+  }
+
+  @Override
+  void onRemove(@NonNull Node<T, Y> node) {
+    queue.remove(node);
+  }
+
+  @Nullable
+  @Override
+  Node<T, Y> selectVictim() {
+    return queue.peekFirst();
+  }
+}
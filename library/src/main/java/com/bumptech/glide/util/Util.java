@@ -37,6 +37,12 @@ public final class Util {
     }
   }
 
+  /** Returns the hex string of the given byte array, which can be of any length. */
+  @NonNull
+  public static String bytesToHex(@NonNull byte[] bytes) {
+    return bytesToHex(bytes, new char[bytes.length * 2]);
+  }
+
   // Taken from:
   // http://stackoverflow.com/questions/9655181/convert-from-byte-array-to-hex-string-in-java
   // /9655275#9655275
@@ -0,0 +1,105 @@
+package com.bumptech.glide.util;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Reads and atomically replaces small files that start with a version, like the manifests Glide
+ * persists between process starts.
+ *
+ * <p>Files that are missing, unreadable or written with a different version are read as {@code
+ * null}, so that callers can treat them as empty.
+ */
+public final class VersionedFile {
+  private static final String TAG = "VersionedFile";
+
+  private VersionedFile() {
+    // Utility class.
+  }
+
+  /** Reads the contents that follow the version of a file. */
+  public interface Reader<T> {
+    /** Returns the contents, or {@code null} if they're invalid. */
+    @Nullable
+    T read(@NonNull DataInputStream is) throws IOException;
+  }
+
+  /** Writes the contents that follow the version of a file. */
+  public interface Writer {
+    void write(@NonNull DataOutputStream os) throws IOException;
+  }
+
+  /**
+   * Returns the contents of the given file read by the given {@link Reader}, or {@code null} if the
+   * file is missing, can't be read or wasn't written with the given version.
+   */
+  @Nullable
+  public static <T> T read(@NonNull File file, int version, @NonNull Reader<T> reader) {
+    DataInputStream is = null;
+    try {
+      is = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+      if (is.readInt() != version) {
+        return null;
+      }
+      return reader.read(is);
+    } catch (FileNotFoundException e) {
+      return null;
+    } catch (IOException e) {
+      if (Log.isLoggable(TAG, Log.WARN)) {
+        Log.w(TAG, "Failed to read " + file, e);
+      }
+      return null;
+    } finally {
+      closeQuietly(is);
+    }
+  }
+
+  /**
+   * Replaces the given file with the given version followed by the contents written by the given
+   * {@link Writer}, writing to a temporary file first so that a partially written file is never
+   * read.
+   */
+  public static void write(@NonNull File file, int version, @NonNull Writer writer) {
+    File temp = new File(file.getPath() + ".tmp");
+    DataOutputStream os = null;
+    try {
+      os = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+      os.writeInt(version);
+      writer.write(os);
+      os.close();
+      os = null;
+      if (!temp.renameTo(file)) {
+        throw new IOException("Failed to rename " + temp + " to " + file);
+      }
+    } catch (IOException e) {
+      if (Log.isLoggable(TAG, Log.WARN)) {
+        Log.w(TAG, "Failed to write " + file, e);
+      }
+      closeQuietly(os);
+      if (temp.exists() && !temp.delete() && Log.isLoggable(TAG, Log.DEBUG)) {
+        Log.d(TAG, "Failed to delete temporary file: " + temp);
+      }
+    }
+  }
+
+  private static void closeQuietly(@Nullable Closeable closeable) {
+    if (closeable != null) {
+      try {
+        closeable.close();
+      } catch (IOException e) {
+        // Ignored.
+      }
+    }
+  }
+}
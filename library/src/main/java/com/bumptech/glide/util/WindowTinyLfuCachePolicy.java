@@ -0,0 +1,88 @@
+package com.bumptech.glide.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Implements {@link EvictionPolicy#WINDOW_TINY_LFU}.
+ *
+ * <p>Items are added to a small LRU window. Items that overflow the window move to the probation
+ * segment of a segmented LRU. Items in probation that are read again move to the protected
+ * segment. When the cache is full, the most recent item in probation, usually one that just left
+ * the window, competes with the least recently used item in probation and whichever has been
+ * requested less often according to a {@link FrequencySketch} is evicted.
+ */
+final class WindowTinyLfuCachePolicy<T, Y> extends CachePolicy<T, Y> {
+  private static final int WINDOW_PERCENT = 1;
+  private static final int PROTECTED_PERCENT = 80;
+  private static final int SKETCH_TABLE_LENGTH = 1024;
+
+  private final AccessQueue<T, Y> window = new AccessQueue<>();
+  private final AccessQueue<T, Y> probation = new AccessQueue<>();
+  private final AccessQueue<T, Y> protectedQueue = new AccessQueue<>();
+  private final FrequencySketch sketch;
+  private long maxProtectedSize;
+
+  WindowTinyLfuCachePolicy() {
+    sketch = new FrequencySketch(SKETCH_TABLE_LENGTH);
+  }
+
+  @Override
+  void recordAccess(@NonNull T key) {
+    sketch.increment(key);
+  }
+
+  @Override
+  void onAdd(@NonNull Node<T, Y> node, long maxSize) {
+    long maxWindowSize = maxSize * WINDOW_PERCENT / 100;
+    maxProtectedSize = (maxSize - maxWindowSize) * PROTECTED_PERCENT / 100;
+
+    window.addLast(node);
+    // Always keep the newest item in the window, even if it's larger than the window.
+    Node<T, Y> eldest;
+    while (window.getSize() > maxWindowSize && (eldest = window.peekFirst()) != node) {
+      window.remove(eldest);
+      probation.addLast(eldest);
+    }
+  }
+
+  @Override
+  void onRead(@NonNull Node<T, Y> node) {
+    if (node.queue == probation) {
+      probation.remove(node);
+      protectedQueue.addLast(node);
+      Node<T, Y> eldest;
+      while (protectedQueue.getSize() > maxProtectedSize
+          && (eldest = protectedQueue.peekFirst()) != node) {
+        protectedQueue.remove(eldest);
+        probation.addLast(eldest);
+      }
+    } else if (node.queue != null) {
+      node.queue.moveToLast(node);
+    }
+  }
+
+  @Override
+  void onRemove(@NonNull Node<T, Y> node) {
+    if (node.queue != null) {
+      node.queue.remove(node);
+    }
+  }
+
+  @Nullable
+  @Override
+  Node<T, Y> selectVictim() {
+    Node<T, Y> victim = probation.peekFirst();
+    Node<T, Y> candidate = probation.peekLast();
+    if (victim == null) {
+      victim = protectedQueue.peekFirst();
+      return victim != null ? victim : window.peekFirst();
+    }
+    if (candidate == victim) {
+      return victim;
+    }
+    // Ties evict the victim so that items that are requested equally often are evicted in LRU
+    // order.
+    return sketch.frequency(candidate.key) >= sketch.frequency(victim.key) ? victim : candidate;
+  }
+}
@@ -10,6 +10,7 @@ import com.bumptech.glide.module.AppGlideModule;
 import com.bumptech.glide.tests.TearDownGlide;
 import com.bumptech.glide.util.GlideSuppliers.GlideSupplier;
 import com.google.common.collect.ImmutableList;
+import java.nio.ByteBuffer;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.function.ThrowingRunnable;
@@ -24,6 +25,22 @@ public class RegistryFactoryTest {
     private static final long serialVersionUID = 2334956185897161236L;
   }
 
+  @Test
+  public void getModelLoaders_withByteBufferModel_throwsNoModelLoaderAvailableException() {
+    final Registry registry = Glide.get(context).getRegistry();
+
+    // ByteBuffer models are keyed by ObjectKeys that don't identify their contents in the disk
+    // cache, so loading them must not be supported.
+    assertThrows(
+        Registry.NoModelLoaderAvailableException.class,
+        new ThrowingRunnable() {
+          @Override
+          public void run() {
+            registry.getModelLoaders(ByteBuffer.allocate(10));
+          }
+        });
+  }
+
   @Test
   public void create_whenCalledTwiceWithThrowingModule_throwsOriginalException() {
     AppGlideModule throwingAppGlideModule =
@@ -3,29 +3,23 @@ package com.bumptech.glide.load.engine;
 import static com.google.common.truth.Truth.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
-import android.os.Looper;
-import androidx.annotation.NonNull;
 import com.bumptech.glide.load.Key;
-import com.bumptech.glide.load.engine.ActiveResources.DequeuedResourceCallback;
 import com.bumptech.glide.load.engine.ActiveResources.ResourceWeakReference;
 import com.bumptech.glide.load.engine.EngineResource.ResourceListener;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.Executor;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
-import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.robolectric.RobolectricTestRunner;
-import org.robolectric.Shadows;
 
 @RunWith(RobolectricTestRunner.class)
 public class ActiveResourcesTest {
@@ -43,11 +37,6 @@ public class ActiveResourcesTest {
     resources.setListener(listener);
   }
 
-  @After
-  public void tearDown() {
-    resources.shutdown();
-  }
-
   @Test
   public void get_withMissingKey_returnsNull() {
     assertThat(resources.get(key)).isNull();
@@ -142,7 +131,7 @@ public class ActiveResourcesTest {
     ResourceWeakReference weakRef = resources.activeEngineResources.get(key);
     resources.deactivate(key);
 
-    enqueueAndWaitForRef(weakRef);
+    enqueueAndCleanRef(weakRef);
 
     verify(listener, never()).onResourceReleased(any(Key.class), any(EngineResource.class));
   }
@@ -153,7 +142,7 @@ public class ActiveResourcesTest {
     resources.activate(key, engineResource);
 
     ResourceWeakReference weakRef = resources.activeEngineResources.get(key);
-    enqueueAndWaitForRef(weakRef);
+    enqueueAndCleanRef(weakRef);
 
     ArgumentCaptor<EngineResource<?>> captor = getEngineResourceCaptor();
 
@@ -173,8 +162,7 @@ public class ActiveResourcesTest {
     resources.activate(key, engineResource);
 
     ResourceWeakReference weakRef = resources.activeEngineResources.get(key);
-    weakRef.enqueue();
-    enqueueAndWaitForRef(weakRef);
+    enqueueAndCleanRef(weakRef);
 
     verify(listener, never()).onResourceReleased(any(Key.class), any(EngineResource.class));
   }
@@ -185,7 +173,7 @@ public class ActiveResourcesTest {
     resources.activate(key, engineResource);
 
     ResourceWeakReference weakRef = resources.activeEngineResources.get(key);
-    enqueueAndWaitForRef(weakRef);
+    enqueueAndCleanRef(weakRef);
 
     assertThat(resources.get(key)).isNull();
   }
@@ -196,7 +184,7 @@ public class ActiveResourcesTest {
     resources.activate(key, engineResource);
 
     ResourceWeakReference weakRef = resources.activeEngineResources.get(key);
-    enqueueAndWaitForRef(weakRef);
+    enqueueAndCleanRef(weakRef);
 
     assertThat(resources.get(key)).isNull();
   }
@@ -210,7 +198,7 @@ public class ActiveResourcesTest {
 
     resources.get(key);
 
-    enqueueAndWaitForRef(weakRef);
+    enqueueAndCleanRef(weakRef);
 
     ArgumentCaptor<EngineResource<?>> captor = getEngineResourceCaptor();
     verify(listener).onResourceReleased(eq(key), captor.capture());
@@ -223,106 +211,85 @@ public class ActiveResourcesTest {
     resources.activate(key, engineResource);
 
     ResourceWeakReference weakRef = resources.activeEngineResources.get(key);
-    CountDownLatch latch = getLatchForClearedRef();
     weakRef.enqueue();
 
     resources.get(key);
 
-    waitForLatch(latch);
+    resources.cleanReferenceQueue();
 
     verify(listener, never()).onResourceReleased(any(Key.class), any(EngineResource.class));
   }
 
   @Test
   public void queueIdle_withQueuedReferenceDeactivated_doesNotNotifyListener() {
-    final ExecutorService delegate = Executors.newSingleThreadExecutor();
-    try {
-      final CountDownLatch blockExecutor = new CountDownLatch(1);
-      resources =
-          new ActiveResources(
-              /* isActiveResourceRetentionAllowed= */ true,
-              new Executor() {
-                @Override
-                public void execute(@NonNull final Runnable command) {
-                  delegate.execute(
-                      new Runnable() {
-                        @Override
-                        public void run() {
-                          try {
-                            blockExecutor.await();
-                          } catch (InterruptedException e) {
-                            throw new RuntimeException(e);
-                          }
-                          command.run();
-                        }
-                      });
-                }
-              });
-      resources.setListener(listener);
-
-      EngineResource<Object> engineResource = newCacheableEngineResource();
-      resources.activate(key, engineResource);
-
-      ResourceWeakReference weakRef = resources.activeEngineResources.get(key);
-      CountDownLatch latch = getLatchForClearedRef();
-      weakRef.enqueue();
-      resources.deactivate(key);
-      blockExecutor.countDown();
-
-      waitForLatch(latch);
-
-      verify(listener, never()).onResourceReleased(any(Key.class), any(EngineResource.class));
-    } finally {
-      resources.shutdown();
-      com.bumptech.glide.util.Executors.shutdownAndAwaitTermination(delegate);
-    }
+    EngineResource<Object> engineResource = newCacheableEngineResource();
+    resources.activate(key, engineResource);
+
+    ResourceWeakReference weakRef = resources.activeEngineResources.get(key);
+    weakRef.enqueue();
+    resources.deactivate(key);
+    resources.cleanReferenceQueue();
+
+    verify(listener, never()).onResourceReleased(any(Key.class), any(EngineResource.class));
   }
 
   @Test
   public void queueIdle_afterReferenceQueuedThenReactivated_doesNotNotifyListener() {
-    final ExecutorService delegate = Executors.newSingleThreadExecutor();
-    try {
-      final CountDownLatch blockExecutor = new CountDownLatch(1);
-      resources =
-          new ActiveResources(
-              /* isActiveResourceRetentionAllowed= */ true,
-              new Executor() {
-                @Override
-                public void execute(@NonNull final Runnable command) {
-                  delegate.execute(
-                      new Runnable() {
-                        @Override
-                        public void run() {
-                          try {
-                            blockExecutor.await();
-                          } catch (InterruptedException e) {
-                            throw new RuntimeException(e);
-                          }
-                          command.run();
-                        }
-                      });
-                }
-              });
-      resources.setListener(listener);
-
-      EngineResource<Object> first = newCacheableEngineResource();
-      resources.activate(key, first);
-
-      ResourceWeakReference weakRef = resources.activeEngineResources.get(key);
-      CountDownLatch latch = getLatchForClearedRef();
-      weakRef.enqueue();
-
-      EngineResource<Object> second = newCacheableEngineResource();
-      resources.activate(key, second);
-      blockExecutor.countDown();
-
-      waitForLatch(latch);
-
-      verify(listener, never()).onResourceReleased(any(Key.class), any(EngineResource.class));
-    } finally {
-      resources.shutdown();
-      com.bumptech.glide.util.Executors.shutdownAndAwaitTermination(delegate);
-    }
+    EngineResource<Object> first = newCacheableEngineResource();
+    resources.activate(key, first);
+
+    ResourceWeakReference weakRef = resources.activeEngineResources.get(key);
+    weakRef.enqueue();
+
+    EngineResource<Object> second = newCacheableEngineResource();
+    resources.activate(key, second);
+    resources.cleanReferenceQueue();
+
+    verify(listener, never()).onResourceReleased(any(Key.class), any(EngineResource.class));
+    assertThat(resources.get(key)).isEqualTo(second);
+  }
+
+  @Test
+  public void activate_withQueuedReferenceForOtherKey_cleansUpQueuedReference() {
+    EngineResource<Object> engineResource = newCacheableEngineResource();
+    resources.activate(key, engineResource);
+
+    ResourceWeakReference weakRef = resources.activeEngineResources.get(key);
+    weakRef.enqueue();
+
+    Key otherKey = mock(Key.class);
+    resources.activate(
+        otherKey,
+        new EngineResource<>(
+            resource,
+            /* isMemoryCacheable= */ true,
+            /* isRecyclable= */ false,
+            otherKey,
+            listener));
+
+    verify(listener).onResourceReleased(eq(key), any(EngineResource.class));
+    assertThat(resources.activeEngineResources).doesNotContainKey(key);
+  }
+
+  @Test
+  public void cleanReferenceQueue_calledReentrantlyFromListener_doesNotRecurse() {
+    doAnswer(
+            new Answer<Void>() {
+              @Override
+              public Void answer(InvocationOnMock invocation) {
+                // Engine deactivates the key when it's notified, which cleans the queue again.
+                resources.deactivate((Key) invocation.getArgument(0));
+                return null;
+              }
+            })
+        .when(listener)
+        .onResourceReleased(any(Key.class), any(EngineResource.class));
+
+    EngineResource<Object> engineResource = newCacheableEngineResource();
+    resources.activate(key, engineResource);
+    enqueueAndCleanRef(resources.activeEngineResources.get(key));
+
+    verify(listener).onResourceReleased(eq(key), any(EngineResource.class));
   }
 
   @Test
@@ -353,41 +320,18 @@ public class ActiveResourcesTest {
     resources.activate(key, engineResource);
 
     ResourceWeakReference weakRef = resources.activeEngineResources.get(key);
-    CountDownLatch latch = getLatchForClearedRef();
     weakRef.enqueue();
 
     resources.get(key);
 
-    waitForLatch(latch);
+    resources.cleanReferenceQueue();
 
     verify(listener, never()).onResourceReleased(any(Key.class), any(EngineResource.class));
   }
 
-  private void enqueueAndWaitForRef(ResourceWeakReference ref) {
-    CountDownLatch latch = getLatchForClearedRef();
+  private void enqueueAndCleanRef(ResourceWeakReference ref) {
     ref.enqueue();
-    waitForLatch(latch);
-  }
-
-  private void waitForLatch(CountDownLatch latch) {
-    try {
-      latch.await(10, TimeUnit.SECONDS);
-    } catch (InterruptedException e) {
-      throw new RuntimeException(e);
-    }
-    Shadows.shadowOf(Looper.getMainLooper()).runToEndOfTasks();
-  }
-
-  private CountDownLatch getLatchForClearedRef() {
-    final CountDownLatch toWait = new CountDownLatch(1);
-    resources.setDequeuedResourceCallback(
-        new DequeuedResourceCallback() {
-          @Override
-          public void onResourceDequeued() {
-            toWait.countDown();
-          }
-        });
-    return toWait;
+    resources.cleanReferenceQueue();
   }
 
   private EngineResource<Object> newCacheableEngineResource() {
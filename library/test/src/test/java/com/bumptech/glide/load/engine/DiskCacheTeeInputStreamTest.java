@@ -0,0 +1,183 @@
+package com.bumptech.glide.load.engine;
+
+import static com.bumptech.glide.RobolectricConstants.ROBOLECTRIC_SDK;
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import androidx.annotation.NonNull;
+import com.bumptech.glide.load.Encoder;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.engine.cache.AsyncWriteDiskCache;
+import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.signature.ObjectKey;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = ROBOLECTRIC_SDK)
+public class DiskCacheTeeInputStreamTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final Key key = new ObjectKey("key");
+  private final byte[] data = new byte[10000];
+  private final Map<Key, byte[]> written = new HashMap<>();
+  private DiskCache diskCache;
+
+  @Before
+  public void setUp() {
+    new Random(1).nextBytes(data);
+    diskCache =
+        new DiskCache() {
+          @Override
+          public File get(Key key) {
+            return null;
+          }
+
+          @Override
+          public void put(Key key, Writer writer) {
+            try {
+              File file = temporaryFolder.newFile();
+              if (writer.write(file)) {
+                written.put(key, readBytes(file));
+              }
+            } catch (IOException e) {
+              throw new RuntimeException(e);
+            }
+          }
+
+          @Override
+          public void delete(Key key) {}
+
+          @Override
+          public void clear() {}
+        };
+  }
+
+  @Test
+  public void finish_afterPartialRead_withSuccess_writesWholeStream() throws IOException {
+    DiskCacheTeeInputStream tee = newTee(new ByteArrayInputStream(data));
+    assertThat(tee.read()).isEqualTo(data[0] & 0xFF);
+    assertThat(tee.skip(100)).isEqualTo(100);
+    assertThat(tee.read(new byte[50], 10, 40)).isEqualTo(40);
+
+    tee.finish(/* isSuccessful= */ true);
+
+    assertThat(written.get(key)).isEqualTo(data);
+  }
+
+  @Test
+  public void finish_withFailure_doesNotWrite() throws IOException {
+    DiskCacheTeeInputStream tee = newTee(new ByteArrayInputStream(data));
+    assertThat(tee.read(new byte[100])).isEqualTo(100);
+
+    tee.finish(/* isSuccessful= */ false);
+
+    assertThat(written).isEmpty();
+  }
+
+  @Test
+  public void finish_afterFailedRead_doesNotWrite() {
+    InputStream failing =
+        new FilterInputStream(new ByteArrayInputStream(data)) {
+          @Override
+          public int read(@NonNull byte[] buffer, int offset, int length) throws IOException {
+            throw new IOException("Test");
+          }
+        };
+    DiskCacheTeeInputStream tee = newTee(failing);
+    try {
+      tee.read(new byte[100]);
+      fail("Expected an IOException");
+    } catch (IOException e) {
+      // Expected.
+    }
+
+    tee.finish(/* isSuccessful= */ true);
+
+    assertThat(written).isEmpty();
+  }
+
+  @Test
+  public void finish_withAsyncWriteCache_queuesCopy() throws IOException {
+    AsyncWriteDiskCache asyncCache = mock(AsyncWriteDiskCache.class);
+    when(asyncCache.putBytesAsync(eq(key), any(byte[].class))).thenReturn(true);
+    DiskCacheTeeInputStream tee =
+        new DiskCacheTeeInputStream(
+            new ByteArrayInputStream(data), asyncCache, key, new CopyingEncoder(), new Options());
+    assertThat(tee.read(new byte[100])).isEqualTo(100);
+
+    tee.finish(/* isSuccessful= */ true);
+
+    verify(asyncCache).putBytesAsync(key, data);
+    verify(asyncCache, never()).put(any(Key.class), any(DiskCache.Writer.class));
+  }
+
+  @Test
+  public void markSupported_returnsFalse() {
+    assertThat(newTee(new ByteArrayInputStream(data)).markSupported()).isFalse();
+  }
+
+  private DiskCacheTeeInputStream newTee(InputStream source) {
+    return new DiskCacheTeeInputStream(source, diskCache, key, new CopyingEncoder(), new Options());
+  }
+
+  private static byte[] readBytes(File file) throws IOException {
+    InputStream is = new FileInputStream(file);
+    try {
+      ByteArrayOutputStream os = new ByteArrayOutputStream();
+      byte[] buffer = new byte[1024];
+      int read;
+      while ((read = is.read(buffer)) != -1) {
+        os.write(buffer, 0, read);
+      }
+      return os.toByteArray();
+    } finally {
+      is.close();
+    }
+  }
+
+  private static final class CopyingEncoder implements Encoder<InputStream> {
+    @Override
+    public boolean encode(@NonNull InputStream data, @NonNull File file, @NonNull Options options) {
+      try {
+        OutputStream os = new FileOutputStream(file);
+        try {
+          byte[] buffer = new byte[1024];
+          int read;
+          while ((read = data.read(buffer)) != -1) {
+            os.write(buffer, 0, read);
+          }
+        } finally {
+          os.close();
+        }
+        return true;
+      } catch (IOException e) {
+        return false;
+      }
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package com.bumptech.glide.load.engine;
+
+import static com.bumptech.glide.RobolectricConstants.ROBOLECTRIC_SDK;
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.Transformation;
+import com.bumptech.glide.load.engine.cache.DiskCacheAdapter;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.executor.GlideExecutor;
+import com.bumptech.glide.load.resource.SimpleResource;
+import com.bumptech.glide.request.ResourceCallback;
+import com.bumptech.glide.signature.EmptySignature;
+import com.bumptech.glide.util.Executors;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/** Verifies that memory cache hits in {@link Engine#load} don't allocate. */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = ROBOLECTRIC_SDK)
+public class EngineAllocationTest {
+  private static final int SIZE = 100;
+  private static final int LOAD_COUNT = 1000;
+
+  private final Map<Class<?>, Transformation<?>> transformations = Collections.emptyMap();
+  private final Options options = new Options();
+  private final Object model = "model";
+  private final ResourceCallback cb = new NoOpResourceCallback();
+  private Engine engine;
+
+  @Before
+  public void setUp() {
+    LruResourceCache memoryCache = new LruResourceCache(SIZE);
+    engine =
+        new Engine(
+            memoryCache,
+            new DiskCacheAdapter.Factory(),
+            GlideExecutor.newDiskCacheExecutor(),
+            GlideExecutor.newSourceExecutor(),
+            GlideExecutor.newUnlimitedSourceExecutor(),
+            GlideExecutor.newAnimationExecutor(),
+            /* isActiveResourceRetentionAllowed= */ false);
+    EngineKey key =
+        new EngineKeyFactory()
+            .buildKey(
+                model,
+                EmptySignature.obtain(),
+                SIZE,
+                SIZE,
+                transformations,
+                Object.class,
+                Object.class,
+                options);
+    memoryCache.put(
+        key,
+        new EngineResource<>(
+            new SimpleResource<>(new Object()),
+            /* isMemoryCacheable= */ true,
+            /* isRecyclable= */ false,
+            key,
+            engine));
+  }
+
+  @After
+  public void tearDown() {
+    engine.shutdown();
+  }
+
+  @Test
+  public void load_withActiveResourceHit_doesNotAllocate() {
+    ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean allocationCounter =
+        (com.sun.management.ThreadMXBean) threadMXBean;
+    assumeTrue(allocationCounter.isThreadAllocatedMemorySupported());
+    allocationCounter.setThreadAllocatedMemoryEnabled(true);
+    long threadId = Thread.currentThread().getId();
+
+    // Moves the resource from the memory cache into active resources and initializes the thread's
+    // lookup key.
+    for (int i = 0; i < LOAD_COUNT; i++) {
+      load();
+    }
+
+    long before = allocationCounter.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < LOAD_COUNT; i++) {
+      load();
+    }
+    long allocated = allocationCounter.getThreadAllocatedBytes(threadId) - before;
+
+    // Allows for allocations made by the counter itself, but not for one object per load.
+    assertThat(allocated).isLessThan((long) LOAD_COUNT);
+  }
+
+  private void load() {
+    Engine.LoadStatus status =
+        engine.load(
+            /* glideContext= */ null,
+            model,
+            EmptySignature.obtain(),
+            SIZE,
+            SIZE,
+            Object.class,
+            Object.class,
+            Priority.NORMAL,
+            DiskCacheStrategy.NONE,
+            transformations,
+            /* isTransformationRequired= */ false,
+            /* isScaleOnlyOrNoTransform= */ true,
+            options,
+            /* isMemoryCacheable= */ true,
+            /* useUnlimitedSourceExecutorPool= */ false,
+            /* useAnimationPool= */ false,
+            /* onlyRetrieveFromCache= */ true,
+            cb,
+            Executors.directExecutor());
+    // Avoid assertion libraries here, they allocate.
+    if (status != null) {
+      throw new AssertionError("Expected a memory cache hit");
+    }
+  }
+
+  private static final class NoOpResourceCallback implements ResourceCallback {
+    @Override
+    public void onResourceReady(
+        Resource<?> resource, DataSource dataSource, boolean isLoadedFromAlternateCacheKey) {}
+
+    @Override
+    public void onLoadFailed(GlideException e) {}
+
+    @Override
+    public Object getLock() {
+      return this;
+    }
+  }
+}
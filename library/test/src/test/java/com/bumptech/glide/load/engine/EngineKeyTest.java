@@ -1,6 +1,7 @@
 package com.bumptech.glide.load.engine;
 
 import static com.bumptech.glide.RobolectricConstants.ROBOLECTRIC_SDK;
+import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.assertThrows;
 
 import androidx.annotation.NonNull;
@@ -189,4 +190,71 @@ public class EngineKeyTest {
                 diskOptions))
         .testEquals();
   }
+
+  @Test
+  public void lookupKey_withSameArguments_equalsImmutableKey() {
+    EngineKey key = newKey("id");
+    EngineKey lookupKey = EngineKey.newLookupKey();
+    setKey(lookupKey, "id");
+
+    new EqualsTester().addEqualityGroup(key, lookupKey).testEquals();
+  }
+
+  @Test
+  public void toImmutableKey_withLookupKey_returnsEqualKeyUnaffectedByReuse() {
+    EngineKey lookupKey = EngineKey.newLookupKey();
+    setKey(lookupKey, "id");
+
+    EngineKey immutableKey = lookupKey.toImmutableKey();
+    lookupKey.clear();
+    setKey(lookupKey, "otherId");
+
+    assertThat(immutableKey).isNotSameInstanceAs(lookupKey);
+    assertThat(immutableKey).isEqualTo(newKey("id"));
+    assertThat(immutableKey.hashCode()).isEqualTo(newKey("id").hashCode());
+  }
+
+  @Test
+  public void toImmutableKey_withImmutableKey_returnsSameKey() {
+    EngineKey key = newKey("id");
+
+    assertThat(key.toImmutableKey()).isSameInstanceAs(key);
+  }
+
+  @Test
+  public void set_withImmutableKey_throws() {
+    final EngineKey key = newKey("id");
+    assertThrows(
+        IllegalArgumentException.class,
+        new ThrowingRunnable() {
+          @Override
+          public void run() {
+            setKey(key, "otherId");
+          }
+        });
+  }
+
+  private static EngineKey newKey(String model) {
+    return new EngineKey(
+        model,
+        new ObjectKey("signature"),
+        100,
+        100,
+        Collections.<Class<?>, Transformation<?>>emptyMap(),
+        Object.class,
+        Object.class,
+        new Options());
+  }
+
+  private static void setKey(EngineKey key, String model) {
+    key.set(
+        model,
+        new ObjectKey("signature"),
+        100,
+        100,
+        Collections.<Class<?>, Transformation<?>>emptyMap(),
+        Object.class,
+        Object.class,
+        new Options());
+  }
 }
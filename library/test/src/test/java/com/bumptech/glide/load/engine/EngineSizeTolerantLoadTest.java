@@ -0,0 +1,185 @@
+package com.bumptech.glide.load.engine;
+
+import static com.bumptech.glide.RobolectricConstants.ROBOLECTRIC_SDK;
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.Transformation;
+import com.bumptech.glide.load.engine.cache.DiskCacheAdapter;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.executor.GlideExecutor;
+import com.bumptech.glide.load.resource.SimpleResource;
+import com.bumptech.glide.request.ResourceCallback;
+import com.bumptech.glide.signature.EmptySignature;
+import com.bumptech.glide.util.Executors;
+import java.util.Collections;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/** Tests {@link Engine#load} with size tolerant memory cache lookups enabled. */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = ROBOLECTRIC_SDK)
+public class EngineSizeTolerantLoadTest {
+  private static final int CACHE_SIZE = 100;
+
+  private final Map<Class<?>, Transformation<?>> transformations = Collections.emptyMap();
+  private final Options options = new Options();
+  private final Object model = "model";
+  private final SizeTolerantIndex index = new SizeTolerantIndex();
+  private final ResourceCallback cb = mock(ResourceCallback.class);
+  private LruResourceCache memoryCache;
+  private Engine engine;
+
+  @Before
+  public void setUp() {
+    memoryCache = new LruResourceCache(CACHE_SIZE);
+    engine =
+        new Engine(
+            memoryCache,
+            new DiskCacheAdapter.Factory(),
+            GlideExecutor.newDiskCacheExecutor(),
+            GlideExecutor.newSourceExecutor(),
+            GlideExecutor.newUnlimitedSourceExecutor(),
+            GlideExecutor.newAnimationExecutor(),
+            /* diskCacheWriteExecutor= */ null,
+            /* jobs= */ null,
+            /* keyFactory= */ null,
+            /* activeResources= */ null,
+            /* engineJobFactory= */ null,
+            /* decodeJobFactory= */ null,
+            /* resourceRecycler= */ null,
+            index,
+            /* encodedMemoryCache= */ null,
+            /* metrics= */ null,
+            /* isActiveResourceRetentionAllowed= */ false);
+  }
+
+  @After
+  public void tearDown() {
+    engine.shutdown();
+  }
+
+  @Test
+  public void load_withLargerResourceInMemoryCache_returnsLargerResource() {
+    EngineResource<?> larger = putInMemoryCache(200, 200);
+
+    assertThat(load(100, 100)).isNull();
+
+    verify(cb)
+        .onResourceReady(
+            eq(larger), eq(DataSource.MEMORY_CACHE), /* isLoadedFromAlternateCacheKey= */ eq(true));
+    assertThat(index.getLookupCount()).isEqualTo(1);
+    assertThat(index.getHitCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void load_withLargerResourceOfDifferentAspectRatio_startsNewLoad() {
+    putInMemoryCache(200, 100);
+
+    assertThat(load(100, 100)).isNotNull();
+    assertThat(index.getHitCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void load_withOnlySmallerResourceInMemoryCache_startsNewLoad() {
+    putInMemoryCache(50, 50);
+
+    assertThat(load(100, 100)).isNotNull();
+    assertThat(index.getLookupCount()).isEqualTo(1);
+    assertThat(index.getHitCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void load_withExactResourceInMemoryCache_doesNotUseIndex() {
+    EngineResource<?> exact = putInMemoryCache(100, 100);
+    putInMemoryCache(200, 200);
+
+    assertThat(load(100, 100)).isNull();
+
+    verify(cb)
+        .onResourceReady(
+            eq(exact), eq(DataSource.MEMORY_CACHE), /* isLoadedFromAlternateCacheKey= */ eq(false));
+    assertThat(index.getLookupCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void load_afterLargerResourceIsEvicted_startsNewLoad() {
+    putInMemoryCache(200, 200);
+    memoryCache.clearMemory();
+
+    assertThat(load(100, 100)).isNotNull();
+    assertThat(index.getHitCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void load_withSkipMemoryCache_doesNotUseLargerResource() {
+    putInMemoryCache(200, 200);
+
+    assertThat(load(100, 100, /* isMemoryCacheable= */ false)).isNotNull();
+    verify(cb, never())
+        .onResourceReady(any(Resource.class), any(DataSource.class), anyBoolean());
+  }
+
+  private EngineResource<?> putInMemoryCache(int width, int height) {
+    EngineKey key =
+        new EngineKey(
+            model,
+            EmptySignature.obtain(),
+            width,
+            height,
+            transformations,
+            Object.class,
+            Object.class,
+            options);
+    EngineResource<?> resource =
+        new EngineResource<>(
+            new SimpleResource<>(new Object()),
+            /* isMemoryCacheable= */ true,
+            /* isRecyclable= */ false,
+            key,
+            engine);
+    // Mirrors what the Engine does when a resource is released.
+    engine.onResourceReleased(key, resource);
+    return resource;
+  }
+
+  private Engine.LoadStatus load(int width, int height) {
+    return load(width, height, /* isMemoryCacheable= */ true);
+  }
+
+  private Engine.LoadStatus load(int width, int height, boolean isMemoryCacheable) {
+    return engine.load(
+        /* glideContext= */ null,
+        model,
+        EmptySignature.obtain(),
+        width,
+        height,
+        Object.class,
+        Object.class,
+        Priority.NORMAL,
+        DiskCacheStrategy.NONE,
+        transformations,
+        /* isTransformationRequired= */ false,
+        /* isScaleOnlyOrNoTransform= */ true,
+        options,
+        isMemoryCacheable,
+        /* useUnlimitedSourceExecutorPool= */ false,
+        /* useAnimationPool= */ false,
+        /* onlyRetrieveFromCache= */ true,
+        cb,
+        Executors.directExecutor());
+  }
+}
@@ -19,21 +19,29 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import androidx.annotation.NonNull;
 import com.bumptech.glide.GlideContext;
 import com.bumptech.glide.Priority;
 import com.bumptech.glide.load.DataSource;
 import com.bumptech.glide.load.Key;
 import com.bumptech.glide.load.Options;
 import com.bumptech.glide.load.Transformation;
+import com.bumptech.glide.load.engine.cache.AsyncWriteDiskCache;
+import com.bumptech.glide.load.engine.cache.DirectReadDiskCache;
 import com.bumptech.glide.load.engine.cache.DiskCache;
 import com.bumptech.glide.load.engine.cache.LruResourceCache;
 import com.bumptech.glide.load.engine.cache.MemoryCache;
+import com.bumptech.glide.load.engine.cache.WriteBehindDiskCacheFactory;
 import com.bumptech.glide.load.engine.executor.GlideExecutor;
 import com.bumptech.glide.load.engine.executor.MockGlideExecutor;
+import com.bumptech.glide.metrics.GlideMetrics;
 import com.bumptech.glide.request.ResourceCallback;
+import com.bumptech.glide.signature.ObjectKey;
 import com.bumptech.glide.tests.BackgroundUtil;
 import com.bumptech.glide.util.Executors;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executor;
 import org.junit.Before;
@@ -641,11 +649,90 @@ public class EngineTest {
     verify(harness.job, never()).start(anyDecodeJobOrNull());
   }
 
+  @Test
+  public void shutdown_withDiskCacheWriteExecutor_shutsDownExecutor() {
+    GlideExecutor diskCacheWriteExecutor = GlideExecutor.newDiskCacheWriteExecutor();
+    Engine engine =
+        new Engine(
+            mock(MemoryCache.class),
+            mock(DiskCache.Factory.class),
+            GlideExecutor.newDiskCacheExecutor(),
+            GlideExecutor.newSourceExecutor(),
+            GlideExecutor.newUnlimitedSourceExecutor(),
+            GlideExecutor.newAnimationExecutor(),
+            diskCacheWriteExecutor,
+            /* isActiveResourceRetentionAllowed= */ true,
+            /* isSizeTolerantMemoryCacheEnabled= */ false,
+            /* encodedMemoryCache= */ null,
+            /* metrics= */ null);
+
+    engine.shutdown();
+
+    assertThat(diskCacheWriteExecutor.isShutdown()).isTrue();
+  }
+
+  @Test
+  public void getDiskCache_withMetricsAndWriteBehind_queuesWritesAndReadsPendingBytes() {
+    final DiskCache delegate = mock(DiskCache.class);
+    List<Runnable> writes = new ArrayList<>();
+    DiskCache.Factory factory =
+        new WriteBehindDiskCacheFactory(
+            new DiskCache.Factory() {
+              @Override
+              public DiskCache build() {
+                return delegate;
+              }
+            },
+            new QueueingExecutor(writes),
+            /* maxPendingSize= */ 1024);
+    GlideMetrics metrics = new GlideMetrics();
+    Engine engine =
+        new Engine(
+            mock(MemoryCache.class),
+            factory,
+            GlideExecutor.newDiskCacheExecutor(),
+            MockGlideExecutor.newMainThreadExecutor(),
+            MockGlideExecutor.newMainThreadExecutor(),
+            MockGlideExecutor.newMainThreadExecutor(),
+            /* isActiveResourceRetentionAllowed= */ true,
+            /* isSizeTolerantMemoryCacheEnabled= */ false,
+            /* encodedMemoryCache= */ null,
+            metrics);
+    Key key = new ObjectKey("key");
+    byte[] data = new byte[] {1, 2, 3};
+
+    DiskCache diskCache = engine.getDiskCache();
+    assertThat(((AsyncWriteDiskCache) diskCache).putBytesAsync(key, data)).isTrue();
+
+    assertThat(((DirectReadDiskCache) diskCache).getBytes(key)).isEqualTo(data);
+    verify(delegate, never()).put(any(Key.class), any(DiskCache.Writer.class));
+    assertThat(metrics.counter(GlideMetrics.DISK_CACHE_WRITES).get()).isEqualTo(1);
+    assertThat(metrics.counter(GlideMetrics.DISK_CACHE_HITS).get()).isEqualTo(1);
+
+    for (Runnable write : writes) {
+      write.run();
+    }
+    verify(delegate).put(eq(key), any(DiskCache.Writer.class));
+  }
+
   @SuppressWarnings({"unchecked", "rawtypes"})
   private static DecodeJob anyDecodeJobOrNull() {
     return any();
   }
 
+  private static final class QueueingExecutor implements Executor {
+    private final List<Runnable> queue;
+
+    QueueingExecutor(List<Runnable> queue) {
+      this.queue = queue;
+    }
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+      queue.add(command);
+    }
+  }
+
   private static class EngineTestHarness {
     final EngineKey cacheKey = mock(EngineKey.class);
     final EngineKeyFactory keyFactory = mock(EngineKeyFactory.class);
@@ -688,6 +775,17 @@ public class EngineTest {
               eq(Object.class),
               eq(options)))
           .thenReturn(cacheKey);
+      when(keyFactory.buildLookupKey(
+              eq(model),
+              eq(signature),
+              anyInt(),
+              anyInt(),
+              eq(transformations),
+              eq(Object.class),
+              eq(Object.class),
+              eq(options)))
+          .thenReturn(cacheKey);
+      when(cacheKey.toImmutableKey()).thenReturn(cacheKey);
       when(resource.getResource()).thenReturn(mock(Resource.class));
 
       job = mock(EngineJob.class);
@@ -735,12 +833,16 @@ public class EngineTest {
                 MockGlideExecutor.newMainThreadExecutor(),
                 MockGlideExecutor.newMainThreadExecutor(),
                 MockGlideExecutor.newMainThreadExecutor(),
+                /* diskCacheWriteExecutor= */ null,
                 jobs,
                 keyFactory,
                 activeResources,
                 engineJobFactory,
                 decodeJobFactory,
                 resourceRecycler,
+                /* sizeTolerantIndex= */ null,
+                /* encodedMemoryCache= */ null,
+                /* metrics= */ null,
                 /* isActiveResourceRetentionAllowed= */ true);
       }
       return engine;
@@ -0,0 +1,98 @@
+package com.bumptech.glide.load.engine;
+
+import static com.bumptech.glide.RobolectricConstants.ROBOLECTRIC_SDK;
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import androidx.annotation.NonNull;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.engine.cache.DirectReadDiskCache;
+import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.load.engine.cache.PackedDiskCache;
+import com.bumptech.glide.metrics.GlideMetrics;
+import com.bumptech.glide.signature.ObjectKey;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = ROBOLECTRIC_SDK)
+public class MeteredDiskCacheTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final GlideMetrics glideMetrics = new GlideMetrics();
+  private final EngineMetrics metrics = new EngineMetrics(glideMetrics);
+  private final Key key = new ObjectKey("key");
+
+  @Test
+  public void getBytes_withDirectReadCache_forwardsAndCountsHit() {
+    DirectReadDiskCache wrapped = mock(DirectReadDiskCache.class);
+    byte[] data = new byte[] {1, 2, 3};
+    when(wrapped.getBytes(key)).thenReturn(data);
+    MeteredDiskCache cache = new MeteredDiskCache(wrapped, metrics);
+
+    assertThat(cache.getBytes(key)).isEqualTo(data);
+    assertThat(glideMetrics.counter(GlideMetrics.DISK_CACHE_HITS).get()).isEqualTo(1);
+  }
+
+  @Test
+  public void getBytes_withDirectReadCacheMiss_doesNotCountMiss() {
+    MeteredDiskCache cache = new MeteredDiskCache(mock(DirectReadDiskCache.class), metrics);
+
+    assertThat(cache.getBytes(key)).isNull();
+    assertThat(glideMetrics.counter(GlideMetrics.DISK_CACHE_MISSES).get()).isEqualTo(0);
+  }
+
+  @Test
+  public void getBytes_withOtherCache_returnsNull() {
+    MeteredDiskCache cache = new MeteredDiskCache(mock(DiskCache.class), metrics);
+
+    assertThat(cache.getBytes(key)).isNull();
+  }
+
+  @Test
+  public void getBuffer_withPackedCache_returnsMappedEntryWithoutCopyingIt() throws IOException {
+    File directory = temporaryFolder.newFolder();
+    DiskCache packed =
+        PackedDiskCache.create(
+            directory, /* maxSize= */ 1024 * 1024, PackedDiskCache.DEFAULT_MAX_PACKED_ENTRY_SIZE);
+    final byte[] data = new byte[] {1, 2, 3, 4};
+    packed.put(
+        key,
+        new DiskCache.Writer() {
+          @Override
+          public boolean write(@NonNull File file) {
+            try {
+              OutputStream os = new FileOutputStream(file);
+              try {
+                os.write(data);
+              } finally {
+                os.close();
+              }
+              return true;
+            } catch (IOException e) {
+              return false;
+            }
+          }
+        });
+    MeteredDiskCache cache = new MeteredDiskCache(packed, metrics);
+
+    ByteBuffer buffer = cache.getBuffer(key);
+
+    // A read only slice of the packed segment, rather than a copy of the entry in its own file.
+    assertThat(buffer.isReadOnly()).isTrue();
+    byte[] result = new byte[buffer.remaining()];
+    buffer.get(result);
+    assertThat(result).isEqualTo(data);
+    assertThat(glideMetrics.counter(GlideMetrics.DISK_CACHE_HITS).get()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,126 @@
+package com.bumptech.glide.load.engine;
+
+import static com.bumptech.glide.RobolectricConstants.ROBOLECTRIC_SDK;
+import static com.google.common.truth.Truth.assertThat;
+
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.Transformation;
+import com.bumptech.glide.request.target.Target;
+import com.bumptech.glide.signature.ObjectKey;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = ROBOLECTRIC_SDK)
+public class SizeTolerantIndexTest {
+  private SizeTolerantIndex index;
+
+  @Before
+  public void setUp() {
+    index = new SizeTolerantIndex();
+  }
+
+  @Test
+  public void getLargerKeys_withEmptyIndex_returnsEmptyList() {
+    assertThat(index.getLargerKeys(newKey("model", 100, 100))).isEmpty();
+  }
+
+  @Test
+  public void getLargerKeys_returnsLargerKeysWithSameAspectRatioSmallestFirst() {
+    EngineKey largest = newKey("model", 400, 400);
+    EngineKey larger = newKey("model", 200, 200);
+    index.add(largest);
+    index.add(larger);
+    index.add(newKey("model", 50, 50));
+    index.add(newKey("model", 400, 200));
+
+    assertThat(index.getLargerKeys(newKey("model", 100, 100)))
+        .containsExactly(larger, largest)
+        .inOrder();
+  }
+
+  @Test
+  public void getLargerKeys_withEqualSizedKey_returnsKey() {
+    EngineKey key = newKey("model", 100, 100);
+    index.add(key);
+
+    assertThat(index.getLargerKeys(newKey("model", 100, 100))).containsExactly(key);
+  }
+
+  @Test
+  public void getLargerKeys_ignoresKeysForOtherModels() {
+    index.add(newKey("otherModel", 200, 200));
+
+    assertThat(index.getLargerKeys(newKey("model", 100, 100))).isEmpty();
+  }
+
+  @Test
+  public void getLargerKeys_withLookupKey_findsMatchingKeys() {
+    EngineKey key = newKey("model", 200, 200);
+    index.add(key);
+
+    EngineKey lookupKey = EngineKey.newLookupKey();
+    lookupKey.set(
+        "model",
+        new ObjectKey("signature"),
+        100,
+        100,
+        Collections.<Class<?>, Transformation<?>>emptyMap(),
+        Object.class,
+        Object.class,
+        new Options());
+
+    assertThat(index.getLargerKeys(lookupKey)).containsExactly(key);
+  }
+
+  @Test
+  public void add_withOriginalSize_isIgnored() {
+    index.add(newKey("model", Target.SIZE_ORIGINAL, Target.SIZE_ORIGINAL));
+
+    assertThat(index.getLargerKeys(newKey("model", 100, 100))).isEmpty();
+  }
+
+  @Test
+  public void remove_removesKey() {
+    EngineKey key = newKey("model", 200, 200);
+    index.add(key);
+    index.remove(newKey("model", 200, 200));
+
+    assertThat(index.getLargerKeys(newKey("model", 100, 100))).isEmpty();
+  }
+
+  @Test
+  public void add_afterGroupIsEmptied_addsKey() {
+    EngineKey key = newKey("model", 200, 200);
+    index.add(key);
+    index.remove(key);
+    index.add(key);
+
+    assertThat(index.getLargerKeys(newKey("model", 100, 100))).containsExactly(key);
+  }
+
+  @Test
+  public void recordLookup_updatesCounts() {
+    index.recordLookup(/* isHit= */ true);
+    index.recordLookup(/* isHit= */ false);
+
+    assertThat(index.getLookupCount()).isEqualTo(2);
+    assertThat(index.getHitCount()).isEqualTo(1);
+  }
+
+  private static EngineKey newKey(String model, int width, int height) {
+    return new EngineKey(
+        model,
+        new ObjectKey("signature"),
+        width,
+        height,
+        Collections.<Class<?>, Transformation<?>>emptyMap(),
+        Object.class,
+        Object.class,
+        new Options());
+  }
+}
@@ -0,0 +1,62 @@
+package com.bumptech.glide.load.engine;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class WarmStartManifestTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void read_afterWrite_returnsWrittenEntriesInOrder() {
+    File file = new File(temporaryFolder.getRoot(), "manifest");
+    byte[] first = new byte[] {1, 2, 3};
+    byte[] second = new byte[] {4};
+
+    WarmStartManifest.write(file, Arrays.asList(first, second));
+    List<byte[]> result = WarmStartManifest.read(file);
+
+    assertThat(result).hasSize(2);
+    assertThat(result.get(0)).isEqualTo(first);
+    assertThat(result.get(1)).isEqualTo(second);
+  }
+
+  @Test
+  public void write_replacesExistingManifest() {
+    File file = new File(temporaryFolder.getRoot(), "manifest");
+    WarmStartManifest.write(file, Collections.singletonList(new byte[] {1}));
+
+    WarmStartManifest.write(file, Collections.<byte[]>emptyList());
+
+    assertThat(WarmStartManifest.read(file)).isEmpty();
+  }
+
+  @Test
+  public void read_withMissingFile_returnsEmptyList() {
+    assertThat(WarmStartManifest.read(new File(temporaryFolder.getRoot(), "missing"))).isEmpty();
+  }
+
+  @Test
+  public void read_withCorruptFile_returnsEmptyList() throws IOException {
+    File file = temporaryFolder.newFile();
+    FileOutputStream os = new FileOutputStream(file);
+    try {
+      os.write(new byte[] {0, 0, 0, 1, 0, 0, 0, 5, 0, 0});
+    } finally {
+      os.close();
+    }
+
+    assertThat(WarmStartManifest.read(file)).isEmpty();
+  }
+}
@@ -0,0 +1,144 @@
+package com.bumptech.glide.load.engine.bitmap_recycle;
+
+import static com.bumptech.glide.RobolectricConstants.ROBOLECTRIC_SDK;
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = ROBOLECTRIC_SDK)
+public class DebugBitmapPoolTest {
+  private LruBitmapPool wrapped;
+  private DebugBitmapPool pool;
+
+  @Before
+  public void setUp() {
+    wrapped = new LruBitmapPool(10 * 1024 * 1024);
+    pool = new DebugBitmapPool(wrapped);
+  }
+
+  @Test
+  public void put_poisonsBitmap() {
+    Bitmap bitmap = createBitmap(10, 10);
+
+    pool.put(bitmap);
+
+    assertThat(bitmap.getPixel(5, 5)).isEqualTo(DebugBitmapPool.POISON_COLOR);
+  }
+
+  @Test
+  public void get_afterPut_returnsClearedBitmap() {
+    Bitmap bitmap = createBitmap(10, 10);
+    pool.put(bitmap);
+
+    Bitmap result = pool.get(10, 10, Bitmap.Config.ARGB_8888);
+
+    assertThat(result).isSameInstanceAs(bitmap);
+    assertThat(result.getPixel(5, 5)).isEqualTo(Color.TRANSPARENT);
+    assertThat(pool.writeAfterPutCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void put_twice_dropsSecondPut() {
+    Bitmap bitmap = createBitmap(10, 10);
+    pool.put(bitmap);
+
+    pool.put(bitmap);
+
+    assertThat(pool.doublePutCount()).isEqualTo(1);
+    assertThat(wrapped.getCurrentSize()).isEqualTo(bitmap.getAllocationByteCount());
+  }
+
+  @Test
+  public void put_twice_withThrowOnMisuse_throwsWithOriginalPutAsCause() {
+    pool = new DebugBitmapPool(wrapped, /* throwOnMisuse= */ true);
+    final Bitmap bitmap = createBitmap(10, 10);
+    pool.put(bitmap);
+
+    IllegalStateException exception =
+        assertThrows(
+            IllegalStateException.class,
+            new ThrowingRunnable() {
+              @Override
+              public void run() {
+                pool.put(bitmap);
+              }
+            });
+
+    assertThat(exception).hasCauseThat().hasMessageThat().isEqualTo("Bitmap was put here");
+  }
+
+  @Test
+  public void put_afterGet_isAllowed() {
+    Bitmap bitmap = createBitmap(10, 10);
+    pool.put(bitmap);
+    pool.getDirty(10, 10, Bitmap.Config.ARGB_8888);
+
+    pool.put(bitmap);
+
+    assertThat(pool.doublePutCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void put_withRecycledBitmap_isReportedAndDropped() {
+    Bitmap bitmap = createBitmap(10, 10);
+    bitmap.recycle();
+
+    pool.put(bitmap);
+
+    assertThat(pool.recycledPutCount()).isEqualTo(1);
+    assertThat(wrapped.getCurrentSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void getDirty_afterWriteToPooledBitmap_reportsWriteAfterPut() {
+    Bitmap bitmap = createBitmap(10, 10);
+    pool.put(bitmap);
+    bitmap.setPixel(5, 5, Color.BLUE);
+
+    Bitmap result = pool.getDirty(10, 10, Bitmap.Config.ARGB_8888);
+
+    assertThat(result).isSameInstanceAs(bitmap);
+    assertThat(pool.writeAfterPutCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void getDirty_withNewBitmap_doesNotReportWriteAfterPut() {
+    pool.getDirty(10, 10, Bitmap.Config.ARGB_8888);
+
+    assertThat(pool.writeAfterPutCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void getOccupancy_groupsPooledBitmapsByShapeLargestFirst() {
+    pool.put(createBitmap(10, 10));
+    pool.put(createBitmap(10, 10));
+    pool.put(createBitmap(20, 20));
+
+    assertThat(pool.getOccupancy())
+        .containsExactly(
+            "20x20 ARGB_8888: count=1, bytes=1600", "10x10 ARGB_8888: count=2, bytes=800")
+        .inOrder();
+  }
+
+  @Test
+  public void getOccupancy_afterClearMemory_isEmpty() {
+    pool.put(createBitmap(10, 10));
+
+    pool.clearMemory();
+
+    assertThat(pool.getOccupancy()).isEmpty();
+  }
+
+  private static Bitmap createBitmap(int width, int height) {
+    return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+  }
+}
@@ -10,6 +10,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
@@ -64,6 +65,16 @@ public class LruArrayPoolTest {
     assertEquals(0, pool.getCurrentSize());
   }
 
+  @Test
+  public void get_countsHitsAndMisses() {
+    pool.get(MAX_PUT_SIZE, ARRAY_CLASS);
+    pool.put(createArray(ARRAY_CLASS, MAX_PUT_SIZE, 0));
+    pool.get(MAX_PUT_SIZE, ARRAY_CLASS);
+
+    assertThat(pool.hitCount()).isEqualTo(1);
+    assertThat(pool.missCount()).isEqualTo(1);
+  }
+
   @Test
   public void testClearMemoryRemovesAllArrays() {
     fillPool(pool, MAX_SIZE / ADAPTER.getElementSizeInBytes() + 1, 0);
@@ -178,6 +189,39 @@ public class LruArrayPoolTest {
     assertThat(pool.get(targetSize, byte[].class)).isNotSameInstanceAs(toPut);
   }
 
+  @Test
+  public void get_withDirectByteBuffer_returnsClearedBuffer() {
+    ByteBuffer expected = ByteBuffer.allocateDirect(MAX_PUT_SIZE);
+    expected.put((byte) 1).flip();
+    pool.put(expected);
+
+    ByteBuffer result = pool.get(MAX_PUT_SIZE, ByteBuffer.class);
+    assertThat(result).isSameInstanceAs(expected);
+    assertThat(result.position()).isEqualTo(0);
+    assertThat(result.limit()).isEqualTo(MAX_PUT_SIZE);
+  }
+
+  @Test
+  public void get_withNoDirectByteBuffer_allocatesDirectBuffer() {
+    ByteBuffer result = pool.get(MAX_PUT_SIZE, ByteBuffer.class);
+    assertThat(result.isDirect()).isTrue();
+    assertThat(result.capacity()).isEqualTo(MAX_PUT_SIZE);
+  }
+
+  @Test
+  public void put_withHeapByteBuffer_doesNotRetainBuffer() {
+    pool.put(ByteBuffer.allocate(MAX_PUT_SIZE));
+    assertThat(pool.getCurrentSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void put_withDirectByteBuffers_evictsToMaxSize() {
+    for (int i = 0; i < 3; i++) {
+      pool.put(ByteBuffer.allocateDirect(MAX_PUT_SIZE));
+    }
+    assertThat(pool.getCurrentSize()).isEqualTo(MAX_SIZE);
+  }
+
   private void testTrimMemory(int fillSize, int trimLevel, int expectedSize) {
     pool = new LruArrayPool(MAX_SIZE);
     fillPool(pool, fillSize / ADAPTER.getElementSizeInBytes(), 1);
@@ -0,0 +1,174 @@
+package com.bumptech.glide.load.engine.bitmap_recycle;
+
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_MODERATE;
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW;
+import static com.bumptech.glide.RobolectricConstants.ROBOLECTRIC_SDK;
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = ROBOLECTRIC_SDK)
+public class MagazineArrayPoolTest {
+  private static final int BUFFER_SIZE = ArrayPool.STANDARD_BUFFER_SIZE_BYTES;
+
+  private LruArrayPool sharedPool;
+  private MagazineArrayPool pool;
+
+  @Before
+  public void setUp() {
+    sharedPool = new LruArrayPool(4 * 1024 * 1024);
+    pool = new MagazineArrayPool(sharedPool);
+  }
+
+  @Test
+  public void get_afterPutOnSameThread_returnsArrayWithoutUsingSharedPool() {
+    byte[] array = new byte[BUFFER_SIZE];
+    pool.put(array);
+
+    assertThat(pool.get(BUFFER_SIZE, byte[].class)).isSameInstanceAs(array);
+    assertThat(pool.magazineHitCount()).isEqualTo(1);
+    assertThat(sharedPool.hitCount()).isEqualTo(0);
+    assertThat(sharedPool.missCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void get_afterPutOnOtherThread_usesSharedPool() throws InterruptedException {
+    final byte[] array = new byte[BUFFER_SIZE];
+    runOnOtherThread(
+        new Runnable() {
+          @Override
+          public void run() {
+            pool.put(array);
+          }
+        });
+
+    assertThat(pool.get(BUFFER_SIZE, byte[].class)).isNotSameInstanceAs(array);
+    assertThat(sharedPool.missCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void put_withFullMagazine_spillsToSharedPool() {
+    for (int i = 0; i < MagazineArrayPool.MAGAZINE_CAPACITY + 1; i++) {
+      pool.put(new byte[BUFFER_SIZE]);
+    }
+
+    assertThat(pool.getMagazineSize()).isEqualTo(MagazineArrayPool.MAGAZINE_CAPACITY * BUFFER_SIZE);
+    assertThat(sharedPool.getCurrentSize()).isEqualTo(BUFFER_SIZE);
+  }
+
+  @Test
+  public void put_withLargeArray_putsArrayInSharedPool() {
+    pool.put(new byte[MagazineArrayPool.MAX_MAGAZINE_ARRAY_BYTES + 1]);
+
+    assertThat(pool.getMagazineSize()).isEqualTo(0);
+    assertThat(sharedPool.getCurrentSize())
+        .isEqualTo(MagazineArrayPool.MAX_MAGAZINE_ARRAY_BYTES + 1);
+  }
+
+  @Test
+  public void get_withIntArray_doesNotReturnByteArray() {
+    pool.put(new byte[100]);
+
+    assertThat(pool.get(100, int[].class)).hasLength(100);
+    assertThat(pool.magazineHitCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void get_returnsSmallestArrayThatFits() {
+    byte[] larger = new byte[400];
+    byte[] smaller = new byte[200];
+    pool.put(larger);
+    pool.put(smaller);
+
+    assertThat(pool.get(150, byte[].class)).isSameInstanceAs(smaller);
+  }
+
+  @Test
+  public void get_withMuchLargerArray_usesSharedPool() {
+    byte[] array = new byte[LruArrayPool.MAX_OVER_SIZE_MULTIPLE * 10 + 1];
+    pool.put(array);
+
+    assertThat(pool.get(10, byte[].class)).isNotSameInstanceAs(array);
+  }
+
+  @Test
+  public void getExact_withLargerArray_usesSharedPool() {
+    byte[] array = new byte[200];
+    pool.put(array);
+
+    assertThat(pool.getExact(100, byte[].class)).hasLength(100);
+    assertThat(pool.getExact(200, byte[].class)).isSameInstanceAs(array);
+  }
+
+  @Test
+  public void clearMemory_emptiesMagazinesOfAllThreads() throws InterruptedException {
+    final CountDownLatch putLatch = new CountDownLatch(1);
+    final CountDownLatch clearLatch = new CountDownLatch(1);
+    // Keep the other thread alive so that its magazine isn't garbage collected.
+    Thread thread =
+        new Thread(
+            new Runnable() {
+              @Override
+              public void run() {
+                pool.put(new byte[BUFFER_SIZE]);
+                putLatch.countDown();
+                try {
+                  clearLatch.await();
+                } catch (InterruptedException e) {
+                  throw new RuntimeException(e);
+                }
+              }
+            });
+    thread.start();
+    pool.put(new byte[BUFFER_SIZE]);
+    putLatch.await();
+    assertThat(pool.getMagazineSize()).isEqualTo(2 * BUFFER_SIZE);
+
+    pool.clearMemory();
+
+    assertThat(pool.getMagazineSize()).isEqualTo(0);
+    assertThat(sharedPool.getCurrentSize()).isEqualTo(0);
+    clearLatch.countDown();
+    thread.join();
+  }
+
+  @Test
+  public void trimMemory_withModerateLevel_emptiesMagazines() {
+    pool.put(new byte[BUFFER_SIZE]);
+
+    pool.trimMemory(TRIM_MEMORY_MODERATE);
+
+    assertThat(pool.getMagazineSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void trimMemory_withRunningLowLevel_keepsMagazines() {
+    pool.put(new byte[BUFFER_SIZE]);
+
+    pool.trimMemory(TRIM_MEMORY_RUNNING_LOW);
+
+    assertThat(pool.getMagazineSize()).isEqualTo(BUFFER_SIZE);
+  }
+
+  private static void runOnOtherThread(Runnable runnable) throws InterruptedException {
+    final AtomicReference<Throwable> error = new AtomicReference<>();
+    Thread thread = new Thread(runnable);
+    thread.setUncaughtExceptionHandler(
+        new Thread.UncaughtExceptionHandler() {
+          @Override
+          public void uncaughtException(Thread t, Throwable e) {
+            error.set(e);
+          }
+        });
+    thread.start();
+    thread.join();
+    assertThat(error.get()).isNull();
+  }
+}
@@ -0,0 +1,151 @@
+package com.bumptech.glide.load.engine.bitmap_recycle;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.graphics.Bitmap;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class StripedBitmapPoolTest {
+  private static final int MAX_SIZE = 100 * 100 * 4 * 2;
+  private static final Set<Bitmap.Config> ALLOWED_CONFIGS =
+      LruBitmapPool.getDefaultAllowedConfigs();
+
+  private StripedBitmapPool pool;
+
+  @Before
+  public void setUp() {
+    pool = new StripedBitmapPool(MAX_SIZE, /* stripeCount= */ 1, ALLOWED_CONFIGS);
+  }
+
+  @Test
+  public void get_withSameSizeAndConfig_returnsPooledBitmap() {
+    Bitmap bitmap = createMutableBitmap(100, 100);
+    pool.put(bitmap);
+
+    assertThat(pool.get(100, 100, Bitmap.Config.ARGB_8888)).isSameInstanceAs(bitmap);
+    assertThat(pool.getCurrentSize()).isEqualTo(0);
+    assertThat(pool.hitCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void get_withNullConfig_returnsPooledArgb8888Bitmap() {
+    Bitmap bitmap = createMutableBitmap(100, 100);
+    pool.put(bitmap);
+
+    assertThat(pool.getDirty(100, 100, /* config= */ null)).isSameInstanceAs(bitmap);
+  }
+
+  @Test
+  public void get_withOtherConfig_returnsNewBitmap() {
+    Bitmap bitmap = createMutableBitmap(100, 100);
+    pool.put(bitmap);
+
+    assertThat(pool.get(100, 100, Bitmap.Config.RGB_565)).isNotSameInstanceAs(bitmap);
+    assertThat(pool.missCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void get_withMuchSmallerSize_returnsNewBitmap() {
+    Bitmap bitmap = createMutableBitmap(100, 100);
+    pool.put(bitmap);
+
+    assertThat(pool.get(10, 10, Bitmap.Config.ARGB_8888)).isNotSameInstanceAs(bitmap);
+  }
+
+  @Test
+  public void get_withLargerSizeInSameSizeClass_returnsNewBitmap() {
+    Bitmap bitmap = createMutableBitmap(99, 100);
+    pool.put(bitmap);
+
+    assertThat(pool.get(100, 100, Bitmap.Config.ARGB_8888)).isNotSameInstanceAs(bitmap);
+  }
+
+  @Test
+  public void put_withImmutableBitmap_recyclesBitmap() {
+    Bitmap bitmap = createMutableBitmap(100, 100);
+    Bitmap immutable = bitmap.copy(Bitmap.Config.ARGB_8888, /* isMutable= */ false);
+
+    pool.put(immutable);
+
+    assertThat(immutable.isRecycled()).isTrue();
+    assertThat(pool.getCurrentSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void put_withBitmapLargerThanPool_recyclesBitmap() {
+    Bitmap bitmap = createMutableBitmap(200, 200);
+
+    pool.put(bitmap);
+
+    assertThat(bitmap.isRecycled()).isTrue();
+  }
+
+  @Test
+  public void put_whenFull_evictsFromLeastRecentlyUsedSizeClass() {
+    pool = new StripedBitmapPool(10 * 10 * 4 + 20 * 20 * 4, /* stripeCount= */ 1, ALLOWED_CONFIGS);
+    Bitmap first = createMutableBitmap(10, 10);
+    Bitmap larger = createMutableBitmap(20, 20);
+    Bitmap second = createMutableBitmap(10, 10);
+
+    pool.put(first);
+    pool.put(larger);
+    pool.put(second);
+
+    assertThat(larger.isRecycled()).isTrue();
+    assertThat(first.isRecycled()).isFalse();
+    assertThat(second.isRecycled()).isFalse();
+    assertThat(pool.evictionCount()).isEqualTo(1);
+    assertThat(pool.getCurrentSize()).isEqualTo(2 * 10 * 10 * 4);
+  }
+
+  @Test
+  public void clearMemory_recyclesAllBitmaps() {
+    Bitmap first = createMutableBitmap(10, 10);
+    Bitmap second = createMutableBitmap(20, 20);
+    pool.put(first);
+    pool.put(second);
+
+    pool.clearMemory();
+
+    assertThat(first.isRecycled()).isTrue();
+    assertThat(second.isRecycled()).isTrue();
+    assertThat(pool.getCurrentSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void setSizeMultiplier_evictsToNewSize() {
+    pool = new StripedBitmapPool(MAX_SIZE, /* stripeCount= */ 4, ALLOWED_CONFIGS);
+    pool.put(createMutableBitmap(100, 100));
+    pool.put(createMutableBitmap(50, 50));
+
+    pool.setSizeMultiplier(0.5f);
+
+    assertThat(pool.getCurrentSize()).isAtMost(MAX_SIZE / 2);
+  }
+
+  @Test
+  public void getSizeClass_containsSizeBetweenClassMinSizes() {
+    for (int size = 0; size < 100_000; size++) {
+      int sizeClass = StripedBitmapPool.getSizeClass(size);
+      assertThat(StripedBitmapPool.getSizeClassMinSize(sizeClass)).isAtMost(size);
+      assertThat(StripedBitmapPool.getSizeClassMinSize(sizeClass + 1)).isGreaterThan(size);
+    }
+  }
+
+  @Test
+  public void getSizeClass_withMaxSize_returnsLastClass() {
+    assertThat(StripedBitmapPool.getSizeClass(Integer.MAX_VALUE))
+        .isEqualTo(StripedBitmapPool.SIZE_CLASS_COUNT - 1);
+  }
+
+  private static Bitmap createMutableBitmap(int width, int height) {
+    return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+  }
+}
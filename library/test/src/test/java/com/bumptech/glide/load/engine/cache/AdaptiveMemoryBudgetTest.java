@@ -0,0 +1,171 @@
+package com.bumptech.glide.load.engine.cache;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.anyFloat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import android.os.Handler;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPoolStats;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class AdaptiveMemoryBudgetTest {
+  private static final long POOL_SIZE = 1000;
+  private static final long CACHE_SIZE = 1000;
+
+  private BitmapPool bitmapPool;
+  private MemoryCache memoryCache;
+  private AdaptiveMemoryBudget budget;
+
+  @Before
+  public void setUp() {
+    bitmapPool = mock(BitmapPool.class, withSettings().extraInterfaces(BitmapPoolStats.class));
+    memoryCache = mock(MemoryCache.class, withSettings().extraInterfaces(MemoryCacheStats.class));
+    when(bitmapPool.getMaxSize()).thenReturn(POOL_SIZE);
+    when(memoryCache.getMaxSize()).thenReturn(CACHE_SIZE);
+    budget = new AdaptiveMemoryBudget(bitmapPool, memoryCache, mock(Handler.class));
+    budget.start();
+  }
+
+  @Test
+  public void canAdapt_withoutStats_returnsFalse() {
+    assertThat(AdaptiveMemoryBudget.canAdapt(mock(BitmapPool.class), memoryCache)).isFalse();
+    assertThat(AdaptiveMemoryBudget.canAdapt(bitmapPool, mock(MemoryCache.class))).isFalse();
+    assertThat(AdaptiveMemoryBudget.canAdapt(bitmapPool, memoryCache)).isTrue();
+  }
+
+  @Test
+  public void onWindowEnd_withStarvedPool_movesBytesFromCacheToPool() {
+    starvePool();
+
+    budget.onWindowEnd();
+
+    InOrder order = inOrder(memoryCache, bitmapPool);
+    order.verify(memoryCache).setSizeMultiplier(0.9f);
+    order.verify(bitmapPool).setSizeMultiplier(1.1f);
+    assertThat(budget.getBitmapPoolTargetSize()).isEqualTo(1100);
+    assertThat(budget.getMemoryCacheTargetSize()).isEqualTo(900);
+    assertThat(budget.getMovesToBitmapPool()).isEqualTo(1);
+    assertThat(budget.getMovesToMemoryCache()).isEqualTo(0);
+  }
+
+  @Test
+  public void onWindowEnd_withStarvedCache_movesBytesFromPoolToCache() {
+    starveCache();
+
+    budget.onWindowEnd();
+
+    InOrder order = inOrder(memoryCache, bitmapPool);
+    order.verify(memoryCache).setSizeMultiplier(1.1f);
+    order.verify(bitmapPool).setSizeMultiplier(0.9f);
+    assertThat(budget.getBitmapPoolTargetSize()).isEqualTo(900);
+    assertThat(budget.getMemoryCacheTargetSize()).isEqualTo(1100);
+    assertThat(budget.getMovesToMemoryCache()).isEqualTo(1);
+  }
+
+  @Test
+  public void onWindowEnd_withBothStarved_doesNotMoveBytes() {
+    starvePool();
+    starveCache();
+
+    budget.onWindowEnd();
+
+    verify(bitmapPool, never()).setSizeMultiplier(anyFloat());
+    verify(memoryCache, never()).setSizeMultiplier(anyFloat());
+  }
+
+  @Test
+  public void onWindowEnd_withFewPoolMisses_doesNotMoveBytes() {
+    setPoolStats(/* hits= */ 90, /* misses= */ 10, /* evictions= */ 10, POOL_SIZE);
+
+    budget.onWindowEnd();
+
+    verify(bitmapPool, never()).setSizeMultiplier(anyFloat());
+    assertThat(budget.getBitmapPoolTargetSize()).isEqualTo(POOL_SIZE);
+  }
+
+  @Test
+  public void onWindowEnd_withPoolNotFull_doesNotMoveBytes() {
+    setPoolStats(/* hits= */ 0, /* misses= */ 100, /* evictions= */ 10, POOL_SIZE / 2);
+
+    budget.onWindowEnd();
+
+    verify(bitmapPool, never()).setSizeMultiplier(anyFloat());
+  }
+
+  @Test
+  public void onWindowEnd_withRepeatedlyStarvedPool_neverShrinksCacheBelowHalf() {
+    for (int i = 1; i <= 20; i++) {
+      setPoolStats(/* hits= */ 0, /* misses= */ 100 * i, /* evictions= */ 10 * i, POOL_SIZE);
+      budget.onWindowEnd();
+    }
+
+    assertThat(budget.getMemoryCacheTargetSize()).isEqualTo(CACHE_SIZE / 2);
+    assertThat(budget.getBitmapPoolTargetSize()).isEqualTo(POOL_SIZE + CACHE_SIZE / 2);
+    assertThat(budget.getMovesToBitmapPool()).isEqualTo(5);
+  }
+
+  @Test
+  public void onWindowEnd_ignoresCountsFromPreviousWindows() {
+    starvePool();
+    budget.onWindowEnd();
+
+    budget.onWindowEnd();
+
+    assertThat(budget.getMovesToBitmapPool()).isEqualTo(1);
+  }
+
+  @Test
+  public void onWindowEnd_whenIdle_growsWindow() {
+    budget.onWindowEnd();
+    assertThat(budget.getWindowMs()).isEqualTo(2 * AdaptiveMemoryBudget.INITIAL_WINDOW_MS);
+
+    for (int i = 0; i < 10; i++) {
+      budget.onWindowEnd();
+    }
+    assertThat(budget.getWindowMs()).isEqualTo(AdaptiveMemoryBudget.MAX_WINDOW_MS);
+
+    starvePool();
+    budget.onWindowEnd();
+    assertThat(budget.getWindowMs()).isEqualTo(AdaptiveMemoryBudget.INITIAL_WINDOW_MS);
+  }
+
+  @Test
+  public void setSizeMultiplier_scalesCurrentTargets() {
+    starvePool();
+    budget.onWindowEnd();
+
+    budget.setSizeMultiplier(0.5f);
+
+    verify(memoryCache).setSizeMultiplier(0.45f);
+    verify(bitmapPool).setSizeMultiplier(0.55f);
+    assertThat(budget.getBitmapPoolTargetSize()).isEqualTo(1100);
+  }
+
+  private void starvePool() {
+    setPoolStats(/* hits= */ 50, /* misses= */ 50, /* evictions= */ 10, POOL_SIZE);
+  }
+
+  private void starveCache() {
+    when(((MemoryCacheStats) memoryCache).evictionCount()).thenReturn(10L);
+    when(memoryCache.getCurrentSize()).thenReturn(CACHE_SIZE);
+  }
+
+  private void setPoolStats(long hits, long misses, long evictions, long currentSize) {
+    BitmapPoolStats stats = (BitmapPoolStats) bitmapPool;
+    when(stats.hitCount()).thenReturn(hits);
+    when(stats.missCount()).thenReturn(misses);
+    when(stats.evictionCount()).thenReturn(evictions);
+    when(stats.getCurrentSize()).thenReturn(currentSize);
+  }
+}
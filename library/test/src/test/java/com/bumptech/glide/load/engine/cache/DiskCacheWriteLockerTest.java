@@ -0,0 +1,78 @@
+package com.bumptech.glide.load.engine.cache;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class DiskCacheWriteLockerTest {
+  private final DiskCacheWriteLocker locker = new DiskCacheWriteLocker();
+  private Thread thread;
+
+  @After
+  public void tearDown() throws InterruptedException {
+    if (thread != null) {
+      thread.join();
+    }
+  }
+
+  @Test
+  public void acquire_withOtherKeysHeld_doesNotBlock()
+      throws InterruptedException {
+    for (int i = 0; i < 100; i++) {
+      locker.acquire("held" + i);
+    }
+
+    CountDownLatch acquired = acquireOnOtherThread("key");
+
+    assertThat(acquired.await(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  public void acquire_withSameKeyHeldByOtherThread_blocksUntilReleased()
+      throws InterruptedException {
+    locker.acquire("key");
+
+    CountDownLatch acquired = acquireOnOtherThread("key");
+
+    assertThat(acquired.await(100, TimeUnit.MILLISECONDS)).isFalse();
+    locker.release("key");
+    assertThat(acquired.await(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  public void acquire_afterKeyIsReleased_doesNotBlock() throws InterruptedException {
+    locker.acquire("key");
+    locker.release("key");
+
+    CountDownLatch acquired = acquireOnOtherThread("key");
+
+    assertThat(acquired.await(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void release_withKeyThatWasNotAcquired_throws() {
+    locker.release("key");
+  }
+
+  private CountDownLatch acquireOnOtherThread(final String safeKey) {
+    final CountDownLatch acquired = new CountDownLatch(1);
+    thread =
+        new Thread(
+            new Runnable() {
+              @Override
+              public void run() {
+                locker.acquire(safeKey);
+                acquired.countDown();
+                locker.release(safeKey);
+              }
+            });
+    thread.start();
+    return acquired;
+  }
+}
@@ -1,6 +1,7 @@
 package com.bumptech.glide.load.engine.cache;
 
 import static com.bumptech.glide.RobolectricConstants.ROBOLECTRIC_SDK;
+import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
@@ -150,6 +151,36 @@ public class DiskLruCacheWrapperTest {
     assertArrayEquals(data, received);
   }
 
+  @Test
+  public void get_withFastSafeKeys_afterWritingWithSha256SafeKeys_clearsExistingEntries() {
+    cache.put(
+        key,
+        new DiskCache.Writer() {
+          @Override
+          public boolean write(@NonNull File file) {
+            try {
+              Util.writeFile(file, data);
+            } catch (IOException e) {
+              fail(e.toString());
+            }
+            return true;
+          }
+        });
+    File entry = new File(dir, new SafeKeyGenerator().getSafeKey(key) + ".0");
+    assertThat(entry.exists()).isTrue();
+
+    cache =
+        DiskLruCacheWrapper.create(
+            dir,
+            10 * 1024 * 1024,
+            /* useBinaryJournal= */ false,
+            /* delayJournalFlushes= */ false,
+            /* useFastSafeKeys= */ true);
+
+    assertNull(cache.get(key));
+    assertThat(entry.exists()).isFalse();
+  }
+
   // Tests #2465.
   @Test
   public void clearDiskCache_afterOpeningDiskCache_andDeleteDirectoryOutsideGlide_doesNotThrow() {
@@ -0,0 +1,230 @@
+package com.bumptech.glide.load.engine.cache;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.ComponentCallbacks2;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.signature.ObjectKey;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class EncodedMemoryCacheTest {
+  private static final int SIZE = 800;
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final Key key = new ObjectKey("key");
+  private final SafeKeyGenerator safeKeyGenerator = new SafeKeyGenerator();
+  private final FakeDiskCache diskCache = new FakeDiskCache(safeKeyGenerator);
+  private EncodedMemoryCache cache;
+
+  @Before
+  public void setUp() {
+    cache = new EncodedMemoryCache(SIZE);
+  }
+
+  @Test
+  public void putFile_withSmallFile_cachesAndReturnsContents() throws IOException {
+    byte[] data = newData(SIZE / 8);
+    File file = writeFile(data);
+
+    assertThat(cache.putFile(key, file)).isEqualTo(data);
+    assertThat(cache.get(key)).isEqualTo(data);
+    assertThat(cache.getCurrentSize()).isEqualTo(data.length);
+  }
+
+  @Test
+  public void putFile_withFileLargerThanMaxEntrySize_returnsNullAndDoesNotCache()
+      throws IOException {
+    File file = writeFile(newData(SIZE / 8 + 1));
+
+    assertThat(cache.putFile(key, file)).isNull();
+    assertThat(cache.contains(key)).isFalse();
+  }
+
+  @Test
+  public void putFile_withEmptyFile_returnsNull() throws IOException {
+    File file = writeFile(new byte[0]);
+
+    assertThat(cache.putFile(key, file)).isNull();
+  }
+
+  @Test
+  public void putFile_withMissingFile_returnsNull() {
+    File file = new File(temporaryFolder.getRoot(), "missing");
+
+    assertThat(cache.putFile(key, file)).isNull();
+  }
+
+  @Test
+  public void trimMemory_withBackgroundLevel_clearsCache() throws IOException {
+    cache.putFile(key, writeFile(newData(10)));
+
+    cache.trimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+
+    assertThat(cache.getCurrentSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void trimMemory_withUiHiddenLevel_trimsToHalfOfMaxSize() throws IOException {
+    for (int i = 0; i < 8; i++) {
+      cache.putFile(new ObjectKey(i), writeFile(newData(SIZE / 8)));
+    }
+
+    cache.trimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+
+    assertThat(cache.getCurrentSize()).isAtMost(SIZE / 2);
+  }
+
+  @Test
+  public void warm_thenGetWithOriginalKey_returnsWarmedBytes() throws IOException {
+    byte[] data = newData(SIZE / 8);
+    cache.putFile(key, writeFile(data));
+    List<byte[]> keyBytes = cache.getRecentKeyBytes(SIZE);
+    diskCache.files.put(safeKeyGenerator.getSafeKey(key), writeFile(data));
+
+    EncodedMemoryCache newCache = new EncodedMemoryCache(SIZE);
+    assertThat(newCache.warm(diskCache, keyBytes.get(0))).isEqualTo(data.length);
+
+    assertThat(newCache.get(key)).isEqualTo(data);
+    assertThat(newCache.getCurrentSize()).isEqualTo(data.length);
+  }
+
+  @Test
+  public void warm_withMissingDiskCacheEntry_returnsZero() throws IOException {
+    cache.putFile(key, writeFile(newData(10)));
+    List<byte[]> keyBytes = cache.getRecentKeyBytes(SIZE);
+
+    EncodedMemoryCache newCache = new EncodedMemoryCache(SIZE);
+
+    assertThat(newCache.warm(diskCache, keyBytes.get(0))).isEqualTo(0);
+    assertThat(newCache.get(key)).isNull();
+  }
+
+  @Test
+  public void get_withOtherKey_doesNotReturnWarmedBytes() throws IOException {
+    cache.putFile(key, writeFile(newData(10)));
+    diskCache.files.put(safeKeyGenerator.getSafeKey(key), writeFile(newData(10)));
+    cache.warm(diskCache, cache.getRecentKeyBytes(SIZE).get(0));
+
+    assertThat(cache.get(new ObjectKey("other"))).isNull();
+  }
+
+  @Test
+  public void get_withWarmedEntries_recordsMissingKeyOnlyOnce() throws IOException {
+    cache.putFile(key, writeFile(newData(10)));
+    diskCache.files.put(safeKeyGenerator.getSafeKey(key), writeFile(newData(10)));
+    cache.warm(diskCache, cache.getRecentKeyBytes(SIZE).get(0));
+    CountingKey other = new CountingKey("other");
+
+    assertThat(cache.get(other)).isNull();
+    assertThat(cache.get(other)).isNull();
+
+    assertThat(other.updateCount).isEqualTo(1);
+  }
+
+  @Test
+  public void getRecentKeyBytes_returnsMostRecentlyUsedFirstWithinSize() throws IOException {
+    Key first = new ObjectKey("first");
+    Key second = new ObjectKey("second");
+    Key third = new ObjectKey("third");
+    cache.putFile(first, writeFile(newData(10)));
+    cache.putFile(second, writeFile(newData(10)));
+    cache.putFile(third, writeFile(newData(10)));
+    cache.get(first);
+
+    List<byte[]> result = cache.getRecentKeyBytes(/* maxTotalSize= */ 20);
+
+    assertThat(result).hasSize(2);
+    assertThat(result.get(0)).isEqualTo("first".getBytes(Key.CHARSET));
+    assertThat(result.get(1)).isEqualTo("third".getBytes(Key.CHARSET));
+  }
+
+  private static byte[] newData(int length) {
+    byte[] data = new byte[length];
+    for (int i = 0; i < length; i++) {
+      data[i] = (byte) i;
+    }
+    return data;
+  }
+
+  private File writeFile(byte[] data) throws IOException {
+    File file = temporaryFolder.newFile();
+    FileOutputStream os = new FileOutputStream(file);
+    try {
+      os.write(data);
+    } finally {
+      os.close();
+    }
+    return file;
+  }
+
+  private static final class CountingKey implements Key {
+    private final String id;
+    int updateCount;
+
+    CountingKey(String id) {
+      this.id = id;
+    }
+
+    @Override
+    public void updateDiskCacheKey(@NonNull MessageDigest messageDigest) {
+      updateCount++;
+      messageDigest.update(id.getBytes(CHARSET));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof CountingKey && id.equals(((CountingKey) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+      return id.hashCode();
+    }
+  }
+
+  private static final class FakeDiskCache implements DiskCache {
+    final Map<String, File> files = new HashMap<>();
+    private final SafeKeyGenerator safeKeyGenerator;
+
+    FakeDiskCache(SafeKeyGenerator safeKeyGenerator) {
+      this.safeKeyGenerator = safeKeyGenerator;
+    }
+
+    @Nullable
+    @Override
+    public File get(Key key) {
+      return files.get(safeKeyGenerator.getSafeKey(key));
+    }
+
+    @Override
+    public void put(Key key, Writer writer) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void delete(Key key) {
+      files.remove(safeKeyGenerator.getSafeKey(key));
+    }
+
+    @Override
+    public void clear() {
+      files.clear();
+    }
+  }
+}
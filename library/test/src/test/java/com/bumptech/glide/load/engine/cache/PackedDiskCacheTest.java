@@ -0,0 +1,252 @@
+package com.bumptech.glide.load.engine.cache;
+
+import static com.bumptech.glide.RobolectricConstants.ROBOLECTRIC_SDK;
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import androidx.annotation.NonNull;
+import androidx.test.core.app.ApplicationProvider;
+import com.bumptech.glide.signature.ObjectKey;
+import com.bumptech.glide.tests.Util;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = ROBOLECTRIC_SDK)
+public class PackedDiskCacheTest {
+  private static final long MAX_SIZE = 2 * 1024 * 1024;
+  private static final int MAX_PACKED_ENTRY_SIZE = 16 * 1024;
+
+  private File dir;
+  private PackedDiskCache cache;
+
+  @Before
+  public void setUp() {
+    dir = new File(ApplicationProvider.getApplicationContext().getCacheDir(), "packed_test");
+    assertThat(dir.mkdirs()).isTrue();
+    cache = newCache();
+  }
+
+  @After
+  public void tearDown() {
+    try {
+      cache.clear();
+    } finally {
+      deleteRecursive(dir);
+    }
+  }
+
+  private static void deleteRecursive(File file) {
+    File[] files = file.listFiles();
+    if (files != null) {
+      for (File f : files) {
+        deleteRecursive(f);
+      }
+    }
+    if (!file.delete() && file.exists()) {
+      throw new RuntimeException("Failed to delete: " + file);
+    }
+  }
+
+  @Test
+  public void put_withSmallEntry_isReturnedAsBytes() {
+    byte[] data = createData(1000, 1);
+    cache.put(new ObjectKey("key"), writer(data));
+
+    assertThat(cache.getBytes(new ObjectKey("key"))).isEqualTo(data);
+  }
+
+  @Test
+  public void getBuffer_withSmallEntry_returnsReadOnlyBufferWithEntry() {
+    cache.put(new ObjectKey("first"), writer(createData(100, 1)));
+    byte[] data = createData(1000, 2);
+    cache.put(new ObjectKey("key"), writer(data));
+
+    ByteBuffer buffer = cache.getBuffer(new ObjectKey("key"));
+
+    assertThat(buffer.isReadOnly()).isTrue();
+    byte[] result = new byte[buffer.remaining()];
+    buffer.get(result);
+    assertThat(result).isEqualTo(data);
+  }
+
+  @Test
+  public void getBuffer_afterEntryIsDeleted_returnsBufferThatIsStillReadable() {
+    byte[] data = createData(1000, 1);
+    cache.put(new ObjectKey("key"), writer(data));
+    ByteBuffer buffer = cache.getBuffer(new ObjectKey("key"));
+
+    cache.clear();
+
+    byte[] result = new byte[buffer.remaining()];
+    buffer.get(result);
+    assertThat(result).isEqualTo(data);
+    assertThat(cache.getBuffer(new ObjectKey("key"))).isNull();
+  }
+
+  @Test
+  public void getBuffer_withLargeEntry_returnsNull() {
+    cache.put(new ObjectKey("key"), writer(createData(MAX_PACKED_ENTRY_SIZE + 1, 1)));
+
+    assertThat(cache.getBuffer(new ObjectKey("key"))).isNull();
+  }
+
+  @Test
+  public void get_withSmallEntry_returnsFileWithEntry() throws IOException {
+    byte[] data = createData(1000, 1);
+    cache.put(new ObjectKey("key"), writer(data));
+
+    File file = cache.get(new ObjectKey("key"));
+
+    assertThat(Util.readFile(file, data.length)).isEqualTo(data);
+  }
+
+  @Test
+  public void put_withLargeEntry_isKeptInItsOwnFile() throws IOException {
+    byte[] data = createData(MAX_PACKED_ENTRY_SIZE + 1, 2);
+    cache.put(new ObjectKey("key"), writer(data));
+
+    assertThat(cache.getBytes(new ObjectKey("key"))).isNull();
+    assertThat(cache.getPackedSize()).isEqualTo(0);
+    assertThat(Util.readFile(cache.get(new ObjectKey("key")), data.length)).isEqualTo(data);
+  }
+
+  @Test
+  public void put_withWriterReturningFalse_doesNotAddEntry() {
+    cache.put(
+        new ObjectKey("key"),
+        new DiskCache.Writer() {
+          @Override
+          public boolean write(@NonNull File file) {
+            return false;
+          }
+        });
+
+    assertThat(cache.getBytes(new ObjectKey("key"))).isNull();
+    assertThat(cache.get(new ObjectKey("key"))).isNull();
+  }
+
+  @Test
+  public void delete_removesEntry() {
+    cache.put(new ObjectKey("key"), writer(createData(10, 1)));
+
+    cache.delete(new ObjectKey("key"));
+
+    assertThat(cache.getBytes(new ObjectKey("key"))).isNull();
+    assertThat(cache.get(new ObjectKey("key"))).isNull();
+  }
+
+  @Test
+  public void reopen_returnsPreviouslyWrittenEntriesAndNotDeletedEntries() {
+    byte[] data = createData(1000, 1);
+    cache.put(new ObjectKey("key"), writer(data));
+    cache.put(new ObjectKey("deleted"), writer(createData(10, 2)));
+    cache.delete(new ObjectKey("deleted"));
+
+    cache = newCache();
+
+    assertThat(cache.getBytes(new ObjectKey("key"))).isEqualTo(data);
+    assertThat(cache.getBytes(new ObjectKey("deleted"))).isNull();
+  }
+
+  @Test
+  public void reopen_withPartiallyWrittenLastEntry_dropsOnlyLastEntry() throws IOException {
+    byte[] data = createData(1000, 1);
+    cache.put(new ObjectKey("key"), writer(data));
+    cache.put(new ObjectKey("partial"), writer(createData(1000, 2)));
+    File segment = new File(new File(dir, "packed"), SegmentLog.SEGMENT_PREFIX + 0);
+    RandomAccessFile file = new RandomAccessFile(segment, "rw");
+    file.setLength(file.length() - 10);
+    file.close();
+
+    cache = newCache();
+
+    assertThat(cache.getBytes(new ObjectKey("key"))).isEqualTo(data);
+    assertThat(cache.getBytes(new ObjectKey("partial"))).isNull();
+  }
+
+  @Test
+  public void get_withCorruptEntry_returnsNull() throws IOException {
+    cache.put(new ObjectKey("key"), writer(createData(1000, 1)));
+    File segment = new File(new File(dir, "packed"), SegmentLog.SEGMENT_PREFIX + 0);
+    RandomAccessFile file = new RandomAccessFile(segment, "rw");
+    file.seek(file.length() - 1);
+    file.write(2);
+    file.close();
+
+    assertThat(cache.getBytes(new ObjectKey("key"))).isNull();
+    assertThat(cache.get(new ObjectKey("key"))).isNull();
+  }
+
+  @Test
+  public void put_beyondMaxSize_evictsEntriesThatWereNotRead() throws IOException {
+    cache.put(new ObjectKey("read"), writer(createData(10000, 1)));
+    for (int i = 0; i < 400; i++) {
+      cache.put(new ObjectKey("key" + i), writer(createData(10000, i)));
+      if (i % 10 == 0) {
+        assertThat(cache.getBytes(new ObjectKey("read"))).isNotNull();
+      }
+    }
+
+    // Half of the max size is used for packed entries, plus at most one segment of slack.
+    assertThat(cache.getPackedSize()).isAtMost(MAX_SIZE / 2 + MAX_SIZE / 2 / 8);
+    assertThat(cache.getBytes(new ObjectKey("read"))).isNotNull();
+    assertThat(cache.getBytes(new ObjectKey("key0"))).isNull();
+    assertThat(cache.getBytes(new ObjectKey("key399"))).isNotNull();
+  }
+
+  @Test
+  public void firstUse_deletesFilesFromOtherCaches() throws IOException {
+    File journal = new File(dir, "journal");
+    assertThat(journal.createNewFile()).isTrue();
+
+    cache.getBytes(new ObjectKey("key"));
+
+    assertThat(journal.exists()).isFalse();
+  }
+
+  @Test
+  public void clear_removesAllEntries() throws IOException {
+    cache.put(new ObjectKey("small"), writer(createData(10, 1)));
+    cache.put(new ObjectKey("large"), writer(createData(MAX_PACKED_ENTRY_SIZE + 1, 2)));
+
+    cache.clear();
+
+    assertThat(cache.getPackedSize()).isEqualTo(0);
+    assertThat(cache.getBytes(new ObjectKey("small"))).isNull();
+    assertThat(cache.get(new ObjectKey("large"))).isNull();
+  }
+
+  private PackedDiskCache newCache() {
+    return new PackedDiskCache(dir, MAX_SIZE, MAX_PACKED_ENTRY_SIZE);
+  }
+
+  private static byte[] createData(int length, int value) {
+    byte[] result = new byte[length];
+    Arrays.fill(result, (byte) value);
+    return result;
+  }
+
+  private static DiskCache.Writer writer(final byte[] data) {
+    return new DiskCache.Writer() {
+      @Override
+      public boolean write(@NonNull File file) {
+        try {
+          Util.writeFile(file, data);
+        } catch (IOException e) {
+          fail(e.toString());
+        }
+        return true;
+      }
+    };
+  }
+}
@@ -1,6 +1,7 @@
 package com.bumptech.glide.load.engine.cache;
 
 import static com.bumptech.glide.RobolectricConstants.ROBOLECTRIC_SDK;
+import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.assertTrue;
 
 import androidx.annotation.NonNull;
@@ -36,6 +37,43 @@ public class SafeKeyGeneratorTest {
     }
   }
 
+  @Test
+  public void testFastKeysAreValidForDiskCache() {
+    keyGenerator = new SafeKeyGenerator(/* useFastKeys= */ true);
+    final Pattern diskCacheRegex = Pattern.compile("[a-z0-9_-]{32}");
+    for (int i = 0; i < 1000; i++) {
+      String key = getRandomKeyFromGenerator();
+      Matcher matcher = diskCacheRegex.matcher(key);
+      assertTrue(key, matcher.matches());
+    }
+  }
+
+  @Test
+  public void getSafeKey_withFastKeys_returnsMurmurHash3OfKey() {
+    keyGenerator = new SafeKeyGenerator(/* useFastKeys= */ true);
+
+    // Matches the 128 bit MurmurHash3 of the same bytes computed by other implementations.
+    assertThat(keyGenerator.getSafeKey(new MockKey("The quick brown fox jumps over the lazy dog")))
+        .isEqualTo("6c1b07bc7bbc4be347939ac4a93c437a");
+  }
+
+  @Test
+  public void getSafeKey_withFastKeys_returnsSameKeyForEqualKeys() {
+    keyGenerator = new SafeKeyGenerator(/* useFastKeys= */ true);
+    SafeKeyGenerator other = new SafeKeyGenerator(/* useFastKeys= */ true);
+
+    assertThat(keyGenerator.getSafeKey(new MockKey("id")))
+        .isEqualTo(other.getSafeKey(new MockKey("id")));
+    assertThat(keyGenerator.getSafeKey(new MockKey("id")))
+        .isNotEqualTo(keyGenerator.getSafeKey(new MockKey("other")));
+  }
+
+  @Test
+  public void getVersion_withFastKeys_differsFromDefault() {
+    assertThat(new SafeKeyGenerator(/* useFastKeys= */ true).getVersion())
+        .isNotEqualTo(keyGenerator.getVersion());
+  }
+
   private String getRandomKeyFromGenerator() {
     return keyGenerator.getSafeKey(new MockKey(getNextId()));
   }
@@ -0,0 +1,157 @@
+package com.bumptech.glide.load.engine.cache;
+
+import static com.bumptech.glide.RobolectricConstants.ROBOLECTRIC_SDK;
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.fail;
+
+import androidx.annotation.NonNull;
+import androidx.test.core.app.ApplicationProvider;
+import com.bumptech.glide.signature.ObjectKey;
+import com.bumptech.glide.tests.Util;
+import java.io.File;
+import java.io.IOException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = ROBOLECTRIC_SDK)
+public class ShardedDiskLruCacheWrapperTest {
+  private static final int SHARD_COUNT = 4;
+  private static final long MAX_SIZE = 1024;
+
+  private final byte[] data = new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+  private final DiskCache.Writer writer =
+      new DiskCache.Writer() {
+        @Override
+        public boolean write(@NonNull File file) {
+          try {
+            Util.writeFile(file, data);
+          } catch (IOException e) {
+            fail(e.toString());
+          }
+          return true;
+        }
+      };
+  private File dir;
+  private ShardedDiskLruCacheWrapper cache;
+
+  @Before
+  public void setUp() {
+    dir = new File(ApplicationProvider.getApplicationContext().getCacheDir(), "sharded");
+    assertThat(dir.mkdirs()).isTrue();
+    cache = new ShardedDiskLruCacheWrapper(dir, MAX_SIZE, SHARD_COUNT);
+  }
+
+  @After
+  public void tearDown() {
+    try {
+      cache.clear();
+    } finally {
+      deleteRecursive(dir);
+    }
+  }
+
+  private static void deleteRecursive(File file) {
+    File[] files = file.listFiles();
+    if (files != null) {
+      for (File f : files) {
+        deleteRecursive(f);
+      }
+    }
+    if (!file.delete() && file.exists()) {
+      throw new RuntimeException("Failed to delete: " + file);
+    }
+  }
+
+  @Test
+  public void put_thenGet_returnsWrittenData() throws IOException {
+    ObjectKey key = new ObjectKey("key");
+    cache.put(key, writer);
+
+    assertArrayEquals(data, Util.readFile(cache.get(key), data.length));
+  }
+
+  @Test
+  public void put_withManyKeys_writesToEveryShard() {
+    for (int i = 0; i < 50; i++) {
+      cache.put(new ObjectKey("key" + i), writer);
+    }
+
+    for (int i = 0; i < SHARD_COUNT; i++) {
+      assertThat(cache.getShardDirectory(i).list()).asList().contains("journal");
+      assertThat(cache.getShardDirectory(i).list().length).isGreaterThan(1);
+    }
+  }
+
+  @Test
+  public void delete_removesEntry() {
+    ObjectKey key = new ObjectKey("key");
+    cache.put(key, writer);
+
+    cache.delete(key);
+
+    assertThat(cache.get(key)).isNull();
+  }
+
+  @Test
+  public void clear_removesEntriesFromEveryShard() throws IOException {
+    for (int i = 0; i < 50; i++) {
+      cache.put(new ObjectKey("key" + i), writer);
+    }
+
+    cache.clear();
+
+    assertThat(cache.getSize()).isEqualTo(0);
+    for (int i = 0; i < 50; i++) {
+      assertThat(cache.get(new ObjectKey("key" + i))).isNull();
+    }
+  }
+
+  @Test
+  public void get_withUnshardedCacheInDirectory_deletesUnshardedCache() throws IOException {
+    File journal = new File(dir, "journal");
+    File entry = new File(dir, "entry.0");
+    File oldShard = new File(dir, "shard_0_of_2");
+    assertThat(journal.createNewFile()).isTrue();
+    assertThat(entry.createNewFile()).isTrue();
+    assertThat(oldShard.mkdirs()).isTrue();
+
+    cache.get(new ObjectKey("key"));
+
+    assertThat(journal.exists()).isFalse();
+    assertThat(entry.exists()).isFalse();
+    assertThat(oldShard.exists()).isFalse();
+    assertThat(cache.getShardDirectory(0).isDirectory()).isTrue();
+  }
+
+  @Test
+  public void rebalance_withSpaceAvailable_letsEveryShardKeepItsEntries() throws IOException {
+    for (int i = 0; i < 20; i++) {
+      cache.put(new ObjectKey("key" + i), writer);
+    }
+
+    cache.rebalance();
+
+    assertThat(cache.getMaxSize()).isAtMost(MAX_SIZE);
+    assertThat(cache.getMaxSize()).isAtLeast(MAX_SIZE - SHARD_COUNT);
+    for (int i = 0; i < 20; i++) {
+      assertThat(cache.get(new ObjectKey("key" + i))).isNotNull();
+    }
+  }
+
+  @Test
+  public void rebalance_afterExceedingMaxSize_sharesMaxSizeBetweenShards() throws IOException {
+    for (int i = 0; i < 5 * ShardedDiskLruCacheWrapper.REBALANCE_INTERVAL; i++) {
+      cache.put(new ObjectKey("key" + i), writer);
+    }
+
+    cache.rebalance();
+
+    assertThat(cache.getMaxSize()).isAtMost(MAX_SIZE + SHARD_COUNT);
+  }
+}
@@ -0,0 +1,287 @@
+package com.bumptech.glide.load.engine.cache;
+
+import static com.bumptech.glide.RobolectricConstants.ROBOLECTRIC_SDK;
+import static com.google.common.truth.Truth.assertThat;
+
+import androidx.annotation.NonNull;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.signature.ObjectKey;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = ROBOLECTRIC_SDK)
+public class WriteBehindDiskCacheTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final Key key = new ObjectKey("key");
+  private final byte[] data = new byte[] {1, 2, 3, 4};
+  private final QueueingExecutor executor = new QueueingExecutor();
+  private final AtomicInteger writtenCount = new AtomicInteger();
+  private final Runnable onWritten =
+      new Runnable() {
+        @Override
+        public void run() {
+          writtenCount.incrementAndGet();
+        }
+      };
+  private FakeDiskCache delegate;
+  private WriteBehindDiskCache cache;
+
+  @Before
+  public void setUp() {
+    delegate = new FakeDiskCache(temporaryFolder.getRoot());
+    cache = new WriteBehindDiskCache(delegate, executor, /* maxPendingSize= */ 10);
+  }
+
+  @Test
+  public void putAsync_doesNotWriteUntilExecutorRuns() {
+    assertThat(cache.putAsync(key, new BytesWriter(data), data.length, onWritten)).isTrue();
+
+    assertThat(delegate.puts).isEmpty();
+    assertThat(writtenCount.get()).isEqualTo(0);
+
+    executor.runAll();
+
+    assertThat(delegate.puts).containsExactly(key);
+    assertThat(writtenCount.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void get_withPendingEntry_writesEntryBeforeReading() throws IOException {
+    cache.putAsync(key, new BytesWriter(data), data.length, onWritten);
+
+    File file = cache.get(key);
+
+    assertThat(file).isNotNull();
+    assertThat(readBytes(file)).isEqualTo(data);
+    assertThat(writtenCount.get()).isEqualTo(1);
+
+    executor.runAll();
+
+    assertThat(delegate.puts).containsExactly(key);
+  }
+
+  @Test
+  public void putAsync_withKeyAlreadyPending_doesNotWriteTwice() {
+    cache.putAsync(key, new BytesWriter(data), data.length, onWritten);
+
+    assertThat(cache.putAsync(key, new BytesWriter(data), data.length, onWritten)).isTrue();
+    assertThat(writtenCount.get()).isEqualTo(1);
+
+    executor.runAll();
+
+    assertThat(delegate.puts).containsExactly(key);
+    assertThat(writtenCount.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void putAsync_withQueueFull_rejectsEntryUntilQueueDrains() {
+    Key otherKey = new ObjectKey("other");
+    cache.putAsync(key, new BytesWriter(data), /* size= */ 8, onWritten);
+
+    assertThat(cache.putAsync(otherKey, new BytesWriter(data), /* size= */ 8, onWritten))
+        .isFalse();
+
+    executor.runAll();
+
+    assertThat(cache.putAsync(otherKey, new BytesWriter(data), /* size= */ 8, onWritten)).isTrue();
+  }
+
+  @Test
+  public void getPendingBytes_returnsBytesUntilWritten() {
+    cache.putBytesAsync(key, data);
+
+    assertThat(cache.getPendingBytes(key)).isEqualTo(data);
+
+    executor.runAll();
+
+    assertThat(cache.getPendingBytes(key)).isNull();
+    assertThat(delegate.puts).containsExactly(key);
+  }
+
+  @Test
+  public void getBuffer_withPendingBytes_returnsBytesWithoutWriting() {
+    cache.putBytesAsync(key, data);
+
+    ByteBuffer buffer = cache.getBuffer(key);
+
+    byte[] result = new byte[buffer.remaining()];
+    buffer.get(result);
+    assertThat(result).isEqualTo(data);
+    assertThat(delegate.puts).isEmpty();
+  }
+
+  @Test
+  public void getBytes_withPendingWriter_writesEntryAndReturnsNullForFileCache() {
+    cache.putAsync(key, new BytesWriter(data), data.length, onWritten);
+
+    assertThat(cache.getBytes(key)).isNull();
+    assertThat(delegate.puts).containsExactly(key);
+  }
+
+  @Test
+  public void delete_withPendingEntry_discardsEntry() {
+    cache.putAsync(key, new BytesWriter(data), data.length, onWritten);
+
+    cache.delete(key);
+    executor.runAll();
+
+    assertThat(delegate.puts).isEmpty();
+    assertThat(writtenCount.get()).isEqualTo(1);
+    assertThat(cache.get(key)).isNull();
+  }
+
+  @Test
+  public void clear_withPendingEntries_discardsEntries() {
+    cache.putAsync(key, new BytesWriter(data), data.length, onWritten);
+    cache.putBytesAsync(new ObjectKey("other"), data);
+
+    cache.clear();
+    executor.runAll();
+
+    assertThat(delegate.puts).isEmpty();
+    assertThat(writtenCount.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void drain_withThrowingWriter_writesRemainingAndLaterEntries() {
+    Key otherKey = new ObjectKey("other");
+    Key laterKey = new ObjectKey("later");
+    cache.putAsync(key, new ThrowingWriter(), /* size= */ 1, onWritten);
+    cache.putAsync(otherKey, new BytesWriter(data), data.length, onWritten);
+
+    executor.runAll();
+
+    assertThat(delegate.puts).containsExactly(otherKey);
+    assertThat(writtenCount.get()).isEqualTo(2);
+
+    assertThat(cache.putAsync(laterKey, new BytesWriter(data), data.length, onWritten)).isTrue();
+    executor.runAll();
+
+    assertThat(delegate.puts).containsExactly(otherKey, laterKey).inOrder();
+  }
+
+  @Test
+  public void putAsync_withExecutorRejectingDrain_writesEntryOnCallingThread() {
+    executor.isShutdown = true;
+
+    assertThat(cache.putAsync(key, new BytesWriter(data), data.length, onWritten)).isTrue();
+
+    assertThat(delegate.puts).containsExactly(key);
+    assertThat(writtenCount.get()).isEqualTo(1);
+
+    executor.isShutdown = false;
+    Key otherKey = new ObjectKey("other");
+    cache.putAsync(otherKey, new BytesWriter(data), data.length, onWritten);
+    executor.runAll();
+
+    assertThat(delegate.puts).containsExactly(key, otherKey).inOrder();
+  }
+
+  private static byte[] readBytes(File file) throws IOException {
+    FileInputStream is = new FileInputStream(file);
+    try {
+      byte[] result = new byte[(int) file.length()];
+      int read = 0;
+      while (read < result.length) {
+        read += is.read(result, read, result.length - read);
+      }
+      return result;
+    } finally {
+      is.close();
+    }
+  }
+
+  private static final class BytesWriter implements DiskCache.Writer {
+    private final byte[] bytes;
+
+    BytesWriter(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    @Override
+    public boolean write(@NonNull File file) {
+      return WriteBehindDiskCache.writeBytes(file, bytes);
+    }
+  }
+
+  private static final class ThrowingWriter implements DiskCache.Writer {
+    @Override
+    public boolean write(@NonNull File file) {
+      throw new IllegalStateException("Failed to encode");
+    }
+  }
+
+  private static final class QueueingExecutor implements Executor {
+    private final Queue<Runnable> queue = new ArrayDeque<>();
+    boolean isShutdown;
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+      if (isShutdown) {
+        throw new RejectedExecutionException();
+      }
+      queue.add(command);
+    }
+
+    void runAll() {
+      Runnable next;
+      while ((next = queue.poll()) != null) {
+        next.run();
+      }
+    }
+  }
+
+  private static final class FakeDiskCache implements DiskCache {
+    final List<Key> puts = new ArrayList<>();
+    private final Map<Key, File> files = new HashMap<>();
+    private final File directory;
+
+    FakeDiskCache(File directory) {
+      this.directory = directory;
+    }
+
+    @Override
+    public File get(Key key) {
+      return files.get(key);
+    }
+
+    @Override
+    public void put(Key key, Writer writer) {
+      File file = new File(directory, String.valueOf(puts.size()));
+      if (writer.write(file)) {
+        puts.add(key);
+        files.put(key, file);
+      }
+    }
+
+    @Override
+    public void delete(Key key) {
+      files.remove(key);
+    }
+
+    @Override
+    public void clear() {
+      files.clear();
+    }
+  }
+}
@@ -0,0 +1,188 @@
+package com.bumptech.glide.load.engine.prefill;
+
+import static com.bumptech.glide.RobolectricConstants.ROBOLECTRIC_SDK;
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.graphics.Bitmap;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.util.Executors;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = ROBOLECTRIC_SDK)
+public class LearnedBitmapPreFillTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private BitmapPool bitmapPool;
+  private File manifest;
+  private LearnedBitmapPreFill preFill;
+
+  @Before
+  public void setUp() {
+    bitmapPool = mock(BitmapPool.class);
+    manifest = new File(temporaryFolder.getRoot(), "manifest");
+    preFill = newPreFill();
+  }
+
+  @Test
+  public void getRecordingPool_recordsRequestsAndDelegates() {
+    BitmapPool recordingPool = preFill.getRecordingPool();
+
+    recordingPool.get(100, 200, Bitmap.Config.ARGB_8888);
+    recordingPool.getDirty(100, 200, Bitmap.Config.ARGB_8888);
+
+    verify(bitmapPool).get(100, 200, Bitmap.Config.ARGB_8888);
+    verify(bitmapPool).getDirty(100, 200, Bitmap.Config.ARGB_8888);
+    assertThat(preFill.getTopShapes())
+        .containsExactly(new PreFillType(100, 200, Bitmap.Config.ARGB_8888, 2));
+  }
+
+  @Test
+  public void getTopShapes_omitsShapesRequestedOnce() {
+    preFill.record(100, 100, Bitmap.Config.ARGB_8888);
+
+    assertThat(preFill.getTopShapes()).isEmpty();
+  }
+
+  @Test
+  public void getTopShapes_ignoresInvalidShapes() {
+    record(0, 100, Bitmap.Config.ARGB_8888, 5);
+    record(100, 100, null, 5);
+
+    assertThat(preFill.getTopShapes()).isEmpty();
+  }
+
+  @Test
+  public void getTopShapes_returnsMostFrequentShapesFirst() {
+    for (int i = 1; i <= LearnedBitmapPreFill.MAX_PERSISTED_SHAPES + 2; i++) {
+      record(i, i, Bitmap.Config.ARGB_8888, /* times= */ i + 1);
+    }
+
+    List<PreFillType> result = preFill.getTopShapes();
+
+    assertThat(result).hasSize(LearnedBitmapPreFill.MAX_PERSISTED_SHAPES);
+    int expectedSize = LearnedBitmapPreFill.MAX_PERSISTED_SHAPES + 2;
+    for (PreFillType shape : result) {
+      assertThat(shape.getWidth()).isEqualTo(expectedSize);
+      expectedSize--;
+    }
+  }
+
+  @Test
+  public void record_withTooManyShapes_ignoresNewShapes() {
+    for (int i = 1; i <= LearnedBitmapPreFill.MAX_TRACKED_SHAPES; i++) {
+      preFill.record(i, i, Bitmap.Config.ARGB_8888);
+    }
+    int untracked = LearnedBitmapPreFill.MAX_TRACKED_SHAPES + 1;
+
+    record(untracked, untracked, Bitmap.Config.ARGB_8888, 10);
+
+    assertThat(preFill.getTopShapes()).isEmpty();
+  }
+
+  @Test
+  public void toBuilders_scalesWeights() {
+    PreFillType.Builder[] builders =
+        LearnedBitmapPreFill.toBuilders(
+            Arrays.asList(
+                new PreFillType(10, 10, Bitmap.Config.RGB_565, Integer.MAX_VALUE),
+                new PreFillType(20, 20, Bitmap.Config.ARGB_8888, 1)));
+
+    assertThat(builders[0].build())
+        .isEqualTo(
+            new PreFillType(10, 10, Bitmap.Config.RGB_565, LearnedBitmapPreFill.MAX_WEIGHT));
+    assertThat(builders[1].build()).isEqualTo(new PreFillType(20, 20, Bitmap.Config.ARGB_8888, 1));
+  }
+
+  @Test
+  public void start_afterPersist_preFillsPersistedShapesWhenIdle() {
+    record(100, 200, Bitmap.Config.ARGB_8888, 4);
+    record(50, 50, Bitmap.Config.RGB_565, 2);
+    preFill.persist();
+
+    RecordingCallback callback = new RecordingCallback();
+    newPreFill().start(callback);
+    assertThat(callback.preFilled).isEmpty();
+    shadowOf(Looper.getMainLooper()).idle();
+
+    assertThat(callback.preFilled)
+        .containsExactly(
+            new PreFillType(100, 200, Bitmap.Config.ARGB_8888, LearnedBitmapPreFill.MAX_WEIGHT),
+            new PreFillType(50, 50, Bitmap.Config.RGB_565, LearnedBitmapPreFill.MAX_WEIGHT / 2))
+        .inOrder();
+  }
+
+  @Test
+  public void start_halvesPersistedCounts() {
+    record(100, 200, Bitmap.Config.ARGB_8888, 4);
+    record(50, 50, Bitmap.Config.RGB_565, 2);
+    preFill.persist();
+
+    LearnedBitmapPreFill next = newPreFill();
+    next.start(new RecordingCallback());
+
+    // The second shape's count drops below the minimum, so it ages out.
+    assertThat(next.getTopShapes())
+        .containsExactly(new PreFillType(100, 200, Bitmap.Config.ARGB_8888, 2));
+  }
+
+  @Test
+  public void start_withoutManifest_doesNotPreFill() {
+    RecordingCallback callback = new RecordingCallback();
+
+    preFill.start(callback);
+    shadowOf(Looper.getMainLooper()).idle();
+
+    assertThat(callback.preFilled).isEmpty();
+  }
+
+  @Test
+  public void read_withCorruptManifest_returnsEmptyList() throws IOException {
+    FileOutputStream os = new FileOutputStream(manifest);
+    try {
+      os.write(new byte[] {0, 0, 0, 1, 0, 0, 0, 1, 0});
+    } finally {
+      os.close();
+    }
+
+    assertThat(LearnedBitmapPreFill.read(manifest)).isEmpty();
+  }
+
+  private void record(int width, int height, Bitmap.Config config, int times) {
+    for (int i = 0; i < times; i++) {
+      preFill.record(width, height, config);
+    }
+  }
+
+  private LearnedBitmapPreFill newPreFill() {
+    return new LearnedBitmapPreFill(bitmapPool, manifest, Executors.directExecutor());
+  }
+
+  private static final class RecordingCallback implements LearnedBitmapPreFill.Callback {
+    final List<PreFillType> preFilled = new ArrayList<>();
+
+    @Override
+    public void onPreFill(@NonNull PreFillType.Builder... builders) {
+      for (PreFillType.Builder builder : builders) {
+        preFilled.add(builder.build());
+      }
+    }
+  }
+}
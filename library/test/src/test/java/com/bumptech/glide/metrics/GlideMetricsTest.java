@@ -0,0 +1,94 @@
+package com.bumptech.glide.metrics;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class GlideMetricsTest {
+  private GlideMetrics metrics;
+
+  @Before
+  public void setUp() {
+    metrics = new GlideMetrics();
+  }
+
+  @Test
+  public void counter_withSameName_returnsSameCounter() {
+    assertThat(metrics.counter("name")).isSameInstanceAs(metrics.counter("name"));
+  }
+
+  @Test
+  public void counter_withConcurrentUpdates_countsAllUpdates() throws InterruptedException {
+    final Counter counter = metrics.counter("name");
+    final int threadCount = 8;
+    final int incrementsPerThread = 10000;
+    final CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < threadCount; i++) {
+      Thread thread =
+          new Thread() {
+            @Override
+            public void run() {
+              try {
+                start.await();
+              } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+              }
+              for (int j = 0; j < incrementsPerThread; j++) {
+                counter.increment();
+              }
+            }
+          };
+      thread.start();
+      threads.add(thread);
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertThat(counter.get()).isEqualTo((long) threadCount * incrementsPerThread);
+  }
+
+  @Test
+  public void snapshot_includesCountersGaugesAndHistograms() {
+    metrics.counter(GlideMetrics.MEMORY_CACHE_HITS).add(3);
+    metrics.registerGauge(
+        GlideMetrics.BITMAP_POOL_SIZE,
+        new Gauge() {
+          @Override
+          public long getValue() {
+            return 42;
+          }
+        });
+    metrics.histogram(GlideMetrics.DECODE_LATENCY).record(1000);
+
+    GlideMetrics.Snapshot snapshot = metrics.snapshot();
+
+    assertThat(snapshot.getCounters()).containsExactly(GlideMetrics.MEMORY_CACHE_HITS, 3L);
+    assertThat(snapshot.getGauges()).containsExactly(GlideMetrics.BITMAP_POOL_SIZE, 42L);
+    assertThat(snapshot.getValue(GlideMetrics.MEMORY_CACHE_HITS)).isEqualTo(3L);
+    assertThat(snapshot.getValue(GlideMetrics.BITMAP_POOL_SIZE)).isEqualTo(42L);
+    assertThat(snapshot.getValue("missing")).isNull();
+    assertThat(snapshot.getHistograms().get(GlideMetrics.DECODE_LATENCY).getCount())
+        .isEqualTo(1);
+  }
+
+  @Test
+  public void snapshot_isNotUpdatedByLaterChanges() {
+    Counter counter = metrics.counter("name");
+    counter.increment();
+
+    GlideMetrics.Snapshot snapshot = metrics.snapshot();
+    counter.increment();
+
+    assertThat(snapshot.getValue("name")).isEqualTo(1L);
+  }
+}
@@ -0,0 +1,65 @@
+package com.bumptech.glide.metrics;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class HistogramTest {
+  private final Histogram histogram = new Histogram();
+
+  @Test
+  public void record_withSubMicrosecondDuration_recordsInFirstBucket() {
+    histogram.record(500);
+
+    assertThat(histogram.snapshot().getBucketCount(0)).isEqualTo(1);
+  }
+
+  @Test
+  public void record_recordsInBucketWithMatchingPowerOfTwo() {
+    // 5 micros is at least 2^2 and less than 2^3.
+    histogram.record(TimeUnit.MICROSECONDS.toNanos(5));
+
+    Histogram.Snapshot snapshot = histogram.snapshot();
+    assertThat(snapshot.getBucketCount(3)).isEqualTo(1);
+    assertThat(snapshot.getTotalMicros()).isEqualTo(5);
+  }
+
+  @Test
+  public void record_withVeryLongDuration_recordsInLastBucket() {
+    histogram.record(TimeUnit.HOURS.toNanos(1));
+
+    assertThat(histogram.snapshot().getBucketCount(Histogram.BUCKET_COUNT - 1)).isEqualTo(1);
+  }
+
+  @Test
+  public void record_withNegativeDuration_recordsZero() {
+    histogram.record(-1);
+
+    Histogram.Snapshot snapshot = histogram.snapshot();
+    assertThat(snapshot.getBucketCount(0)).isEqualTo(1);
+    assertThat(snapshot.getTotalMicros()).isEqualTo(0);
+  }
+
+  @Test
+  public void getPercentileUpperBoundMicros_returnsUpperBoundOfBucketContainingPercentile() {
+    for (int i = 0; i < 9; i++) {
+      histogram.record(TimeUnit.MICROSECONDS.toNanos(3));
+    }
+    histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+
+    Histogram.Snapshot snapshot = histogram.snapshot();
+    assertThat(snapshot.getCount()).isEqualTo(10);
+    assertThat(snapshot.getPercentileUpperBoundMicros(50)).isEqualTo(4);
+    assertThat(snapshot.getPercentileUpperBoundMicros(90)).isEqualTo(4);
+    assertThat(snapshot.getPercentileUpperBoundMicros(99)).isEqualTo(1024);
+  }
+
+  @Test
+  public void getPercentileUpperBoundMicros_withNoValues_returnsZero() {
+    assertThat(histogram.snapshot().getPercentileUpperBoundMicros(50)).isEqualTo(0);
+  }
+}
@@ -0,0 +1,65 @@
+package com.bumptech.glide.request;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.bumptech.glide.request.RequestTimeline.Event;
+import com.bumptech.glide.request.RequestTimeline.Stage;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class RequestTimelineTest {
+  private final RequestTimeline timeline = new RequestTimeline();
+
+  @Test
+  public void record_addsEventWithStageAndStartTime() {
+    long startNanos = System.nanoTime();
+    timeline.record(Stage.DECODE, startNanos);
+
+    List<Event> events = timeline.getEvents();
+    assertThat(events).hasSize(1);
+    Event event = events.get(0);
+    assertThat(event.getStage()).isEqualTo(Stage.DECODE);
+    assertThat(event.getStartNanos()).isEqualTo(startNanos);
+    assertThat(event.getDurationNanos()).isAtLeast(0L);
+    assertThat(event.getThreadName()).isEqualTo(Thread.currentThread().getName());
+  }
+
+  @Test
+  public void getEvents_returnsEventsInTheOrderTheyFinished() {
+    long startNanos = System.nanoTime();
+    timeline.record(Stage.TRANSFORM, startNanos);
+    timeline.record(Stage.DECODE, startNanos);
+
+    List<Event> events = timeline.getEvents();
+    assertThat(events.get(0).getStage()).isEqualTo(Stage.TRANSFORM);
+    assertThat(events.get(1).getStage()).isEqualTo(Stage.DECODE);
+  }
+
+  @Test
+  public void getEvents_returnsCopy() {
+    List<Event> events = timeline.getEvents();
+    timeline.record(Stage.DECODE, System.nanoTime());
+
+    assertThat(events).isEmpty();
+  }
+
+  @Test
+  public void onRequestNotified_withoutLoadComplete_recordsNothing() {
+    timeline.onRequestNotified();
+
+    assertThat(timeline.getEvents()).isEmpty();
+  }
+
+  @Test
+  public void onRequestNotified_afterLoadComplete_recordsCallbackDispatch() {
+    timeline.onLoadComplete();
+    timeline.onRequestNotified();
+
+    List<Event> events = timeline.getEvents();
+    assertThat(events).hasSize(1);
+    assertThat(events.get(0).getStage()).isEqualTo(Stage.CALLBACK_DISPATCH);
+  }
+}
@@ -11,6 +11,7 @@ import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -264,7 +265,8 @@ public class SingleRequestTest {
             /* useAnimationPool= */ anyBoolean(),
             anyBoolean(),
             any(ResourceCallback.class),
-            anyExecutor());
+            anyExecutor(),
+            nullable(RequestTimeline.class));
   }
 
   @Test
@@ -290,7 +292,8 @@ public class SingleRequestTest {
             anyBoolean(),
             anyBoolean(),
             any(ResourceCallback.class),
-            anyExecutor()))
+            anyExecutor(),
+            nullable(RequestTimeline.class)))
         .thenReturn(loadStatus);
 
     SingleRequest<List> request = builder.build();
@@ -582,7 +585,8 @@ public class SingleRequestTest {
             /* useAnimationPool= */ anyBoolean(),
             anyBoolean(),
             any(ResourceCallback.class),
-            anyExecutor()))
+            anyExecutor(),
+            nullable(RequestTimeline.class)))
         .thenAnswer(
             new Answer<Object>() {
               @Override
@@ -852,7 +856,8 @@ public class SingleRequestTest {
             /* useAnimationPool= */ anyBoolean(),
             anyBoolean(),
             any(ResourceCallback.class),
-            anyExecutor());
+            anyExecutor(),
+            nullable(RequestTimeline.class));
   }
 
   @Test
@@ -889,7 +894,8 @@ public class SingleRequestTest {
             /* useAnimationPool= */ anyBoolean(),
             anyBoolean(),
             any(ResourceCallback.class),
-            anyExecutor()))
+            anyExecutor(),
+            nullable(RequestTimeline.class)))
         .thenAnswer(new CallResourceCallback(builder.resource));
     SingleRequest<List> request = builder.build();
 
@@ -935,7 +941,8 @@ public class SingleRequestTest {
             /* useAnimationPool= */ anyBoolean(),
             anyBoolean(),
             any(ResourceCallback.class),
-            anyExecutor());
+            anyExecutor(),
+            nullable(RequestTimeline.class));
   }
 
   @Test
@@ -967,7 +974,8 @@ public class SingleRequestTest {
             /* useAnimationPool= */ anyBoolean(),
             anyBoolean(),
             any(ResourceCallback.class),
-            anyExecutor());
+            anyExecutor(),
+            nullable(RequestTimeline.class));
   }
 
   @Test
@@ -999,7 +1007,8 @@ public class SingleRequestTest {
             /* useAnimationPool= */ anyBoolean(),
             anyBoolean(),
             any(ResourceCallback.class),
-            anyExecutor());
+            anyExecutor(),
+            nullable(RequestTimeline.class));
   }
 
   @Test
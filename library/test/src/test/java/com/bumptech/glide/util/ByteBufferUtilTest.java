@@ -2,7 +2,9 @@ package com.bumptech.glide.util;
 
 import static com.bumptech.glide.RobolectricConstants.ROBOLECTRIC_SDK;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
+import com.bumptech.glide.load.engine.bitmap_recycle.LruArrayPool;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -37,6 +39,42 @@ public class ByteBufferUtilTest {
     testFromStream(12 * BUFFER_SIZE + 12345);
   }
 
+  @Test
+  public void testFromStreamWithPool_small() throws IOException {
+    testFromStreamWithPool(4);
+  }
+
+  @Test
+  public void testFromStreamWithPool_empty() throws IOException {
+    testFromStreamWithPool(0);
+  }
+
+  @Test
+  public void testFromStreamWithPool_massive() throws IOException {
+    testFromStreamWithPool(12 * BUFFER_SIZE + 12345);
+  }
+
+  @Test
+  public void testFromStreamWithPool_reusesReturnedBuffer() throws IOException {
+    LruArrayPool arrayPool = new LruArrayPool();
+    ByteBuffer first =
+        ByteBufferUtil.fromStream(new ByteArrayInputStream(createByteData(100)), arrayPool);
+    arrayPool.put(first);
+
+    byte[] bytes = createByteData(200);
+    ByteBuffer second = ByteBufferUtil.fromStream(new ByteArrayInputStream(bytes), arrayPool);
+    assertTrue(first == second);
+    assertByteBufferContents(second, bytes);
+  }
+
+  private void testFromStreamWithPool(int dataLength) throws IOException {
+    byte[] bytes = createByteData(dataLength);
+    ByteBuffer byteBuffer =
+        ByteBufferUtil.fromStream(new ByteArrayInputStream(bytes), new LruArrayPool());
+    assertTrue(byteBuffer.isDirect());
+    assertByteBufferContents(byteBuffer, bytes);
+  }
+
   /** All tests are basically the same thing but with different amounts of data. */
   private void testFromStream(int dataLength) throws IOException {
     byte[] bytes = createByteData(dataLength);
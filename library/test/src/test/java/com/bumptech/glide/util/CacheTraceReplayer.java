@@ -0,0 +1,92 @@
+package com.bumptech.glide.util;
+
+import androidx.annotation.NonNull;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Replays a trace of memory cache requests against a {@link ConcurrentLruCache} and reports the
+ * hit rate.
+ *
+ * <p>Requests are replayed the way {@link com.bumptech.glide.load.engine.Engine} uses its memory
+ * cache. Each request removes the key from the cache. Hits are put back as if the resource had been
+ * released, misses are put as if the resource had been loaded and then released.
+ *
+ * <p>Traces can be read from text with one request per line in the form {@code <key> <size>}.
+ * Blank lines and lines starting with {@code #} are ignored.
+ */
+final class CacheTraceReplayer {
+
+  private CacheTraceReplayer() {
+    // Utility class.
+  }
+
+  static final class Request {
+    final String key;
+    final int size;
+
+    Request(String key, int size) {
+      this.key = key;
+      this.size = size;
+    }
+  }
+
+  @NonNull
+  static List<Request> read(@NonNull Reader reader) throws IOException {
+    List<Request> result = new ArrayList<>();
+    BufferedReader bufferedReader = new BufferedReader(reader);
+    String line;
+    while ((line = bufferedReader.readLine()) != null) {
+      line = line.trim();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      String[] parts = line.split("\\s+");
+      result.add(new Request(parts[0], Integer.parseInt(parts[1])));
+    }
+    return result;
+  }
+
+  /**
+   * Generates a trace that mixes requests for a small set of frequently shown items with a stream
+   * of items that are each only requested once, like avatars in a feed of one off images.
+   *
+   * @param hotSetSize The number of frequently requested items.
+   * @param hotRequestPercent The percentage of requests that are for frequently requested items.
+   */
+  @NonNull
+  static List<Request> generateFeedTrace(
+      long seed, int length, int hotSetSize, int hotRequestPercent) {
+    Random random = new Random(seed);
+    List<Request> result = new ArrayList<>(length);
+    int nextOneOff = 0;
+    for (int i = 0; i < length; i++) {
+      if (random.nextInt(100) < hotRequestPercent) {
+        result.add(new Request("hot" + random.nextInt(hotSetSize), 1));
+      } else {
+        result.add(new Request("oneOff" + nextOneOff++, 1));
+      }
+    }
+    return result;
+  }
+
+  /** Returns the fraction of requests in the given trace that hit in the given cache. */
+  static double replay(
+      @NonNull List<Request> trace, @NonNull ConcurrentLruCache<String, Integer> cache) {
+    int hits = 0;
+    for (Request request : trace) {
+      Integer cached = cache.remove(request.key);
+      if (cached != null) {
+        hits++;
+        cache.put(request.key, cached);
+      } else {
+        cache.put(request.key, request.size);
+      }
+    }
+    return trace.isEmpty() ? 0 : (double) hits / trace.size();
+  }
+}
@@ -0,0 +1,204 @@
+package com.bumptech.glide.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import androidx.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ConcurrentLruCacheTest {
+  private static final int SIZE = 10;
+  private TestConcurrentLruCache cache;
+
+  @Before
+  public void setUp() {
+    cache = new TestConcurrentLruCache(SIZE);
+  }
+
+  @Test
+  public void get_afterPut_returnsItem() {
+    cache.put("key", 1);
+    assertThat(cache.get("key")).isEqualTo(1);
+    assertThat(cache.contains("key")).isTrue();
+  }
+
+  @Test
+  public void get_withMissingKey_returnsNull() {
+    assertThat(cache.get("key")).isNull();
+    assertThat(cache.contains("key")).isFalse();
+  }
+
+  @Test
+  public void put_updatesCurrentSize() {
+    cache.put("first", 3);
+    cache.put("second", 4);
+    assertThat(cache.getCurrentSize()).isEqualTo(7);
+  }
+
+  @Test
+  public void put_withExistingKey_replacesItemAndUpdatesSize() {
+    cache.put("key", 3);
+    assertThat(cache.put("key", 4)).isEqualTo(3);
+
+    assertThat(cache.get("key")).isEqualTo(4);
+    assertThat(cache.getCurrentSize()).isEqualTo(4);
+    assertThat(cache.evicted).containsExactly(3);
+  }
+
+  @Test
+  public void put_withItemLargerThanCache_evictsItemImmediately() {
+    cache.put("key", SIZE);
+
+    assertThat(cache.contains("key")).isFalse();
+    assertThat(cache.getCurrentSize()).isEqualTo(0);
+    assertThat(cache.evicted).containsExactly(SIZE);
+  }
+
+  @Test
+  public void put_withNullItem_removesExistingItem() {
+    cache.put("key", 3);
+    assertThat(cache.put("key", null)).isEqualTo(3);
+
+    assertThat(cache.contains("key")).isFalse();
+    assertThat(cache.getCurrentSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void put_overMaxSize_evictsLeastRecentlyUsedItem() {
+    for (int i = 0; i < SIZE; i++) {
+      cache.put("key" + i, 1);
+    }
+    cache.put("new", 1);
+
+    assertThat(cache.contains("key0")).isFalse();
+    assertThat(cache.getCurrentSize()).isEqualTo(SIZE);
+    assertThat(cache.getCount()).isEqualTo(SIZE);
+  }
+
+  @Test
+  public void put_overMaxSize_afterGet_evictsItemsNotRecentlyRead() {
+    for (int i = 0; i < SIZE; i++) {
+      cache.put("key" + i, 1);
+    }
+    cache.get("key0");
+    cache.put("new", 1);
+
+    assertThat(cache.contains("key0")).isTrue();
+    assertThat(cache.contains("key1")).isFalse();
+  }
+
+  @Test
+  public void remove_returnsItemAndUpdatesSize() {
+    cache.put("key", 3);
+
+    assertThat(cache.remove("key")).isEqualTo(3);
+    assertThat(cache.remove("key")).isNull();
+    assertThat(cache.getCurrentSize()).isEqualTo(0);
+    assertThat(cache.evicted).isEmpty();
+  }
+
+  @Test
+  public void setSizeMultiplier_withSmallerSize_evictsItems() {
+    for (int i = 0; i < SIZE; i++) {
+      cache.put("key" + i, 1);
+    }
+    cache.setSizeMultiplier(0.5f);
+
+    assertThat(cache.getMaxSize()).isEqualTo(SIZE / 2);
+    assertThat(cache.getCurrentSize()).isEqualTo(SIZE / 2);
+    assertThat(cache.contains("key" + (SIZE - 1))).isTrue();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void setSizeMultiplier_withNegativeMultiplier_throws() {
+    cache.setSizeMultiplier(-1);
+  }
+
+  @Test
+  public void clearMemory_evictsAllItems() {
+    cache.put("first", 1);
+    cache.put("second", 2);
+    cache.clearMemory();
+
+    assertThat(cache.getCurrentSize()).isEqualTo(0);
+    assertThat(cache.getCount()).isEqualTo(0);
+    assertThat(cache.evicted).containsExactly(1, 2);
+  }
+
+  @Test
+  public void concurrentPutsGetsAndRemoves_keepSizeConsistent() throws Exception {
+    final int threadCount = 4;
+    final int keyCount = 64;
+    final TestConcurrentLruCache cache = new TestConcurrentLruCache(keyCount);
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      List<Callable<Void>> tasks = new ArrayList<>();
+      for (int i = 0; i < threadCount; i++) {
+        final int seed = i;
+        tasks.add(
+            new Callable<Void>() {
+              @Override
+              public Void call() {
+                for (int j = 0; j < 10_000; j++) {
+                  String key = "key" + ((seed * 31 + j) % keyCount);
+                  switch (j % 3) {
+                    case 0:
+                      cache.put(key, 1 + j % 4);
+                      break;
+                    case 1:
+                      cache.get(key);
+                      break;
+                    default:
+                      cache.remove(key);
+                      break;
+                  }
+                }
+                return null;
+              }
+            });
+      }
+      for (Future<Void> future : executor.invokeAll(tasks)) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    long expectedSize = 0;
+    for (int i = 0; i < keyCount; i++) {
+      Integer value = cache.get("key" + i);
+      if (value != null) {
+        expectedSize += value;
+      }
+    }
+    assertThat(cache.getCurrentSize()).isEqualTo(expectedSize);
+    assertThat(cache.getCurrentSize()).isAtMost(cache.getMaxSize());
+  }
+
+  private static final class TestConcurrentLruCache extends ConcurrentLruCache<String, Integer> {
+    final List<Integer> evicted = new ArrayList<>();
+
+    TestConcurrentLruCache(long size) {
+      super(size);
+    }
+
+    @Override
+    protected int getSize(@NonNull Integer item) {
+      return item;
+    }
+
+    @Override
+    protected void onItemEvicted(@NonNull String key, @NonNull Integer item) {
+      evicted.add(item);
+    }
+  }
+}
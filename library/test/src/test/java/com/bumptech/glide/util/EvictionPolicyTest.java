@@ -0,0 +1,84 @@
+package com.bumptech.glide.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import androidx.annotation.NonNull;
+import com.bumptech.glide.util.CacheTraceReplayer.Request;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class EvictionPolicyTest {
+  private static final int CACHE_SIZE = 100;
+  private static final long SEED = 1234L;
+
+  @Test
+  public void windowTinyLfu_withFeedTrace_hasHigherHitRateThanLru() {
+    List<Request> trace =
+        CacheTraceReplayer.generateFeedTrace(
+            SEED, /* length= */ 50_000, /* hotSetSize= */ 50, /* hotRequestPercent= */ 20);
+
+    double lruHitRate = CacheTraceReplayer.replay(trace, newCache(EvictionPolicy.LRU));
+    double tinyLfuHitRate =
+        CacheTraceReplayer.replay(trace, newCache(EvictionPolicy.WINDOW_TINY_LFU));
+
+    assertThat(tinyLfuHitRate).isGreaterThan(lruHitRate);
+  }
+
+  @Test
+  public void windowTinyLfu_withTraceThatFitsInCache_hitsLikeLru() throws IOException {
+    List<Request> trace =
+        CacheTraceReplayer.read(
+            new StringReader("# key size\n" + "a 1\n" + "b 1\n" + "a 1\n" + "\n" + "b 1\n"));
+
+    assertThat(CacheTraceReplayer.replay(trace, newCache(EvictionPolicy.WINDOW_TINY_LFU)))
+        .isEqualTo(CacheTraceReplayer.replay(trace, newCache(EvictionPolicy.LRU)));
+    assertThat(CacheTraceReplayer.replay(trace, newCache(EvictionPolicy.WINDOW_TINY_LFU)))
+        .isEqualTo(0.5);
+  }
+
+  @Test
+  public void windowTinyLfu_withOneOffItems_keepsFrequentlyRequestedItem() {
+    ConcurrentLruCache<String, Integer> cache = newCache(EvictionPolicy.WINDOW_TINY_LFU);
+    cache.put("frequent", 1);
+    for (int i = 0; i < 5; i++) {
+      cache.put("frequent", cache.remove("frequent"));
+    }
+    for (int i = 0; i < CACHE_SIZE * 10; i++) {
+      cache.remove("oneOff" + i);
+      cache.put("oneOff" + i, 1);
+    }
+
+    assertThat(cache.contains("frequent")).isTrue();
+    assertThat(cache.getCurrentSize()).isAtMost(CACHE_SIZE);
+  }
+
+  @Test
+  public void lru_withOneOffItems_evictsFrequentlyRequestedItem() {
+    ConcurrentLruCache<String, Integer> cache = newCache(EvictionPolicy.LRU);
+    cache.put("frequent", 1);
+    for (int i = 0; i < 5; i++) {
+      cache.put("frequent", cache.remove("frequent"));
+    }
+    for (int i = 0; i < CACHE_SIZE * 10; i++) {
+      cache.remove("oneOff" + i);
+      cache.put("oneOff" + i, 1);
+    }
+
+    assertThat(cache.contains("frequent")).isFalse();
+  }
+
+  @NonNull
+  private static ConcurrentLruCache<String, Integer> newCache(EvictionPolicy policy) {
+    return new ConcurrentLruCache<String, Integer>(CACHE_SIZE, policy) {
+      @Override
+      protected int getSize(@NonNull Integer item) {
+        return item;
+      }
+    };
+  }
+}
@@ -0,0 +1,75 @@
+package com.bumptech.glide.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class FrequencySketchTest {
+  private static final int TABLE_LENGTH = 64;
+
+  private final FrequencySketch sketch = new FrequencySketch(TABLE_LENGTH);
+
+  @Test
+  public void frequency_withUnseenKey_returnsZero() {
+    assertThat(sketch.frequency("key")).isEqualTo(0);
+  }
+
+  @Test
+  public void frequency_afterIncrements_returnsNumberOfIncrements() {
+    sketch.increment("key");
+    sketch.increment("key");
+    sketch.increment("key");
+
+    assertThat(sketch.frequency("key")).isEqualTo(3);
+    assertThat(sketch.frequency("other")).isEqualTo(0);
+  }
+
+  @Test
+  public void frequency_afterManyIncrements_saturates() {
+    for (int i = 0; i < 100; i++) {
+      sketch.increment("key");
+    }
+
+    assertThat(sketch.frequency("key")).isEqualTo(15);
+    assertThat(sketch.frequency("other")).isEqualTo(0);
+  }
+
+  @Test
+  public void concurrentIncrements_saturateWithoutOverflowingIntoOtherCounters()
+      throws Exception {
+    final int threadCount = 4;
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      List<Callable<Void>> tasks = new ArrayList<>();
+      for (int i = 0; i < threadCount; i++) {
+        tasks.add(
+            new Callable<Void>() {
+              @Override
+              public Void call() {
+                for (int j = 0; j < 10_000; j++) {
+                  sketch.increment("key");
+                }
+                return null;
+              }
+            });
+      }
+      for (Future<Void> future : executor.invokeAll(tasks)) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertThat(sketch.frequency("key")).isEqualTo(15);
+    assertThat(sketch.frequency("other")).isEqualTo(0);
+  }
+}
@@ -0,0 +1,33 @@
+package com.bumptech.glide.util;
+
+import static com.bumptech.glide.RobolectricConstants.ROBOLECTRIC_SDK;
+import static com.google.common.truth.Truth.assertThat;
+
+import android.os.SystemClock;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = ROBOLECTRIC_SDK)
+public class LogTimeTest {
+
+  @Test
+  public void getElapsedNanos_returnsExactElapsedNanos() {
+    long startTime = LogTime.getLogTime();
+
+    SystemClock.sleep(5);
+
+    assertThat(LogTime.getElapsedNanos(startTime)).isEqualTo(5000000L);
+  }
+
+  @Test
+  public void getElapsedMillis_returnsElapsedMillis() {
+    long startTime = LogTime.getLogTime();
+
+    SystemClock.sleep(5);
+
+    assertThat(LogTime.getElapsedMillis(startTime)).isWithin(1e-9).of(5d);
+  }
+}
@@ -0,0 +1,76 @@
+package com.bumptech.glide.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import androidx.annotation.NonNull;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class VersionedFileTest {
+  private static final int VERSION = 3;
+  private static final VersionedFile.Reader<Integer> READER =
+      new VersionedFile.Reader<Integer>() {
+        @Override
+        public Integer read(@NonNull DataInputStream is) throws IOException {
+          return is.readInt();
+        }
+      };
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void read_afterWrite_returnsWrittenContents() {
+    File file = new File(temporaryFolder.getRoot(), "file");
+
+    VersionedFile.write(file, VERSION, new IntWriter(42));
+
+    assertThat(VersionedFile.read(file, VERSION, READER)).isEqualTo(42);
+    assertThat(new File(file.getPath() + ".tmp").exists()).isFalse();
+  }
+
+  @Test
+  public void write_replacesExistingFile() {
+    File file = new File(temporaryFolder.getRoot(), "file");
+    VersionedFile.write(file, VERSION, new IntWriter(1));
+
+    VersionedFile.write(file, VERSION, new IntWriter(2));
+
+    assertThat(VersionedFile.read(file, VERSION, READER)).isEqualTo(2);
+  }
+
+  @Test
+  public void read_withDifferentVersion_returnsNull() {
+    File file = new File(temporaryFolder.getRoot(), "file");
+    VersionedFile.write(file, VERSION + 1, new IntWriter(42));
+
+    assertThat(VersionedFile.read(file, VERSION, READER)).isNull();
+  }
+
+  @Test
+  public void read_withMissingFile_returnsNull() {
+    File file = new File(temporaryFolder.getRoot(), "missing");
+
+    assertThat(VersionedFile.read(file, VERSION, READER)).isNull();
+  }
+
+  private static final class IntWriter implements VersionedFile.Writer {
+    private final int value;
+
+    IntWriter(int value) {
+      this.value = value;
+    }
+
+    @Override
+    public void write(@NonNull DataOutputStream os) throws IOException {
+      os.writeInt(value);
+    }
+  }
+}
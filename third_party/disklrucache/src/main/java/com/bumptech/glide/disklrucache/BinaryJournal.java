@@ -0,0 +1,648 @@
+package com.bumptech.glide.disklrucache;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only binary journal for {@link DiskLruCache} that's written through memory-mapped
+ * segment files.
+ *
+ * <p>The journal is a contiguous range of segment files named "journal.bin.N", plus a small head
+ * file named "journal.bin" that records the first segment and any compaction in progress. Each
+ * segment starts with a header of the magic number, the format version, the application's version
+ * and the value count, each as a big-endian int, followed by records:
+ *
+ * <pre>
+ *     int length | int crc32 of body | body: byte op, short key length, key, [lengths]
+ * </pre>
+ *
+ * <p>CLEAN records are followed by the length of each value as an unsigned variable length
+ * integer. The length of a record is written last, so a record that was only partially written
+ * when the process died reads as a zero length, which marks the end of a segment. Records with a
+ * bad checksum at the end of the last segment are dropped. Any other bad record means the journal
+ * is corrupt.
+ *
+ * <p>Appending a record only writes to the mapped memory, so there's nothing to flush. Once the
+ * record is in memory the kernel writes it out even if the process dies.
+ *
+ * <p>The active segment grows up to {@link #MAX_SEGMENT_BYTES}, then it's sealed and a new segment
+ * is started. Compaction is incremental. It only rewrites the shortest prefix of sealed segments
+ * that's at least half redundant, replacing them with one CLEAN record per live entry, in LRU
+ * order. Because every record in the prefix is older than every record after it, the LRU order
+ * and the removal of dropped entries are both preserved on replay.
+ *
+ * <p>This class isn't thread safe. {@link DiskLruCache} only calls it while holding its lock.
+ */
+final class BinaryJournal implements Closeable {
+  static final String HEAD_FILE = "journal.bin";
+  static final String HEAD_FILE_TEMP = "journal.bin.tmp";
+  static final String SEGMENT_PREFIX = "journal.bin.";
+  static final String COMPACT_FILE = "journal.bin.compact";
+  static final int MAGIC = 0x474c444a;
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 16;
+  static final int INITIAL_SEGMENT_BYTES = 32 * 1024;
+  static final int MAX_SEGMENT_BYTES = 1024 * 1024;
+  // Matches the threshold DiskLruCache uses to rebuild the text journal.
+  static final int REDUNDANT_RECORD_COMPACT_THRESHOLD = 2000;
+
+  static final byte CLEAN = 1;
+  static final byte DIRTY = 2;
+  static final byte REMOVE = 3;
+  static final byte READ = 4;
+
+  private static final int NO_COMPACTION = -1;
+  // int length + int crc32.
+  private static final int RECORD_OVERHEAD_BYTES = 8;
+
+  /** Receives the records of the journal, in order, while it's opened. */
+  interface Replay {
+    void onClean(String key, long[] lengths, int segment) throws IOException;
+
+    void onDirty(String key, int segment);
+
+    void onRemove(String key);
+
+    void onRead(String key);
+  }
+
+  private final File directory;
+  private final int appVersion;
+  private final int valueCount;
+  // Every segment, including the active one, ordered by id.
+  private final TreeMap<Integer, Segment> segments = new TreeMap<Integer, Segment>();
+  private final CRC32 crc = new CRC32();
+  private byte[] scratch = new byte[256];
+
+  private long totalRecords;
+  private long totalLive;
+  private Segment active;
+  private RandomAccessFile activeFile;
+  private MappedByteBuffer activeBuffer;
+  private int activePosition;
+
+  private BinaryJournal(File directory, int appVersion, int valueCount) {
+    this.directory = directory;
+    this.appVersion = appVersion;
+    this.valueCount = valueCount;
+  }
+
+  /** Returns true if a binary journal exists in the given directory. */
+  static boolean exists(File directory) {
+    return new File(directory, HEAD_FILE).exists();
+  }
+
+  /**
+   * Opens the existing journal in the given directory, passing each of its records to the given
+   * {@link Replay}, and prepares it for appending.
+   */
+  static BinaryJournal open(File directory, int appVersion, int valueCount, Replay replay)
+      throws IOException {
+    BinaryJournal journal = new BinaryJournal(directory, appVersion, valueCount);
+    int first = journal.recoverHead();
+    int id = first;
+    File file = journal.getSegmentFile(id);
+    while (file.exists()) {
+      File next = journal.getSegmentFile(id + 1);
+      boolean isLast = !next.exists();
+      journal.readSegment(id, file, isLast, replay);
+      id++;
+      file = next;
+    }
+    if (journal.active == null) {
+      journal.startSegment(id);
+    }
+    return journal;
+  }
+
+  /**
+   * Starts writing a new journal in the given directory that replaces any existing binary journal
+   * once {@link #finishCreate(Compaction)} is called on the result.
+   */
+  static Compaction create(File directory, int appVersion, int valueCount) throws IOException {
+    // Segments left behind by a journal whose head was deleted would otherwise be read as part
+    // of the new journal. Creating a journal is rare, so listing the directory is affordable.
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        if (file.getName().startsWith(SEGMENT_PREFIX)) {
+          deleteIfExists(file);
+        }
+      }
+    }
+    deleteIfExists(new File(directory, HEAD_FILE));
+    BinaryJournal journal = new BinaryJournal(directory, appVersion, valueCount);
+    return journal.new Compaction(/* first= */ 0, /* last= */ 0);
+  }
+
+  /** Deletes the binary journal in the given directory, if any. */
+  static void delete(File directory) throws IOException {
+    File head = new File(directory, HEAD_FILE);
+    if (!head.exists()) {
+      return;
+    }
+    int first = readHead(head)[0];
+    deleteIfExists(head);
+    deleteIfExists(new File(directory, HEAD_FILE_TEMP));
+    deleteIfExists(new File(directory, COMPACT_FILE));
+    for (int id = Math.max(first, 0); ; id++) {
+      File segment = new File(directory, SEGMENT_PREFIX + id);
+      if (!segment.exists()) {
+        break;
+      }
+      deleteIfExists(segment);
+    }
+  }
+
+  /** Records that the entry whose CLEAN or DIRTY record is in the given segment is still live. */
+  void markLive(int segment) {
+    Segment target = segments.get(segment);
+    if (target != null) {
+      target.live++;
+      totalLive++;
+    }
+  }
+
+  /**
+   * Records that a CLEAN or DIRTY record in the given segment has been superseded by a later
+   * record.
+   */
+  void release(int segment) {
+    Segment target = segments.get(segment);
+    if (target != null && target.live > 0) {
+      target.live--;
+      totalLive--;
+    }
+  }
+
+  /** Appends a CLEAN record and returns the id of the segment it was written to. */
+  int appendClean(String key, long[] lengths) throws IOException {
+    append(CLEAN, key, lengths);
+    active.live++;
+    totalLive++;
+    return active.id;
+  }
+
+  /** Appends a DIRTY record and returns the id of the segment it was written to. */
+  int appendDirty(String key) throws IOException {
+    append(DIRTY, key, null);
+    active.live++;
+    totalLive++;
+    return active.id;
+  }
+
+  void appendRemove(String key) throws IOException {
+    append(REMOVE, key, null);
+  }
+
+  void appendRead(String key) throws IOException {
+    append(READ, key, null);
+  }
+
+  /**
+   * Returns true if at least {@link #REDUNDANT_RECORD_COMPACT_THRESHOLD} records are redundant and
+   * compacting would at least halve the journal.
+   */
+  boolean isCompactionRequired() {
+    long redundant = totalRecords - totalLive;
+    return redundant >= REDUNDANT_RECORD_COMPACT_THRESHOLD && redundant >= totalLive;
+  }
+
+  /**
+   * Seals the active segment and starts a compaction of the shortest prefix of segments that's at
+   * least half redundant.
+   *
+   * <p>The caller must write a CLEAN record for every readable entry whose latest CLEAN record is
+   * in or before {@link Compaction#getLastSegment()}, in LRU order, followed by a DIRTY record for
+   * every entry whose in progress edit started in or before that segment, and then call {@link
+   * #finishCompaction(Compaction)}.
+   */
+  Compaction startCompaction() throws IOException {
+    sealActiveSegment();
+    startSegment(active.id + 1);
+
+    int first = segments.firstKey();
+    int last = first;
+    long records = 0;
+    long live = 0;
+    for (Segment segment : segments.values()) {
+      if (segment == active) {
+        break;
+      }
+      last = segment.id;
+      records += segment.records;
+      live += segment.live;
+      if (records - live >= live && records - live >= REDUNDANT_RECORD_COMPACT_THRESHOLD / 2) {
+        break;
+      }
+    }
+    return new Compaction(first, last);
+  }
+
+  /**
+   * Atomically replaces the segments covered by the given {@link Compaction} with the records
+   * written to it.
+   */
+  void finishCompaction(Compaction compaction) throws IOException {
+    compaction.close();
+    writeHead(compaction.first, compaction.last);
+    replaceWithCompactFile(compaction.first, compaction.last);
+    writeHead(compaction.last, NO_COMPACTION);
+
+    Iterator<Map.Entry<Integer, Segment>> iterator = segments.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Segment segment = iterator.next().getValue();
+      if (segment.id > compaction.last) {
+        break;
+      }
+      totalRecords -= segment.records;
+      totalLive -= segment.live;
+      iterator.remove();
+    }
+    Segment compacted = new Segment(compaction.last);
+    compacted.records = compaction.records;
+    compacted.live = compaction.records;
+    totalRecords += compaction.records;
+    totalLive += compaction.records;
+    segments.put(compacted.id, compacted);
+  }
+
+  /**
+   * Finishes a journal started with {@link #create(File, int, int)} and opens it for appending.
+   */
+  static BinaryJournal finishCreate(Compaction compaction) throws IOException {
+    BinaryJournal journal = compaction.getJournal();
+    compaction.close();
+    journal.writeHead(compaction.first, compaction.last);
+    journal.replaceWithCompactFile(compaction.first, compaction.last);
+    journal.writeHead(compaction.last, NO_COMPACTION);
+    Segment compacted = new Segment(compaction.last);
+    compacted.records = compaction.records;
+    compacted.live = compaction.records;
+    journal.totalRecords = compaction.records;
+    journal.totalLive = compaction.records;
+    journal.segments.put(compacted.id, compacted);
+    journal.startSegment(compacted.id + 1);
+    return journal;
+  }
+
+  /** Seals the active segment, releasing its file. */
+  @Override
+  public void close() throws IOException {
+    if (active != null) {
+      sealActiveSegment();
+      active = null;
+    }
+  }
+
+  private void append(byte op, String key, long[] lengths) throws IOException {
+    int bodyLength = encodeBody(op, key, lengths);
+    int recordLength = RECORD_OVERHEAD_BYTES + bodyLength;
+    if (activePosition + recordLength > activeBuffer.capacity()) {
+      if (activePosition + recordLength > MAX_SEGMENT_BYTES && activePosition > HEADER_BYTES) {
+        sealActiveSegment();
+        startSegment(active.id + 1);
+      }
+      if (activePosition + recordLength > activeBuffer.capacity()) {
+        mapActiveSegment(Math.max(activeBuffer.capacity() * 2, activePosition + recordLength));
+      }
+    }
+    crc.reset();
+    crc.update(scratch, 0, bodyLength);
+    activeBuffer.position(activePosition + 4);
+    activeBuffer.putInt((int) crc.getValue());
+    activeBuffer.put(scratch, 0, bodyLength);
+    // Written last so that a partially written record reads as the end of the segment.
+    activeBuffer.putInt(activePosition, bodyLength);
+    activePosition += recordLength;
+    active.records++;
+    totalRecords++;
+  }
+
+  /** Encodes the body of a record into {@link #scratch} and returns its length. */
+  private int encodeBody(byte op, String key, long[] lengths) {
+    byte[] keyBytes = key.getBytes(Util.UTF_8);
+    int maxLength = 3 + keyBytes.length + (lengths != null ? lengths.length * 10 : 0);
+    if (scratch.length < maxLength) {
+      scratch = new byte[Math.max(maxLength, scratch.length * 2)];
+    }
+    int position = 0;
+    scratch[position++] = op;
+    scratch[position++] = (byte) (keyBytes.length >>> 8);
+    scratch[position++] = (byte) keyBytes.length;
+    System.arraycopy(keyBytes, 0, scratch, position, keyBytes.length);
+    position += keyBytes.length;
+    if (lengths != null) {
+      for (long length : lengths) {
+        long remaining = length;
+        while ((remaining & ~0x7FL) != 0) {
+          scratch[position++] = (byte) ((remaining & 0x7F) | 0x80);
+          remaining >>>= 7;
+        }
+        scratch[position++] = (byte) remaining;
+      }
+    }
+    return position;
+  }
+
+  private void readSegment(int id, File file, boolean isLast, Replay replay) throws IOException {
+    RandomAccessFile randomAccessFile = new RandomAccessFile(file, isLast ? "rw" : "r");
+    try {
+      long fileLength = randomAccessFile.length();
+      if (fileLength > Integer.MAX_VALUE) {
+        throw new IOException("journal segment too large: " + file);
+      }
+      ByteBuffer buffer =
+          randomAccessFile
+              .getChannel()
+              .map(FileChannel.MapMode.READ_ONLY, 0, fileLength);
+      checkHeader(buffer, file);
+
+      Segment segment = new Segment(id);
+      segments.put(id, segment);
+      int position = HEADER_BYTES;
+      while (position + RECORD_OVERHEAD_BYTES <= fileLength) {
+        int bodyLength = buffer.getInt(position);
+        if (bodyLength == 0) {
+          break;
+        }
+        if (bodyLength < 3 || position + RECORD_OVERHEAD_BYTES + bodyLength > fileLength) {
+          if (isLast) {
+            break;
+          }
+          throw new IOException("unexpected journal record in " + file + " at " + position);
+        }
+        int expectedCrc = buffer.getInt(position + 4);
+        if (scratch.length < bodyLength) {
+          scratch = new byte[bodyLength];
+        }
+        buffer.position(position + RECORD_OVERHEAD_BYTES);
+        buffer.get(scratch, 0, bodyLength);
+        crc.reset();
+        crc.update(scratch, 0, bodyLength);
+        if ((int) crc.getValue() != expectedCrc) {
+          if (isLast) {
+            break;
+          }
+          throw new IOException("journal record checksum mismatch in " + file + " at " + position);
+        }
+        replayBody(bodyLength, id, replay);
+        position += RECORD_OVERHEAD_BYTES + bodyLength;
+        segment.records++;
+        totalRecords++;
+      }
+
+      if (isLast && fileLength < MAX_SEGMENT_BYTES) {
+        active = segment;
+        activeFile = randomAccessFile;
+        activePosition = position;
+        // Drop anything after the last valid record so new records aren't followed by garbage.
+        activeFile.setLength(position);
+        mapActiveSegment(Math.max(INITIAL_SEGMENT_BYTES, position));
+        randomAccessFile = null;
+      }
+    } finally {
+      Util.closeQuietly(randomAccessFile);
+    }
+  }
+
+  private void replayBody(int bodyLength, int segment, Replay replay) throws IOException {
+    byte op = scratch[0];
+    int keyLength = ((scratch[1] & 0xFF) << 8) | (scratch[2] & 0xFF);
+    if (3 + keyLength > bodyLength) {
+      throw new IOException("unexpected journal key length: " + keyLength);
+    }
+    String key = new String(scratch, 3, keyLength, Util.UTF_8);
+    int position = 3 + keyLength;
+    switch (op) {
+      case CLEAN:
+        long[] lengths = new long[valueCount];
+        for (int i = 0; i < valueCount; i++) {
+          long value = 0;
+          int shift = 0;
+          byte b;
+          do {
+            if (position >= bodyLength || shift > 63) {
+              throw new IOException("unexpected journal lengths for: " + key);
+            }
+            b = scratch[position++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+          } while ((b & 0x80) != 0);
+          lengths[i] = value;
+        }
+        replay.onClean(key, lengths, segment);
+        break;
+      case DIRTY:
+        replay.onDirty(key, segment);
+        break;
+      case REMOVE:
+        replay.onRemove(key);
+        break;
+      case READ:
+        replay.onRead(key);
+        break;
+      default:
+        throw new IOException("unexpected journal op: " + op + " for: " + key);
+    }
+  }
+
+  private void checkHeader(ByteBuffer buffer, File file) throws IOException {
+    if (buffer.capacity() < HEADER_BYTES
+        || buffer.getInt(0) != MAGIC
+        || buffer.getInt(4) != VERSION
+        || buffer.getInt(8) != appVersion
+        || buffer.getInt(12) != valueCount) {
+      throw new IOException("unexpected journal header in: " + file);
+    }
+  }
+
+  private void startSegment(int id) throws IOException {
+    File file = getSegmentFile(id);
+    deleteIfExists(file);
+    active = new Segment(id);
+    segments.put(id, active);
+    activeFile = new RandomAccessFile(file, "rw");
+    activePosition = HEADER_BYTES;
+    mapActiveSegment(INITIAL_SEGMENT_BYTES);
+    activeBuffer.putInt(0, MAGIC);
+    activeBuffer.putInt(4, VERSION);
+    activeBuffer.putInt(8, appVersion);
+    activeBuffer.putInt(12, valueCount);
+  }
+
+  /** Maps the active segment, extending the file with zeros if necessary. */
+  private void mapActiveSegment(int capacity) throws IOException {
+    activeBuffer = activeFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+  }
+
+  private void sealActiveSegment() throws IOException {
+    try {
+      // The mapping stays valid until it's garbage collected, but is never accessed again.
+      activeBuffer = null;
+      activeFile.setLength(activePosition);
+    } finally {
+      Util.closeQuietly(activeFile);
+      activeFile = null;
+    }
+  }
+
+  /**
+   * Finishes any compaction interrupted by the process dying and returns the id of the first
+   * segment.
+   */
+  private int recoverHead() throws IOException {
+    int[] head = readHead(new File(directory, HEAD_FILE));
+    int first = head[0];
+    int pendingLast = head[1];
+    if (pendingLast != NO_COMPACTION) {
+      if (new File(directory, COMPACT_FILE).exists()) {
+        replaceWithCompactFile(first, pendingLast);
+      }
+      writeHead(pendingLast, NO_COMPACTION);
+      first = pendingLast;
+    } else {
+      // A compaction that didn't reach its commit point.
+      deleteIfExists(new File(directory, COMPACT_FILE));
+    }
+    return first;
+  }
+
+  /**
+   * Deletes the segments from {@code first} to {@code last}, inclusive, and renames the compact
+   * file to the last of them.
+   */
+  private void replaceWithCompactFile(int first, int last) throws IOException {
+    for (int id = first; id <= last; id++) {
+      deleteIfExists(getSegmentFile(id));
+    }
+    if (!new File(directory, COMPACT_FILE).renameTo(getSegmentFile(last))) {
+      throw new IOException("failed to rename compacted journal segment " + last);
+    }
+  }
+
+  private void writeHead(int first, int pendingLast) throws IOException {
+    File temp = new File(directory, HEAD_FILE_TEMP);
+    DataOutputStream os = new DataOutputStream(new FileOutputStream(temp));
+    try {
+      os.writeInt(MAGIC);
+      os.writeInt(VERSION);
+      os.writeInt(first);
+      os.writeInt(pendingLast);
+    } finally {
+      os.close();
+    }
+    File head = new File(directory, HEAD_FILE);
+    if (!temp.renameTo(head)) {
+      throw new IOException("failed to rename " + temp + " to " + head);
+    }
+  }
+
+  private static int[] readHead(File head) throws IOException {
+    DataInputStream is = new DataInputStream(new FileInputStream(head));
+    try {
+      if (is.readInt() != MAGIC || is.readInt() != VERSION) {
+        throw new IOException("unexpected journal head: " + head);
+      }
+      return new int[] {is.readInt(), is.readInt()};
+    } finally {
+      Util.closeQuietly(is);
+    }
+  }
+
+  private File getSegmentFile(int id) {
+    return new File(directory, SEGMENT_PREFIX + id);
+  }
+
+  private static void deleteIfExists(File file) throws IOException {
+    if (file.exists() && !file.delete()) {
+      throw new IOException("failed to delete " + file);
+    }
+  }
+
+  /** The number of records in a segment and how many of them are still needed. */
+  private static final class Segment {
+    final int id;
+    long records;
+    long live;
+
+    Segment(int id) {
+      this.id = id;
+    }
+  }
+
+  /** Writes the live records of a range of segments to a new segment. */
+  final class Compaction implements Closeable {
+    final int first;
+    final int last;
+    private final OutputStream os;
+    private long records;
+    private boolean isClosed;
+
+    Compaction(int first, int last) throws IOException {
+      this.first = first;
+      this.last = last;
+      os = new BufferedOutputStream(new FileOutputStream(new File(directory, COMPACT_FILE)));
+      byte[] header = new byte[HEADER_BYTES];
+      ByteBuffer.wrap(header).putInt(MAGIC).putInt(VERSION).putInt(appVersion).putInt(valueCount);
+      os.write(header);
+    }
+
+    /** Returns the id of the segment all compacted records end up in. */
+    int getLastSegment() {
+      return last;
+    }
+
+    void writeClean(String key, long[] lengths) throws IOException {
+      write(CLEAN, key, lengths);
+    }
+
+    void writeDirty(String key) throws IOException {
+      write(DIRTY, key, null);
+    }
+
+    BinaryJournal getJournal() {
+      return BinaryJournal.this;
+    }
+
+    private void write(byte op, String key, long[] lengths) throws IOException {
+      int bodyLength = encodeBody(op, key, lengths);
+      crc.reset();
+      crc.update(scratch, 0, bodyLength);
+      byte[] prefix = new byte[RECORD_OVERHEAD_BYTES];
+      ByteBuffer.wrap(prefix).putInt(bodyLength).putInt((int) crc.getValue());
+      os.write(prefix);
+      os.write(scratch, 0, bodyLength);
+      records++;
+    }
+
+    /** Discards the records written so far. */
+    void abort() {
+      Util.closeQuietly(this);
+      new File(directory, COMPACT_FILE).delete();
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (!isClosed) {
+        isClosed = true;
+        os.close();
+      }
+    }
+  }
+}
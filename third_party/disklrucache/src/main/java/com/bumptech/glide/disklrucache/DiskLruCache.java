@@ -36,11 +36,11 @@ import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.concurrent.Callable;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -94,6 +94,8 @@ public final class DiskLruCache implements Closeable {
   static final String MAGIC = "libcore.io.DiskLruCache";
   static final String VERSION_1 = "1";
   static final long ANY_SEQUENCE_NUMBER = -1;
+  private static final int NO_SEGMENT = -1;
+  private static final int MAX_PENDING_JOURNAL_RECORDS = 128;
   private static final String CLEAN = "CLEAN";
   private static final String DIRTY = "DIRTY";
   private static final String REMOVE = "REMOVE";
@@ -137,6 +139,11 @@ public final class DiskLruCache implements Closeable {
      * occasionally be compacted by dropping redundant lines. A temporary file named
      * "journal.tmp" will be used during compaction; that file should be deleted if
      * it exists when the cache is opened.
+     *
+     * Caches opened with useBinaryJournal set to true write the same records to
+     * a compact, memory-mapped BinaryJournal instead, which is cheaper to read
+     * when the cache is opened and to append to. An existing text journal is
+     * converted to a binary journal when the cache is opened, and vice versa.
      */
 
   private final File directory;
@@ -148,10 +155,24 @@ public final class DiskLruCache implements Closeable {
   private final int valueCount;
   private long size = 0;
   private Writer journalWriter;
+  private BinaryJournal binaryJournal;
   private final LinkedHashMap<String, Entry> lruEntries =
       new LinkedHashMap<String, Entry>(0, 0.75f, true);
   private int redundantOpCount;
 
+  /**
+   * How long records may wait in the text journal's buffer before they're
+   * flushed, or 0 to flush after every edit.
+   */
+  private long journalFlushDelayMillis;
+  /** Keys read since the journal was last flushed, least recently read first. */
+  private final LinkedHashSet<String> pendingReads = new LinkedHashSet<String>();
+  private int pendingJournalRecords;
+  private boolean isJournalFlushScheduled;
+  /** Counts DIRTY, CLEAN and REMOVE records written while flushes are delayed. */
+  private long journalRecordCount;
+  private long flushedJournalRecordCount;
+
   /**
    * To differentiate between old and current snapshots, each entry is given
    * a sequence number each time an edit is committed. A snapshot is stale if
@@ -159,20 +180,37 @@ public final class DiskLruCache implements Closeable {
    */
   private long nextSequenceNumber = 0;
 
-  /** This cache uses a single background thread to evict entries. */
-  final ThreadPoolExecutor executorService =
-      new ThreadPoolExecutor(0, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
-          new DiskLruCacheThreadFactory());
+  /**
+   * This cache uses a single background thread to evict entries and to flush
+   * the journal when flushes are delayed.
+   */
+  final ScheduledThreadPoolExecutor executorService = createExecutorService();
   private final Callable<Void> cleanupCallable = new Callable<Void>() {
     public Void call() throws Exception {
       synchronized (DiskLruCache.this) {
-        if (journalWriter == null) {
+        if (isClosed()) {
           return null; // Closed.
         }
         trimToSize();
         if (journalRebuildRequired()) {
-          rebuildJournal();
-          redundantOpCount = 0;
+          if (binaryJournal != null) {
+            compactBinaryJournal();
+          } else {
+            rebuildJournal();
+            redundantOpCount = 0;
+          }
+        }
+      }
+      return null;
+    }
+  };
+
+  private final Callable<Void> flushJournalCallable = new Callable<Void>() {
+    public Void call() throws Exception {
+      synchronized (DiskLruCache.this) {
+        isJournalFlushScheduled = false;
+        if (journalWriter != null) {
+          flushJournal();
         }
       }
       return null;
@@ -200,6 +238,27 @@ public final class DiskLruCache implements Closeable {
    */
   public static DiskLruCache open(File directory, int appVersion, int valueCount, long maxSize)
       throws IOException {
+    return open(directory, appVersion, valueCount, maxSize, /*useBinaryJournal=*/ false);
+  }
+
+  /**
+   * Opens the cache in {@code directory}, creating a cache if none exists
+   * there.
+   *
+   * <p>The binary journal is much cheaper to read when the cache is opened and
+   * to append to than the text journal, but can't be read by older versions of
+   * this class. A cache's existing journal is converted to the requested
+   * format, so this can be toggled between releases.
+   *
+   * @param directory a writable directory
+   * @param valueCount the number of values per cache entry. Must be positive.
+   * @param maxSize the maximum number of bytes this cache should use to store
+   * @param useBinaryJournal true to use a memory-mapped binary journal, false
+   *     to use the text journal.
+   * @throws IOException if reading or writing the cache directory fails
+   */
+  public static DiskLruCache open(File directory, int appVersion, int valueCount, long maxSize,
+      boolean useBinaryJournal) throws IOException {
     if (maxSize <= 0) {
       throw new IllegalArgumentException("maxSize <= 0");
     }
@@ -226,13 +285,38 @@ public final class DiskLruCache implements Closeable {
 
     // Prefer to pick up where we left off.
     DiskLruCache cache = new DiskLruCache(directory, appVersion, valueCount, maxSize);
+    // A journal in the requested format wins over one in the other format, which can only be
+    // left behind by a conversion that was interrupted after it finished writing.
+    boolean hasBinaryJournal = BinaryJournal.exists(directory);
+    boolean readBinaryJournal =
+        hasBinaryJournal && (useBinaryJournal || !cache.journalFile.exists());
     // 如果有上次的 journal 文件
-    if (cache.journalFile.exists()) {
+    if (readBinaryJournal || cache.journalFile.exists()) {
       try {
-        // 解析 journal 文件
-        cache.readJournal();
+        if (readBinaryJournal) {
+          cache.readBinaryJournal();
+        } else {
+          // 解析 journal 文件
+          cache.readJournal();
+        }
         // 移除上次 DIRTY 的更新失败的缓存文件
         cache.processJournal();
+        if (useBinaryJournal) {
+          if (readBinaryJournal) {
+            cache.countLiveBinaryJournalRecords();
+          } else {
+            cache.writeBinaryJournal();
+          }
+          cache.deleteTextJournal();
+        } else {
+          if (readBinaryJournal) {
+            cache.closeBinaryJournal();
+            cache.rebuildJournal();
+          }
+          if (hasBinaryJournal) {
+            BinaryJournal.delete(directory);
+          }
+        }
         return cache;
       } catch (IOException journalIsCorrupt) {
         System.out
@@ -249,7 +333,11 @@ public final class DiskLruCache implements Closeable {
     // 没有上次的 journal 文件，创建一个新的 DiskLruCache 对象
     directory.mkdirs();
     cache = new DiskLruCache(directory, appVersion, valueCount, maxSize);
-    cache.rebuildJournal();
+    if (useBinaryJournal) {
+      cache.writeBinaryJournal();
+    } else {
+      cache.rebuildJournal();
+    }
     return cache;
   }
 
@@ -333,6 +421,125 @@ public final class DiskLruCache implements Closeable {
     }
   }
 
+  private void readBinaryJournal() throws IOException {
+    binaryJournal =
+        BinaryJournal.open(directory, appVersion, valueCount, new BinaryJournal.Replay() {
+          @Override
+          public void onClean(String key, long[] lengths, int segment) {
+            Entry entry = getOrCreateEntry(key);
+            entry.readable = true;
+            entry.currentEditor = null;
+            System.arraycopy(lengths, 0, entry.lengths, 0, valueCount);
+            entry.journalSegment = segment;
+            entry.dirtySegment = NO_SEGMENT;
+          }
+
+          @Override
+          public void onDirty(String key, int segment) {
+            Entry entry = getOrCreateEntry(key);
+            entry.currentEditor = new Editor(entry);
+            entry.dirtySegment = segment;
+          }
+
+          @Override
+          public void onRemove(String key) {
+            lruEntries.remove(key);
+          }
+
+          @Override
+          public void onRead(String key) {
+            // Moves the entry to the end of the LRU order.
+            lruEntries.get(key);
+          }
+        });
+  }
+
+  private Entry getOrCreateEntry(String key) {
+    Entry entry = lruEntries.get(key);
+    if (entry == null) {
+      entry = new Entry(key);
+      lruEntries.put(key, entry);
+    }
+    return entry;
+  }
+
+  /**
+   * Replaces any binary journal with a new one containing only the current
+   * entries and switches to it from the text journal.
+   */
+  private void writeBinaryJournal() throws IOException {
+    if (journalWriter != null) {
+      closeWriter(journalWriter);
+      journalWriter = null;
+    }
+    BinaryJournal.Compaction compaction =
+        BinaryJournal.create(directory, appVersion, valueCount);
+    try {
+      for (Entry entry : lruEntries.values()) {
+        if (entry.readable) {
+          compaction.writeClean(entry.key, entry.lengths);
+          entry.journalSegment = compaction.getLastSegment();
+        }
+      }
+    } catch (IOException e) {
+      compaction.abort();
+      throw e;
+    }
+    binaryJournal = BinaryJournal.finishCreate(compaction);
+  }
+
+  /** Tells the binary journal which of its records are still needed after it's been read. */
+  private void countLiveBinaryJournalRecords() {
+    for (Entry entry : lruEntries.values()) {
+      binaryJournal.markLive(entry.journalSegment);
+    }
+  }
+
+  private void closeBinaryJournal() throws IOException {
+    binaryJournal.close();
+    binaryJournal = null;
+  }
+
+  private void deleteTextJournal() throws IOException {
+    deleteIfExists(journalFile);
+    deleteIfExists(journalFileBackup);
+  }
+
+  /**
+   * Replaces the oldest part of the binary journal with the records still needed
+   * from it.
+   */
+  private void compactBinaryJournal() throws IOException {
+    BinaryJournal.Compaction compaction = binaryJournal.startCompaction();
+    int last = compaction.getLastSegment();
+    try {
+      for (Entry entry : lruEntries.values()) {
+        if (entry.readable && entry.journalSegment <= last) {
+          compaction.writeClean(entry.key, entry.lengths);
+        }
+      }
+      for (Entry entry : lruEntries.values()) {
+        if (entry.currentEditor != null && entry.dirtySegment != NO_SEGMENT
+            && entry.dirtySegment <= last) {
+          compaction.writeDirty(entry.key);
+        }
+      }
+    } catch (IOException e) {
+      compaction.abort();
+      throw e;
+    }
+    binaryJournal.finishCompaction(compaction);
+
+    for (Entry entry : lruEntries.values()) {
+      if (entry.journalSegment != NO_SEGMENT && entry.journalSegment < last) {
+        entry.journalSegment = last;
+      }
+      if (entry.dirtySegment != NO_SEGMENT && entry.dirtySegment < last) {
+        entry.dirtySegment = last;
+      }
+    }
+  }
+
   /**
    * Computes the initial size and collects garbage as a part of opening the
    * cache. Dirty entries are assumed to be inconsistent and will be deleted.
@@ -397,6 +604,10 @@ public final class DiskLruCache implements Closeable {
 
     journalWriter = new BufferedWriter(
         new OutputStreamWriter(new FileOutputStream(journalFile, true), Util.US_ASCII));
+    // The new journal already reflects every pending read and has been written out.
+    pendingReads.clear();
+    pendingJournalRecords = 0;
+    flushedJournalRecordCount = journalRecordCount;
   }
 
   private static void deleteIfExists(File file) throws IOException {
@@ -430,23 +641,35 @@ public final class DiskLruCache implements Closeable {
       return null;
     }
 
-    for (File file : entry.cleanFiles) {
+    File[] cleanFiles = entry.getCleanFiles();
+    for (File file : cleanFiles) {
         // A file must have been deleted manually!
         if (!file.exists()) {
             return null;
         }
     }
 
-    redundantOpCount++;
-    journalWriter.append(READ);
-    journalWriter.append(' ');
-    journalWriter.append(key);
-    journalWriter.append('\n');
+    if (binaryJournal != null) {
+      redundantOpCount++;
+      binaryJournal.appendRead(key);
+    } else if (journalFlushDelayMillis > 0) {
+      // Repeated reads of a key are written once, when the journal is next flushed.
+      pendingReads.remove(key);
+      pendingReads.add(key);
+      if (pendingReads.size() >= MAX_PENDING_JOURNAL_RECORDS) {
+        flushJournal();
+      } else {
+        scheduleJournalFlush();
+      }
+    } else {
+      redundantOpCount++;
+      appendJournalLine(READ, key, null);
+    }
     if (journalRebuildRequired()) {
       executorService.submit(cleanupCallable);
     }
 
-    return new Value(key, entry.sequenceNumber, entry.cleanFiles, entry.lengths);
+    return new Value(key, entry.sequenceNumber, cleanFiles, entry.lengths);
   }
 
   /**
@@ -475,11 +698,18 @@ public final class DiskLruCache implements Closeable {
     entry.currentEditor = editor;
 
     // Flush the journal before creating files to prevent file leaks.
-    journalWriter.append(DIRTY);
-    journalWriter.append(' ');
-    journalWriter.append(key);
-    journalWriter.append('\n');
-    flushWriter(journalWriter);
+    if (binaryJournal != null) {
+      // Written to mapped memory, so there's nothing to flush.
+      entry.dirtySegment = binaryJournal.appendDirty(key);
+    } else if (journalFlushDelayMillis > 0) {
+      // Flushed along with any other pending records before the editor returns
+      // a file to write to, see Editor#getFile.
+      appendJournalLine(DIRTY, key, null);
+      editor.dirtyJournalRecord = onDelayedJournalRecord();
+    } else {
+      appendJournalLine(DIRTY, key, null);
+      flushWriter(journalWriter);
+    }
     return editor;
   }
 
@@ -552,25 +782,41 @@ public final class DiskLruCache implements Closeable {
 
     redundantOpCount++;
     entry.currentEditor = null;
+    if (binaryJournal != null) {
+      // The DIRTY record and any earlier CLEAN record are superseded either way.
+      binaryJournal.release(entry.dirtySegment);
+      binaryJournal.release(entry.journalSegment);
+      entry.dirtySegment = NO_SEGMENT;
+      entry.journalSegment = NO_SEGMENT;
+    }
     if (entry.readable | success) {
       entry.readable = true;
-      journalWriter.append(CLEAN);
-      journalWriter.append(' ');
-      journalWriter.append(entry.key);
-      journalWriter.append(entry.getLengths());
-      journalWriter.append('\n');
+      if (binaryJournal != null) {
+        entry.journalSegment = binaryJournal.appendClean(entry.key, entry.lengths);
+      } else {
+        appendJournalLine(CLEAN, entry.key, entry.getLengths());
+      }
 
       if (success) {
         entry.sequenceNumber = nextSequenceNumber++;
       }
     } else {
       lruEntries.remove(entry.key);
-      journalWriter.append(REMOVE);
-      journalWriter.append(' ');
-      journalWriter.append(entry.key);
-      journalWriter.append('\n');
+      if (binaryJournal != null) {
+        binaryJournal.appendRemove(entry.key);
+      } else {
+        appendJournalLine(REMOVE, entry.key, null);
+      }
+    }
+    if (journalWriter != null) {
+      if (journalFlushDelayMillis > 0) {
+        // If the process dies before this is flushed, the DIRTY record without
+        // a matching CLEAN or REMOVE makes the next open delete the entry.
+        onDelayedJournalRecord();
+      } else {
+        flushWriter(journalWriter);
+      }
     }
-    flushWriter(journalWriter);
 
     if (size > maxSize || journalRebuildRequired()) {
       executorService.submit(cleanupCallable);
@@ -582,11 +828,99 @@ public final class DiskLruCache implements Closeable {
    * and eliminate at least 2000 ops.
    */
   private boolean journalRebuildRequired() {
+    if (binaryJournal != null) {
+      return binaryJournal.isCompactionRequired();
+    }
     final int redundantOpCompactThreshold = 2000;
     return redundantOpCount >= redundantOpCompactThreshold //
         && redundantOpCount >= lruEntries.size();
   }
 
+  /**
+   * Sets how long records written to the text journal may wait before they're
+   * flushed, allowing the records of concurrent edits to be written together.
+   *
+   * <p>By default the journal is flushed after every edit. With a delay, a
+   * DIRTY record is still written out before its editor returns a file, so
+   * files are never created without the journal knowing about them, but CLEAN
+   * and REMOVE records are flushed when the delay expires or once enough
+   * records are waiting, whichever happens first.
+   * Reads are coalesced so that each key read in that window is written once.
+   * If the process dies before a CLEAN record is flushed, the entry is
+   * deleted the next time the cache is opened.
+   *
+   * <p>This has no effect on caches using the binary journal, which never
+   * needs to be flushed.
+   *
+   * @param delay the longest time to wait before flushing, or 0 to flush after
+   *     every edit.
+   */
+  public synchronized void setJournalFlushDelay(long delay, TimeUnit unit) throws IOException {
+    journalFlushDelayMillis = unit.toMillis(delay);
+    if (journalFlushDelayMillis <= 0 && journalWriter != null) {
+      flushJournal();
+    }
+  }
+
+  /** Appends a record to the text journal, replacing any pending read of the same key. */
+  private void appendJournalLine(String state, String key, String lengths) throws IOException {
+    pendingReads.remove(key);
+    journalWriter.append(state);
+    journalWriter.append(' ');
+    journalWriter.append(key);
+    if (lengths != null) {
+      journalWriter.append(lengths);
+    }
+    journalWriter.append('\n');
+  }
+
+  /**
+   * Flushes the journal if enough records are waiting, or schedules a flush
+   * otherwise, and returns the number of the record that was just written.
+   */
+  private long onDelayedJournalRecord() throws IOException {
+    long record = ++journalRecordCount;
+    if (++pendingJournalRecords >= MAX_PENDING_JOURNAL_RECORDS) {
+      flushJournal();
+    } else {
+      scheduleJournalFlush();
+    }
+    return record;
+  }
+
+  private void scheduleJournalFlush() {
+    if (!isJournalFlushScheduled) {
+      isJournalFlushScheduled = true;
+      executorService.schedule(
+          flushJournalCallable, journalFlushDelayMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /** Writes any pending reads and flushes the text journal. */
+  private void flushJournal() throws IOException {
+    writePendingReads();
+    flushWriter(journalWriter);
+    pendingJournalRecords = 0;
+    flushedJournalRecordCount = journalRecordCount;
+  }
+
+  private void writePendingReads() throws IOException {
+    if (pendingReads.isEmpty()) {
+      return;
+    }
+    for (String key : pendingReads) {
+      redundantOpCount++;
+      journalWriter.append(READ);
+      journalWriter.append(' ');
+      journalWriter.append(key);
+      journalWriter.append('\n');
+    }
+    pendingReads.clear();
+    if (journalRebuildRequired()) {
+      executorService.submit(cleanupCallable);
+    }
+  }
+
   /**
    * Drops the entry for {@code key} if it exists and can be removed. Entries
    * actively being edited cannot be removed.
@@ -610,10 +944,15 @@ public final class DiskLruCache implements Closeable {
     }
 
     redundantOpCount++;
-    journalWriter.append(REMOVE);
-    journalWriter.append(' ');
-    journalWriter.append(key);
-    journalWriter.append('\n');
+    if (binaryJournal != null) {
+      binaryJournal.release(entry.journalSegment);
+      binaryJournal.appendRemove(key);
+    } else {
+      appendJournalLine(REMOVE, key, null);
+      if (journalFlushDelayMillis > 0) {
+        onDelayedJournalRecord();
+      }
+    }
 
     lruEntries.remove(key);
 
@@ -626,11 +965,11 @@ public final class DiskLruCache implements Closeable {
 
   /** Returns true if this cache has been closed. */
   public synchronized boolean isClosed() {
-    return journalWriter == null;
+    return journalWriter == null && binaryJournal == null;
   }
 
   private void checkNotClosed() {
-    if (journalWriter == null) {
+    if (isClosed()) {
       throw new IllegalStateException("cache is closed");
     }
   }
@@ -639,12 +978,14 @@ public final class DiskLruCache implements Closeable {
   public synchronized void flush() throws IOException {
     checkNotClosed();
     trimToSize();
-    flushWriter(journalWriter);
+    if (journalWriter != null) {
+      flushJournal();
+    }
   }
 
   /** Closes this cache. Stored values will remain on the filesystem. */
   public synchronized void close() throws IOException {
-    if (journalWriter == null) {
+    if (isClosed()) {
       return; // Already closed.
     }
     for (Entry entry : new ArrayList<Entry>(lruEntries.values())) {
@@ -653,8 +994,13 @@ public final class DiskLruCache implements Closeable {
       }
     }
     trimToSize();
-    closeWriter(journalWriter);
-    journalWriter = null;
+    if (binaryJournal != null) {
+      closeBinaryJournal();
+    } else {
+      writePendingReads();
+      closeWriter(journalWriter);
+      journalWriter = null;
+    }
   }
 
   private void trimToSize() throws IOException {
@@ -770,6 +1116,8 @@ public final class DiskLruCache implements Closeable {
     private final Entry entry;
     private final boolean[] written;
     private boolean committed;
+    /** The number of this edit's DIRTY record if the journal's flushes are delayed. */
+    private long dirtyJournalRecord;
 
     private Editor(Entry entry) {
       this.entry = entry;
@@ -813,6 +1161,10 @@ public final class DiskLruCache implements Closeable {
         if (!entry.readable) {
             written[index] = true;
         }
+        if (dirtyJournalRecord > flushedJournalRecordCount && journalWriter != null) {
+          // Flush the journal before creating files to prevent file leaks.
+          flushJournal();
+        }
         File dirtyFile = entry.getDirtyFile(index);
         directory.mkdirs();
         return dirtyFile;
@@ -868,9 +1220,12 @@ public final class DiskLruCache implements Closeable {
     /** Lengths of this entry's files. */
     private final long[] lengths;
 
-    /** Memoized File objects for this entry to avoid char[] allocations. */
-    File[] cleanFiles;
-    File[] dirtyFiles;
+    /**
+     * Memoized File objects for this entry to avoid char[] allocations. Created
+     * lazily so that opening a cache doesn't create them for every entry.
+     */
+    private File[] cleanFiles;
+    private File[] dirtyFiles;
 
     /** True if this entry has ever been published. */
     private boolean readable;
@@ -881,9 +1236,21 @@ public final class DiskLruCache implements Closeable {
     /** The sequence number of the most recently committed edit to this entry. */
     private long sequenceNumber;
 
+    /** The binary journal segment holding this entry's latest CLEAN record. */
+    private int journalSegment = NO_SEGMENT;
+
+    /** The binary journal segment holding the DIRTY record of the ongoing edit. */
+    private int dirtySegment = NO_SEGMENT;
+
     private Entry(String key) {
+      if (key == null) {
+        throw new NullPointerException("key == null");
+      }
       this.key = key;
       this.lengths = new long[valueCount];
+    }
+
+    private void createFiles() {
       cleanFiles = new File[valueCount];
       dirtyFiles = new File[valueCount];
 
@@ -926,15 +1293,34 @@ public final class DiskLruCache implements Closeable {
       throw new IOException("unexpected journal line: " + java.util.Arrays.toString(strings));
     }
 
+    File[] getCleanFiles() {
+      if (cleanFiles == null) {
+        createFiles();
+      }
+      return cleanFiles;
+    }
+
     public File getCleanFile(int i) {
-      return cleanFiles[i];
+      return getCleanFiles()[i];
     }
 
     public File getDirtyFile(int i) {
+      if (dirtyFiles == null) {
+        createFiles();
+      }
       return dirtyFiles[i];
     }
   }
 
+  private static ScheduledThreadPoolExecutor createExecutorService() {
+    ScheduledThreadPoolExecutor result =
+        new ScheduledThreadPoolExecutor(1, new DiskLruCacheThreadFactory());
+    // Don't keep a thread alive while the cache is idle.
+    result.setKeepAliveTime(60L, TimeUnit.SECONDS);
+    result.allowCoreThreadTimeOut(true);
+    return result;
+  }
+
   /**
    * A {@link java.util.concurrent.ThreadFactory} that builds a thread with a specific thread name
    * and with minimum priority.
@@ -0,0 +1,310 @@
+package com.bumptech.glide.disklrucache;
+
+import static com.bumptech.glide.disklrucache.DiskLruCache.JOURNAL_FILE;
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class DiskLruCacheBinaryJournalTest {
+  private final int appVersion = 100;
+  private File cacheDir;
+  private File journalFile;
+  private DiskLruCache cache;
+
+  @Rule public TemporaryFolder tempDir = new TemporaryFolder();
+
+  @Before public void setUp() throws Exception {
+    cacheDir = tempDir.newFolder("DiskLruCacheBinaryJournalTest");
+    journalFile = new File(cacheDir, JOURNAL_FILE);
+    cache = open(Integer.MAX_VALUE);
+  }
+
+  @After public void tearDown() throws Exception {
+    cache.close();
+  }
+
+  @Test public void openCreatesBinaryJournal() throws Exception {
+    assertThat(BinaryJournal.exists(cacheDir)).isTrue();
+    assertThat(journalFile.exists()).isFalse();
+  }
+
+  @Test public void readAndWriteEntryAcrossCacheOpenAndClose() throws Exception {
+    set("k1", "A", "BC");
+    cache.close();
+
+    cache = open(Integer.MAX_VALUE);
+    assertValue("k1", "A", "BC");
+  }
+
+  @Test public void readAndWriteEntryWithoutProperClose() throws Exception {
+    set("k1", "A", "BC");
+
+    // Simulate the process dying by opening the cache directory again.
+    cache = open(Integer.MAX_VALUE);
+    assertValue("k1", "A", "BC");
+  }
+
+  @Test public void removedEntryStaysRemovedAfterReopen() throws Exception {
+    set("k1", "A", "B");
+    set("k2", "C", "D");
+    cache.remove("k1");
+    cache.close();
+
+    cache = open(Integer.MAX_VALUE);
+    assertThat(cache.get("k1")).isNull();
+    assertValue("k2", "C", "D");
+    assertThat(cache.size()).isEqualTo(2);
+  }
+
+  @Test public void uncommittedEditIsDroppedWhenReopenedWithoutProperClose() throws Exception {
+    set("k1", "A", "B");
+    DiskLruCache.Editor editor = cache.edit("k2");
+    editor.set(0, "C");
+    editor.set(1, "D");
+
+    cache = open(Integer.MAX_VALUE);
+    assertThat(cache.get("k2")).isNull();
+    assertThat(getCleanFile("k2", 0).exists()).isFalse();
+    assertThat(getDirtyFile("k2", 0).exists()).isFalse();
+    assertValue("k1", "A", "B");
+  }
+
+  @Test public void lruOrderSurvivesReopen() throws Exception {
+    set("a", "a", "a");
+    set("b", "b", "b");
+    set("c", "c", "c");
+    cache.get("a");
+    cache.close();
+
+    cache = open(6);
+    set("d", "d", "d");
+    cache.flush();
+    assertThat(cache.get("b")).isNull();
+    assertValue("a", "a", "a");
+    assertValue("c", "c", "c");
+    assertValue("d", "d", "d");
+  }
+
+  @Test public void truncatedLastRecordIsDropped() throws Exception {
+    set("k1", "A", "B");
+    set("k2", "C", "D");
+    cache.close();
+
+    File segment = getLastSegmentFile();
+    RandomAccessFile file = new RandomAccessFile(segment, "rw");
+    file.setLength(file.length() - 1);
+    file.close();
+
+    cache = open(Integer.MAX_VALUE);
+    assertValue("k1", "A", "B");
+    // The CLEAN record for k2 is gone, so its DIRTY record makes it look like a failed edit.
+    assertThat(cache.get("k2")).isNull();
+    assertThat(getCleanFile("k2", 0).exists()).isFalse();
+  }
+
+  @Test public void lastRecordWithBadChecksumIsDropped() throws Exception {
+    set("k1", "A", "B");
+    set("k2", "C", "D");
+    cache.close();
+
+    File segment = getLastSegmentFile();
+    RandomAccessFile file = new RandomAccessFile(segment, "rw");
+    file.seek(file.length() - 1);
+    int last = file.read();
+    file.seek(file.length() - 1);
+    file.write(last ^ 0xFF);
+    file.close();
+
+    cache = open(Integer.MAX_VALUE);
+    assertValue("k1", "A", "B");
+    assertThat(cache.get("k2")).isNull();
+  }
+
+  @Test public void openWithCorruptHeaderClearsCache() throws Exception {
+    set("k1", "A", "B");
+    cache.close();
+
+    RandomAccessFile file = new RandomAccessFile(getLastSegmentFile(), "rw");
+    file.writeInt(0);
+    file.close();
+
+    cache = open(Integer.MAX_VALUE);
+    assertThat(cache.get("k1")).isNull();
+    assertThat(getCleanFile("k1", 0).exists()).isFalse();
+  }
+
+  @Test public void openWithTextJournalMigratesToBinaryJournal() throws Exception {
+    cache.close();
+    cache = DiskLruCache.open(cacheDir, appVersion, 2, Integer.MAX_VALUE);
+    set("k1", "A", "B");
+    set("k2", "C", "D");
+    cache.get("k1");
+    cache.close();
+    assertThat(BinaryJournal.exists(cacheDir)).isFalse();
+
+    cache = open(Integer.MAX_VALUE);
+    assertThat(BinaryJournal.exists(cacheDir)).isTrue();
+    assertThat(journalFile.exists()).isFalse();
+    assertValue("k1", "A", "B");
+    assertValue("k2", "C", "D");
+    cache.close();
+
+    cache = open(Integer.MAX_VALUE);
+    assertValue("k1", "A", "B");
+    assertValue("k2", "C", "D");
+  }
+
+  @Test public void openWithBinaryJournalAndTextFormatConvertsToTextJournal() throws Exception {
+    set("k1", "A", "B");
+    set("k2", "C", "D");
+    cache.remove("k2");
+    cache.close();
+
+    cache = DiskLruCache.open(cacheDir, appVersion, 2, Integer.MAX_VALUE);
+    assertThat(BinaryJournal.exists(cacheDir)).isFalse();
+    assertThat(getLastSegmentFile()).isNull();
+    assertThat(readFile(journalFile)).contains("CLEAN k1 1 1\n");
+    assertValue("k1", "A", "B");
+    assertThat(cache.get("k2")).isNull();
+  }
+
+  @Test public void textJournalIsPreferredByTextCacheWhenBothExist() throws Exception {
+    cache.close();
+    // Leaves the binary journal in place, as if converting it was interrupted.
+    BinaryJournal.Compaction compaction = BinaryJournal.create(cacheDir, appVersion, 2);
+    compaction.writeClean("stale", new long[] {1, 1});
+    BinaryJournal.finishCreate(compaction).close();
+    writeFile(journalFile, DiskLruCache.MAGIC + "\n1\n100\n2\n\n");
+
+    cache = DiskLruCache.open(cacheDir, appVersion, 2, Integer.MAX_VALUE);
+    assertThat(BinaryJournal.exists(cacheDir)).isFalse();
+    assertThat(cache.get("stale")).isNull();
+    assertThat(cache.size()).isEqualTo(0);
+  }
+
+  @Test public void repeatedReadsCompactJournal() throws Exception {
+    set("a", "a", "a");
+    set("b", "b", "b");
+    cache.remove("b");
+    for (int i = 0; i < BinaryJournal.REDUNDANT_RECORD_COMPACT_THRESHOLD * 20; i++) {
+      assertValue("a", "a", "a");
+    }
+    cache.flush();
+    waitForCleanup();
+    cache.close();
+
+    long journalBytes = 0;
+    int segments = 0;
+    for (File file : cacheDir.listFiles()) {
+      if (file.getName().startsWith(BinaryJournal.SEGMENT_PREFIX)) {
+        journalBytes += file.length();
+        segments++;
+      }
+    }
+    // Each READ record is 12 bytes, so this is half of what nothing being compacted would use.
+    assertThat(journalBytes)
+        .isLessThan(12L * BinaryJournal.REDUNDANT_RECORD_COMPACT_THRESHOLD * 10);
+    assertThat(segments).isLessThan(4);
+
+    cache = open(Integer.MAX_VALUE);
+    assertValue("a", "a", "a");
+    assertThat(cache.get("b")).isNull();
+    assertThat(cache.size()).isEqualTo(2);
+  }
+
+  @Test public void repeatedEditsCompactJournal() throws Exception {
+    String value = "0123456789";
+    for (int i = 0; i < 5000; i++) {
+      set("k" + (i % 50), value, value);
+    }
+    waitForCleanup();
+    cache.close();
+
+    cache = open(Integer.MAX_VALUE);
+    for (int i = 0; i < 50; i++) {
+      assertValue("k" + i, value, value);
+    }
+    assertThat(cache.size()).isEqualTo(50 * 2 * value.length());
+  }
+
+  private DiskLruCache open(long maxSize) throws Exception {
+    return DiskLruCache.open(cacheDir, appVersion, 2, maxSize, /*useBinaryJournal=*/ true);
+  }
+
+  private void waitForCleanup() throws Exception {
+    cache.executorService.submit(new Runnable() {
+      @Override
+      public void run() {
+      }
+    }).get();
+  }
+
+  private File getLastSegmentFile() {
+    File result = null;
+    for (int i = 0; ; i++) {
+      File segment = new File(cacheDir, BinaryJournal.SEGMENT_PREFIX + i);
+      if (segment.exists()) {
+        result = segment;
+      } else if (result != null) {
+        return result;
+      } else if (i > 1000) {
+        return null;
+      }
+    }
+  }
+
+  private File getCleanFile(String key, int index) {
+    return new File(cacheDir, key + "." + index);
+  }
+
+  private File getDirtyFile(String key, int index) {
+    return new File(cacheDir, key + "." + index + ".tmp");
+  }
+
+  private static String readFile(File file) throws Exception {
+    Reader reader = new FileReader(file);
+    StringWriter writer = new StringWriter();
+    char[] buffer = new char[1024];
+    int count;
+    while ((count = reader.read(buffer)) != -1) {
+      writer.write(buffer, 0, count);
+    }
+    reader.close();
+    return writer.toString();
+  }
+
+  private static void writeFile(File file, String content) throws Exception {
+    Writer writer = new FileWriter(file);
+    writer.write(content);
+    writer.close();
+  }
+
+  private void set(String key, String value0, String value1) throws Exception {
+    DiskLruCache.Editor editor = cache.edit(key);
+    editor.set(0, value0);
+    editor.set(1, value1);
+    editor.commit();
+  }
+
+  private void assertValue(String key, String value0, String value1) throws Exception {
+    DiskLruCache.Value value = cache.get(key);
+    assertThat(value.getString(0)).isEqualTo(value0);
+    assertThat(value.getLength(0)).isEqualTo(value0.length());
+    assertThat(value.getString(1)).isEqualTo(value1);
+    assertThat(value.getLength(1)).isEqualTo(value1.length());
+  }
+}
@@ -772,6 +772,70 @@ public final class DiskLruCacheTest {
     assertThat(cache.get("a")).isNull();
   }
 
+  @Test public void delayedFlushWritesDirtyBeforeEditorReturnsFile() throws Exception {
+    cache.setJournalFlushDelay(1, TimeUnit.HOURS);
+    DiskLruCache.Editor creator = cache.edit("k1");
+    assertJournalEquals();
+    creator.getFile(0);
+    assertJournalEquals("DIRTY k1");
+  }
+
+  @Test public void delayedFlushWritesCleanOnFlush() throws Exception {
+    cache.setJournalFlushDelay(1, TimeUnit.HOURS);
+    set("k1", "AB", "C");
+    assertJournalEquals("DIRTY k1");
+    cache.flush();
+    assertJournalEquals("DIRTY k1", "CLEAN k1 2 1");
+  }
+
+  @Test public void delayedFlushWritesCleanAfterDelay() throws Exception {
+    cache.setJournalFlushDelay(10, TimeUnit.MILLISECONDS);
+    set("k1", "AB", "C");
+    long deadline = System.currentTimeMillis() + 5000;
+    while (readJournalLines().size() < 7 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertJournalEquals("DIRTY k1", "CLEAN k1 2 1");
+  }
+
+  @Test public void delayedFlushCoalescesReads() throws Exception {
+    cache.setJournalFlushDelay(1, TimeUnit.HOURS);
+    set("k1", "A", "B");
+    set("k2", "C", "D");
+    cache.get("k1");
+    cache.get("k2");
+    cache.get("k1");
+    cache.close();
+    assertJournalEquals("DIRTY k1", "CLEAN k1 1 1", "DIRTY k2", "CLEAN k2 1 1", "READ k2",
+        "READ k1");
+  }
+
+  @Test public void delayedFlushDropsReadOfRemovedEntry() throws Exception {
+    cache.setJournalFlushDelay(1, TimeUnit.HOURS);
+    set("k1", "A", "B");
+    cache.get("k1");
+    cache.remove("k1");
+    cache.close();
+    assertJournalEquals("DIRTY k1", "CLEAN k1 1 1", "REMOVE k1");
+  }
+
+  @Test public void delayedFlushDropsUnflushedEntryWhenReopenedWithoutProperClose()
+      throws Exception {
+    cache.setJournalFlushDelay(1, TimeUnit.HOURS);
+    set("k1", "A", "B");
+    cache.flush();
+    set("k2", "C", "D");
+
+    // Simulate the process dying before the CLEAN record for k2 was flushed.
+    DiskLruCache cache2 = DiskLruCache.open(cacheDir, appVersion, 2, Integer.MAX_VALUE);
+    assertThat(cache2.get("k2")).isNull();
+    FileSubject.assertThat(getCleanFile("k2", 0)).doesNotExist();
+    FileSubject.assertThat(getCleanFile("k2", 1)).doesNotExist();
+    DiskLruCache.Value value = cache2.get("k1");
+    assertThat(value.getString(0)).isEqualTo("A");
+    cache2.close();
+  }
+
   private void assertJournalEquals(String... expectedBodyLines) throws Exception {
     List<String> expectedLines = new ArrayList<String>();
     expectedLines.add(MAGIC);